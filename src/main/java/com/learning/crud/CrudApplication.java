@@ -1,7 +1,9 @@
 package com.learning.crud;
 
+import com.learning.crud.grpc.GrpcServer;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.ConfigurableApplicationContext;
 
 /**
  * THIS IS THE STARTING POINT OF THE ENTIRE APPLICATION
@@ -12,7 +14,7 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
  * @SpringBootApplication tells Spring to:
  * 1. Auto-configure everything (database, web server, etc.)
  * 2. Scan all classes in this package and sub-packages
- * 3. Set up REST, SOAP, GraphQL endpoints
+ * 3. Set up REST, SOAP, GraphQL (and gRPC) endpoints
  */
 @SpringBootApplication
 public class CrudApplication {
@@ -24,14 +26,21 @@ public class CrudApplication {
     public static void main(String[] args) {
         // SpringApplication.run() starts the Spring Boot application
         // It starts an embedded Tomcat web server on port 8080
-        SpringApplication.run(CrudApplication.class, args);
-        
+        ConfigurableApplicationContext context = SpringApplication.run(CrudApplication.class, args);
+
+        // The gRPC server is optional (app.grpc.enabled) and its port configurable (app.grpc.port)
+        GrpcServer grpcServer = context.getBeanProvider(GrpcServer.class).getIfAvailable();
+        String grpc = grpcServer == null || !grpcServer.isRunning()
+                ? "off (app.grpc.enabled=false)"
+                : "localhost:" + grpcServer.getPort() + " (service learning.crud.Students)";
+
         System.out.println("\n==============================================");
         System.out.println("🚀 Application Started Successfully!");
         System.out.println("==============================================");
         System.out.println("📍 REST API: http://localhost:8080/api/students");
         System.out.println("📍 SOAP WSDL: http://localhost:8080/ws/students.wsdl");
         System.out.println("📍 GraphQL: http://localhost:8080/graphql");
+        System.out.println("📍 gRPC: " + grpc);
         System.out.println("📍 H2 Console: http://localhost:8080/h2-console");
         System.out.println("==============================================\n");
     }
@@ -0,0 +1,196 @@
+package com.learning.crud.analytics;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * HYPERLOGLOG: Counts DISTINCT values using a tiny, fixed amount of memory
+ *
+ * Exact distinct counting needs to remember every value it has seen.
+ * HyperLogLog only remembers, for each of m "registers", the longest run
+ * of leading zero bits seen in the hashes that landed there. Long runs are
+ * rare, so they tell us roughly how many different values were hashed.
+ *
+ * With precision p = 14:
+ * - m = 2^14 = 16384 registers, 1 byte each → 16 KB, no matter how many values
+ * - Standard error = 1.04 / sqrt(m) ≈ 0.81%
+ *   (about 68% of estimates within ±0.81%, 95% within ±1.6%, 99.7% within ±2.4%)
+ *
+ * MERGEABLE: Two sketches built on different nodes can be merged by taking
+ * the maximum of each register. The result is the same as if one sketch
+ * had seen all values.
+ */
+public class HyperLogLog {
+
+    // Format version for toBytes() / fromBytes()
+    private static final byte FORMAT_VERSION = 1;
+
+    private final int precision;
+    private final byte[] registers;
+
+    public HyperLogLog(int precision) {
+        if (precision < 4 || precision > 18) {
+            throw new IllegalArgumentException("HyperLogLog precision must be between 4 and 18: " + precision);
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    /**
+     * Adds one value (for example a student name)
+     */
+    public synchronized void add(String value) {
+        long hash = hash64(value);
+
+        // First p bits choose the register, the remaining bits are the "random" part
+        int index = (int) (hash >>> (64 - precision));
+        long rest = hash << precision;
+        int rank = Math.min(Long.numberOfLeadingZeros(rest), 64 - precision) + 1;
+
+        if (rank > registers[index]) {
+            registers[index] = (byte) rank;
+        }
+    }
+
+    /**
+     * Estimated number of distinct values added so far
+     *
+     * The classic formula (alpha * m^2 / sum of 2^-register) is off by a few
+     * percent around 2.5 * m values, where it switches to "linear counting".
+     * This is Ertl's improved estimator (2017): the same idea, but it also
+     * looks at how many registers are still 0 (sigma) or at the maximum (tau),
+     * which removes that bias over the whole range without any switch.
+     */
+    public synchronized long estimate() {
+        int m = registers.length;
+        int maxRank = 64 - precision + 1;
+
+        // How many registers hold each value 0..maxRank
+        int[] histogram = new int[maxRank + 1];
+        for (byte register : registers) {
+            histogram[register]++;
+        }
+
+        double z = m * tau(1.0 - (double) histogram[maxRank] / m);
+        for (int rank = maxRank - 1; rank >= 1; rank--) {
+            z = 0.5 * (z + histogram[rank]);
+        }
+        z += m * sigma((double) histogram[0] / m);
+
+        double alpha = 1.0 / (2.0 * Math.log(2.0));
+        return Math.round(alpha * m * m / z);
+    }
+
+    /**
+     * Standard error of estimate(), as a fraction (0.0081 = 0.81%)
+     */
+    public double relativeStandardError() {
+        return 1.04 / Math.sqrt(registers.length);
+    }
+
+    /**
+     * MERGE: Adds everything another sketch has seen into this one
+     */
+    public void merge(HyperLogLog other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("Cannot merge HyperLogLog with precision "
+                    + other.precision + " into precision " + precision);
+        }
+        byte[] theirs = other.registersCopy();
+        synchronized (this) {
+            for (int i = 0; i < registers.length; i++) {
+                if (theirs[i] > registers[i]) {
+                    registers[i] = theirs[i];
+                }
+            }
+        }
+    }
+
+    /**
+     * Serializes the sketch: [version][precision][registers...]
+     */
+    public byte[] toBytes() {
+        byte[] copy = registersCopy();
+        return ByteBuffer.allocate(2 + copy.length)
+                .put(FORMAT_VERSION)
+                .put((byte) precision)
+                .put(copy)
+                .array();
+    }
+
+    /**
+     * Reads a sketch written by toBytes()
+     */
+    public static HyperLogLog fromBytes(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        byte version = buffer.get();
+        if (version != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported HyperLogLog format version: " + version);
+        }
+        HyperLogLog sketch = new HyperLogLog(buffer.get());
+        if (buffer.remaining() != sketch.registers.length) {
+            throw new IllegalArgumentException("Corrupt HyperLogLog: expected "
+                    + sketch.registers.length + " registers, found " + buffer.remaining());
+        }
+        buffer.get(sketch.registers);
+        return sketch;
+    }
+
+    // Correction for the empty registers (x = share of registers still 0)
+    private static double sigma(double x) {
+        if (x == 1.0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double y = 1.0;
+        double z = x;
+        while (true) {
+            x *= x;
+            double previous = z;
+            z += x * y;
+            y += y;
+            if (z == previous) {
+                return z;
+            }
+        }
+    }
+
+    // Correction for the registers at the maximum (x = share of registers below it)
+    private static double tau(double x) {
+        if (x == 0.0 || x == 1.0) {
+            return 0.0;
+        }
+        double y = 1.0;
+        double z = 1.0 - x;
+        while (true) {
+            x = Math.sqrt(x);
+            double previous = z;
+            y *= 0.5;
+            z -= (1.0 - x) * (1.0 - x) * y;
+            if (z == previous) {
+                return z / 3.0;
+            }
+        }
+    }
+
+    private synchronized byte[] registersCopy() {
+        return registers.clone();
+    }
+
+    /**
+     * 64-bit hash: FNV-1a over the UTF-8 bytes, then a MurmurHash3 finalizer
+     * to spread the bits evenly (HyperLogLog needs well-mixed high bits)
+     */
+    static long hash64(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,236 @@
+package com.learning.crud.analytics;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * KLL SKETCH: Approximate percentiles (median, p90, p99...) in little memory
+ *
+ * Exact percentiles need every value sorted. A KLL sketch keeps a small
+ * sample instead, organised in "levels":
+ *
+ *   level 0: newest values, each worth 1
+ *   level 1: values worth 2
+ *   level 2: values worth 4 ...
+ *
+ * When a level gets full it is sorted and every second value moves up one
+ * level (now worth twice as much); the others are dropped. Higher levels
+ * get bigger capacity, so the sketch stays around 3 * k values in total.
+ *
+ * Accuracy (k = 200): the RANK of a returned value is within about ±1.33%
+ * of the requested rank, with 99% confidence. Asking for p90 returns a value
+ * whose true rank is between roughly p88.7 and p91.3.
+ *
+ * MERGEABLE: Two sketches can be merged by concatenating their levels and
+ * compacting again, so every node can keep its own sketch.
+ */
+public class KllSketch {
+
+    // Format version for toBytes() / fromBytes()
+    private static final byte FORMAT_VERSION = 1;
+
+    // Each level below the top may hold 2/3 of the level above it
+    private static final double DECAY = 2.0 / 3.0;
+
+    // Even the smallest level holds a few values
+    private static final int MIN_LEVEL_CAPACITY = 8;
+
+    private final int k;
+    private final List<Level> levels = new ArrayList<>();
+    private long count;
+
+    public KllSketch(int k) {
+        if (k < MIN_LEVEL_CAPACITY) {
+            throw new IllegalArgumentException("KLL k must be at least " + MIN_LEVEL_CAPACITY + ": " + k);
+        }
+        this.k = k;
+        levels.add(new Level());
+    }
+
+    /**
+     * Adds one value (for example a student's age)
+     */
+    public synchronized void update(int value) {
+        levels.get(0).add(value);
+        count++;
+        compressWhileNeeded();
+    }
+
+    /**
+     * Number of values added so far (exact)
+     */
+    public synchronized long count() {
+        return count;
+    }
+
+    /**
+     * Approximate rank error of quantile(), as a fraction (0.0133 = 1.33% for k = 200, 99% confidence)
+     */
+    public double normalizedRankError() {
+        // Empirical constant for KLL, see Karnin, Lang and Liberty (2016)
+        return 2.296 / Math.pow(k, 0.9723);
+    }
+
+    /**
+     * Returns the value at the given fraction of the sorted data
+     *
+     * quantile(0.5)  = median
+     * quantile(0.99) = 99th percentile
+     */
+    public synchronized int quantile(double fraction) {
+        if (fraction < 0 || fraction > 1) {
+            throw new IllegalArgumentException("Quantile must be between 0 and 1: " + fraction);
+        }
+        if (count == 0) {
+            throw new IllegalStateException("Sketch is empty");
+        }
+
+        // Collect every kept value with its weight (2^level), sorted by value
+        List<long[]> weighted = new ArrayList<>();
+        for (int h = 0; h < levels.size(); h++) {
+            Level level = levels.get(h);
+            for (int i = 0; i < level.size; i++) {
+                weighted.add(new long[]{level.items[i], 1L << h});
+            }
+        }
+        weighted.sort((a, b) -> Long.compare(a[0], b[0]));
+
+        long target = Math.max(1, (long) Math.ceil(fraction * count));
+        long cumulative = 0;
+        for (long[] entry : weighted) {
+            cumulative += entry[1];
+            if (cumulative >= target) {
+                return (int) entry[0];
+            }
+        }
+        return (int) weighted.get(weighted.size() - 1)[0];
+    }
+
+    /**
+     * MERGE: Adds everything another sketch has seen into this one
+     */
+    public void merge(KllSketch other) {
+        // Work on a copy so we never hold both locks at once
+        KllSketch copy = fromBytes(other.toBytes());
+        synchronized (this) {
+            for (int h = 0; h < copy.levels.size(); h++) {
+                while (levels.size() <= h) {
+                    levels.add(new Level());
+                }
+                Level source = copy.levels.get(h);
+                for (int i = 0; i < source.size; i++) {
+                    levels.get(h).add(source.items[i]);
+                }
+            }
+            count += copy.count;
+            compressWhileNeeded();
+        }
+    }
+
+    /**
+     * Serializes the sketch: [version][k][count][levels][size, items...]...
+     */
+    public synchronized byte[] toBytes() {
+        int items = levels.stream().mapToInt(level -> level.size).sum();
+        ByteBuffer buffer = ByteBuffer.allocate(1 + 4 + 8 + 4 + levels.size() * 4 + items * 4);
+        buffer.put(FORMAT_VERSION).putInt(k).putLong(count).putInt(levels.size());
+        for (Level level : levels) {
+            buffer.putInt(level.size);
+            for (int i = 0; i < level.size; i++) {
+                buffer.putInt(level.items[i]);
+            }
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Reads a sketch written by toBytes()
+     */
+    public static KllSketch fromBytes(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        byte version = buffer.get();
+        if (version != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported KLL format version: " + version);
+        }
+        KllSketch sketch = new KllSketch(buffer.getInt());
+        sketch.count = buffer.getLong();
+        int levelCount = buffer.getInt();
+        sketch.levels.clear();
+        for (int h = 0; h < levelCount; h++) {
+            Level level = new Level();
+            int size = buffer.getInt();
+            for (int i = 0; i < size; i++) {
+                level.add(buffer.getInt());
+            }
+            sketch.levels.add(level);
+        }
+        return sketch;
+    }
+
+    // ===== COMPACTION =====
+
+    private int capacity(int level) {
+        int depth = levels.size() - 1 - level;
+        return Math.max(MIN_LEVEL_CAPACITY, (int) Math.ceil(k * Math.pow(DECAY, depth)));
+    }
+
+    private void compressWhileNeeded() {
+        boolean compacted = true;
+        while (compacted) {
+            compacted = false;
+            for (int h = 0; h < levels.size(); h++) {
+                if (levels.get(h).size >= capacity(h)) {
+                    compact(h);
+                    compacted = true;
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Sorts level h and promotes every second value to level h + 1.
+     * Starting at a random offset (0 or 1) keeps the sketch unbiased.
+     */
+    private void compact(int h) {
+        if (h + 1 == levels.size()) {
+            levels.add(new Level());
+        }
+        Level level = levels.get(h);
+        Level next = levels.get(h + 1);
+        Arrays.sort(level.items, 0, level.size);
+
+        // With an odd number of values, one stays behind at this level
+        int size = level.size;
+        boolean odd = (size & 1) == 1;
+        int leftover = odd ? level.items[0] : 0;
+        int from = (odd ? 1 : 0) + ThreadLocalRandom.current().nextInt(2);
+
+        for (int i = from; i < size; i += 2) {
+            next.add(level.items[i]);
+        }
+        level.size = 0;
+        if (odd) {
+            level.add(leftover);
+        }
+    }
+
+    /**
+     * A growable int array (avoids boxing every value into an Integer)
+     */
+    private static final class Level {
+
+        private int[] items = new int[MIN_LEVEL_CAPACITY];
+        private int size;
+
+        void add(int value) {
+            if (size == items.length) {
+                items = Arrays.copyOf(items, items.length * 2);
+            }
+            items[size++] = value;
+        }
+    }
+}
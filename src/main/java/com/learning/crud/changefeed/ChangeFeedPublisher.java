@@ -0,0 +1,190 @@
+package com.learning.crud.changefeed;
+
+import com.learning.crud.dto.StudentChangeResponse;
+import com.learning.crud.exception.ChangeFeedGoneException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CHANGE FEED PUBLISHER: Pushes the change feed to clients as Server-Sent Events
+ *
+ * Server-Sent Events (SSE) = one long HTTP response that the server keeps
+ * writing to. Browsers support it with "new EventSource(url)".
+ *
+ * Each event carries a BATCH of changes (up to app.change-feed.batch-size)
+ * and its id is the seq of the last change in it:
+ *
+ *   id: 42
+ *   event: changes
+ *   data: [{"seq":41,...},{"seq":42,...}]
+ *
+ * RESUMING: After a disconnect, EventSource reconnects by itself and sends
+ * the last id it saw in the "Last-Event-ID" header, so nothing is missed.
+ *
+ * FLOW:
+ * 1. A commit with changes wakes up the publisher thread
+ * 2. For every subscriber: read the changes after its position, send them
+ * 3. When nothing happened for a while, send a heartbeat comment
+ *    (keeps proxies from closing the connection, and finds dead clients)
+ */
+@Component
+public class ChangeFeedPublisher {
+
+    private static final Logger log = LoggerFactory.getLogger(ChangeFeedPublisher.class);
+
+    private final StudentChangeFeed changeFeed;
+    private final int batchSize;
+    private final long heartbeatMillis;
+    private final long streamTimeoutMillis;
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    // Holds at most one "something changed" signal; more signals add nothing
+    private final BlockingQueue<Boolean> wakeUps = new ArrayBlockingQueue<>(1);
+    private volatile boolean running;
+    private Thread publisher;
+
+    public ChangeFeedPublisher(StudentChangeFeed changeFeed,
+                               @Value("${app.change-feed.batch-size:500}") int batchSize,
+                               @Value("${app.change-feed.heartbeat-ms:15000}") long heartbeatMillis,
+                               @Value("${app.change-feed.stream-timeout-ms:1800000}") long streamTimeoutMillis) {
+        this.changeFeed = changeFeed;
+        this.batchSize = Math.max(1, batchSize);
+        this.heartbeatMillis = Math.max(1, heartbeatMillis);
+        this.streamTimeoutMillis = streamTimeoutMillis;
+        changeFeed.addCommitListener(this::wakeUp);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        publisher = new Thread(this::publishLoop, "change-feed-publisher");
+        publisher.setDaemon(true);
+        publisher.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        publisher.interrupt();
+        publisher.join();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+    }
+
+    /**
+     * Opens a stream that starts with the changes after seq "after"
+     *
+     * @throws ChangeFeedGoneException if those changes were already deleted
+     */
+    public SseEmitter subscribe(long after) {
+        changeFeed.checkAvailable(after);
+
+        SseEmitter emitter = new SseEmitter(streamTimeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter, after);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(ex -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+
+        // Send the backlog right away
+        wakeUp();
+        return emitter;
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    private void wakeUp() {
+        wakeUps.offer(Boolean.TRUE);
+    }
+
+    // ===== PUBLISHER THREAD =====
+
+    private void publishLoop() {
+        while (running) {
+            try {
+                wakeUps.poll(heartbeatMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException ex) {
+                return;
+            }
+            long now = System.currentTimeMillis();
+            for (Subscriber subscriber : subscribers) {
+                publish(subscriber, now);
+            }
+        }
+    }
+
+    /**
+     * Sends everything the subscriber has not seen yet, in batches
+     */
+    private void publish(Subscriber subscriber, long now) {
+        try {
+            List<StudentChangeResponse> changes;
+            do {
+                changes = changeFeed.changesAfter(subscriber.position, batchSize);
+                if (!changes.isEmpty()) {
+                    long lastSeq = changes.get(changes.size() - 1).getSeq();
+                    subscriber.emitter.send(SseEmitter.event()
+                            .id(String.valueOf(lastSeq))
+                            .name("changes")
+                            .data(changes));
+                    subscriber.position = lastSeq;
+                    subscriber.lastSentAt = now;
+                }
+            } while (changes.size() == batchSize);
+
+            if (now - subscriber.lastSentAt >= heartbeatMillis) {
+                subscriber.emitter.send(SseEmitter.event().comment("heartbeat"));
+                subscriber.lastSentAt = now;
+            }
+        } catch (ChangeFeedGoneException ex) {
+            // The subscriber fell behind the retention window: tell it, then close
+            sendQuietly(subscriber, SseEmitter.event().name("gone").data(ex.getMessage()));
+            subscribers.remove(subscriber);
+            subscriber.emitter.complete();
+        } catch (IOException | IllegalStateException ex) {
+            // Client went away
+            subscribers.remove(subscriber);
+            subscriber.emitter.completeWithError(ex);
+        } catch (RuntimeException ex) {
+            log.warn("Change feed publishing failed: {}", ex.getMessage());
+        }
+    }
+
+    private void sendQuietly(Subscriber subscriber, SseEmitter.SseEventBuilder event) {
+        try {
+            subscriber.emitter.send(event);
+        } catch (IOException | IllegalStateException ignored) {
+            // Closing anyway
+        }
+    }
+
+    /**
+     * One open stream and how far it has got
+     */
+    private static final class Subscriber {
+
+        private final SseEmitter emitter;
+        private long position;
+        private long lastSentAt = System.currentTimeMillis();
+
+        Subscriber(SseEmitter emitter, long position) {
+            this.emitter = emitter;
+            this.position = position;
+        }
+    }
+}
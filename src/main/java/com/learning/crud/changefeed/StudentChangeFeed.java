@@ -0,0 +1,255 @@
+package com.learning.crud.changefeed;
+
+import com.learning.crud.datasource.ConsistencyContext;
+import com.learning.crud.dto.StudentChangeResponse;
+import com.learning.crud.entity.Student;
+import com.learning.crud.entity.StudentChange;
+import com.learning.crud.exception.ChangeFeedGoneException;
+import com.learning.crud.repository.StudentChangeRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * STUDENT CHANGE FEED: Tells other systems what changed, in order
+ *
+ * Caches and search indexes outside this application want to know about
+ * new students without polling the whole table. Every write adds a row to
+ * the student_changes table ("outbox") in the SAME transaction as the
+ * student itself, so the feed and the data can never disagree.
+ *
+ * That promise only holds for the stores that write to the main database
+ * inside that transaction (jpa, jdbc; StudentStore.isTransactional()).
+ * The memory, sharded and mmap stores keep their students elsewhere: a
+ * student can be saved while its feed entry fails (never the other way
+ * round, the entry is written after the student).
+ *
+ * SEQUENCE NUMBERS:
+ * Every change gets a number (seq) that only goes up: 1, 2, 3...
+ * A consumer remembers the last seq it handled and asks for the rest.
+ *
+ * The tricky part: two transactions can COMMIT in a different order than
+ * they got their numbers. If seq 6 is visible before seq 5, a consumer
+ * that reads "after 4" and gets 6 would skip 5 forever.
+ * So we remember which numbers are still in an open transaction, and
+ * readers only get changes up to just below the oldest of those
+ * (committedPosition). Numbers of rolled back transactions are simply
+ * skipped: seq always goes up, but may have gaps.
+ *
+ * RETENTION: Only the newest app.change-feed.retention changes are kept.
+ * Asking for older ones throws ChangeFeedGoneException (HTTP 410).
+ *
+ * The numbers are handed out in memory, so the feed is per application
+ * instance (one writer node).
+ */
+@Component
+public class StudentChangeFeed {
+
+    private static final Logger log = LoggerFactory.getLogger(StudentChangeFeed.class);
+
+    public static final String CREATED = "CREATED";
+    public static final String UPDATED = "UPDATED";
+
+    private static final String INSERT_CHANGE =
+            "INSERT INTO student_changes (seq, change_type, student_id, name, age, grade, changed_at) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final StudentChangeRepository changeRepository;
+    private final long retention;
+
+    // Guards nextSeq and openTransactions
+    private final Object lock = new Object();
+    private long nextSeq = 1;
+    // First seq of every transaction that has not committed or rolled back yet
+    // → lowest student id it creates (Long.MAX_VALUE if it only updates)
+    private final TreeMap<Long, Long> openTransactions = new TreeMap<>();
+
+    // Changes up to this seq were deleted by prune()
+    private volatile long prunedUpTo;
+
+    // Called after every commit that added changes (wakes up the SSE publisher)
+    private final List<Runnable> commitListeners = new CopyOnWriteArrayList<>();
+
+    public StudentChangeFeed(JdbcTemplate jdbcTemplate,
+                             StudentChangeRepository changeRepository,
+                             @Value("${app.change-feed.retention:100000}") long retention) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.changeRepository = changeRepository;
+        this.retention = Math.max(1, retention);
+    }
+
+    /**
+     * Continues numbering after the highest seq already in the table
+     */
+    @PostConstruct
+    public void load() {
+        Long max = ConsistencyContext.onPrimary(changeRepository::findMaxSeq);
+        Long min = ConsistencyContext.onPrimary(changeRepository::findMinSeq);
+        synchronized (lock) {
+            nextSeq = max == null ? 1 : max + 1;
+        }
+        prunedUpTo = min == null ? Objects.requireNonNullElse(max, 0L) : min - 1;
+        log.info("Change feed ready, next seq {}", nextSeq);
+    }
+
+    /**
+     * Adds a CREATED change for each student.
+     *
+     * MUST be called inside the transaction that saves the students,
+     * so the changes are committed (or rolled back) together with them.
+     */
+    public void recordCreated(List<Student> students) {
+        record(CREATED, students);
+    }
+
+    /**
+     * Adds an UPDATED change for each student, with its data AFTER the update
+     * (used by StudentBulkUpdater, once per ID range).
+     *
+     * MUST be called inside the transaction that updates the students.
+     */
+    public void recordUpdated(List<Student> students) {
+        record(UPDATED, students);
+    }
+
+    private void record(String changeType, List<Student> students) {
+        if (students.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Changes must be recorded inside the transaction that writes the students");
+        }
+
+        long lowestCreatedId = CREATED.equals(changeType)
+                ? students.stream().mapToLong(Student::getId).min().orElseThrow()
+                : Long.MAX_VALUE;
+        long firstSeq;
+        synchronized (lock) {
+            firstSeq = nextSeq;
+            nextSeq += students.size();
+            openTransactions.put(firstSeq, lowestCreatedId);
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                synchronized (lock) {
+                    openTransactions.remove(firstSeq);
+                }
+                if (status == STATUS_COMMITTED) {
+                    commitListeners.forEach(Runnable::run);
+                }
+            }
+        });
+
+        OffsetDateTime now = OffsetDateTime.ofInstant(Instant.now(), ZoneOffset.UTC);
+        List<Object[]> rows = new ArrayList<>(students.size());
+        for (int i = 0; i < students.size(); i++) {
+            Student student = students.get(i);
+            rows.add(new Object[]{firstSeq + i, changeType, student.getId(),
+                    student.getName(), student.getAge(), student.getGrade(), now});
+        }
+        jdbcTemplate.batchUpdate(INSERT_CHANGE, rows);
+    }
+
+    /**
+     * Highest seq a reader may safely see: every change up to here is
+     * committed, and no change below it can still show up later
+     */
+    public long committedPosition() {
+        synchronized (lock) {
+            return openTransactions.isEmpty() ? nextSeq - 1 : openTransactions.firstKey() - 1;
+        }
+    }
+
+    /**
+     * Lowest student id created by a transaction that has not committed yet
+     * (Long.MAX_VALUE if there is none). A student below it is committed -
+     * unless its transaction has inserted it but not recorded it here yet.
+     * ReplicaSynchronizer uses it to know from where to copy again.
+     */
+    public long lowestOpenStudentId() {
+        synchronized (lock) {
+            return openTransactions.values().stream().mapToLong(Long::longValue).min().orElse(Long.MAX_VALUE);
+        }
+    }
+
+    /**
+     * Up to limit changes with seq greater than after, oldest first
+     *
+     * @throws ChangeFeedGoneException if changes after that seq were already deleted
+     */
+    public List<StudentChangeResponse> changesAfter(long after, int limit) {
+        checkAvailable(after);
+        long upTo = committedPosition();
+        if (after >= upTo) {
+            return List.of();
+        }
+        // The feed is not copied to read replicas, so always read the primary
+        List<StudentChange> changes = ConsistencyContext.onPrimary(() -> changeRepository
+                .findBySeqGreaterThanAndSeqLessThanEqualOrderBySeqAsc(after, upTo, PageRequest.ofSize(limit)));
+
+        // prune() may have run while we were reading
+        checkAvailable(after);
+        return changes.stream().map(this::convertToResponse).toList();
+    }
+
+    /**
+     * @throws ChangeFeedGoneException if changes after that seq were already deleted
+     */
+    public void checkAvailable(long after) {
+        long pruned = prunedUpTo;
+        if (after < pruned) {
+            throw new ChangeFeedGoneException("Changes after seq " + after
+                    + " are no longer available (oldest kept change is seq " + (pruned + 1) + ")");
+        }
+    }
+
+    public void addCommitListener(Runnable listener) {
+        commitListeners.add(listener);
+    }
+
+    /**
+     * RETENTION: Deletes everything but the newest app.change-feed.retention changes
+     */
+    @Scheduled(fixedDelayString = "${app.change-feed.prune-interval-ms:60000}",
+            initialDelayString = "${app.change-feed.prune-interval-ms:60000}")
+    public void prune() {
+        long upTo = committedPosition() - retention;
+        if (upTo <= prunedUpTo) {
+            return;
+        }
+        // Mark first, so readers get "gone" instead of silently missing rows
+        prunedUpTo = upTo;
+        int deleted = jdbcTemplate.update("DELETE FROM student_changes WHERE seq <= ?", upTo);
+        log.debug("Change feed pruned up to seq {} ({} rows)", upTo, deleted);
+    }
+
+    private StudentChangeResponse convertToResponse(StudentChange change) {
+        StudentChangeResponse response = new StudentChangeResponse();
+        response.setSeq(change.getSeq());
+        response.setType(change.getChangeType());
+        response.setStudentId(change.getStudentId());
+        response.setName(change.getName());
+        response.setAge(change.getAge());
+        response.setGrade(change.getGrade());
+        response.setChangedAt(change.getChangedAt());
+        return response;
+    }
+}
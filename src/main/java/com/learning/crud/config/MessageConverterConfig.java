@@ -0,0 +1,42 @@
+package com.learning.crud.config;
+
+import com.learning.crud.converter.StudentJsonHttpMessageConverter;
+import com.learning.crud.converter.StudentProtobufHttpMessageConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * MESSAGE CONVERTER CONFIGURATION: Which formats the REST API can read and write
+ *
+ * Spring MVC keeps a LIST of converters. For each response it takes the
+ * FIRST one that can write the object in a format the client accepts.
+ * A client that accepts anything ("Accept: *&#47;*", curl's default) gets
+ * whatever the first matching converter produces - that must stay JSON.
+ *
+ * So the protobuf converter is added at the END: it is only used when the
+ * client explicitly asks for application/x-protobuf.
+ *
+ * With app.json.writer=fast, StudentJsonHttpMessageConverter is added at
+ * the FRONT, so it writes StudentResponse JSON before Jackson gets the chance.
+ */
+@Configuration
+public class MessageConverterConfig implements WebMvcConfigurer {
+
+    private final String jsonWriter;
+
+    public MessageConverterConfig(@Value("${app.json.writer:jackson}") String jsonWriter) {
+        this.jsonWriter = jsonWriter;
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        if ("fast".equalsIgnoreCase(jsonWriter)) {
+            converters.add(0, new StudentJsonHttpMessageConverter());
+        }
+        converters.add(new StudentProtobufHttpMessageConverter());
+    }
+}
@@ -0,0 +1,109 @@
+package com.learning.crud.config;
+
+import com.learning.crud.changefeed.StudentChangeFeed;
+import com.learning.crud.datasource.ReadReplica;
+import com.learning.crud.datasource.ReplicaRoutingDataSource;
+import com.learning.crud.datasource.ReplicaSynchronizer;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * READ REPLICA CONFIGURATION: One primary database for writes, replicas for reads
+ *
+ * Only active when application.properties contains:
+ *   app.datasource.replica.enabled=true
+ *
+ * Without it, Spring Boot creates the single normal DataSource as before.
+ *
+ * What gets built:
+ *
+ *   LazyConnectionDataSourceProxy   ← what JPA / Spring Data use
+ *            │
+ *   ReplicaRoutingDataSource        ← picks primary or replica per transaction
+ *       ├── primary   (spring.datasource.url)
+ *       ├── replica-1 (app.datasource.replica.urls[0])
+ *       └── replica-2 ...
+ *
+ * ReplicaSynchronizer copies new (and bulk-updated) students from the primary to the replicas.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.replica.enabled", havingValue = "true")
+public class ReadReplicaConfig {
+
+    /**
+     * The primary: same settings as the normal single DataSource (spring.datasource.*)
+     */
+    @Bean
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    /**
+     * The router, with one replica connection pool per URL in app.datasource.replica.urls
+     */
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(DataSourceProperties properties,
+                                                             HikariDataSource primaryDataSource,
+                                                             @Value("${app.datasource.replica.urls}") List<String> urls) {
+        List<ReadReplica> replicas = new ArrayList<>();
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource dataSource = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(urls.get(i))
+                    .username(properties.getUsername())
+                    .password(properties.getPassword())
+                    .build();
+            dataSource.setPoolName("replica-" + (i + 1));
+
+            // Create the tables before any read can be routed here (same script as the prod profile)
+            new ResourceDatabasePopulator(new ClassPathResource("db/schema-h2.sql")).execute(dataSource);
+            replicas.add(new ReadReplica("replica-" + (i + 1), dataSource));
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas);
+    }
+
+    /**
+     * The DataSource everybody else uses (@Primary = chosen when several exist)
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    /**
+     * The rewind is the most students the primary can have inserted at once:
+     * one transaction per pooled connection, each with one group commit
+     * batch (or one student when group commit is off)
+     */
+    @Bean
+    public ReplicaSynchronizer replicaSynchronizer(HikariDataSource primaryDataSource,
+                                                   ReplicaRoutingDataSource replicaRoutingDataSource,
+                                                   StudentChangeFeed changeFeed,
+                                                   @Value("${app.group-commit.enabled:false}") boolean groupCommit,
+                                                   @Value("${app.group-commit.max-batch-size:256}") int maxBatchSize,
+                                                   MeterRegistry meterRegistry) {
+        long studentsPerTransaction = groupCommit ? Math.max(1, maxBatchSize) : 1;
+        long rewind = primaryDataSource.getMaximumPoolSize() * studentsPerTransaction;
+        return new ReplicaSynchronizer(primaryDataSource, replicaRoutingDataSource.getReplicas(), changeFeed,
+                rewind, meterRegistry);
+    }
+}
@@ -0,0 +1,18 @@
+package com.learning.crud.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * SCHEDULING CONFIGURATION: Turns on background jobs
+ *
+ * @EnableScheduling tells Spring to look for methods annotated with
+ * @Scheduled and run them on a timer (for example: every 5 minutes).
+ *
+ * Used by:
+ * - StudentStatistics.reconcile() → re-checks the live counters against the database
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
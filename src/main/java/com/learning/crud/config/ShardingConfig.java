@@ -0,0 +1,57 @@
+package com.learning.crud.config;
+
+import com.learning.crud.dictionary.GradeDictionary;
+import com.learning.crud.jdbc.MonitoredDataSource;
+import com.learning.crud.jdbc.SqlStatementMonitor;
+import com.learning.crud.sharding.ShardedStudentStore;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SHARDING CONFIGURATION: Stores students in several databases
+ *
+ * Only active when application.properties contains:
+ *   app.storage.backend=sharded
+ *
+ * One connection pool is created per URL in app.sharding.urls
+ * (by default four local in-memory H2 databases).
+ *
+ * Shard statements are timed by the SQL monitor too (unless app.sql-monitor.enabled=false).
+ *
+ * Note: everything else (analytics sketches, H2 console, read replicas)
+ * still uses the normal spring.datasource database.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.storage.backend", havingValue = "sharded")
+public class ShardingConfig {
+
+    @Bean
+    public ShardedStudentStore shardedStudentStore(@Value("${app.sharding.urls}") List<String> urls,
+                                                   @Value("${spring.datasource.username}") String username,
+                                                   @Value("${spring.datasource.password}") String password,
+                                                   @Value("${app.sql-monitor.enabled:true}") boolean monitorSql,
+                                                   ObjectProvider<SqlStatementMonitor> monitor,
+                                                   GradeDictionary gradeDictionary) {
+        List<DataSource> dataSources = new ArrayList<>();
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource dataSource = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(urls.get(i))
+                    .username(username)
+                    .password(password)
+                    .build();
+            dataSource.setPoolName("shard-" + i);
+            dataSources.add(monitorSql ? new MonitoredDataSource(dataSource, monitor.getObject()) : dataSource);
+        }
+        return new ShardedStudentStore(dataSources, gradeDictionary);
+    }
+}
@@ -0,0 +1,49 @@
+package com.learning.crud.config;
+
+import com.learning.crud.jdbc.MonitoredDataSource;
+import com.learning.crud.jdbc.SqlStatementMonitor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * SQL MONITOR CONFIGURATION: Times every statement sent to the main database
+ *
+ * Active unless application.properties contains:
+ *   app.sql-monitor.enabled=false
+ *
+ * A BeanPostProcessor gets every bean right after Spring created it and may
+ * hand back a replacement. We replace the "dataSource" bean (the one JPA
+ * and JdbcTemplate use) with a MonitoredDataSource wrapped around it.
+ *
+ * Only the bean named "dataSource" is wrapped: other DataSource beans (for
+ * example the read replica pools) are injected by their exact type.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.sql-monitor.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlMonitorConfig {
+
+    private static final String DATA_SOURCE_BEAN = "dataSource";
+
+    /**
+     * static: BeanPostProcessors are created before all other beans,
+     * so this must not need an instance of this class
+     */
+    @Bean
+    public static BeanPostProcessor sqlMonitoringPostProcessor(ObjectProvider<SqlStatementMonitor> monitor) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (DATA_SOURCE_BEAN.equals(beanName) && bean instanceof DataSource dataSource
+                        && !(bean instanceof MonitoredDataSource)) {
+                    return new MonitoredDataSource(dataSource, monitor.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,43 @@
+package com.learning.crud.config;
+
+import com.learning.crud.datasource.ConsistencyContext;
+import com.learning.crud.repository.StudentStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * STARTUP TIME LOGGER: Measures how long the application takes to become ready
+ *
+ * Prints one line when startup is finished, for example:
+ *   Startup finished: ready in 4210 ms (JVM uptime 5012 ms), 2000000 students in database
+ *
+ * - "ready in"   = time Spring needed (open database, validate schema, start web server...)
+ * - "JVM uptime" = the same plus the time Java itself needed to start
+ *
+ * With the "prod" profile the data is already in the database file,
+ * so this number should stay in seconds even with millions of students.
+ */
+@Component
+public class StartupTimeLogger {
+
+    private static final Logger log = LoggerFactory.getLogger(StartupTimeLogger.class);
+
+    private final StudentStore studentStore;
+
+    public StartupTimeLogger(StudentStore studentStore) {
+        this.studentStore = studentStore;
+    }
+
+    @EventListener
+    public void onReady(ApplicationReadyEvent event) {
+        long readyMillis = event.getTimeTaken() == null ? -1 : event.getTimeTaken().toMillis();
+        long jvmUptimeMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+        log.info("Startup finished: ready in {} ms (JVM uptime {} ms), {} students in database",
+                readyMillis, jvmUptimeMillis, ConsistencyContext.onPrimary(studentStore::count));
+    }
+}
@@ -1,11 +1,30 @@
 package com.learning.crud.controller;
 
+import com.learning.crud.changefeed.ChangeFeedPublisher;
+import com.learning.crud.converter.StudentStreamWriter;
+import com.learning.crud.datasource.ConsistencyContext;
+import com.learning.crud.dto.BulkUpdateJobResponse;
+import com.learning.crud.dto.ExportJobResponse;
+import com.learning.crud.dto.SketchExport;
+import com.learning.crud.dto.StudentAnalyticsResponse;
+import com.learning.crud.dto.StudentChangesResponse;
 import com.learning.crud.dto.StudentRequest;
 import com.learning.crud.dto.StudentResponse;
+import com.learning.crud.dto.StudentStatsResponse;
+import com.learning.crud.export.ExportFileSender;
 import com.learning.crud.service.StudentService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.util.List;
 
 /**
  * REST CONTROLLER: Handles HTTP requests
@@ -19,19 +38,43 @@ import org.springframework.web.bind.annotation.*;
  * 
  * @RequestMapping("/api/students") 
  * Sets base URL for all methods in this controller
+ *
+ * CONTENT NEGOTIATION: JSON is the default, but the Accept / Content-Type
+ * headers can ask for compact binary formats instead (same fields):
+ * - application/cbor            → CBOR (binary JSON)
+ * - application/x-jackson-smile → Smile (binary JSON)
+ * - application/x-protobuf      → Protocol Buffers (src/main/proto/student.proto)
  */
 @RestController
 @RequestMapping("/api/students")
 public class StudentController {
 
+    // Request header that makes a create safe to resend
+    public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
     // Dependency Injection: Spring gives us StudentService automatically
     private final StudentService studentService;
 
+    // Streams the change feed as Server-Sent Events
+    private final ChangeFeedPublisher changeFeedPublisher;
+
+    // Writes the student export in the format the client asked for
+    private final StudentStreamWriter studentStreamWriter;
+
+    // Sends finished export files (with Range support)
+    private final ExportFileSender exportFileSender;
+
     /**
      * Constructor: Spring injects StudentService here
      */
-    public StudentController(StudentService studentService) {
+    public StudentController(StudentService studentService,
+                             ChangeFeedPublisher changeFeedPublisher,
+                             StudentStreamWriter studentStreamWriter,
+                             ExportFileSender exportFileSender) {
         this.studentService = studentService;
+        this.changeFeedPublisher = changeFeedPublisher;
+        this.studentStreamWriter = studentStreamWriter;
+        this.exportFileSender = exportFileSender;
     }
 
     /**
@@ -59,15 +102,25 @@ public class StudentController {
      * 5. Service returns StudentResponse
      * 6. Spring converts StudentResponse → JSON (automatic!)
      * 7. Returns JSON to client with status 201 (Created)
+     *    plus an X-Consistency-Token header (see ConsistencyContext)
+     *
+     * Optional header "Idempotency-Key: <unique string>": resending the same
+     * request with the same key returns the first answer instead of creating
+     * the student again (see IdempotencyStore).
      */
     @PostMapping
-    public ResponseEntity<StudentResponse> createStudent(@RequestBody StudentRequest request) {
+    public ResponseEntity<StudentResponse> createStudent(
+            @RequestBody StudentRequest request,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
         // Call service layer to create student
-        StudentResponse response = studentService.createStudent(request);
+        StudentResponse response = studentService.createStudent(request, idempotencyKey);
         
         // Return response with HTTP status 201 (Created)
         // ResponseEntity lets us control HTTP status code
-        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        // X-Consistency-Token: send it back on the next GET to be sure to see this student
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .header(ConsistencyContext.HEADER, ConsistencyContext.tokenFor(response.getId()))
+                .body(response);
     }
 
     /**
@@ -102,6 +155,254 @@ public class StudentController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * ========================================
+     * REST API #3: LIST STUDENTS (PAGED)
+     * ========================================
+     *
+     * URL: GET http://localhost:8080/api/students?page=0&size=20
+     *
+     * Returns one page of students ordered by ID (size is capped at 1000).
+     */
+    @GetMapping
+    public ResponseEntity<List<StudentResponse>> listStudents(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(studentService.listStudents(page, size));
+    }
+
+    /**
+     * ========================================
+     * REST API #4: SEARCH STUDENTS BY NAME
+     * ========================================
+     *
+     * URL: GET http://localhost:8080/api/students/search?name=jo
+     *
+     * @RequestParam reads query string values (?name=jo&fuzzy=true&limit=5)
+     * - name:  what the user has typed so far
+     * - fuzzy: allow typos (default false = prefix match)
+     * - limit: maximum number of results (default 10, max 100)
+     *
+     * Uses an in-memory name index, so it is fast enough for type-ahead boxes.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<StudentResponse>> searchStudents(
+            @RequestParam String name,
+            @RequestParam(defaultValue = "false") boolean fuzzy,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(studentService.searchStudentsByName(name, fuzzy, limit));
+    }
+
+    /**
+     * ========================================
+     * REST API #5: STUDENT STATISTICS
+     * ========================================
+     *
+     * URL: GET http://localhost:8080/api/students/stats
+     *
+     * Returns total, counts per grade and the age histogram.
+     * Numbers come from live counters, not from a GROUP BY query.
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<StudentStatsResponse> getStatistics() {
+        return ResponseEntity.ok(studentService.getStatistics());
+    }
+
+    /**
+     * ========================================
+     * REST API #6: APPROXIMATE ANALYTICS
+     * ========================================
+     *
+     * URL: GET http://localhost:8080/api/students/analytics
+     *
+     * Returns the approximate number of distinct names and age percentiles.
+     * Each number comes with its error bound (see StudentAnalyticsResponse).
+     */
+    @GetMapping("/analytics")
+    public ResponseEntity<StudentAnalyticsResponse> getAnalytics() {
+        return ResponseEntity.ok(studentService.getAnalytics());
+    }
+
+    /**
+     * URL: GET http://localhost:8080/api/students/analytics/sketches
+     *
+     * Returns this node's raw sketches (Base64), so another node can merge them.
+     */
+    @GetMapping("/analytics/sketches")
+    public ResponseEntity<SketchExport> exportAnalyticsSketches() {
+        return ResponseEntity.ok(studentService.exportAnalyticsSketches());
+    }
+
+    /**
+     * URL: POST http://localhost:8080/api/students/analytics/merge
+     *
+     * Body: a JSON list of sketches fetched from other nodes' /analytics/sketches.
+     * Returns analytics for this node and those nodes together.
+     */
+    @PostMapping("/analytics/merge")
+    public ResponseEntity<StudentAnalyticsResponse> getMergedAnalytics(@RequestBody List<SketchExport> otherNodes) {
+        return ResponseEntity.ok(studentService.getMergedAnalytics(otherNodes));
+    }
+
+    /**
+     * ========================================
+     * REST API #7: CHANGES SINCE N
+     * ========================================
+     *
+     * URL: GET http://localhost:8080/api/students/changes?since=0&limit=500
+     *
+     * Returns the changes (new students) after seq "since", oldest first.
+     * To continue, call again with since = lastSeq from the response.
+     * HTTP 410 (Gone) means those changes were already deleted: reload everything.
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<StudentChangesResponse> getChanges(
+            @RequestParam(defaultValue = "0") long since,
+            @RequestParam(defaultValue = "500") int limit) {
+        return ResponseEntity.ok(studentService.getChangesSince(since, limit));
+    }
+
+    /**
+     * ========================================
+     * REST API #8: CHANGE STREAM (SERVER-SENT EVENTS)
+     * ========================================
+     *
+     * URL: GET http://localhost:8080/api/students/changes/stream?since=0
+     *
+     * Keeps the connection open and pushes new changes as they are committed.
+     * Try it: curl -N http://localhost:8080/api/students/changes/stream
+     *
+     * Resumable: a reconnecting EventSource sends the "Last-Event-ID" header
+     * (the seq of the last change it received), which wins over ?since.
+     */
+    @GetMapping(value = "/changes/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(
+            @RequestParam(defaultValue = "0") long since,
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        return changeFeedPublisher.subscribe(lastEventId != null ? lastEventId : since);
+    }
+
+    /**
+     * ========================================
+     * REST API #9: EXPORT ALL STUDENTS (STREAMING)
+     * ========================================
+     *
+     * URL: GET http://localhost:8080/api/students/export?batchSize=500
+     *
+     * Streams every student, ordered by ID, without building the whole
+     * list in memory. Records are read and sent batchSize at a time.
+     *
+     * Format by Accept header (see StudentStreamWriter):
+     * - default                     → NDJSON (one JSON object per line)
+     * - application/cbor            → CBOR sequence
+     * - application/x-jackson-smile → Smile values
+     * - application/x-protobuf      → length-delimited protobuf StudentResponse
+     *
+     * StreamingResponseBody: Spring writes the body on a background thread,
+     * so the request thread is free while the export runs.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportStudents(
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestParam(defaultValue = "500") int batchSize) {
+        MediaType format = studentStreamWriter.negotiate(accept);
+        StreamingResponseBody body = out -> studentStreamWriter.write(format, out,
+                afterId -> studentService.listStudentsAfter(afterId, batchSize));
+        return ResponseEntity.ok().contentType(format).body(body);
+    }
+
+    /**
+     * ========================================
+     * REST API #10: FILTER BY AGE AND GRADE
+     * ========================================
+     *
+     * URL: GET http://localhost:8080/api/students/filter?minAge=14&maxAge=16&grade=A
+     *
+     * - minAge / maxAge: age range, both included (defaults: any age)
+     * - grade: only this grade (optional)
+     * - limit: maximum number of results (default 100, max 1000)
+     *
+     * Results are ordered by ID. With app.read-model.enabled=true this is
+     * a scan over in-memory arrays instead of a query (see StudentReadModel).
+     */
+    @GetMapping("/filter")
+    public ResponseEntity<List<StudentResponse>> filterStudents(
+            @RequestParam(defaultValue = "0") int minAge,
+            @RequestParam(defaultValue = "2147483647") int maxAge,
+            @RequestParam(required = false) String grade,
+            @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(studentService.filterStudents(minAge, maxAge, grade, limit));
+    }
+
+    /**
+     * ========================================
+     * REST API #11: BULK UPDATES
+     * ========================================
+     *
+     * URL: POST http://localhost:8080/api/students/bulk/promote-grade?from=B&to=A
+     *      (every student in grade B moves to grade A)
+     * URL: POST http://localhost:8080/api/students/bulk/shift-ages?delta=1
+     *      (everyone gets one year older)
+     *
+     * Both return HTTP 202 (Accepted) right away with the job: the work runs
+     * in the background, one ID range at a time (see StudentBulkUpdater).
+     * Invalid arguments give HTTP 400.
+     *
+     * URL: GET http://localhost:8080/api/students/bulk/3
+     *      (progress of job 3: state, percentDone, studentsUpdated, ...)
+     */
+    @PostMapping("/bulk/promote-grade")
+    public ResponseEntity<BulkUpdateJobResponse> promoteGrade(@RequestParam String from,
+                                                              @RequestParam String to) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(studentService.promoteGrade(from, to));
+    }
+
+    @PostMapping("/bulk/shift-ages")
+    public ResponseEntity<BulkUpdateJobResponse> shiftAges(@RequestParam int delta) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(studentService.shiftAges(delta));
+    }
+
+    @GetMapping("/bulk/{jobId}")
+    public ResponseEntity<BulkUpdateJobResponse> getBulkUpdate(@PathVariable long jobId) {
+        return ResponseEntity.ok(studentService.getBulkUpdate(jobId));
+    }
+
+    /**
+     * ========================================
+     * REST API #12: EXPORT JOBS (BACKGROUND)
+     * ========================================
+     *
+     * For exports too big to stream while the client waits (see REST API #9):
+     *
+     * URL: POST http://localhost:8080/api/students/exports?format=ndjson&minAge=14&maxAge=16&grade=A
+     *      (all parameters optional; format: ndjson, cbor, smile or protobuf)
+     *      → HTTP 202 with the job; HTTP 503 + Retry-After when too many are waiting
+     * URL: GET http://localhost:8080/api/students/exports/7
+     *      → state (QUEUED, RUNNING, DONE, FAILED), percentDone, downloadUrl
+     * URL: GET http://localhost:8080/api/students/exports/7/file
+     *      → the gzip-compressed file; send "Range: bytes=N-" to continue
+     *        a broken download (curl -C - does this)
+     */
+    @PostMapping("/exports")
+    public ResponseEntity<ExportJobResponse> submitExport(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(defaultValue = "0") int minAge,
+            @RequestParam(defaultValue = "2147483647") int maxAge,
+            @RequestParam(required = false) String grade) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(studentService.submitExport(minAge, maxAge, grade, format));
+    }
+
+    @GetMapping("/exports/{exportId}")
+    public ResponseEntity<ExportJobResponse> getExport(@PathVariable long exportId) {
+        return ResponseEntity.ok(studentService.getExport(exportId));
+    }
+
+    @GetMapping("/exports/{exportId}/file")
+    public void downloadExport(@PathVariable long exportId, HttpServletRequest request,
+                               HttpServletResponse response) throws IOException {
+        exportFileSender.send(studentService.getExportFile(exportId), request, response);
+    }
+
     /**
      * BONUS: Simple health check endpoint
      * URL: GET http://localhost:8080/api/students/health
@@ -0,0 +1,91 @@
+package com.learning.crud.converter;
+
+import com.learning.crud.dto.StudentResponse;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * MESSAGE CONVERTER: Writes StudentResponse JSON with StudentJsonWriter instead of Jackson
+ *
+ * Only switched on with app.json.writer=fast (default: jackson).
+ * The JSON is exactly the same, just produced with less CPU work.
+ *
+ * Handles (write only):
+ * - StudentResponse            → GET /api/students/{id}, POST /api/students
+ * - List<StudentResponse>      → GET /api/students, GET /api/students/search
+ *
+ * Everything else (requests, errors, statistics...) still goes through Jackson.
+ * MessageConverterConfig puts this converter FIRST, so it is asked before Jackson.
+ */
+public class StudentJsonHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    public StudentJsonHttpMessageConverter() {
+        super(MediaType.APPLICATION_JSON);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return clazz == StudentResponse.class || List.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        return (type == StudentResponse.class || StudentTypes.isStudentResponseList(type)) && canWrite(mediaType);
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+        return clazz == StudentResponse.class && canWrite(mediaType);
+    }
+
+    // Spring asks this with the raw class (e.g. a List) after canWrite(Type...) said yes
+    @Override
+    public List<MediaType> getSupportedMediaTypes(Class<?> clazz) {
+        return supports(clazz) ? getSupportedMediaTypes() : List.of();
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("StudentJsonHttpMessageConverter only writes", inputMessage);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("StudentJsonHttpMessageConverter only writes", inputMessage);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void writeInternal(Object body, Type type, HttpOutputMessage outputMessage) throws IOException {
+        StudentJsonWriter writer = StudentJsonWriter.acquire();
+        try {
+            if (body instanceof StudentResponse student) {
+                writer.write(student);
+            } else {
+                writer.write((List<StudentResponse>) body);
+            }
+            // The whole body is known, so send its length instead of chunked encoding
+            outputMessage.getHeaders().setContentLength(writer.length());
+            writer.writeTo(outputMessage.getBody());
+        } finally {
+            writer.release();
+        }
+    }
+}
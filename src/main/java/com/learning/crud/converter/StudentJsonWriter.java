@@ -0,0 +1,238 @@
+package com.learning.crud.converter;
+
+import com.learning.crud.dto.StudentResponse;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * FAST JSON WRITER: Turns StudentResponse into JSON bytes by hand
+ *
+ * Jackson is generic: for every object it looks up how to serialize the
+ * class, calls each getter, and creates small objects along the way.
+ * StudentResponse always has the same four fields, so we can skip all
+ * of that and write the bytes directly:
+ *
+ *   {"id":1,"name":"John Doe","age":15,"grade":"A"}
+ *    ^^^^^^ ^^^^^^^^         ^^^^^^^  ^^^^^^^^^
+ *    field names are encoded to bytes ONCE (static arrays below)
+ *
+ * - No reflection, no intermediate String or char[] per value
+ * - Numbers are written digit by digit straight into the buffer
+ * - Strings are escaped exactly like Jackson does (so the output is
+ *   byte-for-byte the same; see benchmark/JsonWriterBenchmark)
+ *
+ * POOLED BUFFER: Each thread keeps one writer with its byte buffer and
+ * reuses it for the next response (acquire() → write → release()).
+ * A buffer that had to grow very large is dropped on release, so one
+ * huge response does not keep its memory forever.
+ */
+public final class StudentJsonWriter {
+
+    private static final byte[] ID = ascii("{\"id\":");
+    private static final byte[] NAME = ascii(",\"name\":");
+    private static final byte[] AGE = ascii(",\"age\":");
+    private static final byte[] GRADE = ascii(",\"grade\":");
+    private static final byte[] NULL = ascii("null");
+    private static final byte[] LONG_MIN = ascii(String.valueOf(Long.MIN_VALUE));
+    private static final byte[] HEX = ascii("0123456789ABCDEF");
+
+    // Short escapes Jackson uses for control characters (0 = use \\u00XX)
+    private static final byte[] SHORT_ESCAPES = new byte[32];
+
+    static {
+        SHORT_ESCAPES['\b'] = 'b';
+        SHORT_ESCAPES['\t'] = 't';
+        SHORT_ESCAPES['\n'] = 'n';
+        SHORT_ESCAPES['\f'] = 'f';
+        SHORT_ESCAPES['\r'] = 'r';
+    }
+
+    private static final int INITIAL_CAPACITY = 8 * 1024;
+    private static final int MAX_POOLED_CAPACITY = 1024 * 1024;
+
+    private static final ThreadLocal<StudentJsonWriter> POOL = ThreadLocal.withInitial(StudentJsonWriter::new);
+
+    private byte[] buffer = new byte[INITIAL_CAPACITY];
+    private int length;
+    private boolean inUse;
+
+    private StudentJsonWriter() {
+    }
+
+    /**
+     * An empty writer for this thread (call release() when done)
+     */
+    public static StudentJsonWriter acquire() {
+        StudentJsonWriter writer = POOL.get();
+        if (writer.inUse) {
+            // Already in use further up the call stack: use a private one
+            writer = new StudentJsonWriter();
+        }
+        writer.inUse = true;
+        writer.length = 0;
+        return writer;
+    }
+
+    /**
+     * Gives the buffer back for the next response on this thread
+     */
+    public void release() {
+        inUse = false;
+        length = 0;
+        if (buffer.length > MAX_POOLED_CAPACITY) {
+            buffer = new byte[INITIAL_CAPACITY];
+        }
+    }
+
+    public StudentJsonWriter write(StudentResponse student) {
+        if (student == null) {
+            writeBytes(NULL);
+            return this;
+        }
+        writeBytes(ID);
+        writeNumber(student.getId());
+        writeBytes(NAME);
+        writeString(student.getName());
+        writeBytes(AGE);
+        writeNumber(student.getAge());
+        writeBytes(GRADE);
+        writeString(student.getGrade());
+        writeByte('}');
+        return this;
+    }
+
+    public StudentJsonWriter write(List<StudentResponse> students) {
+        writeByte('[');
+        for (int i = 0; i < students.size(); i++) {
+            if (i > 0) {
+                writeByte(',');
+            }
+            write(students.get(i));
+        }
+        writeByte(']');
+        return this;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(buffer, 0, length);
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, length);
+    }
+
+    // ===== VALUES =====
+
+    private void writeNumber(Number value) {
+        if (value == null) {
+            writeBytes(NULL);
+            return;
+        }
+        long n = value.longValue();
+        if (n == Long.MIN_VALUE) {
+            writeBytes(LONG_MIN);
+            return;
+        }
+        ensureCapacity(20);
+        if (n < 0) {
+            buffer[length++] = '-';
+            n = -n;
+        }
+        // Digits are produced right to left, so count them first
+        int digits = 1;
+        for (long rest = n / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+        int pos = length + digits;
+        do {
+            buffer[--pos] = (byte) ('0' + n % 10);
+            n /= 10;
+        } while (n > 0);
+        length += digits;
+    }
+
+    /**
+     * Writes a JSON string in UTF-8, escaping like Jackson's UTF8JsonGenerator
+     */
+    private void writeString(String value) {
+        if (value == null) {
+            writeBytes(NULL);
+            return;
+        }
+        int chars = value.length();
+        // Worst case: every char becomes a 6-byte \\uXXXX escape
+        ensureCapacity(chars * 6 + 2);
+        byte[] buf = buffer;
+        int pos = length;
+        buf[pos++] = '"';
+        for (int i = 0; i < chars; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                if (c >= 0x20 && c != '"' && c != '\\') {
+                    buf[pos++] = (byte) c;
+                } else if (c == '"' || c == '\\') {
+                    buf[pos++] = '\\';
+                    buf[pos++] = (byte) c;
+                } else if (SHORT_ESCAPES[c] != 0) {
+                    buf[pos++] = '\\';
+                    buf[pos++] = SHORT_ESCAPES[c];
+                } else {
+                    pos = writeUnicodeEscape(buf, pos, c);
+                }
+            } else if (c < 0x800) {
+                buf[pos++] = (byte) (0xC0 | (c >> 6));
+                buf[pos++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                // Jackson 2.15 escapes each half of a surrogate pair on its own
+                pos = writeUnicodeEscape(buf, pos, c);
+            } else {
+                buf[pos++] = (byte) (0xE0 | (c >> 12));
+                buf[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buf[pos++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        buf[pos++] = '"';
+        length = pos;
+    }
+
+    private static int writeUnicodeEscape(byte[] buf, int pos, char c) {
+        buf[pos++] = '\\';
+        buf[pos++] = 'u';
+        buf[pos++] = HEX[(c >> 12) & 0xF];
+        buf[pos++] = HEX[(c >> 8) & 0xF];
+        buf[pos++] = HEX[(c >> 4) & 0xF];
+        buf[pos++] = HEX[c & 0xF];
+        return pos;
+    }
+
+    // ===== BUFFER =====
+
+    private void writeByte(char b) {
+        ensureCapacity(1);
+        buffer[length++] = (byte) b;
+    }
+
+    private void writeBytes(byte[] bytes) {
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, length, bytes.length);
+        length += bytes.length;
+    }
+
+    private void ensureCapacity(int extra) {
+        if (length + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + extra));
+        }
+    }
+
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,78 @@
+package com.learning.crud.converter;
+
+import com.learning.crud.dto.StudentRequest;
+import com.learning.crud.dto.StudentResponse;
+import com.learning.crud.proto.StudentProto;
+
+import java.util.List;
+
+/**
+ * MAPPER: DTOs ↔ Protocol Buffers messages (see src/main/proto/student.proto)
+ *
+ * Protobuf messages are immutable and built with a builder. A builder
+ * does not accept null, so a null field is simply not set (and reads back
+ * as null thanks to "optional" in the schema).
+ */
+public final class StudentProtoMapper {
+
+    private StudentProtoMapper() {
+    }
+
+    public static StudentProto.StudentResponse toProto(StudentResponse response) {
+        StudentProto.StudentResponse.Builder builder = StudentProto.StudentResponse.newBuilder();
+        if (response.getId() != null) {
+            builder.setId(response.getId());
+        }
+        if (response.getName() != null) {
+            builder.setName(response.getName());
+        }
+        if (response.getAge() != null) {
+            builder.setAge(response.getAge());
+        }
+        if (response.getGrade() != null) {
+            builder.setGrade(response.getGrade());
+        }
+        return builder.build();
+    }
+
+    public static StudentProto.StudentList toProto(List<StudentResponse> responses) {
+        StudentProto.StudentList.Builder builder = StudentProto.StudentList.newBuilder();
+        for (StudentResponse response : responses) {
+            builder.addStudents(toProto(response));
+        }
+        return builder.build();
+    }
+
+    public static StudentProto.StudentRequest toProto(StudentRequest request) {
+        StudentProto.StudentRequest.Builder builder = StudentProto.StudentRequest.newBuilder();
+        if (request.getName() != null) {
+            builder.setName(request.getName());
+        }
+        if (request.getAge() != null) {
+            builder.setAge(request.getAge());
+        }
+        if (request.getGrade() != null) {
+            builder.setGrade(request.getGrade());
+        }
+        return builder.build();
+    }
+
+    public static StudentRequest fromProto(StudentProto.StudentRequest message) {
+        return new StudentRequest(
+                message.hasName() ? message.getName() : null,
+                message.hasAge() ? message.getAge() : null,
+                message.hasGrade() ? message.getGrade() : null);
+    }
+
+    public static StudentResponse fromProto(StudentProto.StudentResponse message) {
+        return new StudentResponse(
+                message.hasId() ? message.getId() : null,
+                message.hasName() ? message.getName() : null,
+                message.hasAge() ? message.getAge() : null,
+                message.hasGrade() ? message.getGrade() : null);
+    }
+
+    public static List<StudentResponse> fromProto(StudentProto.StudentList message) {
+        return message.getStudentsList().stream().map(StudentProtoMapper::fromProto).toList();
+    }
+}
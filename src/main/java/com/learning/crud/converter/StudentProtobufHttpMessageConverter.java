@@ -0,0 +1,99 @@
+package com.learning.crud.converter;
+
+import com.learning.crud.dto.StudentRequest;
+import com.learning.crud.dto.StudentResponse;
+import com.learning.crud.proto.StudentProto;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * MESSAGE CONVERTER: StudentRequest / StudentResponse as Protocol Buffers
+ *
+ * Spring picks a converter by the request's Content-Type and Accept headers
+ * ("content negotiation"). JSON stays the default; a client that sends
+ *
+ *   Accept: application/x-protobuf
+ *
+ * gets the same StudentResponse (or list of them) in the compact binary
+ * format from src/main/proto/student.proto. POST /api/students accepts
+ * a protobuf StudentRequest with Content-Type: application/x-protobuf.
+ *
+ * Handles:
+ * - read:  StudentRequest
+ * - write: StudentResponse, List<StudentResponse> (as StudentList)
+ *
+ * Error responses are plain maps, which protobuf cannot express: they are
+ * sent as JSON instead (see GlobalExceptionHandler), with the usual status.
+ *
+ * Registered LAST by MessageConverterConfig, so JSON stays the default.
+ */
+public class StudentProtobufHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    public static final MediaType PROTOBUF = new MediaType("application", "x-protobuf");
+
+    public StudentProtobufHttpMessageConverter() {
+        super(PROTOBUF);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return clazz == StudentRequest.class || clazz == StudentResponse.class || List.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return type == StudentRequest.class && canRead(mediaType);
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return clazz == StudentRequest.class && canRead(mediaType);
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        return (type == StudentResponse.class || StudentTypes.isStudentResponseList(type)) && canWrite(mediaType);
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+        return clazz == StudentResponse.class && canWrite(mediaType);
+    }
+
+    // Spring asks this with the raw class (e.g. a List) after canWrite(Type...) said yes
+    @Override
+    public List<MediaType> getSupportedMediaTypes(Class<?> clazz) {
+        return supports(clazz) ? getSupportedMediaTypes() : List.of();
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) throws IOException {
+        return readInternal(StudentRequest.class, inputMessage);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        try {
+            return StudentProtoMapper.fromProto(StudentProto.StudentRequest.parseFrom(inputMessage.getBody()));
+        } catch (com.google.protobuf.InvalidProtocolBufferException ex) {
+            throw new HttpMessageNotReadableException("Invalid protobuf StudentRequest: " + ex.getMessage(), ex, inputMessage);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void writeInternal(Object body, Type type, HttpOutputMessage outputMessage) throws IOException {
+        if (body instanceof StudentResponse response) {
+            StudentProtoMapper.toProto(response).writeTo(outputMessage.getBody());
+        } else {
+            StudentProtoMapper.toProto((List<StudentResponse>) body).writeTo(outputMessage.getBody());
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.learning.crud.converter;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.learning.crud.dto.StudentResponse;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongFunction;
+
+/**
+ * STREAM WRITER: Writes ALL students as one long stream of records
+ *
+ * A normal response is built completely in memory before it is sent.
+ * For an export of every student that does not scale, so the records are
+ * written batch by batch while they are read from the database.
+ *
+ * The record format follows the Accept header:
+ *
+ *   Accept                       Content-Type                  Records
+ *   application/x-ndjson (def.)  application/x-ndjson          one JSON object per line
+ *   application/cbor(-seq)       application/cbor-seq          CBOR items one after another
+ *   application/x-jackson-smile  application/x-jackson-smile   Smile values one after another
+ *   application/x-protobuf       application/x-protobuf;       length-prefixed StudentResponse
+ *                                  delimited=true              (Java: parseDelimitedFrom)
+ *
+ * CBOR and Smile use the same Jackson settings as the JSON responses.
+ */
+@Component
+public class StudentStreamWriter {
+
+    public static final MediaType CBOR = new MediaType("application", "cbor");
+    public static final MediaType CBOR_SEQ = new MediaType("application", "cbor-seq");
+    public static final MediaType SMILE = new MediaType("application", "x-jackson-smile");
+    public static final MediaType PROTOBUF_DELIMITED =
+            new MediaType(StudentProtobufHttpMessageConverter.PROTOBUF, Map.of("delimited", "true"));
+
+    private final ObjectMapper jsonMapper;
+    private final ObjectMapper cborMapper;
+    private final ObjectMapper smileMapper;
+
+    public StudentStreamWriter(ObjectMapper objectMapper) {
+        this.jsonMapper = objectMapper;
+        this.cborMapper = objectMapper.copyWith(new CBORFactory());
+        this.smileMapper = objectMapper.copyWith(new SmileFactory());
+    }
+
+    /**
+     * Picks the stream format for an Accept header (NDJSON if nothing else fits)
+     */
+    public MediaType negotiate(String acceptHeader) {
+        List<MediaType> accepted;
+        try {
+            accepted = acceptHeader == null ? List.of() : new ArrayList<>(MediaType.parseMediaTypes(acceptHeader));
+        } catch (InvalidMediaTypeException ex) {
+            return MediaType.APPLICATION_NDJSON;
+        }
+        MimeTypeUtils.sortBySpecificity(accepted);
+        for (MediaType type : accepted) {
+            if (type.isWildcardType() || type.isWildcardSubtype()) {
+                continue;
+            }
+            if (CBOR.includes(type) || CBOR_SEQ.includes(type)) {
+                return CBOR_SEQ;
+            }
+            if (SMILE.includes(type)) {
+                return SMILE;
+            }
+            if (StudentProtobufHttpMessageConverter.PROTOBUF.isCompatibleWith(type)) {
+                return PROTOBUF_DELIMITED;
+            }
+            if (MediaType.APPLICATION_NDJSON.includes(type) || MediaType.APPLICATION_JSON.includes(type)) {
+                return MediaType.APPLICATION_NDJSON;
+            }
+        }
+        return MediaType.APPLICATION_NDJSON;
+    }
+
+    /**
+     * Writes every student, one batch at a time
+     *
+     * @param format  a media type returned by negotiate()
+     * @param batches returns the next students after the given ID (empty list = done)
+     */
+    public void write(MediaType format, OutputStream out, LongFunction<List<StudentResponse>> batches) throws IOException {
+        if (PROTOBUF_DELIMITED.equals(format)) {
+            writeBatches(batches, batch -> {
+                for (StudentResponse student : batch) {
+                    StudentProtoMapper.toProto(student).writeDelimitedTo(out);
+                }
+                out.flush();
+            });
+            return;
+        }
+
+        ObjectMapper mapper = CBOR_SEQ.equals(format) ? cborMapper : SMILE.equals(format) ? smileMapper : jsonMapper;
+        boolean ndjson = mapper == jsonMapper;
+        // One generator for the whole stream; flushed per batch, not per record
+        ObjectWriter writer = mapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (JsonGenerator generator = mapper.createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            if (ndjson) {
+                // Jackson puts a space between top-level JSON values by default; we use newlines
+                generator.setRootValueSeparator(null);
+            }
+            writeBatches(batches, batch -> {
+                for (StudentResponse student : batch) {
+                    writer.writeValue(generator, student);
+                    if (ndjson) {
+                        generator.writeRaw('\n');
+                    }
+                }
+                generator.flush();
+            });
+        }
+    }
+
+    private void writeBatches(LongFunction<List<StudentResponse>> batches, BatchWriter writer) throws IOException {
+        long afterId = 0;
+        List<StudentResponse> batch;
+        while (!(batch = batches.apply(afterId)).isEmpty()) {
+            writer.write(batch);
+            afterId = batch.get(batch.size() - 1).getId();
+        }
+    }
+
+    @FunctionalInterface
+    private interface BatchWriter {
+        void write(List<StudentResponse> batch) throws IOException;
+    }
+}
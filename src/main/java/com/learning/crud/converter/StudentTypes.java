@@ -0,0 +1,26 @@
+package com.learning.crud.converter;
+
+import com.learning.crud.dto.StudentResponse;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * Type checks shared by the student message converters
+ */
+final class StudentTypes {
+
+    private StudentTypes() {
+    }
+
+    /**
+     * List<StudentResponse> (the declared return type of the list and search endpoints)
+     */
+    static boolean isStudentResponseList(Type type) {
+        return type instanceof ParameterizedType parameterized
+                && parameterized.getRawType() instanceof Class<?> raw
+                && List.class.isAssignableFrom(raw)
+                && parameterized.getActualTypeArguments()[0] == StudentResponse.class;
+    }
+}
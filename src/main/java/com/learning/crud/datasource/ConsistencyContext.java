@@ -0,0 +1,77 @@
+package com.learning.crud.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * CONSISTENCY CONTEXT: Remembers which write the current request must be able to see
+ *
+ * Read replicas are a little behind the primary database. A client that
+ * creates a student and immediately reads it back could hit a replica that
+ * has not received the new row yet ("where did my student go?").
+ *
+ * To avoid that, createStudent returns a CONSISTENCY TOKEN (HTTP header
+ * X-Consistency-Token). The client sends it back on its next reads, and
+ * ReplicaRoutingDataSource only uses a replica that has caught up to it.
+ *
+ * The token is the ID of the written student: replicas copy students in
+ * ID order, so "replica has copied up to ID X" means "replica has my write".
+ *
+ * The token lives in a ThreadLocal: one value per request thread.
+ */
+public final class ConsistencyContext {
+
+    // HTTP header carrying the token (in responses of writes, in requests of reads)
+    public static final String HEADER = "X-Consistency-Token";
+
+    private static final ThreadLocal<Long> REQUIRED_POSITION = new ThreadLocal<>();
+
+    private ConsistencyContext() {
+    }
+
+    /**
+     * Token to hand back to the client after creating the student with this ID
+     */
+    public static String tokenFor(Long studentId) {
+        return String.valueOf(studentId);
+    }
+
+    /**
+     * Reads must see at least this position (set from the request header)
+     */
+    public static void require(long position) {
+        REQUIRED_POSITION.set(position);
+    }
+
+    /**
+     * Position the current request must see, or 0 if it does not care
+     */
+    public static long requiredPosition() {
+        Long position = REQUIRED_POSITION.get();
+        return position == null ? 0L : position;
+    }
+
+    /**
+     * Runs work that must see EVERY committed write (for example loading
+     * in-memory indexes at startup), so all its reads go to the primary
+     */
+    public static <T> T onPrimary(Supplier<T> work) {
+        Long previous = REQUIRED_POSITION.get();
+        REQUIRED_POSITION.set(Long.MAX_VALUE);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                REQUIRED_POSITION.remove();
+            } else {
+                REQUIRED_POSITION.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Must be called when the request ends (threads are reused!)
+     */
+    public static void clear() {
+        REQUIRED_POSITION.remove();
+    }
+}
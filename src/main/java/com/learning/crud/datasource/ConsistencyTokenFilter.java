@@ -0,0 +1,44 @@
+package com.learning.crud.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * FILTER: Reads the X-Consistency-Token header of every HTTP request
+ *
+ * A Filter runs BEFORE the controller (and after it, on the way out).
+ * Here it copies the token into ConsistencyContext so the database
+ * routing can see it, and always clears it again at the end.
+ *
+ * Example:
+ *   GET /api/students/42
+ *   X-Consistency-Token: 42     ← "I just created student 42, make sure I can see it"
+ */
+@Component
+public class ConsistencyTokenFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String token = request.getHeader(ConsistencyContext.HEADER);
+        if (token != null && !token.isBlank()) {
+            try {
+                ConsistencyContext.require(Long.parseLong(token.trim()));
+            } catch (NumberFormatException ex) {
+                // Unknown token format: be safe and read from the primary
+                ConsistencyContext.require(Long.MAX_VALUE);
+            }
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ConsistencyContext.clear();
+        }
+    }
+}
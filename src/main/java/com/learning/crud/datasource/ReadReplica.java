@@ -0,0 +1,100 @@
+package com.learning.crud.datasource;
+
+import javax.sql.DataSource;
+
+/**
+ * One read replica: its connection pool and how far it has caught up
+ *
+ * Updated by ReplicaSynchronizer (one thread), read by ReplicaRoutingDataSource.
+ */
+public class ReadReplica {
+
+    private final String name;
+    private final DataSource dataSource;
+
+    // Highest student ID copied to this replica so far
+    private volatile long copiedPosition;
+
+    // Every student up to this ID that was committed when the last round started
+    // was copied in that round (see ReplicaSynchronizer)
+    private volatile long completePosition;
+
+    // Highest student ID that is SAFE to promise to readers (see ReplicaSynchronizer)
+    private volatile long appliedPosition;
+
+    // Change feed seq up to which bulk updates were copied (-1 = first round still to come)
+    private volatile long changesPosition = -1;
+
+    // Highest student ID on the primary when we last looked
+    private volatile long primaryPosition;
+
+    // When this replica last had everything the primary had (epoch millis)
+    private volatile long caughtUpAtMillis = System.currentTimeMillis();
+
+    public ReadReplica(String name, DataSource dataSource) {
+        this.name = name;
+        this.dataSource = dataSource;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public DataSource getDataSource() {
+        return dataSource;
+    }
+
+    public long getAppliedPosition() {
+        return appliedPosition;
+    }
+
+    long getCopiedPosition() {
+        return copiedPosition;
+    }
+
+    void markCopied(long position) {
+        copiedPosition = Math.max(copiedPosition, position);
+    }
+
+    long getCompletePosition() {
+        return completePosition;
+    }
+
+    void markComplete(long position) {
+        // Not Math.max: a transaction still open on old IDs moves it back
+        completePosition = position;
+    }
+
+    long getChangesPosition() {
+        return changesPosition;
+    }
+
+    void markChangesCopied(long seq) {
+        changesPosition = Math.max(changesPosition, seq);
+    }
+
+    void publish(long safePosition, long primaryPosition) {
+        appliedPosition = Math.max(appliedPosition, safePosition);
+        this.primaryPosition = primaryPosition;
+        if (copiedPosition >= primaryPosition) {
+            caughtUpAtMillis = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Rows the primary has that this replica has not copied yet
+     */
+    public long lagRows() {
+        return Math.max(0, primaryPosition - copiedPosition);
+    }
+
+    /**
+     * Seconds since this replica last had everything (0 when fully caught up)
+     */
+    public double lagSeconds() {
+        if (lagRows() == 0) {
+            return 0.0;
+        }
+        return (System.currentTimeMillis() - caughtUpAtMillis) / 1000.0;
+    }
+}
@@ -0,0 +1,79 @@
+package com.learning.crud.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ROUTING DATASOURCE: Sends reads to replicas and writes to the primary
+ *
+ * Every time a connection is needed, Spring asks determineCurrentLookupKey()
+ * which database to use:
+ *
+ *   @Transactional(readOnly = true)  → a read replica (round robin)
+ *   anything else                    → the primary
+ *
+ * A replica is only used if it has caught up to the request's consistency
+ * token (see ConsistencyContext); otherwise the read goes to the primary.
+ *
+ * IMPORTANT: This must be wrapped in a LazyConnectionDataSourceProxy, so the
+ * real connection is fetched only when the first SQL runs. By then Spring
+ * has marked the transaction read-only and we can route correctly.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    static final String PRIMARY = "primary";
+
+    private final List<ReadReplica> replicas;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<ReadReplica> replicas) {
+        this.replicas = List.copyOf(replicas);
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (ReadReplica replica : replicas) {
+            targets.put(replica.getName(), replica.getDataSource());
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    public List<ReadReplica> getReplicas() {
+        return replicas;
+    }
+
+    /**
+     * Closes the replica connection pools (Spring calls close() on shutdown)
+     */
+    public void close() throws Exception {
+        for (ReadReplica replica : replicas) {
+            if (replica.getDataSource() instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || replicas.isEmpty()) {
+            return PRIMARY;
+        }
+
+        // Round robin over the replicas, skipping any that are behind the client's last write
+        long required = ConsistencyContext.requiredPosition();
+        int start = Math.floorMod(nextReplica.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            ReadReplica replica = replicas.get((start + i) % replicas.size());
+            if (replica.getAppliedPosition() >= required) {
+                return replica.getName();
+            }
+        }
+        return PRIMARY;
+    }
+}
@@ -0,0 +1,197 @@
+package com.learning.crud.datasource;
+
+import com.learning.crud.changefeed.StudentChangeFeed;
+import com.learning.crud.exception.ChangeFeedGoneException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * REPLICA SYNCHRONIZER: Keeps the read replicas up to date
+ *
+ * Real databases replicate by themselves. Our replicas are plain local H2
+ * databases, so this class plays "replication": every few hundred
+ * milliseconds it copies new students from the primary to each replica.
+ *
+ * FLOW (per replica):
+ * 1. Note the change feed's committedPosition (see step 5) and its
+ *    lowestOpenStudentId (see step 4)
+ * 2. Copy the whole grades dictionary (a few rows): a student copied in
+ *    step 3 may use a grade code the primary added after the replica started
+ * 3. SELECT students with id > (the last round's complete position, see
+ *    step 4), in pages, and MERGE them into the replica (insert, or
+ *    overwrite if the id exists)
+ * 4. Remember the highest id copied → that is the replica's position.
+ *    Students with smaller ids may still be in an open transaction, so the
+ *    next round starts again below the lowest of those (complete position)
+ * 5. Copy the students changed by bulk updates: "id > position" never
+ *    finds them again, so read the UPDATED entries of the change feed
+ *    since the last round (up to the position from step 1) and MERGE the
+ *    current row of each of those students
+ *
+ * The very first round copies every row, updates included, so it only
+ * remembers the feed position. If the replica fell so far behind that the
+ * feed already deleted the changes it needs (ChangeFeedGoneException),
+ * step 3 starts again at id 0 to copy everything once more.
+ *
+ * Why not simply continue after the last copied id?
+ * IDs are handed out when a row is inserted, but transactions can commit
+ * in a different order: a row with a smaller id can become visible after a
+ * bigger one was copied. The change feed knows every open transaction and
+ * the lowest student id it creates, so the next round re-reads from there
+ * (the complete position). MERGE makes re-copying harmless.
+ *
+ * A transaction that has inserted its students but not yet recorded them
+ * in the feed is invisible to it for that short moment. The rewind covers
+ * it: the next round starts that many ids further back, one group commit
+ * batch (or one student without group commit) per pooled connection -
+ * the most students that can be inserted at once (see ReadReplicaConfig).
+ *
+ * For the same reason the position promised to readers (appliedPosition)
+ * trails by one round: ids below round N's complete position are only
+ * promised after round N + 1 has re-read them, so a consistency token is
+ * never honoured by a replica that might still miss a late-committing row.
+ *
+ * Metrics (see /actuator/metrics):
+ * - students.replica.lag.rows     → student ids the replica is behind
+ * - students.replica.lag.seconds  → how long since the replica was fully caught up
+ */
+public class ReplicaSynchronizer {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaSynchronizer.class);
+
+    private static final int PAGE_SIZE = 5_000;
+
+    private static final String SELECT_GRADES = "SELECT code, grade FROM grades";
+    private static final String MERGE_GRADE = "MERGE INTO grades (code, grade) KEY (code) VALUES (?, ?)";
+
+    private static final String SELECT_NEW_STUDENTS =
+            "SELECT id, name, age, grade_code FROM students WHERE id > ? ORDER BY id LIMIT ?";
+    private static final String MERGE_STUDENT =
+            "MERGE INTO students (id, name, age, grade_code) KEY (id) VALUES (?, ?, ?, ?)";
+
+    private static final String SELECT_UPDATED_STUDENTS =
+            "SELECT c.seq, s.id, s.name, s.age, s.grade_code FROM student_changes c "
+                    + "JOIN students s ON s.id = c.student_id "
+                    + "WHERE c.seq > ? AND c.seq <= ? AND c.change_type = '" + StudentChangeFeed.UPDATED + "' "
+                    + "ORDER BY c.seq LIMIT ?";
+
+    private final JdbcTemplate primary;
+    private final List<ReadReplica> replicas;
+    private final StudentChangeFeed changeFeed;
+
+    // How many ids before the complete position each round starts (see class comment)
+    private final long rewind;
+
+    public ReplicaSynchronizer(DataSource primary, List<ReadReplica> replicas, StudentChangeFeed changeFeed,
+                               long rewind, MeterRegistry meterRegistry) {
+        this.primary = new JdbcTemplate(primary);
+        this.replicas = replicas;
+        this.changeFeed = changeFeed;
+        this.rewind = Math.max(0, rewind);
+
+        for (ReadReplica replica : replicas) {
+            Gauge.builder("students.replica.lag.rows", replica, ReadReplica::lagRows)
+                    .description("Student ids the read replica has not copied yet")
+                    .tag("replica", replica.getName())
+                    .register(meterRegistry);
+            Gauge.builder("students.replica.lag.seconds", replica, ReadReplica::lagSeconds)
+                    .description("Seconds since the read replica was fully caught up")
+                    .tag("replica", replica.getName())
+                    .register(meterRegistry);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replica.sync-interval-ms:200}")
+    public void synchronize() {
+        for (ReadReplica replica : replicas) {
+            try {
+                synchronize(replica);
+            } catch (RuntimeException ex) {
+                log.warn("Replica {} sync failed: {}", replica.getName(), ex.getMessage());
+            }
+        }
+    }
+
+    private void synchronize(ReadReplica replica) {
+        JdbcTemplate target = new JdbcTemplate(replica.getDataSource());
+        // Read before any row: every update up to here is then in the rows copied below, or in the feed
+        long feedPosition = changeFeed.committedPosition();
+        // Every student below it that is not being inserted right now is committed
+        long lowestOpenId = changeFeed.lowestOpenStudentId();
+        boolean copyAll = replica.getChangesPosition() >= 0 && !changesAvailable(replica.getChangesPosition());
+        Long primaryMax = primary.queryForObject("SELECT COALESCE(MAX(id), 0) FROM students", Long.class);
+        long primaryPosition = primaryMax == null ? 0L : primaryMax;
+
+        // Grades first, so no copied student points at a code the replica does not know
+        target.batchUpdate(MERGE_GRADE, primary.queryForList(SELECT_GRADES).stream()
+                .map(row -> new Object[]{row.get("CODE"), row.get("GRADE")})
+                .toList());
+
+        // Everything up to the last round's complete position is re-read below, so it becomes safe after this round
+        long safePosition = replica.getCompletePosition();
+
+        long from = copyAll ? 0 : Math.max(0, safePosition - rewind);
+        while (true) {
+            List<Map<String, Object>> rows = primary.queryForList(SELECT_NEW_STUDENTS, from, PAGE_SIZE);
+            if (rows.isEmpty()) {
+                break;
+            }
+            mergeStudents(target, rows);
+            from = ((Number) rows.get(rows.size() - 1).get("ID")).longValue();
+            replica.markCopied(from);
+            if (rows.size() < PAGE_SIZE) {
+                break;
+            }
+        }
+        replica.markComplete(Math.min(replica.getCopiedPosition(), lowestOpenId - 1));
+
+        if (replica.getChangesPosition() < 0 || copyAll) {
+            // Every row was copied after feedPosition was read: nothing older is missing
+            replica.markChangesCopied(feedPosition);
+        } else {
+            copyUpdatedStudents(replica, target, feedPosition);
+        }
+        replica.publish(safePosition, primaryPosition);
+    }
+
+    /**
+     * MERGEs the current row of every student with an UPDATED change in (changesPosition, upTo]
+     */
+    private void copyUpdatedStudents(ReadReplica replica, JdbcTemplate target, long upTo) {
+        long after = replica.getChangesPosition();
+        while (after < upTo) {
+            List<Map<String, Object>> rows = primary.queryForList(SELECT_UPDATED_STUDENTS, after, upTo, PAGE_SIZE);
+            // prune() may have run while we were reading: then copy everything next round
+            if (!changesAvailable(after)) {
+                return;
+            }
+            mergeStudents(target, rows);
+            after = rows.size() < PAGE_SIZE ? upTo : ((Number) rows.get(rows.size() - 1).get("SEQ")).longValue();
+            replica.markChangesCopied(after);
+        }
+    }
+
+    private boolean changesAvailable(long after) {
+        try {
+            changeFeed.checkAvailable(after);
+            return true;
+        } catch (ChangeFeedGoneException ex) {
+            log.warn("Replica sync: change feed after seq {} is gone, copying all students again", after);
+            return false;
+        }
+    }
+
+    private static void mergeStudents(JdbcTemplate target, List<Map<String, Object>> rows) {
+        target.batchUpdate(MERGE_STUDENT, rows.stream()
+                .map(row -> new Object[]{row.get("ID"), row.get("NAME"), row.get("AGE"), row.get("GRADE_CODE")})
+                .toList());
+    }
+}
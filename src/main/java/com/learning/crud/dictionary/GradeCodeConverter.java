@@ -0,0 +1,39 @@
+package com.learning.crud.dictionary;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA CONVERTER: Student.grade is a String in Java, a SMALLINT code in the database
+ *
+ * JPA calls this converter for every read and write of the grade field:
+ * - writing: "A" → GradeDictionary.encode → 1
+ * - reading: 1   → GradeDictionary.decode → "A" (shared String instance)
+ *
+ * It also applies to JPQL, e.g. "SELECT s.grade ... GROUP BY s.grade"
+ * groups by the code in SQL and returns the text.
+ *
+ * @Component: Spring creates the converter (with its GradeDictionary)
+ * and hands it to Hibernate.
+ */
+@Component
+@Converter
+public class GradeCodeConverter implements AttributeConverter<String, Short> {
+
+    private final GradeDictionary gradeDictionary;
+
+    public GradeCodeConverter(GradeDictionary gradeDictionary) {
+        this.gradeDictionary = gradeDictionary;
+    }
+
+    @Override
+    public Short convertToDatabaseColumn(String grade) {
+        return grade == null ? null : gradeDictionary.encode(grade);
+    }
+
+    @Override
+    public String convertToEntityAttribute(Short code) {
+        return code == null ? null : gradeDictionary.decode(code);
+    }
+}
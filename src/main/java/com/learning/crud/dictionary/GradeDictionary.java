@@ -0,0 +1,206 @@
+package com.learning.crud.dictionary;
+
+import com.learning.crud.datasource.ConsistencyContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * GRADE DICTIONARY: Every distinct grade gets a small number (code)
+ *
+ * There are only a handful of different grades ("A", "B", "C"...), but
+ * every student row used to store the grade TEXT again, and every loaded
+ * student held its own copy of that String.
+ *
+ * Dictionary encoding: the texts are stored ONCE in the "grades" table,
+ *
+ *   grades                students
+ *   code | grade          id | name | age | grade_code
+ *   -----+------          ---+------+-----+-----------
+ *      1 | A               1 | John |  15 |          1
+ *      2 | B               2 | Mary |  16 |          2
+ *                          3 | Alex |  15 |          1
+ *
+ * and each student only stores the 2-byte code (SMALLINT).
+ *
+ * In memory we keep both directions:
+ * - grade → code: ConcurrentHashMap (used when writing)
+ * - code → grade: plain array indexed by code (used when reading)
+ * Reading always returns the SAME String instance for the same grade
+ * ("interning"), so a million loaded students share a dozen Strings.
+ *
+ * New grades are added on first use, in their own small transaction on
+ * the primary database, so the code exists even if the student's own
+ * transaction rolls back. Codes never change once given out.
+ */
+@Component
+public class GradeDictionary {
+
+    private static final Logger log = LoggerFactory.getLogger(GradeDictionary.class);
+
+    // SMALLINT codes: 1 .. 32767
+    private static final int MAX_CODE = Short.MAX_VALUE;
+
+    private final DataSource dataSource;
+
+    private final Map<String, Short> codesByGrade = new ConcurrentHashMap<>();
+    // Replaced (never modified) when a grade is added, so readers need no lock
+    private volatile String[] gradesByCode = new String[1];
+
+    public GradeDictionary(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * Code for a grade; a new grade is added to the dictionary first
+     */
+    public short encode(String grade) {
+        Short code = codesByGrade.get(grade);
+        if (code != null) {
+            return code;
+        }
+        return add(grade);
+    }
+
+    /**
+     * Code for a grade WITHOUT adding it; 0 if the grade is unknown
+     */
+    public short codeOf(String grade) {
+        Short code = grade == null ? null : codesByGrade.get(grade);
+        if (code == null && grade != null) {
+            // Maybe added by another application instance
+            reload();
+            code = codesByGrade.get(grade);
+        }
+        return code == null ? 0 : code;
+    }
+
+    /**
+     * Grade text for a code (always the same String instance)
+     */
+    public String decode(short code) {
+        String[] grades = gradesByCode;
+        if (code > 0 && code < grades.length && grades[code] != null) {
+            return grades[code];
+        }
+        // Added by another application instance: load the table again
+        reload();
+        grades = gradesByCode;
+        if (code > 0 && code < grades.length && grades[code] != null) {
+            return grades[code];
+        }
+        throw new IllegalStateException("Unknown grade code " + code);
+    }
+
+    /**
+     * The shared String instance for this grade (null stays null)
+     */
+    public String intern(String grade) {
+        return grade == null ? null : decode(encode(grade));
+    }
+
+    /**
+     * Number of distinct grades
+     */
+    public int size() {
+        return codesByGrade.size();
+    }
+
+    // ===== LOADING AND ADDING =====
+
+    /**
+     * Adds a grade; only one thread at a time, so codes are handed out in order
+     */
+    private synchronized short add(String grade) {
+        Short code = codesByGrade.get(grade);
+        if (code != null) {
+            return code;
+        }
+        // Another instance may have added it already
+        reload();
+        code = codesByGrade.get(grade);
+        if (code != null) {
+            return code;
+        }
+
+        int next = gradesByCode.length;
+        if (next > MAX_CODE) {
+            throw new IllegalArgumentException("Too many distinct grades (at most " + MAX_CODE + ")");
+        }
+        boolean inserted = onPrimaryConnection(connection -> {
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO grades (code, grade) SELECT ?, ? WHERE NOT EXISTS (SELECT 1 FROM grades WHERE grade = ?)")) {
+                insert.setShort(1, (short) next);
+                insert.setString(2, grade);
+                insert.setString(3, grade);
+                return insert.executeUpdate() == 1;
+            } catch (SQLIntegrityConstraintViolationException ex) {
+                // Another instance took this code for a different grade
+                return false;
+            }
+        });
+        if (!inserted) {
+            // Lost a race with another instance: reload and use its code (or the next free one)
+            return add(grade);
+        }
+        put((short) next, grade);
+        log.debug("Grade '{}' added to the dictionary as code {}", grade, next);
+        return (short) next;
+    }
+
+    /**
+     * Reads the whole grades table (it is tiny)
+     */
+    private synchronized void reload() {
+        onPrimaryConnection(connection -> {
+            try (Statement statement = connection.createStatement();
+                 ResultSet rows = statement.executeQuery("SELECT code, grade FROM grades")) {
+                while (rows.next()) {
+                    put(rows.getShort("code"), rows.getString("grade"));
+                }
+            }
+            return null;
+        });
+    }
+
+    private synchronized void put(short code, String grade) {
+        if (code >= gradesByCode.length || gradesByCode[code] == null) {
+            String[] grades = Arrays.copyOf(gradesByCode, Math.max(gradesByCode.length, code + 1));
+            grades[code] = grade;
+            gradesByCode = grades;
+        }
+        codesByGrade.putIfAbsent(grade, code);
+    }
+
+    /**
+     * Runs the work on its OWN auto-commit connection to the primary,
+     * outside any transaction the caller may have open
+     */
+    private <T> T onPrimaryConnection(SqlWork<T> work) {
+        return ConsistencyContext.onPrimary(() -> {
+            try (Connection connection = dataSource.getConnection()) {
+                connection.setAutoCommit(true);
+                return work.run(connection);
+            } catch (SQLException ex) {
+                throw new DataAccessResourceFailureException("Grade dictionary: " + ex.getMessage(), ex);
+            }
+        });
+    }
+
+    @FunctionalInterface
+    private interface SqlWork<T> {
+        T run(Connection connection) throws SQLException;
+    }
+}
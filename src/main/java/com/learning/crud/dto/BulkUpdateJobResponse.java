@@ -0,0 +1,155 @@
+package com.learning.crud.dto;
+
+import java.util.List;
+
+/**
+ * DTO (Data Transfer Object): Progress of one bulk update job
+ *
+ * Sent back by:
+ * - REST: POST /api/students/bulk/promote-grade, POST /api/students/bulk/shift-ages
+ * - REST: GET  /api/students/bulk/{id}
+ *
+ * Example (JSON):
+ * {
+ *   "id": 3,
+ *   "operation": "promote grade B to A",
+ *   "state": "RUNNING",
+ *   "rangesTotal": 120,
+ *   "rangesDone": 42,
+ *   "percentDone": 35,
+ *   "studentsUpdated": 70013,
+ *   "startedAt": "2024-06-30T23:00:00Z",
+ *   "finishedAt": null,
+ *   "failedRanges": [],
+ *   "error": null
+ * }
+ *
+ * state: RUNNING, DONE or FAILED. A FAILED job stops starting new ranges;
+ * failedRanges lists the ID ranges ("from-to") that were NOT updated, so
+ * they can be looked at (ranges already done stay done).
+ */
+public class BulkUpdateJobResponse {
+
+    private long id;
+    private String operation;
+    private String state;
+    private int rangesTotal;
+    private int rangesDone;
+    private int percentDone;
+    private long studentsUpdated;
+    private String startedAt;
+    private String finishedAt;
+    private List<String> failedRanges;
+    private String error;
+
+    // ===== CONSTRUCTORS =====
+
+    public BulkUpdateJobResponse() {
+    }
+
+    public BulkUpdateJobResponse(long id, String operation, String state, int rangesTotal, int rangesDone,
+                                 long studentsUpdated, String startedAt, String finishedAt,
+                                 List<String> failedRanges, String error) {
+        this.id = id;
+        this.operation = operation;
+        this.state = state;
+        this.rangesTotal = rangesTotal;
+        this.rangesDone = rangesDone;
+        this.percentDone = rangesTotal == 0 ? 100 : (int) (100L * rangesDone / rangesTotal);
+        this.studentsUpdated = studentsUpdated;
+        this.startedAt = startedAt;
+        this.finishedAt = finishedAt;
+        this.failedRanges = failedRanges;
+        this.error = error;
+    }
+
+    // ===== GETTERS AND SETTERS =====
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public void setOperation(String operation) {
+        this.operation = operation;
+    }
+
+    public String getState() {
+        return state;
+    }
+
+    public void setState(String state) {
+        this.state = state;
+    }
+
+    public int getRangesTotal() {
+        return rangesTotal;
+    }
+
+    public void setRangesTotal(int rangesTotal) {
+        this.rangesTotal = rangesTotal;
+    }
+
+    public int getRangesDone() {
+        return rangesDone;
+    }
+
+    public void setRangesDone(int rangesDone) {
+        this.rangesDone = rangesDone;
+    }
+
+    public int getPercentDone() {
+        return percentDone;
+    }
+
+    public void setPercentDone(int percentDone) {
+        this.percentDone = percentDone;
+    }
+
+    public long getStudentsUpdated() {
+        return studentsUpdated;
+    }
+
+    public void setStudentsUpdated(long studentsUpdated) {
+        this.studentsUpdated = studentsUpdated;
+    }
+
+    public String getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(String startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public String getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(String finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    public List<String> getFailedRanges() {
+        return failedRanges;
+    }
+
+    public void setFailedRanges(List<String> failedRanges) {
+        this.failedRanges = failedRanges;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
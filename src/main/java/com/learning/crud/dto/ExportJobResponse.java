@@ -0,0 +1,152 @@
+package com.learning.crud.dto;
+
+/**
+ * DTO (Data Transfer Object): Status of one background export
+ *
+ * Sent back by:
+ * - REST: POST /api/students/exports
+ * - REST: GET  /api/students/exports/{id}
+ *
+ * Example (JSON):
+ * {
+ *   "id": 7,
+ *   "state": "RUNNING",
+ *   "format": "ndjson",
+ *   "filter": "age 14-16, grade A",
+ *   "percentDone": 40,
+ *   "studentsWritten": 12034,
+ *   "fileBytes": 0,
+ *   "submittedAt": "2024-06-30T10:00:00Z",
+ *   "finishedAt": null,
+ *   "downloadUrl": null,
+ *   "error": null
+ * }
+ *
+ * state: QUEUED, RUNNING, DONE or FAILED. Once DONE, downloadUrl is set
+ * and fileBytes is the size of the (gzip-compressed) file.
+ */
+public class ExportJobResponse {
+
+    private long id;
+    private String state;
+    private String format;
+    private String filter;
+    private int percentDone;
+    private long studentsWritten;
+    private long fileBytes;
+    private String submittedAt;
+    private String finishedAt;
+    private String downloadUrl;
+    private String error;
+
+    // ===== CONSTRUCTORS =====
+
+    public ExportJobResponse() {
+    }
+
+    public ExportJobResponse(long id, String state, String format, String filter, int percentDone,
+                             long studentsWritten, long fileBytes, String submittedAt, String finishedAt,
+                             String downloadUrl, String error) {
+        this.id = id;
+        this.state = state;
+        this.format = format;
+        this.filter = filter;
+        this.percentDone = percentDone;
+        this.studentsWritten = studentsWritten;
+        this.fileBytes = fileBytes;
+        this.submittedAt = submittedAt;
+        this.finishedAt = finishedAt;
+        this.downloadUrl = downloadUrl;
+        this.error = error;
+    }
+
+    // ===== GETTERS AND SETTERS =====
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public String getState() {
+        return state;
+    }
+
+    public void setState(String state) {
+        this.state = state;
+    }
+
+    public String getFormat() {
+        return format;
+    }
+
+    public void setFormat(String format) {
+        this.format = format;
+    }
+
+    public String getFilter() {
+        return filter;
+    }
+
+    public void setFilter(String filter) {
+        this.filter = filter;
+    }
+
+    public int getPercentDone() {
+        return percentDone;
+    }
+
+    public void setPercentDone(int percentDone) {
+        this.percentDone = percentDone;
+    }
+
+    public long getStudentsWritten() {
+        return studentsWritten;
+    }
+
+    public void setStudentsWritten(long studentsWritten) {
+        this.studentsWritten = studentsWritten;
+    }
+
+    public long getFileBytes() {
+        return fileBytes;
+    }
+
+    public void setFileBytes(long fileBytes) {
+        this.fileBytes = fileBytes;
+    }
+
+    public String getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public void setSubmittedAt(String submittedAt) {
+        this.submittedAt = submittedAt;
+    }
+
+    public String getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(String finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    public String getDownloadUrl() {
+        return downloadUrl;
+    }
+
+    public void setDownloadUrl(String downloadUrl) {
+        this.downloadUrl = downloadUrl;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -0,0 +1,44 @@
+package com.learning.crud.dto;
+
+/**
+ * DTO (Data Transfer Object): Raw analytics sketches of one node
+ *
+ * Used to combine analytics from several nodes:
+ * 1. GET  /api/students/analytics/sketches on every other node
+ * 2. POST the collected list to /api/students/analytics/merge on one node
+ *
+ * byte[] fields are sent as Base64 text in JSON.
+ */
+public class SketchExport {
+
+    private byte[] distinctNames;
+    private byte[] ageQuantiles;
+
+    // ===== CONSTRUCTORS =====
+
+    public SketchExport() {
+    }
+
+    public SketchExport(byte[] distinctNames, byte[] ageQuantiles) {
+        this.distinctNames = distinctNames;
+        this.ageQuantiles = ageQuantiles;
+    }
+
+    // ===== GETTERS AND SETTERS =====
+
+    public byte[] getDistinctNames() {
+        return distinctNames;
+    }
+
+    public void setDistinctNames(byte[] distinctNames) {
+        this.distinctNames = distinctNames;
+    }
+
+    public byte[] getAgeQuantiles() {
+        return ageQuantiles;
+    }
+
+    public void setAgeQuantiles(byte[] ageQuantiles) {
+        this.ageQuantiles = ageQuantiles;
+    }
+}
@@ -0,0 +1,102 @@
+package com.learning.crud.dto;
+
+/**
+ * DTO (Data Transfer Object): Timing totals for one SQL statement
+ *
+ * Sent back by: GET /actuator/sqlstats
+ *
+ * Example (JSON):
+ * {
+ *   "sql": "select s1_0.id,s1_0.age,... from students s1_0 where s1_0.id=?",
+ *   "count": 1520,
+ *   "totalMillis": 310.4,
+ *   "avgMillis": 0.2,
+ *   "maxMillis": 12.7,
+ *   "slowCount": 0,
+ *   "errorCount": 0
+ * }
+ */
+public class SqlStatementStatsResponse {
+
+    private String sql;
+    private long count;
+    private double totalMillis;
+    private double avgMillis;
+    private double maxMillis;
+    private long slowCount;
+    private long errorCount;
+
+    // ===== CONSTRUCTORS =====
+
+    public SqlStatementStatsResponse() {
+    }
+
+    public SqlStatementStatsResponse(String sql, long count, double totalMillis, double avgMillis,
+                                     double maxMillis, long slowCount, long errorCount) {
+        this.sql = sql;
+        this.count = count;
+        this.totalMillis = totalMillis;
+        this.avgMillis = avgMillis;
+        this.maxMillis = maxMillis;
+        this.slowCount = slowCount;
+        this.errorCount = errorCount;
+    }
+
+    // ===== GETTERS AND SETTERS =====
+
+    public String getSql() {
+        return sql;
+    }
+
+    public void setSql(String sql) {
+        this.sql = sql;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    public double getTotalMillis() {
+        return totalMillis;
+    }
+
+    public void setTotalMillis(double totalMillis) {
+        this.totalMillis = totalMillis;
+    }
+
+    public double getAvgMillis() {
+        return avgMillis;
+    }
+
+    public void setAvgMillis(double avgMillis) {
+        this.avgMillis = avgMillis;
+    }
+
+    public double getMaxMillis() {
+        return maxMillis;
+    }
+
+    public void setMaxMillis(double maxMillis) {
+        this.maxMillis = maxMillis;
+    }
+
+    public long getSlowCount() {
+        return slowCount;
+    }
+
+    public void setSlowCount(long slowCount) {
+        this.slowCount = slowCount;
+    }
+
+    public long getErrorCount() {
+        return errorCount;
+    }
+
+    public void setErrorCount(long errorCount) {
+        this.errorCount = errorCount;
+    }
+}
@@ -0,0 +1,116 @@
+package com.learning.crud.dto;
+
+import java.util.List;
+
+/**
+ * DTO (Data Transfer Object): APPROXIMATE analytics about all students
+ *
+ * These numbers come from sketches, not from exact queries, so every
+ * value comes with its error bound:
+ *
+ * - approximateDistinctNames ± distinctNamesStandardError (a fraction, 0.0081 = 0.81%)
+ *   About 68% of answers are within 1 standard error, 99.7% within 3.
+ *
+ * - agePercentiles: the returned age's true rank is within ± ageRankError
+ *   (a fraction, 0.0133 = 1.33%) of the requested percentile, 99% confidence.
+ *
+ * - studentsCounted is exact.
+ */
+public class StudentAnalyticsResponse {
+
+    private long approximateDistinctNames;
+    private double distinctNamesStandardError;
+    private long studentsCounted;
+    private List<AgePercentile> agePercentiles;
+    private double ageRankError;
+
+    // ===== CONSTRUCTORS =====
+
+    public StudentAnalyticsResponse() {
+    }
+
+    public StudentAnalyticsResponse(long approximateDistinctNames, double distinctNamesStandardError,
+                                    long studentsCounted, List<AgePercentile> agePercentiles,
+                                    double ageRankError) {
+        this.approximateDistinctNames = approximateDistinctNames;
+        this.distinctNamesStandardError = distinctNamesStandardError;
+        this.studentsCounted = studentsCounted;
+        this.agePercentiles = agePercentiles;
+        this.ageRankError = ageRankError;
+    }
+
+    // ===== GETTERS AND SETTERS =====
+
+    public long getApproximateDistinctNames() {
+        return approximateDistinctNames;
+    }
+
+    public void setApproximateDistinctNames(long approximateDistinctNames) {
+        this.approximateDistinctNames = approximateDistinctNames;
+    }
+
+    public double getDistinctNamesStandardError() {
+        return distinctNamesStandardError;
+    }
+
+    public void setDistinctNamesStandardError(double distinctNamesStandardError) {
+        this.distinctNamesStandardError = distinctNamesStandardError;
+    }
+
+    public long getStudentsCounted() {
+        return studentsCounted;
+    }
+
+    public void setStudentsCounted(long studentsCounted) {
+        this.studentsCounted = studentsCounted;
+    }
+
+    public List<AgePercentile> getAgePercentiles() {
+        return agePercentiles;
+    }
+
+    public void setAgePercentiles(List<AgePercentile> agePercentiles) {
+        this.agePercentiles = agePercentiles;
+    }
+
+    public double getAgeRankError() {
+        return ageRankError;
+    }
+
+    public void setAgeRankError(double ageRankError) {
+        this.ageRankError = ageRankError;
+    }
+
+    /**
+     * One percentile of the age distribution, e.g. percentile 0.9 → age 17
+     */
+    public static class AgePercentile {
+
+        private double percentile;
+        private int age;
+
+        public AgePercentile() {
+        }
+
+        public AgePercentile(double percentile, int age) {
+            this.percentile = percentile;
+            this.age = age;
+        }
+
+        public double getPercentile() {
+            return percentile;
+        }
+
+        public void setPercentile(double percentile) {
+            this.percentile = percentile;
+        }
+
+        public int getAge() {
+            return age;
+        }
+
+        public void setAge(int age) {
+            this.age = age;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.learning.crud.dto;
+
+import java.time.Instant;
+
+/**
+ * DTO (Data Transfer Object): One entry of the student change feed
+ *
+ * Example (JSON):
+ * {
+ *   "seq": 42,
+ *   "type": "CREATED",
+ *   "studentId": 7,
+ *   "name": "John Doe",
+ *   "age": 15,
+ *   "grade": "A",
+ *   "changedAt": "2024-01-15T10:30:00Z"
+ * }
+ *
+ * type is "CREATED" or "UPDATED"; the student fields are always the data
+ * AFTER the change, so a consumer can simply overwrite its copy.
+ */
+public class StudentChangeResponse {
+
+    private long seq;
+    private String type;
+    private Long studentId;
+    private String name;
+    private Integer age;
+    private String grade;
+    private Instant changedAt;
+
+    // ===== CONSTRUCTORS =====
+
+    public StudentChangeResponse() {
+    }
+
+    // ===== GETTERS AND SETTERS =====
+
+    public long getSeq() {
+        return seq;
+    }
+
+    public void setSeq(long seq) {
+        this.seq = seq;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public Long getStudentId() {
+        return studentId;
+    }
+
+    public void setStudentId(Long studentId) {
+        this.studentId = studentId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Integer getAge() {
+        return age;
+    }
+
+    public void setAge(Integer age) {
+        this.age = age;
+    }
+
+    public String getGrade() {
+        return grade;
+    }
+
+    public void setGrade(String grade) {
+        this.grade = grade;
+    }
+
+    public Instant getChangedAt() {
+        return changedAt;
+    }
+
+    public void setChangedAt(Instant changedAt) {
+        this.changedAt = changedAt;
+    }
+}
@@ -0,0 +1,62 @@
+package com.learning.crud.dto;
+
+import java.util.List;
+
+/**
+ * DTO (Data Transfer Object): A batch of changes from the change feed
+ *
+ * Sent back by: GET /api/students/changes?since=40
+ *
+ * Example (JSON):
+ * {
+ *   "changes": [ { "seq": 41, ... }, { "seq": 42, ... } ],
+ *   "lastSeq": 42,
+ *   "hasMore": false
+ * }
+ *
+ * To continue, call again with since = lastSeq.
+ * hasMore = true means more changes are already waiting.
+ */
+public class StudentChangesResponse {
+
+    private List<StudentChangeResponse> changes;
+    private long lastSeq;
+    private boolean hasMore;
+
+    // ===== CONSTRUCTORS =====
+
+    public StudentChangesResponse() {
+    }
+
+    public StudentChangesResponse(List<StudentChangeResponse> changes, long lastSeq, boolean hasMore) {
+        this.changes = changes;
+        this.lastSeq = lastSeq;
+        this.hasMore = hasMore;
+    }
+
+    // ===== GETTERS AND SETTERS =====
+
+    public List<StudentChangeResponse> getChanges() {
+        return changes;
+    }
+
+    public void setChanges(List<StudentChangeResponse> changes) {
+        this.changes = changes;
+    }
+
+    public long getLastSeq() {
+        return lastSeq;
+    }
+
+    public void setLastSeq(long lastSeq) {
+        this.lastSeq = lastSeq;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+}
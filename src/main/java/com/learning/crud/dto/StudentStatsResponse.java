@@ -0,0 +1,127 @@
+package com.learning.crud.dto;
+
+import java.util.List;
+
+/**
+ * DTO (Data Transfer Object): Summary numbers about all students
+ *
+ * Sent back by:
+ * - REST:    GET /api/students/stats
+ * - GraphQL: query { studentStats { ... } }
+ *
+ * Example (JSON):
+ * {
+ *   "totalStudents": 3,
+ *   "grades": [ { "grade": "A", "count": 2 }, { "grade": "B", "count": 1 } ],
+ *   "ages":   [ { "age": 15, "count": 3 } ]
+ * }
+ */
+public class StudentStatsResponse {
+
+    private long totalStudents;
+    private List<GradeCount> grades;
+    private List<AgeCount> ages;
+
+    // ===== CONSTRUCTORS =====
+
+    public StudentStatsResponse() {
+    }
+
+    public StudentStatsResponse(long totalStudents, List<GradeCount> grades, List<AgeCount> ages) {
+        this.totalStudents = totalStudents;
+        this.grades = grades;
+        this.ages = ages;
+    }
+
+    // ===== GETTERS AND SETTERS =====
+
+    public long getTotalStudents() {
+        return totalStudents;
+    }
+
+    public void setTotalStudents(long totalStudents) {
+        this.totalStudents = totalStudents;
+    }
+
+    public List<GradeCount> getGrades() {
+        return grades;
+    }
+
+    public void setGrades(List<GradeCount> grades) {
+        this.grades = grades;
+    }
+
+    public List<AgeCount> getAges() {
+        return ages;
+    }
+
+    public void setAges(List<AgeCount> ages) {
+        this.ages = ages;
+    }
+
+    /**
+     * How many students have one particular grade
+     */
+    public static class GradeCount {
+
+        private String grade;
+        private long count;
+
+        public GradeCount() {
+        }
+
+        public GradeCount(String grade, long count) {
+            this.grade = grade;
+            this.count = count;
+        }
+
+        public String getGrade() {
+            return grade;
+        }
+
+        public void setGrade(String grade) {
+            this.grade = grade;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public void setCount(long count) {
+            this.count = count;
+        }
+    }
+
+    /**
+     * How many students have one particular age (one bar of the age histogram)
+     */
+    public static class AgeCount {
+
+        private int age;
+        private long count;
+
+        public AgeCount() {
+        }
+
+        public AgeCount(int age, long count) {
+            this.age = age;
+            this.count = count;
+        }
+
+        public int getAge() {
+            return age;
+        }
+
+        public void setAge(int age) {
+            this.age = age;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public void setCount(long count) {
+            this.count = count;
+        }
+    }
+}
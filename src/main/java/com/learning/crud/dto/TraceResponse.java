@@ -0,0 +1,162 @@
+package com.learning.crud.dto;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DTO (Data Transfer Object): One recorded request trace
+ *
+ * Sent back by: GET /actuator/slowtraces
+ *
+ * Example (JSON):
+ * {
+ *   "name": "POST /api/students",
+ *   "startedAt": "2024-01-15T10:30:00Z",
+ *   "totalMillis": 12.4,
+ *   "layerMillis": { "http": 1.9, "controller": 0.1, "service": 0.6, "repository": 2.3, "jdbc": 7.5 },
+ *   "spans": [ { "layer": "http", "name": "POST /api/students", "depth": 0, "startMillis": 0.0, "durationMillis": 12.4 }, ... ],
+ *   "droppedSpans": 0
+ * }
+ *
+ * layerMillis = time spent IN each layer, not counting the layers below it:
+ * - http       → JSON/XML binding, filters, Spring MVC / Spring WS / GraphQL engine
+ * - repository → Hibernate / Spring Data (the SQL itself is under jdbc)
+ */
+public class TraceResponse {
+
+    private String name;
+    private Instant startedAt;
+    private double totalMillis;
+    private Map<String, Double> layerMillis;
+    private List<Span> spans;
+    private int droppedSpans;
+
+    // ===== CONSTRUCTORS =====
+
+    public TraceResponse() {
+    }
+
+    public TraceResponse(String name, Instant startedAt, double totalMillis, Map<String, Double> layerMillis,
+                         List<Span> spans, int droppedSpans) {
+        this.name = name;
+        this.startedAt = startedAt;
+        this.totalMillis = totalMillis;
+        this.layerMillis = layerMillis;
+        this.spans = spans;
+        this.droppedSpans = droppedSpans;
+    }
+
+    // ===== GETTERS AND SETTERS =====
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(Instant startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public double getTotalMillis() {
+        return totalMillis;
+    }
+
+    public void setTotalMillis(double totalMillis) {
+        this.totalMillis = totalMillis;
+    }
+
+    public Map<String, Double> getLayerMillis() {
+        return layerMillis;
+    }
+
+    public void setLayerMillis(Map<String, Double> layerMillis) {
+        this.layerMillis = layerMillis;
+    }
+
+    public List<Span> getSpans() {
+        return spans;
+    }
+
+    public void setSpans(List<Span> spans) {
+        this.spans = spans;
+    }
+
+    public int getDroppedSpans() {
+        return droppedSpans;
+    }
+
+    public void setDroppedSpans(int droppedSpans) {
+        this.droppedSpans = droppedSpans;
+    }
+
+    /**
+     * One timed piece of work inside the trace (startMillis = offset from the trace start)
+     */
+    public static class Span {
+
+        private String layer;
+        private String name;
+        private int depth;
+        private double startMillis;
+        private double durationMillis;
+
+        public Span() {
+        }
+
+        public Span(String layer, String name, int depth, double startMillis, double durationMillis) {
+            this.layer = layer;
+            this.name = name;
+            this.depth = depth;
+            this.startMillis = startMillis;
+            this.durationMillis = durationMillis;
+        }
+
+        public String getLayer() {
+            return layer;
+        }
+
+        public void setLayer(String layer) {
+            this.layer = layer;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public int getDepth() {
+            return depth;
+        }
+
+        public void setDepth(int depth) {
+            this.depth = depth;
+        }
+
+        public double getStartMillis() {
+            return startMillis;
+        }
+
+        public void setStartMillis(double startMillis) {
+            this.startMillis = startMillis;
+        }
+
+        public double getDurationMillis() {
+            return durationMillis;
+        }
+
+        public void setDurationMillis(double durationMillis) {
+            this.durationMillis = durationMillis;
+        }
+    }
+}
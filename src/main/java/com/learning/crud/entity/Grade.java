@@ -0,0 +1,53 @@
+package com.learning.crud.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * ENTITY CLASS: One row of the grade dictionary ("grades" table)
+ *
+ * Maps a small code to the grade text. Students store only the code
+ * (students.grade_code). The rows are read and written by GradeDictionary;
+ * this entity is here so Hibernate creates (and validates) the table.
+ */
+@Entity
+@Table(name = "grades")
+public class Grade {
+
+    @Id
+    @Column(columnDefinition = "SMALLINT")
+    private Short code;
+
+    @Column(nullable = false, unique = true)
+    private String grade;
+
+    // ===== CONSTRUCTORS =====
+
+    public Grade() {
+    }
+
+    public Grade(Short code, String grade) {
+        this.code = code;
+        this.grade = grade;
+    }
+
+    // ===== GETTERS AND SETTERS =====
+
+    public Short getCode() {
+        return code;
+    }
+
+    public void setCode(Short code) {
+        this.code = code;
+    }
+
+    public String getGrade() {
+        return grade;
+    }
+
+    public void setGrade(String grade) {
+        this.grade = grade;
+    }
+}
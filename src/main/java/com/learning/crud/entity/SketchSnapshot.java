@@ -0,0 +1,96 @@
+package com.learning.crud.entity;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * ENTITY CLASS: A saved copy of one analytics sketch
+ *
+ * Sketches (HyperLogLog, KLL) live in memory and are updated on every create.
+ * Every minute we save them here, in the same database as the students,
+ * so a restart does not lose them.
+ *
+ * coveredUpToId remembers the highest student ID the saved sketch had seen.
+ * After a restart, students with a higher ID are replayed into the sketch.
+ */
+@Entity
+@Table(name = "analytics_sketches")
+public class SketchSnapshot {
+
+    /**
+     * Which sketch this is, for example "distinct-names"
+     */
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    /**
+     * The serialized sketch (a few KB)
+     */
+    @Lob
+    @Column(nullable = false)
+    private byte[] data;
+
+    @Column(name = "covered_up_to_id", nullable = false)
+    private Long coveredUpToId;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    // ===== CONSTRUCTORS =====
+
+    public SketchSnapshot() {
+    }
+
+    public SketchSnapshot(String name, byte[] data, Long coveredUpToId, Instant updatedAt) {
+        this.name = name;
+        this.data = data;
+        this.coveredUpToId = coveredUpToId;
+        this.updatedAt = updatedAt;
+    }
+
+    // ===== GETTERS AND SETTERS =====
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public byte[] getData() {
+        return data;
+    }
+
+    public void setData(byte[] data) {
+        this.data = data;
+    }
+
+    public Long getCoveredUpToId() {
+        return coveredUpToId;
+    }
+
+    public void setCoveredUpToId(Long coveredUpToId) {
+        this.coveredUpToId = coveredUpToId;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Instant updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    @Override
+    public String toString() {
+        return "SketchSnapshot{" +
+                "name='" + name + '\'' +
+                ", bytes=" + (data == null ? 0 : data.length) +
+                ", coveredUpToId=" + coveredUpToId +
+                ", updatedAt=" + updatedAt +
+                '}';
+    }
+}
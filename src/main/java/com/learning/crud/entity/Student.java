@@ -1,5 +1,6 @@
 package com.learning.crud.entity;
 
+import com.learning.crud.dictionary.GradeCodeConverter;
 import jakarta.persistence.*;
 
 /**
@@ -11,9 +12,10 @@ import jakarta.persistence.*;
  * 
  * @Entity tells JPA: "This class should be saved in database"
  * @Table specifies the table name
+ * (plus an index on grade_code, for counting and filtering by grade)
  */
 @Entity
-@Table(name = "students")
+@Table(name = "students", indexes = @Index(name = "idx_students_grade_code", columnList = "grade_code"))
 public class Student {
 
     /**
@@ -36,7 +38,13 @@ public class Student {
     @Column(nullable = false)
     private Integer age;
 
-    @Column(nullable = false)
+    /**
+     * The grade is stored as a small code (grade_code SMALLINT), not as text.
+     * GradeCodeConverter translates it; Java code still sees "A", "B"...
+     * (see GradeDictionary)
+     */
+    @Convert(converter = GradeCodeConverter.class)
+    @Column(name = "grade_code", nullable = false, columnDefinition = "SMALLINT")
     private String grade;
 
     // ===== CONSTRUCTORS =====
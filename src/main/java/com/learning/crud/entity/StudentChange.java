@@ -0,0 +1,123 @@
+package com.learning.crud.entity;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * ENTITY CLASS: One entry of the student change feed ("outbox" row)
+ *
+ * Every time a student is written, a row is added here IN THE SAME
+ * TRANSACTION. Either both rows are saved or neither is, so the feed
+ * never misses a change and never reports one that did not happen.
+ *
+ * seq is a sequence number that only goes up. Consumers remember the last
+ * seq they processed and ask for "everything after seq N".
+ *
+ * The row carries a copy of the student's data, so consumers (caches,
+ * search indexes) do not have to load the student again.
+ */
+@Entity
+@Table(name = "student_changes")
+public class StudentChange {
+
+    /**
+     * Position in the feed (handed out by StudentChangeFeed, not by the database)
+     */
+    @Id
+    private Long seq;
+
+    /**
+     * What happened: "CREATED" (new student) or "UPDATED" (changed by a bulk update)
+     */
+    @Column(name = "change_type", nullable = false, length = 16)
+    private String changeType;
+
+    @Column(name = "student_id", nullable = false)
+    private Long studentId;
+
+    @Column(nullable = false)
+    private String name;
+
+    @Column(nullable = false)
+    private Integer age;
+
+    @Column(nullable = false)
+    private String grade;
+
+    @Column(name = "changed_at", nullable = false)
+    private Instant changedAt;
+
+    // ===== CONSTRUCTORS =====
+
+    public StudentChange() {
+    }
+
+    // ===== GETTERS AND SETTERS =====
+
+    public Long getSeq() {
+        return seq;
+    }
+
+    public void setSeq(Long seq) {
+        this.seq = seq;
+    }
+
+    public String getChangeType() {
+        return changeType;
+    }
+
+    public void setChangeType(String changeType) {
+        this.changeType = changeType;
+    }
+
+    public Long getStudentId() {
+        return studentId;
+    }
+
+    public void setStudentId(Long studentId) {
+        this.studentId = studentId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Integer getAge() {
+        return age;
+    }
+
+    public void setAge(Integer age) {
+        this.age = age;
+    }
+
+    public String getGrade() {
+        return grade;
+    }
+
+    public void setGrade(String grade) {
+        this.grade = grade;
+    }
+
+    public Instant getChangedAt() {
+        return changedAt;
+    }
+
+    public void setChangedAt(Instant changedAt) {
+        this.changedAt = changedAt;
+    }
+
+    @Override
+    public String toString() {
+        return "StudentChange{" +
+                "seq=" + seq +
+                ", changeType='" + changeType + '\'' +
+                ", studentId=" + studentId +
+                ", changedAt=" + changedAt +
+                '}';
+    }
+}
@@ -0,0 +1,16 @@
+package com.learning.crud.exception;
+
+/**
+ * CUSTOM EXCEPTION: No bulk update job with this ID
+ *
+ * Either the ID is wrong, or the job finished long ago and was forgotten
+ * (only the newest jobs are kept, see StudentBulkUpdater).
+ *
+ * Turned into HTTP 404 (Not Found) by GlobalExceptionHandler.
+ */
+public class BulkUpdateNotFoundException extends RuntimeException {
+
+    public BulkUpdateNotFoundException(String message) {
+        super(message);
+    }
+}
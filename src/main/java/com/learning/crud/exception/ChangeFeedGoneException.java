@@ -0,0 +1,17 @@
+package com.learning.crud.exception;
+
+/**
+ * CUSTOM EXCEPTION: The requested part of the change feed was already deleted
+ *
+ * The change feed only keeps the newest changes (see app.change-feed.retention).
+ * A consumer that asks for changes after a sequence number that is older
+ * than that has missed changes and must reload everything.
+ *
+ * Turned into HTTP 410 (Gone) by GlobalExceptionHandler.
+ */
+public class ChangeFeedGoneException extends RuntimeException {
+
+    public ChangeFeedGoneException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,17 @@
+package com.learning.crud.exception;
+
+/**
+ * CUSTOM EXCEPTION: No export with this ID (or its file is not there yet)
+ *
+ * Thrown for an unknown or forgotten export (only the newest exports are
+ * kept, see StudentExporter), and for a download of an export that has
+ * not finished.
+ *
+ * Turned into HTTP 404 (Not Found) by GlobalExceptionHandler.
+ */
+public class ExportNotFoundException extends RuntimeException {
+
+    public ExportNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -1,12 +1,20 @@
 package com.learning.crud.exception;
 
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.context.request.WebRequest;
 
 import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -22,10 +30,21 @@ import java.util.Map;
  * 
  * @RestControllerAdvice tells Spring:
  * "This class handles exceptions for all controllers"
+ *
+ * The error body is a Map, which JSON (and CBOR / Smile) can express but
+ * protobuf cannot. A client that only accepts application/x-protobuf
+ * still gets its error - as JSON - instead of an empty HTTP 500.
  */
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
+    // The converters Spring MVC writes responses with (JSON, CBOR, Smile, ...)
+    private final List<HttpMessageConverter<?>> converters;
+
+    public GlobalExceptionHandler(HttpMessageConverters messageConverters) {
+        this.converters = messageConverters.getConverters();
+    }
+
     /**
      * Handles StudentNotFoundException
      * 
@@ -40,7 +59,7 @@ public class GlobalExceptionHandler {
      * Controller → Service → throws Exception → This handler catches it
      */
     @ExceptionHandler(StudentNotFoundException.class)
-    public ResponseEntity<Map<String, Object>> handleStudentNotFound(StudentNotFoundException ex) {
+    public ResponseEntity<Map<String, Object>> handleStudentNotFound(StudentNotFoundException ex, WebRequest request) {
         // Create error response as a Map (will be converted to JSON)
         Map<String, Object> errorResponse = new LinkedHashMap<>();
         errorResponse.put("timestamp", LocalDateTime.now().toString());
@@ -49,7 +68,107 @@ public class GlobalExceptionHandler {
         errorResponse.put("message", ex.getMessage());
 
         // Return response with HTTP 404
-        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
+        return withContentType(ResponseEntity.status(HttpStatus.NOT_FOUND), request).body(errorResponse);
+    }
+
+    /**
+     * Handles BulkUpdateNotFoundException: HTTP 404, like a missing student
+     */
+    @ExceptionHandler(BulkUpdateNotFoundException.class)
+    public ResponseEntity<Map<String, Object>> handleBulkUpdateNotFound(BulkUpdateNotFoundException ex, WebRequest request) {
+        Map<String, Object> errorResponse = new LinkedHashMap<>();
+        errorResponse.put("timestamp", LocalDateTime.now().toString());
+        errorResponse.put("status", HttpStatus.NOT_FOUND.value());
+        errorResponse.put("error", "Not Found");
+        errorResponse.put("message", ex.getMessage());
+
+        return withContentType(ResponseEntity.status(HttpStatus.NOT_FOUND), request).body(errorResponse);
+    }
+
+    /**
+     * Handles ExportNotFoundException: HTTP 404 for an unknown export, or one without a file yet
+     */
+    @ExceptionHandler(ExportNotFoundException.class)
+    public ResponseEntity<Map<String, Object>> handleExportNotFound(ExportNotFoundException ex, WebRequest request) {
+        Map<String, Object> errorResponse = new LinkedHashMap<>();
+        errorResponse.put("timestamp", LocalDateTime.now().toString());
+        errorResponse.put("status", HttpStatus.NOT_FOUND.value());
+        errorResponse.put("error", "Not Found");
+        errorResponse.put("message", ex.getMessage());
+
+        return withContentType(ResponseEntity.status(HttpStatus.NOT_FOUND), request).body(errorResponse);
+    }
+
+    /**
+     * Handles IdempotencyKeyConflictException
+     *
+     * The Idempotency-Key belongs to another request, or its first request is
+     * still running: HTTP 409 (Conflict).
+     */
+    @ExceptionHandler(IdempotencyKeyConflictException.class)
+    public ResponseEntity<Map<String, Object>> handleIdempotencyKeyConflict(IdempotencyKeyConflictException ex,
+                                                                            WebRequest request) {
+        Map<String, Object> errorResponse = new LinkedHashMap<>();
+        errorResponse.put("timestamp", LocalDateTime.now().toString());
+        errorResponse.put("status", HttpStatus.CONFLICT.value());
+        errorResponse.put("error", "Conflict");
+        errorResponse.put("message", ex.getMessage());
+
+        return withContentType(ResponseEntity.status(HttpStatus.CONFLICT), request).body(errorResponse);
+    }
+
+    /**
+     * Handles IllegalArgumentException
+     *
+     * The request itself makes no sense (for example a bulk update that
+     * would change grade "A" into "A"): HTTP 400 (Bad Request).
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, Object>> handleIllegalArgument(IllegalArgumentException ex, WebRequest request) {
+        Map<String, Object> errorResponse = new LinkedHashMap<>();
+        errorResponse.put("timestamp", LocalDateTime.now().toString());
+        errorResponse.put("status", HttpStatus.BAD_REQUEST.value());
+        errorResponse.put("error", "Bad Request");
+        errorResponse.put("message", ex.getMessage());
+
+        return withContentType(ResponseEntity.status(HttpStatus.BAD_REQUEST), request).body(errorResponse);
+    }
+
+    /**
+     * Handles ChangeFeedGoneException
+     *
+     * The client asked for changes that were already deleted (too old).
+     * HTTP 410 (Gone) tells it to reload everything and start over.
+     */
+    @ExceptionHandler(ChangeFeedGoneException.class)
+    public ResponseEntity<Map<String, Object>> handleChangeFeedGone(ChangeFeedGoneException ex, WebRequest request) {
+        Map<String, Object> errorResponse = new LinkedHashMap<>();
+        errorResponse.put("timestamp", LocalDateTime.now().toString());
+        errorResponse.put("status", HttpStatus.GONE.value());
+        errorResponse.put("error", "Gone");
+        errorResponse.put("message", ex.getMessage());
+
+        return withContentType(ResponseEntity.status(HttpStatus.GONE), request).body(errorResponse);
+    }
+
+    /**
+     * Handles ServiceOverloadedException
+     *
+     * Too many requests are running: HTTP 503 (Service Unavailable) with a
+     * Retry-After header telling the client how many seconds to wait.
+     */
+    @ExceptionHandler(ServiceOverloadedException.class)
+    public ResponseEntity<Map<String, Object>> handleServiceOverloaded(ServiceOverloadedException ex,
+                                                                       WebRequest request) {
+        Map<String, Object> errorResponse = new LinkedHashMap<>();
+        errorResponse.put("timestamp", LocalDateTime.now().toString());
+        errorResponse.put("status", HttpStatus.SERVICE_UNAVAILABLE.value());
+        errorResponse.put("error", "Service Unavailable");
+        errorResponse.put("message", ex.getMessage());
+
+        return withContentType(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE), request)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(errorResponse);
     }
 
     /**
@@ -58,13 +177,40 @@ public class GlobalExceptionHandler {
      * This is a safety net for any error we didn't specifically handle
      */
     @ExceptionHandler(Exception.class)
-    public ResponseEntity<Map<String, Object>> handleGenericException(Exception ex) {
+    public ResponseEntity<Map<String, Object>> handleGenericException(Exception ex, WebRequest request) {
         Map<String, Object> errorResponse = new LinkedHashMap<>();
         errorResponse.put("timestamp", LocalDateTime.now().toString());
         errorResponse.put("status", HttpStatus.INTERNAL_SERVER_ERROR.value());
         errorResponse.put("error", "Internal Server Error");
         errorResponse.put("message", ex.getMessage());
 
-        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+        return withContentType(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR), request).body(errorResponse);
+    }
+
+    /**
+     * Normally Spring picks the format of the error from the Accept header.
+     * If NONE of the accepted formats can express the error Map (e.g. only
+     * application/x-protobuf), Spring would fail with "not acceptable" and
+     * the client would see an empty HTTP 500. Then we answer in JSON.
+     */
+    private ResponseEntity.BodyBuilder withContentType(ResponseEntity.BodyBuilder response, WebRequest request) {
+        String[] acceptHeaders = request.getHeaderValues(HttpHeaders.ACCEPT);
+        if (acceptHeaders == null) {
+            return response;
+        }
+        List<MediaType> accepted;
+        try {
+            accepted = MediaType.parseMediaTypes(Arrays.asList(acceptHeaders));
+        } catch (InvalidMediaTypeException ex) {
+            return response.contentType(MediaType.APPLICATION_JSON);
+        }
+        for (MediaType mediaType : accepted) {
+            for (HttpMessageConverter<?> converter : converters) {
+                if (converter.canWrite(LinkedHashMap.class, mediaType)) {
+                    return response;
+                }
+            }
+        }
+        return response.contentType(MediaType.APPLICATION_JSON);
     }
 }
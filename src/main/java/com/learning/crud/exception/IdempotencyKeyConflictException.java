@@ -0,0 +1,23 @@
+package com.learning.crud.exception;
+
+import org.springframework.ws.soap.server.endpoint.annotation.FaultCode;
+import org.springframework.ws.soap.server.endpoint.annotation.SoapFault;
+
+/**
+ * CUSTOM EXCEPTION: This Idempotency-Key cannot be used for this request
+ *
+ * Thrown by IdempotencyStore when:
+ * - the key was already used for a DIFFERENT request (other name, age or grade)
+ * - the first request with this key is still running after the wait time
+ *
+ * - REST:    GlobalExceptionHandler → HTTP 409 (Conflict)
+ * - SOAP:    @SoapFault → SOAP fault with code "Client" and this message
+ * - GraphQL: GraphQLExceptionHandler → error classified BAD_REQUEST
+ */
+@SoapFault(faultCode = FaultCode.CLIENT)
+public class IdempotencyKeyConflictException extends RuntimeException {
+
+    public IdempotencyKeyConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,29 @@
+package com.learning.crud.exception;
+
+import org.springframework.ws.soap.server.endpoint.annotation.FaultCode;
+import org.springframework.ws.soap.server.endpoint.annotation.SoapFault;
+
+/**
+ * CUSTOM EXCEPTION: Too many requests are running, this one was turned away
+ *
+ * Thrown by ConcurrencyLimitAspect before any work is done, so the client
+ * gets a fast answer and can retry a little later.
+ *
+ * - REST:    GlobalExceptionHandler → HTTP 503 + Retry-After header
+ * - SOAP:    @SoapFault → SOAP fault with code "Server" and this message
+ * - GraphQL: GraphQLExceptionHandler → error classified UNAVAILABLE
+ */
+@SoapFault(faultCode = FaultCode.SERVER)
+public class ServiceOverloadedException extends RuntimeException {
+
+    private final int retryAfterSeconds;
+
+    public ServiceOverloadedException(String message, int retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
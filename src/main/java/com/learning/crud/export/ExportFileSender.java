@@ -0,0 +1,126 @@
+package com.learning.crud.export;
+
+import com.learning.crud.exception.ExportNotFoundException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * EXPORT FILE SENDER: Sends a finished export file, or part of it
+ *
+ * RANGE REQUESTS (resumable downloads):
+ *   Range: bytes=1048576-        → HTTP 206, from byte 1048576 to the end
+ *   Range: bytes=0-999           → HTTP 206, the first 1000 bytes
+ *   Range: bytes=99999999-       → HTTP 416, with "Content-Range: bytes * /size"
+ *   no Range (or several ranges) → HTTP 200, the whole file
+ * Every answer has "Accept-Ranges: bytes" and an ETag. A client that
+ * resumes sends "If-Range: <ETag>"; if the file is not the same any more,
+ * it gets the whole (new) file instead of a piece of the wrong one.
+ *
+ * ZERO-COPY: the bytes are never copied into Java objects.
+ * - On Tomcat (the embedded server) the request is handed to its
+ *   "sendfile" support: after this method returns, Tomcat lets the
+ *   operating system copy the file straight into the socket (sendfile()).
+ * - Otherwise FileChannel.transferTo() copies into the response stream
+ *   (the JDK does the copying in large chunks, outside the Java heap).
+ */
+@Component
+public class ExportFileSender {
+
+    // Request attributes of Tomcat's sendfile support (see org.apache.coyote.Constants)
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    public void send(StudentExporter.ExportFile file, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(file.path(), StandardOpenOption.READ);
+        } catch (NoSuchFileException ex) {
+            throw new ExportNotFoundException("Export file is gone: " + file.fileName());
+        }
+        try (channel) {
+            long size = channel.size();
+            String etag = "\"" + file.fileName() + "-" + size + "\"";
+
+            response.setContentType("application/gzip");
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + file.fileName() + "\"");
+            response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+            response.setHeader(HttpHeaders.ETAG, etag);
+
+            // ----- which bytes: all of them, or the one range asked for -----
+            long start = 0;
+            long end = size - 1;
+            HttpRange range = requestedRange(request, etag);
+            if (range != null) {
+                try {
+                    start = range.getRangeStart(size);
+                    end = range.getRangeEnd(size);
+                } catch (IllegalArgumentException ex) {
+                    start = size;
+                }
+                // A range that starts at or after the end of the file cannot be served
+                if (start >= size || start > end) {
+                    response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                    response.setContentLengthLong(0);
+                    return;
+                }
+                response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+            }
+            long length = end - start + 1;
+            response.setContentLengthLong(length);
+            if ("HEAD".equals(request.getMethod()) || length <= 0) {
+                return;
+            }
+
+            // ----- the bytes themselves -----
+            if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+                request.setAttribute(SENDFILE_FILENAME, file.path().toAbsolutePath().toString());
+                request.setAttribute(SENDFILE_START, start);
+                request.setAttribute(SENDFILE_END, end + 1);
+                return;
+            }
+            WritableByteChannel target = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            while (position <= end) {
+                position += channel.transferTo(position, end + 1 - position, target);
+            }
+        }
+    }
+
+    /**
+     * The single range the client asked for, or null for the whole file
+     */
+    private static HttpRange requestedRange(HttpServletRequest request, String etag) {
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader == null) {
+            return null;
+        }
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange != null && !ifRange.equals(etag)) {
+            return null;
+        }
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(rangeHeader);
+            // Several ranges would need a multipart answer; the whole file is allowed too
+            return ranges.size() == 1 ? ranges.get(0) : null;
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+}
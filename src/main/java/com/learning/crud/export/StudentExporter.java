@@ -0,0 +1,338 @@
+package com.learning.crud.export;
+
+import com.learning.crud.converter.StudentStreamWriter;
+import com.learning.crud.dto.ExportJobResponse;
+import com.learning.crud.dto.StudentResponse;
+import com.learning.crud.exception.ExportNotFoundException;
+import com.learning.crud.exception.ServiceOverloadedException;
+import com.learning.crud.repository.StudentStore;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * STUDENT EXPORTER: Exports run in the background and end up in a file
+ *
+ * GET /api/students/export streams every student while the client waits:
+ * the HTTP connection stays open for the whole scan, and if it breaks the
+ * export starts over. For big exports there is this job API instead:
+ *
+ * 1. POST /api/students/exports?format=ndjson&minAge=14&grade=A
+ *    → HTTP 202 with the job (state QUEUED)
+ * 2. GET /api/students/exports/{id}
+ *    → state RUNNING, percentDone, studentsWritten ... until DONE
+ * 3. GET /api/students/exports/{id}/file
+ *    → the gzip-compressed file (see ExportFileSender: Range requests,
+ *      so a broken download continues where it stopped)
+ *
+ * RUNNING A JOB (on an export thread):
+ * - reads all students in ID order, app.export.batch-size at a time, each
+ *   batch its own short read (like GET /export), and keeps the ones that
+ *   match the filter
+ * - writes them with StudentStreamWriter (same formats as GET /export)
+ *   through gzip into "export-{id}.part"
+ * - when complete, renames the file to its final name: a file that has a
+ *   final name is always complete
+ * - progress = last ID read / highest ID when the job started
+ *
+ * LIMITS: app.export.threads jobs run at the same time, at most
+ * app.export.max-queued more wait; beyond that a submit is turned away
+ * with HTTP 503 (Retry-After). Only the newest app.export.max-kept jobs are
+ * remembered; older ones are forgotten and their files deleted. Jobs live
+ * in memory only, so leftover files are deleted at startup.
+ */
+@Component
+public class StudentExporter {
+
+    private static final Logger log = LoggerFactory.getLogger(StudentExporter.class);
+
+    private static final String FILE_PREFIX = "export-";
+
+    // Seconds a turned-away client is told to wait before it submits again
+    private static final int RETRY_AFTER_SECONDS = 30;
+
+    /**
+     * File formats a job can write, with the media type StudentStreamWriter uses
+     */
+    public enum Format {
+        NDJSON("ndjson", MediaType.APPLICATION_NDJSON),
+        CBOR("cbor", StudentStreamWriter.CBOR_SEQ),
+        SMILE("smile", StudentStreamWriter.SMILE),
+        PROTOBUF("protobuf", StudentStreamWriter.PROTOBUF_DELIMITED);
+
+        private final String extension;
+        private final MediaType mediaType;
+
+        Format(String extension, MediaType mediaType) {
+            this.extension = extension;
+            this.mediaType = mediaType;
+        }
+
+        public String extension() {
+            return extension;
+        }
+
+        public static Format of(String name) {
+            for (Format format : values()) {
+                if (format.extension.equalsIgnoreCase(name)) {
+                    return format;
+                }
+            }
+            throw new IllegalArgumentException("Unknown export format '" + name + "' (ndjson, cbor, smile, protobuf)");
+        }
+    }
+
+    /**
+     * Which students to export: minAge <= age <= maxAge, and the grade (null = any)
+     */
+    public record Filter(int minAge, int maxAge, String grade) {
+
+        boolean matches(StudentResponse student) {
+            return student.getAge() != null && student.getAge() >= minAge && student.getAge() <= maxAge
+                    && (grade == null || grade.equals(student.getGrade()));
+        }
+
+        String describe() {
+            String ages = minAge == 0 && maxAge == Integer.MAX_VALUE ? "all ages" : "age " + minAge + "-" + maxAge;
+            return grade == null ? ages : ages + ", grade " + grade;
+        }
+    }
+
+    /**
+     * A finished export file, ready to be sent
+     */
+    public record ExportFile(Path path, String fileName, long size) {
+    }
+
+    private final StudentStore studentStore;
+    private final StudentStreamWriter streamWriter;
+    private final Path dir;
+    private final int batchSize;
+    private final int maxKept;
+    private final ThreadPoolExecutor workers;
+
+    private final Map<Long, Job> jobs = new ConcurrentHashMap<>();
+    private final AtomicLong lastJobId = new AtomicLong();
+
+    public StudentExporter(StudentStore studentStore,
+                           StudentStreamWriter streamWriter,
+                           @Value("${app.export.dir:./data/exports}") Path dir,
+                           @Value("${app.export.threads:1}") int threads,
+                           @Value("${app.export.max-queued:10}") int maxQueued,
+                           @Value("${app.export.max-kept:20}") int maxKept,
+                           @Value("${app.export.batch-size:1000}") int batchSize) {
+        this.studentStore = studentStore;
+        this.streamWriter = streamWriter;
+        this.dir = dir;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxKept = Math.max(1, maxKept);
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(Math.max(1, threads), Math.max(1, threads), 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, maxQueued)), runnable -> {
+            Thread thread = new Thread(runnable, "student-export-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Deletes export files left over from an earlier run (nobody knows their job any more)
+     */
+    @PostConstruct
+    public void cleanUp() throws IOException {
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        try (DirectoryStream<Path> leftovers = Files.newDirectoryStream(dir, FILE_PREFIX + "*")) {
+            for (Path file : leftovers) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * Queues an export; throws ServiceOverloadedException when too many are waiting
+     */
+    public ExportJobResponse submit(Filter filter, Format format) {
+        Job job = new Job(lastJobId.incrementAndGet(), filter, format);
+        jobs.put(job.id, job);
+        try {
+            workers.execute(() -> run(job));
+        } catch (RejectedExecutionException ex) {
+            jobs.remove(job.id);
+            throw new ServiceOverloadedException("Too many exports waiting, please retry in "
+                    + RETRY_AFTER_SECONDS + " s", RETRY_AFTER_SECONDS);
+        }
+        forgetOldJobs(job.id);
+        return job.toResponse();
+    }
+
+    /**
+     * The export with this ID, if it is still kept
+     */
+    public Optional<ExportJobResponse> find(long jobId) {
+        Job job = jobs.get(jobId);
+        return job == null ? Optional.empty() : Optional.of(job.toResponse());
+    }
+
+    /**
+     * The file of a finished export
+     */
+    public ExportFile file(long jobId) {
+        Job job = jobs.get(jobId);
+        if (job == null) {
+            throw new ExportNotFoundException("Export not found with id: " + jobId);
+        }
+        if (job.state != State.DONE) {
+            throw new ExportNotFoundException("Export " + jobId + " has no file (state " + job.state + ")");
+        }
+        return new ExportFile(job.file(dir), job.fileName(), job.fileBytes);
+    }
+
+    // ===== RUNNING A JOB =====
+
+    private void run(Job job) {
+        job.state = State.RUNNING;
+        job.maxId = studentStore.maxId();
+        Path part = dir.resolve(FILE_PREFIX + job.id + ".part");
+        try {
+            Files.createDirectories(dir);
+            try (OutputStream out = new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(part)), 65536)) {
+                streamWriter.write(job.format.mediaType, out, afterId -> nextMatching(job, afterId));
+            }
+            job.fileBytes = Files.size(part);
+            Files.move(part, job.file(dir), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            job.finishedAt = Instant.now();
+            job.state = State.DONE;
+            log.info("Export #{} done: {} students, {} KB in {} ms", job.id, job.studentsWritten.get(),
+                    job.fileBytes / 1024, job.finishedAt.toEpochMilli() - job.submittedAt.toEpochMilli());
+        } catch (IOException | RuntimeException ex) {
+            job.error = ex.getMessage();
+            job.finishedAt = Instant.now();
+            job.state = State.FAILED;
+            log.warn("Export #{} failed: {}", job.id, ex.getMessage());
+            try {
+                Files.deleteIfExists(part);
+            } catch (IOException ignored) {
+                // the next startup deletes it
+            }
+        }
+    }
+
+    /**
+     * The next matching students after afterId; reads on past batches
+     * where nobody matches, so an empty list really means "done"
+     */
+    private List<StudentResponse> nextMatching(Job job, long afterId) {
+        long cursor = afterId;
+        while (true) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new UncheckedIOException(new IOException("Export stopped: the application is shutting down"));
+            }
+            List<StudentResponse> batch = studentStore.findResponsesAfterId(cursor, batchSize);
+            if (batch.isEmpty()) {
+                return List.of();
+            }
+            cursor = batch.get(batch.size() - 1).getId();
+            job.lastIdRead = cursor;
+            List<StudentResponse> matching = batch.stream().filter(job.filter::matches).toList();
+            if (!matching.isEmpty()) {
+                job.studentsWritten.addAndGet(matching.size());
+                return matching;
+            }
+        }
+    }
+
+    /**
+     * Keeps the newest maxKept jobs; deletes the files of the others
+     */
+    private void forgetOldJobs(long newestId) {
+        jobs.values().removeIf(job -> {
+            boolean old = job.id <= newestId - maxKept && (job.state == State.DONE || job.state == State.FAILED);
+            if (old) {
+                try {
+                    Files.deleteIfExists(job.file(dir));
+                } catch (IOException ex) {
+                    log.warn("Could not delete old export file {}: {}", job.file(dir), ex.getMessage());
+                }
+            }
+            return old;
+        });
+    }
+
+    private enum State { QUEUED, RUNNING, DONE, FAILED }
+
+    /**
+     * One export (written by its export thread, read by status requests)
+     */
+    private static final class Job {
+
+        private final long id;
+        private final Filter filter;
+        private final Format format;
+        private final Instant submittedAt = Instant.now();
+        private final AtomicLong studentsWritten = new AtomicLong();
+        private volatile State state = State.QUEUED;
+        private volatile long maxId;
+        private volatile long lastIdRead;
+        private volatile long fileBytes;
+        private volatile Instant finishedAt;
+        private volatile String error;
+
+        Job(long id, Filter filter, Format format) {
+            this.id = id;
+            this.filter = filter;
+            this.format = format;
+        }
+
+        String fileName() {
+            return "students-" + id + "." + format.extension + ".gz";
+        }
+
+        Path file(Path dir) {
+            return dir.resolve(FILE_PREFIX + id + "." + format.extension + ".gz");
+        }
+
+        ExportJobResponse toResponse() {
+            State current = state;
+            int percent = current == State.DONE ? 100
+                    : maxId == 0 ? 0 : (int) Math.min(99, 100 * lastIdRead / maxId);
+            Instant finished = finishedAt;
+            return new ExportJobResponse(id, current.name(), format.extension, filter.describe(), percent,
+                    studentsWritten.get(), current == State.DONE ? fileBytes : 0, submittedAt.toString(),
+                    finished == null ? null : finished.toString(),
+                    current == State.DONE ? "/api/students/exports/" + id + "/file" : null, error);
+        }
+    }
+}
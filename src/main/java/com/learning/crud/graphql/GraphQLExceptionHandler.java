@@ -0,0 +1,60 @@
+package com.learning.crud.graphql;
+
+import com.learning.crud.exception.IdempotencyKeyConflictException;
+import com.learning.crud.exception.ServiceOverloadedException;
+import graphql.ErrorClassification;
+import graphql.GraphQLError;
+import graphql.GraphqlErrorBuilder;
+import graphql.schema.DataFetchingEnvironment;
+import org.springframework.graphql.execution.DataFetcherExceptionResolverAdapter;
+import org.springframework.graphql.execution.ErrorType;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * GRAPHQL EXCEPTION HANDLER: Turns exceptions into GraphQL errors
+ *
+ * GraphQL always answers HTTP 200; problems are reported in the "errors"
+ * list of the response. This class decides what such an error looks like.
+ *
+ * ServiceOverloadedException →
+ * {
+ *   "errors": [{
+ *     "message": "Server is busy, please retry in 1 s",
+ *     "extensions": { "classification": "UNAVAILABLE", "retryAfterSeconds": 1 }
+ *   }]
+ * }
+ *
+ * IdempotencyKeyConflictException → classification BAD_REQUEST.
+ *
+ * Other exceptions are left to Spring GraphQL's default handling.
+ */
+@Component
+public class GraphQLExceptionHandler extends DataFetcherExceptionResolverAdapter {
+
+    /**
+     * Error classifications used by this application (in addition to Spring's ErrorType)
+     */
+    public enum StudentErrorType implements ErrorClassification {
+        UNAVAILABLE
+    }
+
+    @Override
+    protected GraphQLError resolveToSingleError(Throwable ex, DataFetchingEnvironment env) {
+        if (ex instanceof ServiceOverloadedException overloaded) {
+            return GraphqlErrorBuilder.newError(env)
+                    .errorType(StudentErrorType.UNAVAILABLE)
+                    .message(overloaded.getMessage())
+                    .extensions(Map.of("retryAfterSeconds", overloaded.getRetryAfterSeconds()))
+                    .build();
+        }
+        if (ex instanceof IdempotencyKeyConflictException conflict) {
+            return GraphqlErrorBuilder.newError(env)
+                    .errorType(ErrorType.BAD_REQUEST)
+                    .message(conflict.getMessage())
+                    .build();
+        }
+        return null;
+    }
+}
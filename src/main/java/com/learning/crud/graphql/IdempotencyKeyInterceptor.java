@@ -0,0 +1,37 @@
+package com.learning.crud.graphql;
+
+import com.learning.crud.controller.StudentController;
+import org.springframework.graphql.server.WebGraphQlInterceptor;
+import org.springframework.graphql.server.WebGraphQlRequest;
+import org.springframework.graphql.server.WebGraphQlResponse;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * GRAPHQL INTERCEPTOR: Passes the Idempotency-Key header on to the mutations
+ *
+ * A GraphQL controller method only sees the arguments of its field, not
+ * the HTTP request. This interceptor runs first and copies the header into
+ * the GraphQL context, where createStudent reads it with
+ * @ContextValue("idempotencyKey").
+ *
+ * Note: the key belongs to the whole HTTP request, so send one
+ * createStudent per request when using it.
+ */
+@Component
+public class IdempotencyKeyInterceptor implements WebGraphQlInterceptor {
+
+    public static final String CONTEXT_KEY = "idempotencyKey";
+
+    @Override
+    public Mono<WebGraphQlResponse> intercept(WebGraphQlRequest request, Chain chain) {
+        String idempotencyKey = request.getHeaders().getFirst(StudentController.IDEMPOTENCY_KEY);
+        if (idempotencyKey != null) {
+            request.configureExecutionInput((input, builder) ->
+                    builder.graphQLContext(Map.of(CONTEXT_KEY, idempotencyKey)).build());
+        }
+        return chain.next(request);
+    }
+}
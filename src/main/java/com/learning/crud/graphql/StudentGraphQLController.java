@@ -2,8 +2,10 @@ package com.learning.crud.graphql;
 
 import com.learning.crud.dto.StudentRequest;
 import com.learning.crud.dto.StudentResponse;
+import com.learning.crud.dto.StudentStatsResponse;
 import com.learning.crud.service.StudentService;
 import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.ContextValue;
 import org.springframework.graphql.data.method.annotation.MutationMapping;
 import org.springframework.graphql.data.method.annotation.QueryMapping;
 import org.springframework.stereotype.Controller;
@@ -71,6 +73,27 @@ public class StudentGraphQLController {
         return studentService.getStudentById(id);
     }
 
+    /**
+     * ========================================
+     * GRAPHQL QUERY #2: STUDENT STATISTICS
+     * ========================================
+     *
+     * Example GraphQL Query:
+     * {
+     *   studentStats {
+     *     totalStudents
+     *     grades { grade count }
+     *     ages { age count }
+     *   }
+     * }
+     *
+     * Same numbers as GET /api/students/stats (served from live counters).
+     */
+    @QueryMapping
+    public StudentStatsResponse studentStats() {
+        return studentService.getStatistics();
+    }
+
     /**
      * ========================================
      * GRAPHQL MUTATION #1: CREATE STUDENT
@@ -100,12 +123,17 @@ public class StudentGraphQLController {
      * 6. Returns StudentResponse
      * 7. Spring GraphQL converts response to JSON
      * 8. Returns only the fields client requested
+     *
+     * With an "Idempotency-Key" HTTP header, a resent mutation returns the
+     * first answer instead of creating the student again
+     * (copied into the context by IdempotencyKeyInterceptor).
      */
     @MutationMapping
     public StudentResponse createStudent(
             @Argument String name,
             @Argument Integer age,
-            @Argument String grade) {
+            @Argument String grade,
+            @ContextValue(name = IdempotencyKeyInterceptor.CONTEXT_KEY, required = false) String idempotencyKey) {
         
         // Create StudentRequest from individual parameters
         StudentRequest request = new StudentRequest();
@@ -114,6 +142,6 @@ public class StudentGraphQLController {
         request.setGrade(grade);
 
         // Call service layer
-        return studentService.createStudent(request);
+        return studentService.createStudent(request, idempotencyKey);
     }
 }
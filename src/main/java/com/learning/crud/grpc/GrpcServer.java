@@ -0,0 +1,120 @@
+package com.learning.crud.grpc;
+
+import io.grpc.Server;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * gRPC SERVER: Runs StudentGrpcService on its own port (default 9090)
+ *
+ * gRPC needs HTTP/2 end to end, so it gets its own Netty server instead
+ * of sharing Tomcat's port 8080 with REST, SOAP and GraphQL.
+ *
+ * FLOW CONTROL: HTTP/2 lets each side say how many bytes it can still
+ * receive ("window"). app.grpc.flow-control-window sets ours per stream;
+ * a client that sends faster than we read is paused by the transport.
+ *
+ * IN-PROCESS: With app.grpc.in-process-name set, the same service is also
+ * available without any network, for tests in the same JVM:
+ *
+ *   ManagedChannel channel = InProcessChannelBuilder.forName("students").build();
+ *   StudentsGrpc.newBlockingStub(channel).getStudentById(...);
+ *
+ * SmartLifecycle: Spring starts the server after all beans are ready and
+ * stops it (letting running calls finish) on shutdown.
+ *
+ * Turned off with app.grpc.enabled=false.
+ */
+@Component
+@ConditionalOnProperty(name = "app.grpc.enabled", havingValue = "true", matchIfMissing = true)
+public class GrpcServer implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(GrpcServer.class);
+
+    private static final long SHUTDOWN_GRACE_SECONDS = 10;
+
+    private final StudentGrpcService studentGrpcService;
+    private final int port;
+    private final int flowControlWindow;
+    private final String inProcessName;
+
+    private Server server;
+    private Server inProcessServer;
+
+    public GrpcServer(StudentGrpcService studentGrpcService,
+                      @Value("${app.grpc.port:9090}") int port,
+                      @Value("${app.grpc.flow-control-window:1048576}") int flowControlWindow,
+                      @Value("${app.grpc.in-process-name:}") String inProcessName) {
+        this.studentGrpcService = studentGrpcService;
+        this.port = port;
+        this.flowControlWindow = flowControlWindow;
+        this.inProcessName = inProcessName;
+    }
+
+    @Override
+    public void start() {
+        try {
+            server = NettyServerBuilder.forPort(port)
+                    .addService(studentGrpcService)
+                    .flowControlWindow(flowControlWindow)
+                    .build()
+                    .start();
+            log.info("gRPC server started on port {}", server.getPort());
+
+            if (!inProcessName.isBlank()) {
+                inProcessServer = InProcessServerBuilder.forName(inProcessName)
+                        .addService(studentGrpcService)
+                        .build()
+                        .start();
+                log.info("gRPC in-process server started as '{}'", inProcessName);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not start gRPC server on port " + port, ex);
+        }
+    }
+
+    @Override
+    public void stop() {
+        shutdown(inProcessServer);
+        shutdown(server);
+        inProcessServer = null;
+        server = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return server != null;
+    }
+
+    /**
+     * The port actually used (useful with app.grpc.port=0 = any free port)
+     */
+    public int getPort() {
+        return server == null ? -1 : server.getPort();
+    }
+
+    private static void shutdown(Server server) {
+        if (server == null) {
+            return;
+        }
+        server.shutdown();
+        try {
+            if (!server.awaitTermination(SHUTDOWN_GRACE_SECONDS, TimeUnit.SECONDS)) {
+                server.shutdownNow();
+            }
+        } catch (InterruptedException ex) {
+            server.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.learning.crud.grpc;
+
+import com.learning.crud.converter.StudentProtoMapper;
+import com.learning.crud.dto.StudentResponse;
+import com.learning.crud.exception.ServiceOverloadedException;
+import com.learning.crud.exception.StudentNotFoundException;
+import com.learning.crud.proto.StudentProto;
+import com.learning.crud.proto.StudentsGrpc;
+import com.learning.crud.service.StudentService;
+import io.grpc.Metadata;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * gRPC SERVICE: The fourth API, next to REST, SOAP and GraphQL
+ *
+ * gRPC = binary protobuf messages over HTTP/2, meant for service-to-service
+ * calls. The service is defined in src/main/proto/student.proto; the
+ * protobuf-maven-plugin generates StudentsGrpc.StudentsImplBase, and this
+ * class fills in the methods. Like the other APIs, it only calls StudentService.
+ *
+ * RPCs:
+ * - CreateStudent       (unary)            → StudentService.createStudent
+ * - GetStudentById      (unary)            → StudentService.getStudentById
+ * - BulkCreateStudents  (client streaming) → createStudent for every message
+ * - ExportStudents      (server streaming) → every student, ordered by ID
+ *
+ * FLOW CONTROL: Both streaming RPCs only move as fast as the other side:
+ * - BulkCreateStudents asks the client for the NEXT student only after the
+ *   previous one is saved, so a fast client cannot pile up work in memory.
+ * - ExportStudents only writes while the client's HTTP/2 window has room
+ *   (isReady()), and reads the next batch from the database only then.
+ *
+ * Errors become gRPC status codes:
+ * - StudentNotFoundException   → NOT_FOUND
+ * - ServiceOverloadedException → UNAVAILABLE (+ "retry-after" trailer, in seconds)
+ * - anything else              → INTERNAL
+ */
+@Component
+public class StudentGrpcService extends StudentsGrpc.StudentsImplBase {
+
+    private static final Logger log = LoggerFactory.getLogger(StudentGrpcService.class);
+
+    private static final int DEFAULT_EXPORT_BATCH_SIZE = 500;
+
+    private static final Metadata.Key<String> RETRY_AFTER =
+            Metadata.Key.of("retry-after", Metadata.ASCII_STRING_MARSHALLER);
+
+    private final StudentService studentService;
+
+    public StudentGrpcService(StudentService studentService) {
+        this.studentService = studentService;
+    }
+
+    @Override
+    public void createStudent(StudentProto.StudentRequest request,
+                              StreamObserver<StudentProto.StudentResponse> responseObserver) {
+        try {
+            StudentResponse created = studentService.createStudent(StudentProtoMapper.fromProto(request));
+            responseObserver.onNext(StudentProtoMapper.toProto(created));
+            responseObserver.onCompleted();
+        } catch (RuntimeException ex) {
+            responseObserver.onError(toStatusException(ex));
+        }
+    }
+
+    @Override
+    public void getStudentById(StudentProto.GetStudentByIdRequest request,
+                               StreamObserver<StudentProto.StudentResponse> responseObserver) {
+        try {
+            StudentResponse student = studentService.getStudentById(request.getId());
+            responseObserver.onNext(StudentProtoMapper.toProto(student));
+            responseObserver.onCompleted();
+        } catch (RuntimeException ex) {
+            responseObserver.onError(toStatusException(ex));
+        }
+    }
+
+    /**
+     * CLIENT STREAMING: Saves every student the client sends, answers with the count
+     *
+     * disableAutoRequest(): gRPC would otherwise deliver messages as fast as
+     * they arrive. We request them one at a time instead.
+     * On an error the call ends with that error; students saved before it stay saved.
+     */
+    @Override
+    public StreamObserver<StudentProto.StudentRequest> bulkCreateStudents(
+            StreamObserver<StudentProto.BulkCreateResponse> responseObserver) {
+        ServerCallStreamObserver<StudentProto.BulkCreateResponse> call =
+                (ServerCallStreamObserver<StudentProto.BulkCreateResponse>) responseObserver;
+        call.disableAutoRequest();
+        call.request(1);
+
+        return new StreamObserver<>() {
+
+            private int created;
+            private boolean failed;
+
+            @Override
+            public void onNext(StudentProto.StudentRequest request) {
+                if (failed) {
+                    return;
+                }
+                try {
+                    studentService.createStudent(StudentProtoMapper.fromProto(request));
+                    created++;
+                    call.request(1);
+                } catch (RuntimeException ex) {
+                    failed = true;
+                    StatusRuntimeException error = toStatusException(ex);
+                    call.onError(new StatusRuntimeException(
+                            error.getStatus().augmentDescription(created + " students were created before the error"),
+                            error.getTrailers()));
+                }
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                // The client cancelled or the connection broke
+                log.debug("Bulk create stream ended by the client after {} students: {}", created, t.getMessage());
+            }
+
+            @Override
+            public void onCompleted() {
+                if (failed) {
+                    return;
+                }
+                call.onNext(StudentProto.BulkCreateResponse.newBuilder().setCreatedCount(created).build());
+                call.onCompleted();
+            }
+        };
+    }
+
+    /**
+     * SERVER STREAMING: Sends every student, ordered by ID
+     *
+     * The onReady handler runs whenever the client can take more data.
+     * It writes until the transport says "not ready", and continues the
+     * next time it is called, so memory use stays at about one batch.
+     */
+    @Override
+    public void exportStudents(StudentProto.ExportStudentsRequest request,
+                               StreamObserver<StudentProto.StudentResponse> responseObserver) {
+        ServerCallStreamObserver<StudentProto.StudentResponse> call =
+                (ServerCallStreamObserver<StudentProto.StudentResponse>) responseObserver;
+        int batchSize = request.getBatchSize() > 0 ? request.getBatchSize() : DEFAULT_EXPORT_BATCH_SIZE;
+
+        ExportStream export = new ExportStream(call, batchSize);
+        call.setOnCancelHandler(export::cancel);
+        call.setOnReadyHandler(export::drain);
+    }
+
+    /**
+     * State of one ExportStudents call (gRPC calls the handlers one at a time)
+     */
+    private final class ExportStream {
+
+        private final ServerCallStreamObserver<StudentProto.StudentResponse> call;
+        private final int batchSize;
+        private Iterator<StudentResponse> batch = List.<StudentResponse>of().iterator();
+        private long afterId;
+        private volatile boolean done;
+
+        ExportStream(ServerCallStreamObserver<StudentProto.StudentResponse> call, int batchSize) {
+            this.call = call;
+            this.batchSize = batchSize;
+        }
+
+        void drain() {
+            try {
+                while (!done && call.isReady()) {
+                    if (!batch.hasNext()) {
+                        List<StudentResponse> next = studentService.exportStudentsAfter(afterId, batchSize);
+                        if (next.isEmpty()) {
+                            done = true;
+                            call.onCompleted();
+                            return;
+                        }
+                        batch = next.iterator();
+                    }
+                    StudentResponse student = batch.next();
+                    afterId = student.getId();
+                    call.onNext(StudentProtoMapper.toProto(student));
+                }
+            } catch (RuntimeException ex) {
+                if (!done) {
+                    done = true;
+                    call.onError(toStatusException(ex));
+                }
+            }
+        }
+
+        void cancel() {
+            done = true;
+        }
+    }
+
+    private static StatusRuntimeException toStatusException(RuntimeException ex) {
+        if (ex instanceof StatusRuntimeException statusException) {
+            return statusException;
+        }
+        if (ex instanceof StudentNotFoundException) {
+            return Status.NOT_FOUND.withDescription(ex.getMessage()).asRuntimeException();
+        }
+        if (ex instanceof ServiceOverloadedException overloaded) {
+            Metadata trailers = new Metadata();
+            trailers.put(RETRY_AFTER, String.valueOf(overloaded.getRetryAfterSeconds()));
+            return Status.UNAVAILABLE.withDescription(ex.getMessage()).asRuntimeException(trailers);
+        }
+        log.warn("gRPC call failed", ex);
+        return Status.INTERNAL.withDescription(ex.getMessage()).asRuntimeException();
+    }
+}
@@ -0,0 +1,190 @@
+package com.learning.crud.idempotency;
+
+import com.learning.crud.dto.StudentResponse;
+import com.learning.crud.exception.IdempotencyKeyConflictException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * IDEMPOTENCY STORE: A create sent twice with the same key creates ONE student
+ *
+ * Clients and proxies resend a create when the answer is slow or lost.
+ * Without protection every resend inserts another student. With an
+ * Idempotency-Key (any unique string the client picks per create, e.g. a UUID):
+ *
+ *   1st request, key "k1"             → creates the student, remembers the answer
+ *   same key while the 1st still runs → WAITS for the 1st, gets its answer
+ *   same key afterwards               → gets the remembered answer, nothing is written
+ *   same key, different student       → IdempotencyKeyConflictException
+ *
+ * If the first request FAILS, the key is forgotten again (requests waiting
+ * for it get the same error): a retry after a failure really retries.
+ *
+ * The key is the same across REST, SOAP and GraphQL (the Idempotency-Key
+ * HTTP header for all three), so a retry may even switch protocol.
+ *
+ * BOUNDED: at most app.idempotency.max-keys keys, each for at most
+ * app.idempotency.ttl-seconds. Keys are kept in arrival order, so the
+ * oldest finished keys are dropped first. (Memory only: a restart forgets
+ * every key, and each node has its own keys.)
+ *
+ * CONCURRENT: one ConcurrentHashMap; the first request puts a
+ * CompletableFuture under the key in one atomic step, later requests with
+ * the key find it and wait on it. No lock is held while the create runs.
+ *
+ * Metrics: students.idempotency.keys, students.idempotency.replays
+ * (answered from a finished request) and students.idempotency.waits
+ * (waited for a request still running)
+ */
+@Component
+public class IdempotencyStore {
+
+    // A client-chosen key longer than this is a mistake (or an attack on memory)
+    public static final int MAX_KEY_LENGTH = 255;
+
+    private final int maxKeys;
+    private final long ttlNanos;
+    private final long waitMillis;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    // The same entries in arrival order (oldest first), for dropping old keys
+    private final Queue<Entry> arrivalOrder = new ConcurrentLinkedQueue<>();
+
+    private final Counter replays;
+    private final Counter waits;
+
+    public IdempotencyStore(MeterRegistry meterRegistry,
+                            @Value("${app.idempotency.max-keys:100000}") int maxKeys,
+                            @Value("${app.idempotency.ttl-seconds:86400}") long ttlSeconds,
+                            @Value("${app.idempotency.wait-ms:30000}") long waitMillis) {
+        this.maxKeys = Math.max(1, maxKeys);
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(Math.max(1, ttlSeconds));
+        this.waitMillis = Math.max(1, waitMillis);
+
+        Gauge.builder("students.idempotency.keys", entries, Map::size)
+                .description("Idempotency keys remembered right now")
+                .register(meterRegistry);
+        this.replays = Counter.builder("students.idempotency.replays")
+                .description("Repeated requests answered with the remembered response")
+                .register(meterRegistry);
+        this.waits = Counter.builder("students.idempotency.waits")
+                .description("Repeated requests that waited for the first one to finish")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs create once per key; fingerprint describes the request (same key + other fingerprint = conflict)
+     */
+    public StudentResponse execute(String key, String fingerprint, Supplier<StudentResponse> create) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        long now = System.nanoTime();
+        Entry mine = new Entry(key, fingerprint, now);
+        Entry existing = entries.compute(key, (k, current) ->
+                current == null || current.expired(now, ttlNanos) ? mine : current);
+
+        if (existing != mine) {
+            return answerRepeat(existing, fingerprint);
+        }
+
+        arrivalOrder.add(mine);
+        dropOldKeys(now);
+        try {
+            StudentResponse response = create.get();
+            mine.result.complete(response);
+            return response;
+        } catch (RuntimeException | Error ex) {
+            // Not remembered: the next request with this key runs again
+            // (an Error too, or the key would wait on a future nobody completes)
+            entries.remove(key, mine);
+            mine.result.completeExceptionally(ex);
+            throw ex;
+        }
+    }
+
+    private StudentResponse answerRepeat(Entry first, String fingerprint) {
+        if (!first.fingerprint.equals(fingerprint)) {
+            throw new IdempotencyKeyConflictException(
+                    "Idempotency-Key '" + first.key + "' was already used for a different request");
+        }
+        if (first.result.isDone()) {
+            replays.increment();
+        } else {
+            waits.increment();
+        }
+        try {
+            return first.result.get(waitMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException ex) {
+            // The same error the first request got
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (ex.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(ex.getCause());
+        } catch (TimeoutException ex) {
+            throw new IdempotencyKeyConflictException(
+                    "A request with Idempotency-Key '" + first.key + "' is still running, retry later");
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyKeyConflictException("Interrupted while waiting for Idempotency-Key '" + first.key + "'");
+        }
+    }
+
+    /**
+     * Drops expired keys and, above maxKeys, the oldest finished ones
+     */
+    private void dropOldKeys(long now) {
+        // Bounded: an entry still running goes to the back of the line, so stop after one round
+        int checks = arrivalOrder.size();
+        Entry oldest;
+        while (checks-- > 0 && (oldest = arrivalOrder.peek()) != null
+                && (entries.size() > maxKeys || oldest.expired(now, ttlNanos) || entries.get(oldest.key) != oldest)) {
+            arrivalOrder.poll();
+            if (entries.get(oldest.key) != oldest) {
+                continue; // already replaced or removed
+            }
+            if (oldest.result.isDone()) {
+                entries.remove(oldest.key, oldest);
+            } else {
+                arrivalOrder.add(oldest);
+            }
+        }
+    }
+
+    /**
+     * One key: which request it was for, and its answer (once there is one)
+     */
+    private static final class Entry {
+
+        private final String key;
+        private final String fingerprint;
+        private final long createdNanos;
+        private final CompletableFuture<StudentResponse> result = new CompletableFuture<>();
+
+        Entry(String key, String fingerprint, long createdNanos) {
+            this.key = key;
+            this.fingerprint = fingerprint;
+            this.createdNanos = createdNanos;
+        }
+
+        boolean expired(long now, long ttlNanos) {
+            return now - createdNanos > ttlNanos && result.isDone();
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.learning.crud.jdbc;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+
+/**
+ * MONITORED DATA SOURCE: Wraps a DataSource and times every SQL statement
+ *
+ * This is a JDBC "interceptor": everything (JPA, JdbcTemplate, ...) still
+ * talks to a normal DataSource, but the connections it hands out are
+ * wrapped in small proxies:
+ *
+ *   Connection proxy  → remembers the SQL of prepareStatement(sql)
+ *   Statement proxy   → remembers the bound parameters (setString, setInt...)
+ *                       and times every execute...() call
+ *
+ * The measured time is passed to SqlStatementMonitor, which decides what
+ * to log and keeps the totals.
+ *
+ * A java.lang.reflect.Proxy implements an interface at runtime: every call
+ * goes to invoke(), where we can do something before/after calling the real object.
+ */
+public class MonitoredDataSource extends DelegatingDataSource implements AutoCloseable {
+
+    // Most statements have only a few "?" placeholders
+    private static final int INITIAL_PARAMETER_SLOTS = 8;
+
+    private final SqlStatementMonitor monitor;
+
+    public MonitoredDataSource(DataSource target, SqlStatementMonitor monitor) {
+        super(target);
+        this.monitor = monitor;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(super.getConnection(username, password));
+    }
+
+    /**
+     * Closes the wrapped DataSource if it can be closed (e.g. a connection pool)
+     */
+    @Override
+    public void close() throws Exception {
+        if (getTargetDataSource() instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    private Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new ConnectionHandler(connection));
+    }
+
+    private static Object invokeTarget(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException ex) {
+            // Throw the real SQLException, not the reflection wrapper
+            throw ex.getCause();
+        }
+    }
+
+    /**
+     * Wraps the statements a connection creates
+     */
+    private final class ConnectionHandler implements InvocationHandler {
+
+        private final Connection target;
+
+        ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = invokeTarget(target, method, args);
+            return switch (method.getName()) {
+                case "prepareStatement" -> wrapStatement(result, PreparedStatement.class, (String) args[0]);
+                case "prepareCall" -> wrapStatement(result, CallableStatement.class, (String) args[0]);
+                case "createStatement" -> wrapStatement(result, Statement.class, null);
+                default -> result;
+            };
+        }
+
+        private Object wrapStatement(Object statement, Class<?> type, String sql) {
+            return Proxy.newProxyInstance(
+                    type.getClassLoader(),
+                    new Class<?>[]{type},
+                    new StatementHandler((Statement) statement, sql));
+        }
+    }
+
+    /**
+     * Times execute...() calls and records bound parameters
+     */
+    private final class StatementHandler implements InvocationHandler {
+
+        private final Statement target;
+        private String sql;
+        private Object[] parameters;
+
+        StatementHandler(Statement target, String sql) {
+            this.target = target;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+
+            if (name.startsWith("execute")) {
+                // Plain Statement: the SQL comes with the execute call
+                if (args != null && args.length > 0 && args[0] instanceof String text) {
+                    sql = text;
+                }
+                long start = System.nanoTime();
+                boolean failed = true;
+                try {
+                    Object result = invokeTarget(target, method, args);
+                    failed = false;
+                    return result;
+                } finally {
+                    monitor.record(sql, System.nanoTime() - start, parameters, failed);
+                }
+            }
+
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                rememberParameter(index, args[1]);
+            } else if (name.equals("clearParameters")) {
+                parameters = null;
+            } else if (name.equals("addBatch") && args != null && args.length == 1 && sql == null) {
+                sql = (String) args[0];
+            }
+            return invokeTarget(target, method, args);
+        }
+
+        private void rememberParameter(int index, Object value) {
+            if (parameters == null) {
+                parameters = new Object[Math.max(index, INITIAL_PARAMETER_SLOTS)];
+            } else if (index > parameters.length) {
+                parameters = Arrays.copyOf(parameters, Math.max(index, parameters.length * 2));
+            }
+            parameters[index - 1] = value;
+        }
+    }
+}
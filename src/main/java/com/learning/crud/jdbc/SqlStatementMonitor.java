@@ -0,0 +1,209 @@
+package com.learning.crud.jdbc;
+
+import com.learning.crud.dto.SqlStatementStatsResponse;
+import com.learning.crud.tracing.Tracing;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * SQL STATEMENT MONITOR: Times every SQL statement, logs only the interesting ones
+ *
+ * spring.jpa.show-sql and TRACE parameter logging print EVERY statement,
+ * and they do it on the request thread: under load that costs a lot.
+ *
+ * Instead, MonitoredDataSource times each statement and reports it here:
+ * - Slower than app.sql-monitor.slow-threshold-ms → always logged (WARN)
+ * - Otherwise logged with probability app.sql-monitor.sample-rate (INFO)
+ *   (0.01 = about 1 in 100 statements, 1.0 = all of them, 0 = none)
+ *
+ * Logging is ASYNCHRONOUS: the request thread only puts a small entry in a
+ * queue, a background thread writes the log lines. If the queue is full,
+ * entries are dropped (and counted) rather than slowing down requests.
+ *
+ * Per-statement totals (count, total / average / max time, slow, errors)
+ * are kept in memory and shown at GET /actuator/sqlstats.
+ * Each statement is also added to the current request's trace (layer "jdbc").
+ *
+ * Log lines go to the logger "com.learning.crud.jdbc.SqlStatementMonitor".
+ */
+@Component
+public class SqlStatementMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(SqlStatementMonitor.class);
+
+    // Different SQL texts we keep totals for; more go into one "(other statements)" entry
+    private static final int MAX_TRACKED_STATEMENTS = 1_000;
+    private static final String OTHER_STATEMENTS = "(other statements)";
+
+    private static final int LOG_QUEUE_CAPACITY = 10_000;
+
+    private final long slowThresholdNanos;
+    private final double sampleRate;
+
+    private final Map<String, StatementStats> statsBySql = new ConcurrentHashMap<>();
+    private final BlockingQueue<LogEntry> logQueue = new ArrayBlockingQueue<>(LOG_QUEUE_CAPACITY);
+    private final LongAdder droppedLogEntries = new LongAdder();
+    private final Thread logWriter;
+
+    public SqlStatementMonitor(@Value("${app.sql-monitor.slow-threshold-ms:100}") long slowThresholdMillis,
+                               @Value("${app.sql-monitor.sample-rate:0.01}") double sampleRate) {
+        this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowThresholdMillis);
+        this.sampleRate = sampleRate;
+        this.logWriter = new Thread(this::writeLogLoop, "sql-log-writer");
+        this.logWriter.setDaemon(true);
+        this.logWriter.start();
+    }
+
+    /**
+     * Called by MonitoredDataSource after every executed statement
+     *
+     * @param parameters values bound to the "?" placeholders (may be null)
+     */
+    public void record(String sql, long elapsedNanos, Object[] parameters, boolean failed) {
+        boolean slow = elapsedNanos >= slowThresholdNanos;
+        statsFor(sql).add(elapsedNanos, slow, failed);
+        Tracing.recordSpan(Tracing.JDBC, sql, elapsedNanos);
+
+        if (slow || (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate)) {
+            // Copy the parameters: the statement may be reused with new values
+            Object[] copy = parameters == null ? null : parameters.clone();
+            if (!logQueue.offer(new LogEntry(sql, elapsedNanos, copy, slow, failed))) {
+                droppedLogEntries.increment();
+            }
+        }
+    }
+
+    /**
+     * Per-statement totals, sorted by "total" (default), "avg", "max" or "count", at most limit entries
+     */
+    public List<SqlStatementStatsResponse> statistics(String sortBy, int limit) {
+        Comparator<SqlStatementStatsResponse> order = switch (sortBy == null ? "total" : sortBy) {
+            case "avg" -> Comparator.comparingDouble(SqlStatementStatsResponse::getAvgMillis);
+            case "max" -> Comparator.comparingDouble(SqlStatementStatsResponse::getMaxMillis);
+            case "count" -> Comparator.comparingLong(SqlStatementStatsResponse::getCount);
+            default -> Comparator.comparingDouble(SqlStatementStatsResponse::getTotalMillis);
+        };
+        return statsBySql.entrySet().stream()
+                .map(e -> e.getValue().toResponse(e.getKey()))
+                .sorted(order.reversed())
+                .limit(Math.max(1, limit))
+                .toList();
+    }
+
+    public long droppedLogEntries() {
+        return droppedLogEntries.sum();
+    }
+
+    /**
+     * Starts counting from zero again
+     */
+    public void reset() {
+        statsBySql.clear();
+    }
+
+    @PreDestroy
+    public void stop() {
+        logWriter.interrupt();
+    }
+
+    private StatementStats statsFor(String sql) {
+        String key = sql == null ? "(unknown)" : sql;
+        StatementStats stats = statsBySql.get(key);
+        if (stats != null) {
+            return stats;
+        }
+        if (statsBySql.size() >= MAX_TRACKED_STATEMENTS) {
+            key = OTHER_STATEMENTS;
+        }
+        return statsBySql.computeIfAbsent(key, k -> new StatementStats());
+    }
+
+    // ===== LOG WRITER THREAD =====
+
+    private void writeLogLine(LogEntry entry) {
+        double millis = entry.elapsedNanos / 1_000_000.0;
+        String params = entry.parameters == null ? "" : " params=" + Arrays.toString(withoutUnusedSlots(entry.parameters));
+        String outcome = entry.failed ? " FAILED" : "";
+        if (entry.slow) {
+            log.warn("Slow SQL ({} ms){}: {}{}", String.format("%.1f", millis), outcome, entry.sql, params);
+        } else {
+            log.info("Sampled SQL ({} ms){}: {}{}", String.format("%.1f", millis), outcome, entry.sql, params);
+        }
+    }
+
+    // The parameter array may have spare slots at the end
+    private static Object[] withoutUnusedSlots(Object[] parameters) {
+        int used = parameters.length;
+        while (used > 0 && parameters[used - 1] == null) {
+            used--;
+        }
+        return Arrays.copyOf(parameters, used);
+    }
+
+    private void writeLogLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                writeLogLine(logQueue.take());
+            } catch (InterruptedException ex) {
+                return;
+            } catch (RuntimeException ex) {
+                // Never let a bad log line stop the writer
+            }
+        }
+    }
+
+    /**
+     * One statement to be logged
+     */
+    private record LogEntry(String sql, long elapsedNanos, Object[] parameters, boolean slow, boolean failed) {
+    }
+
+    /**
+     * Running totals for one SQL text (LongAdder: cheap when many threads update at once)
+     */
+    private static final class StatementStats {
+
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        private final LongAdder slowCount = new LongAdder();
+        private final LongAdder errorCount = new LongAdder();
+
+        void add(long nanos, boolean slow, boolean failed) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+            if (slow) {
+                slowCount.increment();
+            }
+            if (failed) {
+                errorCount.increment();
+            }
+        }
+
+        SqlStatementStatsResponse toResponse(String sql) {
+            long n = count.sum();
+            double totalMillis = totalNanos.sum() / 1_000_000.0;
+            return new SqlStatementStatsResponse(sql, n, totalMillis,
+                    n == 0 ? 0 : totalMillis / n,
+                    maxNanos.get() / 1_000_000.0,
+                    slowCount.sum(),
+                    errorCount.sum());
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.learning.crud.jdbc;
+
+import com.learning.crud.dto.SqlStatementStatsResponse;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ADMIN ENDPOINT: Per-statement SQL timings
+ *
+ * An Actuator endpoint, like /actuator/health:
+ *
+ *   GET    /actuator/sqlstats                    → slowest statements by total time
+ *   GET    /actuator/sqlstats?sort=max&limit=5   → sort by total, avg, max or count
+ *   DELETE /actuator/sqlstats                    → start counting from zero
+ *
+ * Must be listed in management.endpoints.web.exposure.include.
+ */
+@Component
+@Endpoint(id = "sqlstats")
+public class SqlStatsEndpoint {
+
+    private static final int DEFAULT_LIMIT = 50;
+
+    private final SqlStatementMonitor monitor;
+
+    public SqlStatsEndpoint(SqlStatementMonitor monitor) {
+        this.monitor = monitor;
+    }
+
+    @ReadOperation
+    public Map<String, Object> statistics(@Nullable String sort, @Nullable Integer limit) {
+        List<SqlStatementStatsResponse> statements = monitor.statistics(sort, limit == null ? DEFAULT_LIMIT : limit);
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("droppedLogEntries", monitor.droppedLogEntries());
+        response.put("statements", statements);
+        return response;
+    }
+
+    @DeleteOperation
+    public void reset() {
+        monitor.reset();
+    }
+}
@@ -0,0 +1,190 @@
+package com.learning.crud.limiter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * ADAPTIVE CONCURRENCY LIMITER: How many requests may run at the same time?
+ *
+ * When the database slows down, more and more requests wait for it, and
+ * everybody's latency goes up to seconds. It is better to run only as many
+ * requests as the system can handle and turn the rest away IMMEDIATELY,
+ * so clients can retry or go elsewhere.
+ *
+ * The right number changes all the time, so we LEARN it from latency
+ * ("gradient" algorithm, like TCP congestion control):
+ *
+ * - longRtt  = slow-moving average latency → "normal" latency
+ * - shortRtt = average latency of the last window (~100 ms)
+ *
+ *   gradient = longRtt / shortRtt   (clamped to 0.5 .. 1.0, with some tolerance)
+ *
+ *   latency normal     → gradient = 1.0 → limit grows by a small queue allowance
+ *   latency rising     → gradient < 1.0 → limit shrinks in proportion
+ *
+ *   newLimit = limit * gradient + sqrt(limit)
+ *
+ * The change is smoothed, and the limit only grows while it is actually
+ * being used (at least half of it in flight).
+ *
+ * Metrics (see /actuator/metrics):
+ * - students.concurrency.limit     → current limit
+ * - students.concurrency.in-flight → requests running right now
+ * - students.concurrency.shed      → requests rejected so far
+ */
+@Component
+public class AdaptiveConcurrencyLimiter {
+
+    private static final Logger log = LoggerFactory.getLogger(AdaptiveConcurrencyLimiter.class);
+
+    // How far shortRtt may exceed longRtt before the limit shrinks
+    private static final double RTT_TOLERANCE = 1.5;
+
+    // Weight of a new limit compared to the old one (0.2 = move 20% of the way)
+    private static final double SMOOTHING = 0.2;
+
+    // longRtt follows shortRtt slowly: about this many windows to adapt
+    private static final int LONG_WINDOW = 60;
+
+    // A window is only evaluated once it has this many samples
+    private static final int MIN_WINDOW_SAMPLES = 10;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long windowNanos;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double limit;
+    private double longRttNanos;
+
+    // Samples of the current window (many threads add, one thread evaluates)
+    private final LongAdder windowRttSum = new LongAdder();
+    private final LongAdder windowSamples = new LongAdder();
+    private final LongAccumulator windowMaxInFlight = new LongAccumulator(Math::max, 0);
+    private volatile long windowEndNanos;
+    private final ReentrantLock updateLock = new ReentrantLock();
+
+    private final Counter shed;
+
+    public AdaptiveConcurrencyLimiter(MeterRegistry meterRegistry,
+                                      @Value("${app.concurrency.initial-limit:20}") int initialLimit,
+                                      @Value("${app.concurrency.min-limit:2}") int minLimit,
+                                      @Value("${app.concurrency.max-limit:200}") int maxLimit,
+                                      @Value("${app.concurrency.window-ms:100}") long windowMillis) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.limit = Math.max(this.minLimit, Math.min(initialLimit, this.maxLimit));
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, windowMillis));
+        this.windowEndNanos = System.nanoTime() + windowNanos;
+
+        Gauge.builder("students.concurrency.limit", this, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Current adaptive concurrency limit in front of StudentService")
+                .register(meterRegistry);
+        Gauge.builder("students.concurrency.in-flight", inFlight, AtomicInteger::get)
+                .description("StudentService calls running right now")
+                .register(meterRegistry);
+        this.shed = Counter.builder("students.concurrency.shed")
+                .description("Calls rejected because the concurrency limit was reached")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Tries to start a call. Returns the start time to pass to release(),
+     * or -1 if the limit is reached (the call must be rejected).
+     */
+    public long tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                shed.increment();
+                return -1;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return System.nanoTime();
+            }
+        }
+    }
+
+    /**
+     * Ends a call started with tryAcquire() and learns from its latency
+     */
+    public void release(long startNanos) {
+        int runningBefore = inFlight.getAndDecrement();
+        long now = System.nanoTime();
+        windowRttSum.add(now - startNanos);
+        windowSamples.increment();
+        windowMaxInFlight.accumulate(runningBefore);
+
+        // One thread evaluates the finished window; the others just move on
+        if (now >= windowEndNanos && windowSamples.sum() >= MIN_WINDOW_SAMPLES && updateLock.tryLock()) {
+            try {
+                if (now >= windowEndNanos) {
+                    long samples = windowSamples.sumThenReset();
+                    long rttSum = windowRttSum.sumThenReset();
+                    long maxInFlight = windowMaxInFlight.getThenReset();
+                    windowEndNanos = now + windowNanos;
+                    if (samples > 0) {
+                        updateLimit((double) rttSum / samples, maxInFlight);
+                    }
+                }
+            } finally {
+                updateLock.unlock();
+            }
+        }
+    }
+
+    public double getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public double getShedCount() {
+        return shed.count();
+    }
+
+    /**
+     * GRADIENT: One step of the limit calculation (only one thread at a time)
+     */
+    private void updateLimit(double shortRttNanos, long maxInFlight) {
+        if (longRttNanos == 0) {
+            longRttNanos = shortRttNanos;
+        } else {
+            longRttNanos += (shortRttNanos - longRttNanos) / LONG_WINDOW;
+        }
+        // After an overload the baseline is too high; let it come down faster
+        if (longRttNanos / shortRttNanos > 2) {
+            longRttNanos *= 0.95;
+        }
+
+        double current = limit;
+        // Not using the limit → latency says nothing about a higher limit
+        if (maxInFlight < current / 2) {
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, RTT_TOLERANCE * longRttNanos / shortRttNanos));
+        double target = current * gradient + Math.sqrt(current);
+        double next = current * (1 - SMOOTHING) + target * SMOOTHING;
+        next = Math.max(minLimit, Math.min(maxLimit, next));
+        limit = next;
+
+        if ((int) next != (int) current) {
+            log.debug("Concurrency limit {} → {} (short rtt {} µs, long rtt {} µs)", (int) current, (int) next,
+                    (long) (shortRttNanos / 1000), (long) (longRttNanos / 1000));
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.learning.crud.limiter;
+
+import com.learning.crud.exception.ServiceOverloadedException;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * ASPECT: Puts the concurrency limiter in front of every request-serving StudentService call
+ *
+ * REST, SOAP and GraphQL all call StudentService, so one check here
+ * protects all three. Only methods marked @ConcurrencyLimited are limited:
+ * background work (bulk updates, exports, the change feed publisher) and
+ * job status calls must neither be shed nor skew the learned latency. Over the limit, ServiceOverloadedException is thrown
+ * right away, and each protocol turns it into its own error:
+ * - REST    → HTTP 503 with a Retry-After header (GlobalExceptionHandler)
+ * - SOAP    → a SOAP Server fault (@SoapFault on the exception)
+ * - GraphQL → an error with classification UNAVAILABLE (GraphQLExceptionHandler)
+ *
+ * @Order(0): runs BEFORE the @Transactional proxy, so a rejected call never
+ * opens a transaction or takes a database connection.
+ *
+ * Turned off with app.concurrency.enabled=false.
+ */
+@Aspect
+@Component
+@Order(0)
+@ConditionalOnProperty(name = "app.concurrency.enabled", havingValue = "true", matchIfMissing = true)
+public class ConcurrencyLimitAspect {
+
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final int retryAfterSeconds;
+
+    public ConcurrencyLimitAspect(AdaptiveConcurrencyLimiter limiter,
+                                  @Value("${app.concurrency.retry-after-seconds:1}") int retryAfterSeconds) {
+        this.limiter = limiter;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    @Around("@annotation(com.learning.crud.limiter.ConcurrencyLimited)")
+    public Object limit(ProceedingJoinPoint joinPoint) throws Throwable {
+        long start = limiter.tryAcquire();
+        if (start < 0) {
+            throw new ServiceOverloadedException("Server is busy, please retry in " + retryAfterSeconds + " s",
+                    retryAfterSeconds);
+        }
+        try {
+            return joinPoint.proceed();
+        } finally {
+            limiter.release(start);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.learning.crud.limiter;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * ANNOTATION: This method serves a client request and goes through the concurrency limiter
+ *
+ * Put it on the StudentService methods that REST, SOAP, GraphQL and gRPC
+ * call for a request. ConcurrencyLimitAspect only limits methods that
+ * carry it, so work that is not a request (background jobs, the batches
+ * of a stream that was already admitted, job status) is never shed with
+ * a 503 and never counts towards the latency the limit is learned from.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ConcurrencyLimited {
+}
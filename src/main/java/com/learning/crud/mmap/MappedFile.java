@@ -0,0 +1,179 @@
+package com.learning.crud.mmap;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * MAPPED FILE: A file that grows in fixed-size, memory-mapped segments
+ *
+ * Memory mapping = the operating system makes the file look like a
+ * byte array in memory. Reading it is a plain memory read (no system
+ * call, no copy into a Java byte[]); writing it changes the file.
+ * force() asks the OS to write the changed pages to disk NOW.
+ *
+ * One MappedByteBuffer can cover at most 2 GB, and a mapping cannot grow,
+ * so the file is mapped in segments of segmentSize bytes:
+ *
+ *   file:     [ segment 0 ][ segment 1 ][ segment 2 ] ...
+ *   position  p → segment p / segmentSize, offset p % segmentSize
+ *
+ * A new segment is mapped (and the file extended) when a write needs it.
+ * Readers never lock: they use the absolute get methods, which do not
+ * change any buffer state, on a segment array that is only ever replaced.
+ *
+ * The file is locked, so a second process cannot open it at the same time.
+ */
+class MappedFile implements AutoCloseable {
+
+    private final FileChannel channel;
+    private final FileLock lock;
+    private final int segmentShift;
+    private final long segmentMask;
+
+    // Replaced (never modified) when a segment is added
+    private volatile MappedByteBuffer[] segments;
+
+    /**
+     * @param segmentSize bytes per mapped segment, a power of two
+     */
+    MappedFile(Path file, int segmentSize) throws IOException {
+        if (Integer.bitCount(segmentSize) != 1) {
+            throw new IllegalArgumentException("Segment size must be a power of two: " + segmentSize);
+        }
+        this.segmentShift = Integer.numberOfTrailingZeros(segmentSize);
+        this.segmentMask = segmentSize - 1L;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            this.lock = channel.tryLock();
+        } catch (OverlappingFileLockException ex) {
+            channel.close();
+            throw new IOException("Already open in this process: " + file, ex);
+        }
+        if (lock == null) {
+            channel.close();
+            throw new IOException("Already open by another process: " + file);
+        }
+
+        // Map what the file already holds (at least one segment)
+        long existing = channel.size();
+        int count = (int) Math.max(1, (existing + segmentMask) >>> segmentShift);
+        MappedByteBuffer[] mapped = new MappedByteBuffer[count];
+        for (int i = 0; i < count; i++) {
+            mapped[i] = map(i);
+        }
+        this.segments = mapped;
+    }
+
+    int segmentSize() {
+        return (int) (segmentMask + 1);
+    }
+
+    /**
+     * Bytes currently mapped (the file may be longer than the data in it)
+     */
+    long capacity() {
+        return (long) segments.length << segmentShift;
+    }
+
+    /**
+     * Makes sure positions up to (not including) end are mapped; only the writer calls this
+     */
+    synchronized void ensureCapacity(long end) throws IOException {
+        MappedByteBuffer[] current = segments;
+        int needed = (int) ((end + segmentMask) >>> segmentShift);
+        if (needed <= current.length) {
+            return;
+        }
+        MappedByteBuffer[] grown = Arrays.copyOf(current, needed);
+        for (int i = current.length; i < needed; i++) {
+            grown[i] = map(i);
+        }
+        segments = grown;
+    }
+
+    // ===== READS (any thread) =====
+
+    long getLong(long position) {
+        return segment(position).getLong(offset(position));
+    }
+
+    int getInt(long position) {
+        return segment(position).getInt(offset(position));
+    }
+
+    short getShort(long position) {
+        return segment(position).getShort(offset(position));
+    }
+
+    /**
+     * Copies length bytes starting at position into a new array
+     * (must not cross a segment boundary)
+     */
+    byte[] getBytes(long position, int length) {
+        byte[] bytes = new byte[length];
+        segment(position).get(offset(position), bytes);
+        return bytes;
+    }
+
+    // ===== WRITES (writer only, after ensureCapacity) =====
+
+    void putLong(long position, long value) {
+        segment(position).putLong(offset(position), value);
+    }
+
+    void putInt(long position, int value) {
+        segment(position).putInt(offset(position), value);
+    }
+
+    void putShort(long position, short value) {
+        segment(position).putShort(offset(position), value);
+    }
+
+    /**
+     * Writes the bytes at position (must not cross a segment boundary)
+     */
+    void putBytes(long position, byte[] bytes) {
+        segment(position).put(offset(position), bytes);
+    }
+
+    /**
+     * Writes the changed pages between from and to (exclusive) to disk
+     */
+    void force(long from, long to) {
+        MappedByteBuffer[] current = segments;
+        for (long position = from; position < to; ) {
+            int index = (int) (position >>> segmentShift);
+            int start = offset(position);
+            int end = (int) Math.min(segmentMask + 1, to - ((long) index << segmentShift));
+            current[index].force(start, end - start);
+            position = ((long) index + 1) << segmentShift;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (MappedByteBuffer segment : segments) {
+            segment.force();
+        }
+        lock.release();
+        channel.close();
+    }
+
+    private MappedByteBuffer segment(long position) {
+        return segments[(int) (position >>> segmentShift)];
+    }
+
+    private int offset(long position) {
+        return (int) (position & segmentMask);
+    }
+
+    private MappedByteBuffer map(int index) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_WRITE, (long) index << segmentShift, segmentMask + 1);
+    }
+}
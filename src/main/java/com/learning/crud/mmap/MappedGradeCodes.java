@@ -0,0 +1,101 @@
+package com.learning.crud.mmap;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * GRADE CODES OF THE MEMORY-MAPPED STORE: grade text ↔ small number
+ *
+ * Same idea as GradeDictionary, but kept in a file NEXT TO the store's own
+ * files (grades.txt), because the records must stay readable even when
+ * the main database is a fresh in-memory one (default profile).
+ *
+ * The file is just one grade per line; line 1 has code 1, line 2 code 2...
+ * A new grade is appended and forced to disk BEFORE any record uses it.
+ * A last line without "\n" is an append that was cut off by a crash: it is
+ * ignored (and overwritten by the next new grade).
+ */
+class MappedGradeCodes implements AutoCloseable {
+
+    private final FileChannel file;
+
+    private final Map<String, Short> codesByGrade = new ConcurrentHashMap<>();
+    // Replaced (never modified) when a grade is added, so readers need no lock
+    private volatile String[] gradesByCode = new String[1];
+
+    MappedGradeCodes(Path path) throws IOException {
+        this.file = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        byte[] bytes = Files.readAllBytes(path);
+        int complete = bytes.length;
+        while (complete > 0 && bytes[complete - 1] != '\n') {
+            complete--;
+        }
+        String[] lines = new String(bytes, 0, complete, StandardCharsets.UTF_8).split("\n", -1);
+        // The last element is the (empty) text after the last "\n"
+        for (int i = 0; i < lines.length - 1; i++) {
+            put((short) (i + 1), lines[i]);
+        }
+        file.truncate(complete);
+    }
+
+    /**
+     * Code for a grade; a new grade is written to the file first (writer thread only)
+     */
+    short encode(String grade) throws IOException {
+        Short code = codesByGrade.get(grade);
+        if (code != null) {
+            return code;
+        }
+        if (grade.indexOf('\n') >= 0) {
+            throw new IllegalArgumentException("A grade must not contain a line break");
+        }
+        int next = gradesByCode.length;
+        if (next > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many distinct grades (at most " + Short.MAX_VALUE + ")");
+        }
+        ByteBuffer line = ByteBuffer.wrap((grade + "\n").getBytes(StandardCharsets.UTF_8));
+        long position = file.size();
+        while (line.hasRemaining()) {
+            position += file.write(line, position);
+        }
+        file.force(false);
+        put((short) next, grade);
+        return (short) next;
+    }
+
+    /**
+     * Code for a grade, 0 if no student has it
+     */
+    short codeOf(String grade) {
+        Short code = codesByGrade.get(grade);
+        return code == null ? 0 : code;
+    }
+
+    String decode(short code) {
+        String[] grades = gradesByCode;
+        if (code > 0 && code < grades.length) {
+            return grades[code];
+        }
+        throw new IllegalStateException("Unknown grade code " + code);
+    }
+
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+
+    private void put(short code, String grade) {
+        String[] grades = Arrays.copyOf(gradesByCode, code + 1);
+        grades[code] = grade;
+        gradesByCode = grades;
+        codesByGrade.put(grade, code);
+    }
+}
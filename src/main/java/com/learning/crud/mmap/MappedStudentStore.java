@@ -0,0 +1,480 @@
+package com.learning.crud.mmap;
+
+import com.learning.crud.entity.Student;
+import com.learning.crud.repository.StudentStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.zip.CRC32C;
+
+/**
+ * MEMORY-MAPPED STUDENT STORE: Students in two files, no JDBC, no Hibernate
+ *
+ * Only active when application.properties contains:
+ *   app.storage.backend=mmap
+ *
+ * FILES (in app.mmap.dir, see MappedFile):
+ *
+ *   students.dat - one FIXED-SIZE record (32 bytes) per student:
+ *
+ *     offset  size  field
+ *        0      8   id
+ *        8      8   name position in names.dat
+ *       16      4   name length (bytes)
+ *       20      4   age
+ *       24      2   grade code (grades.txt, see MappedGradeCodes)
+ *       26      2   (unused)
+ *       28      4   checksum (CRC32C of bytes 0..27 + the name bytes)
+ *
+ *   names.dat - all names as UTF-8, back to back (names differ in length,
+ *               so they live in their own file and the record points at them)
+ *
+ *   grades.txt - the grade of each grade code
+ *
+ *   updates.log - the records of the bulk update running right now (see IN-PLACE UPDATES)
+ *
+ * ID → OFFSET INDEX: this store hands out the IDs itself, 1, 2, 3... with
+ * no gaps, so student "id" is record number id - 1 and its offset is
+ * (id - 1) * 32. The index is a multiplication: O(1), zero memory.
+ *
+ * READS look at the mapped memory directly: a filter or count reads just
+ * the age / grade fields of each record and builds nothing. Only for a
+ * student that is actually returned are the name bytes copied out and a
+ * Student object made (the last step).
+ *
+ * CRASH-SAFE APPEND:
+ * 1. Write the names, then the records (checksum included)
+ * 2. force() names.dat, then students.dat (app.mmap.sync=true, default)
+ * 3. Only now make the new students visible and return their IDs
+ * RECOVERY at startup: read records from the start while the id is the
+ * expected one and the checksum matches. The first record that fails is
+ * where the last (unfinished) append was cut off: it and everything after
+ * it is wiped. So after a crash the store holds exactly a prefix of what
+ * was written, and every student whose save had returned is in it.
+ *
+ * IN-PLACE UPDATES (bulk updates, one ID range per call):
+ * The id → offset index finds each record of the range; only the age or
+ * grade code changes (the name stays where it is), and the checksum is
+ * computed again. The new records go to updates.log before they overwrite
+ * the old ones (MappedUpdateJournal), so a crash in the middle can never
+ * leave a broken record that recovery would take for an unfinished append.
+ *
+ * One writer at a time (saveAll and the bulk updates are synchronized), readers never lock.
+ *
+ * NO CHANGE FEED GUARANTEE: these writes are NOT part of the database
+ * transaction that GroupCommitter opens (isTransactional() = false, same
+ * as the sharded and in-memory stores). The change feed entry is written
+ * to the main database afterwards; if that fails, the students stay saved
+ * without a feed entry, and their callers get the error.
+ */
+@Component
+@ConditionalOnProperty(name = "app.storage.backend", havingValue = "mmap")
+public class MappedStudentStore implements StudentStore, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(MappedStudentStore.class);
+
+    private static final int RECORD_SIZE = 32;
+    private static final int ID = 0;
+    private static final int NAME_POSITION = 8;
+    private static final int NAME_LENGTH = 16;
+    private static final int AGE = 20;
+    private static final int GRADE_CODE = 24;
+    private static final int CHECKSUM = 28;
+
+    private final MappedGradeCodes grades;
+    private final MappedFile records;
+    private final MappedFile names;
+    private final MappedUpdateJournal journal;
+    private final boolean sync;
+
+    // Number of visible students; the highest ID is the same number
+    private volatile long count;
+
+    // Where the next name goes (writer only)
+    private long namesEnd;
+
+    public MappedStudentStore(@Value("${app.mmap.dir:./data/mmap}") Path directory,
+                              @Value("${app.mmap.segment-size-mb:64}") int segmentSizeMb,
+                              @Value("${app.mmap.sync:true}") boolean sync) throws IOException {
+        this.sync = sync;
+        Files.createDirectories(directory);
+        int segmentSize = Integer.highestOneBit(Math.max(1, segmentSizeMb)) << 20;
+        // students.dat first: its lock keeps a second process away from all three files
+        this.records = new MappedFile(directory.resolve("students.dat"), segmentSize);
+        this.names = new MappedFile(directory.resolve("names.dat"), segmentSize);
+        this.grades = new MappedGradeCodes(directory.resolve("grades.txt"));
+        this.journal = new MappedUpdateJournal(directory.resolve("updates.log"), RECORD_SIZE);
+        redoJournal();
+        recover();
+    }
+
+    // ===== WRITES =====
+
+    @Override
+    public Student save(Student student) {
+        return saveAll(List.of(student)).get(0);
+    }
+
+    /**
+     * Appends all students, forces them to disk, then makes them visible.
+     * If anything fails, none of them becomes visible (all or nothing).
+     */
+    @Override
+    public synchronized List<Student> saveAll(List<Student> students) {
+        long firstId = count + 1;
+        long recordsFrom = count * RECORD_SIZE;
+        long namesFrom = namesEnd;
+        long nextName = namesEnd;
+        List<Student> saved = new ArrayList<>(students.size());
+        try {
+            records.ensureCapacity(recordsFrom + (long) students.size() * RECORD_SIZE);
+            for (int i = 0; i < students.size(); i++) {
+                Student student = students.get(i);
+                long id = firstId + i;
+                byte[] name = student.getName().getBytes(StandardCharsets.UTF_8);
+                nextName = namePosition(nextName, name.length);
+                names.ensureCapacity(nextName + name.length);
+                names.putBytes(nextName, name);
+                records.putBytes(recordsFrom + (long) i * RECORD_SIZE,
+                        encodeRecord(id, nextName, name, student.getAge(), grades.encode(student.getGrade())));
+                nextName += name.length;
+
+                Student copy = new Student(student.getName(), student.getAge(), student.getGrade());
+                copy.setId(id);
+                saved.add(copy);
+            }
+            if (sync) {
+                names.force(namesFrom, nextName);
+                records.force(recordsFrom, recordsFrom + (long) students.size() * RECORD_SIZE);
+            }
+        } catch (IOException | RuntimeException ex) {
+            // Wipe what was written, so recovery never finds half of this batch
+            wipeRecords(count);
+            throw new DataAccessResourceFailureException("Memory-mapped store: save failed: " + ex.getMessage(), ex);
+        }
+        namesEnd = nextName;
+        count = firstId - 1 + students.size();
+        return saved;
+    }
+
+    // ===== BULK UPDATES: records rewritten in place =====
+
+    @Override
+    public synchronized long updateGrade(long fromId, long toId, String fromGrade, String toGrade) {
+        short fromCode = grades.codeOf(fromGrade);
+        if (fromCode == 0) {
+            return 0;
+        }
+        short toCode;
+        try {
+            toCode = grades.encode(toGrade);
+        } catch (IOException ex) {
+            throw new DataAccessResourceFailureException("Memory-mapped store: bulk update failed: " + ex.getMessage(), ex);
+        }
+        return rewrite(fromId, toId, record -> {
+            if (record.getShort(GRADE_CODE) != fromCode) {
+                return false;
+            }
+            record.putShort(GRADE_CODE, toCode);
+            return true;
+        });
+    }
+
+    @Override
+    public synchronized long shiftAges(long fromId, long toId, int delta) {
+        return rewrite(fromId, toId, record -> {
+            record.putInt(AGE, record.getInt(AGE) + delta);
+            return true;
+        });
+    }
+
+    // Appended to the files, outside any database transaction
+    @Override
+    public boolean isTransactional() {
+        return false;
+    }
+
+    // ===== READS =====
+
+    @Override
+    public Optional<Student> findById(Long id) {
+        if (id == null || id < 1 || id > count) {
+            return Optional.empty();
+        }
+        return Optional.of(readStudent(id));
+    }
+
+    @Override
+    public List<Student> findAllById(Collection<Long> ids) {
+        long visible = count;
+        List<Student> found = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            if (id != null && id >= 1 && id <= visible) {
+                found.add(readStudent(id));
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public List<Student> findPage(int page, int size) {
+        return findAfterId((long) page * size, size);
+    }
+
+    @Override
+    public List<Student> findAfterId(long afterId, int limit) {
+        long visible = count;
+        long from = Math.max(1, afterId + 1);
+        long to = Math.min(visible, from + limit - 1);
+        List<Student> found = new ArrayList<>((int) Math.max(0, to - from + 1));
+        for (long id = from; id <= to; id++) {
+            found.add(readStudent(id));
+        }
+        return found;
+    }
+
+    /**
+     * Scans the records in the mapped file; only matches become Student objects
+     */
+    @Override
+    public List<Student> findByAgeRange(int minAge, int maxAge, String grade, int limit) {
+        short gradeCode = grade == null ? 0 : grades.codeOf(grade);
+        if (grade != null && gradeCode == 0) {
+            return List.of();
+        }
+        long visible = count;
+        List<Student> found = new ArrayList<>();
+        for (long id = 1; id <= visible && found.size() < limit; id++) {
+            long record = (id - 1) * RECORD_SIZE;
+            int age = records.getInt(record + AGE);
+            if (age >= minAge && age <= maxAge
+                    && (grade == null || records.getShort(record + GRADE_CODE) == gradeCode)) {
+                found.add(readStudent(id));
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public long count() {
+        return count;
+    }
+
+    /**
+     * IDs have no gaps, so the highest one is the count
+     */
+    @Override
+    public long maxId() {
+        return count;
+    }
+
+    @Override
+    public Map<String, Long> countByGrade() {
+        long visible = count;
+        Map<Short, Long> byCode = new HashMap<>();
+        for (long id = 1; id <= visible; id++) {
+            byCode.merge(records.getShort((id - 1) * RECORD_SIZE + GRADE_CODE), 1L, Long::sum);
+        }
+        Map<String, Long> counts = new TreeMap<>();
+        byCode.forEach((code, total) -> counts.put(grades.decode(code), total));
+        return counts;
+    }
+
+    @Override
+    public Map<Integer, Long> countByAge() {
+        long visible = count;
+        Map<Integer, Long> counts = new TreeMap<>();
+        for (long id = 1; id <= visible; id++) {
+            counts.merge(records.getInt((id - 1) * RECORD_SIZE + AGE), 1L, Long::sum);
+        }
+        return counts;
+    }
+
+    /**
+     * Writes everything to disk and releases the files (Spring calls close() on shutdown)
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        journal.close();
+        names.close();
+        records.close();
+        grades.close();
+    }
+
+    // ===== RECOVERY =====
+
+    /**
+     * Writes the records of a bulk update that was cut off by a crash (see MappedUpdateJournal)
+     */
+    private void redoJournal() throws IOException {
+        List<byte[]> pending = journal.read();
+        if (!pending.isEmpty()) {
+            long capacity = records.capacity();
+            for (byte[] record : pending) {
+                long offset = (ByteBuffer.wrap(record).getLong(ID) - 1) * RECORD_SIZE;
+                if (offset >= 0 && offset + RECORD_SIZE <= capacity) {
+                    records.putBytes(offset, record);
+                }
+            }
+            records.force(0, capacity);
+            log.info("Memory-mapped store: {} records of an unfinished bulk update written again", pending.size());
+        }
+        journal.clear(true);
+    }
+
+    /**
+     * Finds the last complete record and wipes anything after it
+     */
+    private void recover() {
+        long start = System.nanoTime();
+        long valid = 0;
+        long lastNameEnd = 0;
+        long capacity = records.capacity();
+        while ((valid + 1) * RECORD_SIZE <= capacity) {
+            long record = valid * RECORD_SIZE;
+            if (records.getLong(record + ID) != valid + 1 || !checksumMatches(record)) {
+                break;
+            }
+            lastNameEnd = records.getLong(record + NAME_POSITION) + records.getInt(record + NAME_LENGTH);
+            valid++;
+        }
+        int wiped = wipeRecords(valid);
+        count = valid;
+        namesEnd = lastNameEnd;
+        log.info("Memory-mapped store opened: {} students{} in {} ms", valid,
+                wiped > 0 ? " (" + wiped + " unfinished records wiped)" : "",
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private boolean checksumMatches(long record) {
+        long namePosition = records.getLong(record + NAME_POSITION);
+        int nameLength = records.getInt(record + NAME_LENGTH);
+        if (namePosition < 0 || nameLength < 0 || nameLength > names.segmentSize()
+                || namePosition + nameLength > names.capacity()) {
+            return false;
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(records.getBytes(record, CHECKSUM));
+        crc.update(names.getBytes(namePosition, nameLength));
+        return (int) crc.getValue() == records.getInt(record + CHECKSUM);
+    }
+
+    /**
+     * Zeroes records from index "from" until the first one that is already empty
+     *
+     * @return how many records were wiped
+     */
+    private int wipeRecords(long from) {
+        byte[] empty = new byte[RECORD_SIZE];
+        long capacity = records.capacity();
+        int wiped = 0;
+        for (long record = from * RECORD_SIZE; record + RECORD_SIZE <= capacity; record += RECORD_SIZE) {
+            if (records.getLong(record + ID) == 0 && records.getInt(record + CHECKSUM) == 0) {
+                break;
+            }
+            records.putBytes(record, empty);
+            wiped++;
+        }
+        if (wiped > 0) {
+            records.force(from * RECORD_SIZE, (from + wiped) * RECORD_SIZE);
+        }
+        return wiped;
+    }
+
+    // ===== HELPERS =====
+
+    /**
+     * Rewrites the records fromId..toId that change wants to change; returns how many it changed
+     */
+    private long rewrite(long fromId, long toId, RecordChange change) {
+        long from = Math.max(1, fromId);
+        long to = Math.min(count, toId);
+        List<byte[]> changed = new ArrayList<>();
+        for (long id = from; id <= to; id++) {
+            ByteBuffer record = ByteBuffer.wrap(records.getBytes((id - 1) * RECORD_SIZE, RECORD_SIZE));
+            if (change.apply(record)) {
+                long namePosition = record.getLong(NAME_POSITION);
+                byte[] name = names.getBytes(namePosition, record.getInt(NAME_LENGTH));
+                changed.add(encodeRecord(id, namePosition, name, record.getInt(AGE), record.getShort(GRADE_CODE)));
+            }
+        }
+        if (changed.isEmpty()) {
+            return 0;
+        }
+        try {
+            journal.write(changed, sync);
+            for (byte[] record : changed) {
+                records.putBytes((ByteBuffer.wrap(record).getLong(ID) - 1) * RECORD_SIZE, record);
+            }
+            if (sync) {
+                records.force((from - 1) * RECORD_SIZE, to * RECORD_SIZE);
+            }
+            journal.clear(sync);
+        } catch (IOException | RuntimeException ex) {
+            throw new DataAccessResourceFailureException("Memory-mapped store: bulk update failed: " + ex.getMessage(), ex);
+        }
+        return changed.size();
+    }
+
+    private Student readStudent(long id) {
+        long record = (id - 1) * RECORD_SIZE;
+        int age = records.getInt(record + AGE);
+        String grade = grades.decode(records.getShort(record + GRADE_CODE));
+        // Last step: copy the name bytes out of the mapped file
+        byte[] name = names.getBytes(records.getLong(record + NAME_POSITION), records.getInt(record + NAME_LENGTH));
+        Student student = new Student(new String(name, StandardCharsets.UTF_8), age, grade);
+        student.setId(id);
+        return student;
+    }
+
+    private static byte[] encodeRecord(long id, long namePosition, byte[] name, int age, short gradeCode) {
+        ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+        record.putLong(ID, id);
+        record.putLong(NAME_POSITION, namePosition);
+        record.putInt(NAME_LENGTH, name.length);
+        record.putInt(AGE, age);
+        record.putShort(GRADE_CODE, gradeCode);
+        CRC32C crc = new CRC32C();
+        crc.update(record.array(), 0, CHECKSUM);
+        crc.update(name);
+        record.putInt(CHECKSUM, (int) crc.getValue());
+        return record.array();
+    }
+
+    /**
+     * What a bulk update does to one record: changes the age / grade code
+     * in a copy of it, or returns false to leave it as it is
+     */
+    @FunctionalInterface
+    private interface RecordChange {
+        boolean apply(ByteBuffer record);
+    }
+
+    /**
+     * A name must not cross a segment boundary: if it does not fit, start it in the next segment
+     */
+    private long namePosition(long position, int length) {
+        long segmentSize = names.segmentSize();
+        if (length > segmentSize) {
+            throw new IllegalArgumentException("Name too long for the memory-mapped store");
+        }
+        long offset = position % segmentSize;
+        return offset + length <= segmentSize ? position : position - offset + segmentSize;
+    }
+}
@@ -0,0 +1,111 @@
+package com.learning.crud.mmap;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * UPDATE JOURNAL OF THE MEMORY-MAPPED STORE: Makes in-place rewrites crash-safe
+ *
+ * Appends are safe because recovery wipes a broken LAST record. A bulk
+ * update rewrites records in the MIDDLE of students.dat: if the process
+ * dies halfway through a record, that record fails its checksum and
+ * recovery would wipe it AND every student after it.
+ *
+ * So the new records are written here first ("redo log"):
+ *
+ *   updates.log = [record count: 8 bytes][records: 32 bytes each][CRC32C of all before it: 4 bytes]
+ *
+ * FLOW (MappedStudentStore.rewrite):
+ * 1. write(records): the journal, forced to disk
+ * 2. overwrite the records in students.dat, forced to disk
+ * 3. clear(): empty the journal
+ * RECOVERY (read at startup):
+ * - complete journal (checksum matches) → step 2 may be unfinished: write the records again
+ * - incomplete journal → the crash came during step 1, students.dat was not touched yet
+ * Writing a record again is harmless: it holds the whole new record, not a difference.
+ */
+class MappedUpdateJournal implements AutoCloseable {
+
+    private final FileChannel file;
+    private final int recordSize;
+
+    MappedUpdateJournal(Path path, int recordSize) throws IOException {
+        this.file = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.recordSize = recordSize;
+    }
+
+    /**
+     * Replaces the journal with these records (writer only)
+     */
+    void write(List<byte[]> records, boolean sync) throws IOException {
+        ByteBuffer journal = ByteBuffer.allocate(8 + records.size() * recordSize + 4);
+        journal.putLong(records.size());
+        for (byte[] record : records) {
+            journal.put(record);
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(journal.array(), 0, journal.position());
+        journal.putInt((int) crc.getValue());
+        journal.flip();
+
+        file.truncate(0);
+        long position = 0;
+        while (journal.hasRemaining()) {
+            position += file.write(journal, position);
+        }
+        if (sync) {
+            file.force(false);
+        }
+    }
+
+    /**
+     * The records of a complete journal; empty if there is none (or it was cut off)
+     */
+    List<byte[]> read() throws IOException {
+        long size = file.size();
+        if (size < 12) {
+            return List.of();
+        }
+        ByteBuffer journal = ByteBuffer.allocate((int) Math.min(size, Integer.MAX_VALUE));
+        while (journal.hasRemaining() && file.read(journal, journal.position()) > 0) {
+            // keep reading
+        }
+        long count = journal.getLong(0);
+        if (count < 0 || 8 + count * recordSize + 4 != size) {
+            return List.of();
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(journal.array(), 0, (int) size - 4);
+        if ((int) crc.getValue() != journal.getInt((int) size - 4)) {
+            return List.of();
+        }
+        List<byte[]> records = new ArrayList<>((int) count);
+        for (int i = 0; i < count; i++) {
+            byte[] record = new byte[recordSize];
+            journal.get(8 + i * recordSize, record);
+            records.add(record);
+        }
+        return records;
+    }
+
+    /**
+     * The records are safely in students.dat: nothing to redo any more
+     */
+    void clear(boolean sync) throws IOException {
+        file.truncate(0);
+        if (sync) {
+            file.force(false);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+}
@@ -0,0 +1,268 @@
+package com.learning.crud.readmodel;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * STUDENT COLUMNS: All students as a few big arrays of plain numbers
+ *
+ * A List<StudentResponse> keeps one object per student, plus a Long, a
+ * String and a byte[] for its name: about 100+ bytes and 4 objects each,
+ * scattered over the heap. Here every FIELD is one array ("column"):
+ *
+ *   slot:        0      1      2      3
+ *   ids:       [ 1    , 2    , 0    , 4    ]   long[]  (0 = no student)
+ *   ages:      [ 15   , 16   , 0    , 15   ]   int[]
+ *   grades:    [ 1    , 2    , 0    , 1    ]   byte[]  (GradeDictionary code)
+ *   nameStart: [ 0    , 4    , 0    , 8    ]   int[]   ┐ where the name is
+ *   nameEnd:   [ 4    , 8    , 0    , 12   ]   int[]   ┘ in nameBytes
+ *   nameBytes: "JohnMaryAlex"                   byte[]  (UTF-8, all names back to back)
+ *
+ * - LOOKUP BY ID is O(1): IDs are handed out 1, 2, 3..., so student
+ *   "id" lives in slot id - 1 (a missing ID just leaves an empty slot)
+ * - FILTERS walk the ages/grades arrays from start to end. Such simple
+ *   loops over primitive arrays are turned into SIMD instructions by the
+ *   JIT ("auto-vectorisation"): 8 or 16 ages compared per instruction
+ * - Names stay UTF-8 bytes until a result is built (the last step)
+ *
+ * THREAD SAFETY: one writer at a time (put() is synchronized), readers
+ * never lock. A row is written completely and only then its id is stored
+ * with a "release" write; readers read the id with an "acquire" read, so
+ * a reader that sees the id also sees the whole row. When the arrays are
+ * full they are copied into bigger ones and the new set is published at once.
+ */
+public class StudentColumns {
+
+    // Reads and writes of single long[] elements with memory ordering
+    private static final VarHandle IDS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    // Filter scans handle this many slots per round (mask pass, then collect pass)
+    private static final int SCAN_BLOCK = 1024;
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    /**
+     * Builds a result object from one row (called only for rows that are returned)
+     */
+    @FunctionalInterface
+    public interface RowReader<T> {
+        T read(long id, String name, int age, int gradeCode);
+    }
+
+    // Everything a reader needs, replaced as a whole when the arrays grow
+    private static final class Columns {
+        final long[] ids;
+        final int[] ages;
+        final byte[] grades;
+        final int[] nameStart;
+        final int[] nameEnd;
+        final byte[] nameBytes;
+
+        Columns(int capacity, int nameCapacity) {
+            this(new long[capacity], new int[capacity], new byte[capacity],
+                    new int[capacity], new int[capacity], new byte[nameCapacity]);
+        }
+
+        Columns(long[] ids, int[] ages, byte[] grades, int[] nameStart, int[] nameEnd, byte[] nameBytes) {
+            this.ids = ids;
+            this.ages = ages;
+            this.grades = grades;
+            this.nameStart = nameStart;
+            this.nameEnd = nameEnd;
+            this.nameBytes = nameBytes;
+        }
+    }
+
+    private volatile Columns columns = new Columns(INITIAL_CAPACITY, INITIAL_CAPACITY * 16);
+
+    // Highest used slot + 1 (scans stop here)
+    private volatile int limit;
+
+    // Guarded by "this"
+    private int nameLength;
+    private int rows;
+
+    /**
+     * Adds a student, or replaces it if its ID is already there
+     *
+     * @param gradeCode GradeDictionary code, 1..255
+     */
+    public synchronized void put(long id, String name, int age, int gradeCode) {
+        if (id < 1 || id > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Student id out of range for the read model: " + id);
+        }
+        if (gradeCode < 1 || gradeCode > 255) {
+            throw new IllegalArgumentException("Grade code does not fit in a byte: " + gradeCode);
+        }
+        int slot = (int) (id - 1);
+        byte[] name8 = name.getBytes(StandardCharsets.UTF_8);
+        Columns c = ensureCapacity(slot + 1, nameLength + name8.length);
+
+        System.arraycopy(name8, 0, c.nameBytes, nameLength, name8.length);
+        c.ages[slot] = age;
+        c.grades[slot] = (byte) gradeCode;
+        c.nameStart[slot] = nameLength;
+        c.nameEnd[slot] = nameLength + name8.length;
+        nameLength += name8.length;
+        if (c.ids[slot] == 0) {
+            rows++;
+        }
+        // Last: makes the row visible to readers
+        IDS.setRelease(c.ids, slot, id);
+
+        if (slot + 1 > limit) {
+            limit = slot + 1;
+        }
+    }
+
+    /**
+     * LOOKUP BY ID: O(1), returns null if there is no such student
+     */
+    public <T> T get(long id, RowReader<T> reader) {
+        Columns c = columns;
+        if (id < 1 || id > c.ids.length) {
+            return null;
+        }
+        int slot = (int) (id - 1);
+        if ((long) IDS.getAcquire(c.ids, slot) != id) {
+            return null;
+        }
+        return readRow(c, slot, reader);
+    }
+
+    /**
+     * COUNT: Students with minAge <= age <= maxAge (and the given grade code, 0 = any grade)
+     *
+     * One straight loop with no branches: vectorised by the JIT.
+     * Rows still being written are counted by their age as stored so far;
+     * counts are a snapshot anyway.
+     */
+    public long count(int minAge, int maxAge, int gradeCode) {
+        Columns c = columns;
+        int end = Math.min(limit, c.ids.length);
+        int[] ages = c.ages;
+        byte[] grades = c.grades;
+        byte grade = (byte) gradeCode;
+        boolean anyGrade = gradeCode == 0;
+
+        long count = 0;
+        for (int i = 0; i < end; i++) {
+            // Empty slots have grade code 0 and are never counted
+            boolean match = ages[i] >= minAge & ages[i] <= maxAge
+                    & grades[i] != 0 & (anyGrade | grades[i] == grade);
+            count += match ? 1 : 0;
+        }
+        return count;
+    }
+
+    /**
+     * FILTER: Up to max students with minAge <= age <= maxAge (and the grade
+     * code, 0 = any), ordered by ID
+     *
+     * FLOW (per block of 1024 slots):
+     * 1. Vectorised pass: mask[i] = 1 if slot i matches (ages and grades only)
+     * 2. Collect pass: for each marked slot, confirm the row (acquire read of
+     *    its id, check again) and build the result - names are decoded only here
+     */
+    public <T> List<T> filter(int minAge, int maxAge, int gradeCode, int max, RowReader<T> reader) {
+        Columns c = columns;
+        int end = Math.min(limit, c.ids.length);
+        int[] ages = c.ages;
+        byte[] grades = c.grades;
+        byte grade = (byte) gradeCode;
+        boolean anyGrade = gradeCode == 0;
+
+        List<T> result = new ArrayList<>(Math.min(max, 256));
+        byte[] mask = new byte[SCAN_BLOCK];
+        for (int from = 0; from < end && result.size() < max; from += SCAN_BLOCK) {
+            int n = Math.min(SCAN_BLOCK, end - from);
+
+            // 1. Vectorisable: same simple work for every slot, no early exit
+            for (int i = 0; i < n; i++) {
+                int age = ages[from + i];
+                byte g = grades[from + i];
+                mask[i] = (byte) ((age >= minAge & age <= maxAge & g != 0 & (anyGrade | g == grade)) ? 1 : 0);
+            }
+
+            // 2. Collect the (few) matches
+            for (int i = 0; i < n && result.size() < max; i++) {
+                if (mask[i] == 0) {
+                    continue;
+                }
+                int slot = from + i;
+                if ((long) IDS.getAcquire(c.ids, slot) == 0) {
+                    continue;
+                }
+                // Re-check after the acquire: the mask may have seen a row half written
+                int age = ages[slot];
+                if (age >= minAge && age <= maxAge && (anyGrade || grades[slot] == grade)) {
+                    result.add(readRow(c, slot, reader));
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Number of students
+     */
+    public synchronized int size() {
+        return rows;
+    }
+
+    /**
+     * Heap used by the arrays (allocated capacity, not just the used part)
+     */
+    public long heapBytes() {
+        Columns c = columns;
+        return arrayBytes(c.ids.length, 8) + arrayBytes(c.ages.length, 4) + arrayBytes(c.grades.length, 1)
+                + arrayBytes(c.nameStart.length, 4) + arrayBytes(c.nameEnd.length, 4)
+                + arrayBytes(c.nameBytes.length, 1);
+    }
+
+    // ===== HELPERS =====
+
+    private static <T> T readRow(Columns c, int slot, RowReader<T> reader) {
+        int start = c.nameStart[slot];
+        String name = new String(c.nameBytes, start, c.nameEnd[slot] - start, StandardCharsets.UTF_8);
+        return reader.read(slot + 1L, name, c.ages[slot], c.grades[slot] & 0xFF);
+    }
+
+    /**
+     * Grows the arrays (×1.5, at least to the size needed) and publishes them
+     */
+    private Columns ensureCapacity(int slots, int nameBytes) {
+        Columns c = columns;
+        if (slots <= c.ids.length && nameBytes <= c.nameBytes.length) {
+            return c;
+        }
+        int capacity = Math.max(c.ids.length, grow(c.ids.length, slots));
+        int nameCapacity = Math.max(c.nameBytes.length, grow(c.nameBytes.length, nameBytes));
+        Columns bigger = new Columns(
+                Arrays.copyOf(c.ids, capacity),
+                Arrays.copyOf(c.ages, capacity),
+                Arrays.copyOf(c.grades, capacity),
+                Arrays.copyOf(c.nameStart, capacity),
+                Arrays.copyOf(c.nameEnd, capacity),
+                Arrays.copyOf(c.nameBytes, nameCapacity));
+        columns = bigger;
+        return bigger;
+    }
+
+    private static int grow(int current, int needed) {
+        if (needed <= current) {
+            return current;
+        }
+        long grown = Math.max((long) needed, current + (current >> 1));
+        return (int) Math.min(grown, Integer.MAX_VALUE - 8);
+    }
+
+    // 16-byte array header, rounded up to 8 bytes (64-bit JVM with compressed pointers)
+    private static long arrayBytes(int length, int elementSize) {
+        return (16 + (long) length * elementSize + 7) & ~7L;
+    }
+}
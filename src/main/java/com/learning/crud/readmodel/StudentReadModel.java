@@ -0,0 +1,191 @@
+package com.learning.crud.readmodel;
+
+import com.learning.crud.datasource.ConsistencyContext;
+import com.learning.crud.dictionary.GradeDictionary;
+import com.learning.crud.dto.StudentResponse;
+import com.learning.crud.entity.Student;
+import com.learning.crud.repository.StudentStore;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * STUDENT READ MODEL: Serves reads from memory, without entities or SQL
+ *
+ * Optional (app.read-model.enabled=true). When on, every student is also
+ * kept in StudentColumns (primitive arrays, see there), and:
+ * - GET by ID is answered from the arrays (O(1), no database, no Student entity)
+ * - FILTER by age range / grade is a vectorised scan over the arrays
+ * (Stats already come from memory, see StudentStatistics.)
+ *
+ * Kept in sync the same way as the name index:
+ * - StudentService calls add() after every create (after the commit)
+ * - StudentBulkUpdater calls refresh() for every ID range it has changed
+ * - At startup load() reads all students from the database, page by page
+ *   (unless StudentSnapshotLoader already added them all while restoring)
+ *
+ * Until the load has finished, ready() is false and StudentService simply
+ * asks the database. The same happens for good if a student does not fit
+ * (more than 255 distinct grades, or an ID above ~2 billion): the read
+ * model switches itself off instead of answering wrong.
+ *
+ * Metrics: students.read-model.rows and students.read-model.heap.bytes
+ */
+@Component
+public class StudentReadModel {
+
+    private static final Logger log = LoggerFactory.getLogger(StudentReadModel.class);
+
+    // How many students we read from the database per round trip during load
+    private static final int LOAD_PAGE_SIZE = 10_000;
+
+    private final StudentStore studentStore;
+    private final GradeDictionary gradeDictionary;
+    private final boolean enabled;
+
+    private final StudentColumns columns = new StudentColumns();
+
+    private volatile boolean loaded;
+    private volatile boolean broken;
+
+    public StudentReadModel(StudentStore studentStore,
+                            GradeDictionary gradeDictionary,
+                            MeterRegistry meterRegistry,
+                            @Value("${app.read-model.enabled:false}") boolean enabled) {
+        this.studentStore = studentStore;
+        this.gradeDictionary = gradeDictionary;
+        this.enabled = enabled;
+
+        if (enabled) {
+            Gauge.builder("students.read-model.rows", columns, StudentColumns::size)
+                    .description("Students held in the in-memory read model")
+                    .register(meterRegistry);
+            Gauge.builder("students.read-model.heap.bytes", columns, StudentColumns::heapBytes)
+                    .description("Heap used by the read model's arrays")
+                    .baseUnit("bytes")
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * True when reads may be served from memory
+     */
+    public boolean ready() {
+        return enabled && loaded && !broken;
+    }
+
+    /**
+     * Adds one student (called after createStudent)
+     */
+    public void add(Student student) {
+        if (enabled && !broken) {
+            put(student);
+        }
+    }
+
+    /**
+     * Reads the students fromId..toId from the database again and overwrites
+     * their slots (called by StudentBulkUpdater after each committed range)
+     */
+    public void refresh(long fromId, long toId) {
+        if (!enabled || broken) {
+            return;
+        }
+        long lastId = fromId - 1;
+        while (!broken && lastId < toId) {
+            long after = lastId;
+            List<Student> page = ConsistencyContext.onPrimary(() -> studentStore.findAfterId(after, LOAD_PAGE_SIZE));
+            for (Student student : page) {
+                if (student.getId() > toId) {
+                    return;
+                }
+                put(student);
+            }
+            if (page.size() < LOAD_PAGE_SIZE) {
+                return;
+            }
+            lastId = page.get(page.size() - 1).getId();
+        }
+    }
+
+    /**
+     * Tells the read model that add() has been called for every student,
+     * so the startup load can be skipped
+     */
+    public void markRestored() {
+        loaded = true;
+    }
+
+    /**
+     * The student with this ID, or null if the read model does not have it
+     */
+    public StudentResponse find(long id) {
+        return columns.get(id, this::toResponse);
+    }
+
+    /**
+     * Up to limit students with minAge <= age <= maxAge and the grade (null = any), ordered by ID
+     */
+    public List<StudentResponse> filter(int minAge, int maxAge, String grade, int limit) {
+        int gradeCode = 0;
+        if (grade != null) {
+            gradeCode = gradeDictionary.codeOf(grade);
+            if (gradeCode == 0) {
+                return List.of();
+            }
+        }
+        return columns.filter(minAge, maxAge, gradeCode, limit, this::toResponse);
+    }
+
+    /**
+     * LOAD: Reads every student from the database into the arrays
+     *
+     * Students created while this runs are added by add() as well;
+     * adding the same student twice just fills its slot again.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled || loaded) {
+            return;
+        }
+        long start = System.nanoTime();
+        long lastId = 0L;
+        while (!broken) {
+            long after = lastId;
+            List<Student> page = ConsistencyContext.onPrimary(() -> studentStore.findAfterId(after, LOAD_PAGE_SIZE));
+            for (Student student : page) {
+                put(student);
+            }
+            if (page.size() < LOAD_PAGE_SIZE) {
+                break;
+            }
+            lastId = page.get(page.size() - 1).getId();
+        }
+        loaded = true;
+        if (!broken) {
+            log.info("Read model loaded: {} students, {} KB in {} ms", columns.size(),
+                    columns.heapBytes() / 1024, (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    private void put(Student student) {
+        try {
+            columns.put(student.getId(), student.getName(), student.getAge(),
+                    gradeDictionary.encode(student.getGrade()));
+        } catch (IllegalArgumentException ex) {
+            broken = true;
+            log.warn("Read model switched off, reads go to the database: {}", ex.getMessage());
+        }
+    }
+
+    private StudentResponse toResponse(long id, String name, int age, int gradeCode) {
+        return new StudentResponse(id, name, age, gradeDictionary.decode((short) gradeCode));
+    }
+}
@@ -0,0 +1,265 @@
+package com.learning.crud.repository;
+
+import com.learning.crud.dto.StudentResponse;
+import com.learning.crud.entity.Student;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * IN-MEMORY STUDENT STORE: Students in a concurrent sorted map, no database
+ *
+ * Only active when application.properties contains:
+ *   app.storage.backend=memory
+ *
+ * Everything is LOST when the application stops. Use it to measure how
+ * fast the rest of the application is without any data access cost, for
+ * demos, or for nodes that are filled from elsewhere.
+ *
+ * ID → row in a ConcurrentSkipListMap:
+ * - sorted by ID, so "ordered by ID" reads (pages, findAfterId, filters)
+ *   just walk the map from the right place
+ * - many threads can read and write at the same time, without locks
+ *
+ * Each row is a small immutable record (name, age, grade). Callers get a
+ * NEW Student or StudentResponse every time, so nobody can change a stored
+ * student by changing a returned object.
+ *
+ * IDs come from an AtomicLong: 1, 2, 3... A saveAll() takes its whole
+ * range of IDs at once, so a batch gets consecutive IDs. Note: a reader
+ * running at the same moment may see a batch half added (there is no
+ * transaction); the saveAll() call itself only returns when all are in.
+ *
+ * NO CHANGE FEED GUARANTEE: a map cannot be rolled back, so the students
+ * stay saved even if their change feed entry (main database) fails.
+ *
+ * Grades are kept as the String the service passes in (already interned
+ * by GradeDictionary), so the rows share a handful of grade Strings.
+ */
+@Component
+@ConditionalOnProperty(name = "app.storage.backend", havingValue = "memory")
+public class InMemoryStudentStore implements StudentStore {
+
+    private final ConcurrentNavigableMap<Long, Row> rows = new ConcurrentSkipListMap<>();
+    private final AtomicLong lastId = new AtomicLong();
+
+    // ===== WRITES =====
+
+    @Override
+    public Student save(Student student) {
+        Row row = Row.of(student);
+        long id = lastId.incrementAndGet();
+        rows.put(id, row);
+        return toStudent(id, row);
+    }
+
+    @Override
+    public List<Student> saveAll(List<Student> students) {
+        // Check every student BEFORE adding any (all or nothing)
+        List<Row> batch = students.stream().map(Row::of).toList();
+        long firstId = lastId.getAndAdd(batch.size()) + 1;
+        List<Student> saved = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            rows.put(firstId + i, batch.get(i));
+            saved.add(toStudent(firstId + i, batch.get(i)));
+        }
+        return saved;
+    }
+
+    // A map has no transactions: a saved student stays saved
+    @Override
+    public boolean isTransactional() {
+        return false;
+    }
+
+    // ===== READS =====
+
+    @Override
+    public Optional<Student> findById(Long id) {
+        return find(id, InMemoryStudentStore::toStudent);
+    }
+
+    @Override
+    public List<Student> findAllById(Collection<Long> ids) {
+        return findAll(ids, InMemoryStudentStore::toStudent);
+    }
+
+    @Override
+    public List<Student> findPage(int page, int size) {
+        return walk(rows, (long) page * size, size, null, InMemoryStudentStore::toStudent);
+    }
+
+    @Override
+    public List<Student> findAfterId(long afterId, int limit) {
+        return walk(rows.tailMap(afterId, false), 0, limit, null, InMemoryStudentStore::toStudent);
+    }
+
+    @Override
+    public List<Student> findByAgeRange(int minAge, int maxAge, String grade, int limit) {
+        return walk(rows, 0, limit, row -> matches(row, minAge, maxAge, grade), InMemoryStudentStore::toStudent);
+    }
+
+    @Override
+    public long count() {
+        return rows.size();
+    }
+
+    @Override
+    public Map<String, Long> countByGrade() {
+        Map<String, Long> counts = new HashMap<>();
+        for (Row row : rows.values()) {
+            counts.merge(row.grade(), 1L, Long::sum);
+        }
+        return counts;
+    }
+
+    @Override
+    public Map<Integer, Long> countByAge() {
+        Map<Integer, Long> counts = new HashMap<>();
+        for (Row row : rows.values()) {
+            counts.merge(row.age(), 1L, Long::sum);
+        }
+        return counts;
+    }
+
+    @Override
+    public long maxId() {
+        Map.Entry<Long, Row> last = rows.lastEntry();
+        return last == null ? 0 : last.getKey();
+    }
+
+    // ===== BULK UPDATES =====
+    // Each row is swapped for a changed copy; a reader sees the old or the new row, never half of one
+
+    @Override
+    public long updateGrade(long fromId, long toId, String fromGrade, String toGrade) {
+        return update(fromId, toId, row -> row.grade().equals(fromGrade) ? new Row(row.name(), row.age(), toGrade) : row);
+    }
+
+    @Override
+    public long shiftAges(long fromId, long toId, int delta) {
+        return update(fromId, toId, row -> new Row(row.name(), row.age() + delta, row.grade()));
+    }
+
+    // ===== READ PATHS: straight to the response =====
+
+    @Override
+    public Optional<StudentResponse> findResponseById(Long id) {
+        return find(id, InMemoryStudentStore::toResponse);
+    }
+
+    @Override
+    public List<StudentResponse> findResponsesById(Collection<Long> ids) {
+        return findAll(ids, InMemoryStudentStore::toResponse);
+    }
+
+    @Override
+    public List<StudentResponse> findResponsePage(int page, int size) {
+        return walk(rows, (long) page * size, size, null, InMemoryStudentStore::toResponse);
+    }
+
+    @Override
+    public List<StudentResponse> findResponsesAfterId(long afterId, int limit) {
+        return walk(rows.tailMap(afterId, false), 0, limit, null, InMemoryStudentStore::toResponse);
+    }
+
+    @Override
+    public List<StudentResponse> findResponsesByAgeRange(int minAge, int maxAge, String grade, int limit) {
+        return walk(rows, 0, limit, row -> matches(row, minAge, maxAge, grade), InMemoryStudentStore::toResponse);
+    }
+
+    // ===== HELPERS =====
+
+    private long update(long fromId, long toId, UnaryOperator<Row> change) {
+        long changed = 0;
+        for (Long id : rows.subMap(fromId, true, toId, true).keySet()) {
+            Row[] before = new Row[1];
+            Row after = rows.computeIfPresent(id, (key, row) -> {
+                before[0] = row;
+                return change.apply(row);
+            });
+            if (after != null && after != before[0]) {
+                changed++;
+            }
+        }
+        return changed;
+    }
+
+    private <T> Optional<T> find(Long id, RowConverter<T> converter) {
+        Row row = id == null ? null : rows.get(id);
+        return row == null ? Optional.empty() : Optional.of(converter.convert(id, row));
+    }
+
+    private <T> List<T> findAll(Collection<Long> ids, RowConverter<T> converter) {
+        List<T> found = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            find(id, converter).ifPresent(found::add);
+        }
+        return found;
+    }
+
+    /**
+     * Walks the map in ID order: skips the first "skip" matching rows,
+     * returns up to limit rows (filter null = every row matches)
+     */
+    private static <T> List<T> walk(ConcurrentNavigableMap<Long, Row> from, long skip, int limit,
+                                    Predicate<Row> filter, RowConverter<T> converter) {
+        List<T> found = new ArrayList<>(Math.min(limit, 1024));
+        Iterator<Map.Entry<Long, Row>> entries = from.entrySet().iterator();
+        long skipped = 0;
+        while (found.size() < limit && entries.hasNext()) {
+            Map.Entry<Long, Row> entry = entries.next();
+            if (filter != null && !filter.test(entry.getValue())) {
+                continue;
+            }
+            if (skipped < skip) {
+                skipped++;
+                continue;
+            }
+            found.add(converter.convert(entry.getKey(), entry.getValue()));
+        }
+        return found;
+    }
+
+    private static boolean matches(Row row, int minAge, int maxAge, String grade) {
+        return row.age() >= minAge && row.age() <= maxAge && (grade == null || grade.equals(row.grade()));
+    }
+
+    private static Student toStudent(long id, Row row) {
+        Student student = new Student(row.name(), row.age(), row.grade());
+        student.setId(id);
+        return student;
+    }
+
+    private static StudentResponse toResponse(long id, Row row) {
+        return new StudentResponse(id, row.name(), row.age(), row.grade());
+    }
+
+    /**
+     * One stored student (the ID is the map key)
+     */
+    private record Row(String name, int age, String grade) {
+        static Row of(Student student) {
+            return new Row(Objects.requireNonNull(student.getName(), "name"),
+                    student.getAge(), Objects.requireNonNull(student.getGrade(), "grade"));
+        }
+    }
+
+    @FunctionalInterface
+    private interface RowConverter<T> {
+        T convert(long id, Row row);
+    }
+}
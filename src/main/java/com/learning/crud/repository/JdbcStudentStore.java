@@ -0,0 +1,279 @@
+package com.learning.crud.repository;
+
+import com.learning.crud.dictionary.GradeDictionary;
+import com.learning.crud.dto.StudentResponse;
+import com.learning.crud.entity.Student;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * JDBC STUDENT STORE: The same "students" table as JpaStudentStore, without JPA
+ *
+ * Only active when application.properties contains:
+ *   app.storage.backend=jdbc
+ *
+ * Every call is one hand-written SQL statement through JdbcTemplate:
+ * - no entities, no persistence context, no dirty checking, no flush
+ * - the SQL text is a constant, so the driver can reuse the prepared statement
+ *   (findAllById too: "id = ANY(?)" with an array, instead of "IN (?, ?, ...)"
+ *   with a different text for every number of IDs)
+ * - rows are read by column NUMBER (rs.getLong(1)), not by name
+ * - the findResponse... reads build the StudentResponse straight from the row
+ * - saveAll() sends batches of BATCH_SIZE inserts in one transaction
+ * - bulk updates are one UPDATE per ID range (a single statement needs no
+ *   transaction of its own: auto-commit makes it one)
+ *
+ * Grades are stored as codes (grade_code), encoded and decoded with
+ * GradeDictionary, exactly like GradeCodeConverter does for JPA.
+ *
+ * The table itself is still created by Hibernate (spring.jpa.hibernate.ddl-auto),
+ * so jpa and jdbc can be switched back and forth on the same database.
+ *
+ * TRANSACTIONS: JdbcTemplate joins the current Spring transaction. So inside
+ * GroupCommitter's transaction the insert and the change feed entry commit
+ * together, and inside a read-only one (list, search) the read may go to a
+ * replica. A read on its own (get by ID, filter) runs without a transaction:
+ * one SELECT does not need one, and a Spring transaction would also open a
+ * JPA EntityManager for nothing.
+ */
+@Component
+@ConditionalOnProperty(name = "app.storage.backend", havingValue = "jdbc")
+public class JdbcStudentStore implements StudentStore {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private static final String INSERT = "INSERT INTO students (name, age, grade_code) VALUES (?, ?, ?)";
+    private static final String SELECT = "SELECT id, name, age, grade_code FROM students";
+    private static final String BY_ID = SELECT + " WHERE id = ?";
+    private static final String BY_IDS = SELECT + " WHERE id = ANY(?)";
+    private static final String PAGE = SELECT + " ORDER BY id LIMIT ? OFFSET ?";
+    private static final String AFTER_ID = SELECT + " WHERE id > ? ORDER BY id LIMIT ?";
+    private static final String BY_AGE = SELECT + " WHERE age BETWEEN ? AND ? ORDER BY id LIMIT ?";
+    private static final String BY_AGE_AND_GRADE =
+            SELECT + " WHERE age BETWEEN ? AND ? AND grade_code = ? ORDER BY id LIMIT ?";
+    private static final String UPDATE_GRADE =
+            "UPDATE students SET grade_code = ? WHERE id BETWEEN ? AND ? AND grade_code = ?";
+    private static final String SHIFT_AGES = "UPDATE students SET age = age + ? WHERE id BETWEEN ? AND ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final GradeDictionary gradeDictionary;
+
+    private final RowMapper<Student> studentMapper;
+    private final RowMapper<StudentResponse> responseMapper;
+
+    public JdbcStudentStore(JdbcTemplate jdbcTemplate, GradeDictionary gradeDictionary) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.gradeDictionary = gradeDictionary;
+        this.studentMapper = (rs, rowNum) -> {
+            Student student = new Student(rs.getString(2), rs.getInt(3), gradeDictionary.decode(rs.getShort(4)));
+            student.setId(rs.getLong(1));
+            return student;
+        };
+        this.responseMapper = (rs, rowNum) ->
+                new StudentResponse(rs.getLong(1), rs.getString(2), rs.getInt(3), gradeDictionary.decode(rs.getShort(4)));
+    }
+
+    // ===== WRITES =====
+
+    @Override
+    public Student save(Student student) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(INSERT, new String[]{"id"});
+            statement.setString(1, student.getName());
+            statement.setInt(2, student.getAge());
+            statement.setShort(3, gradeDictionary.encode(student.getGrade()));
+            return statement;
+        }, keyHolder);
+        return copyWithId(student, keyHolder.getKey().longValue());
+    }
+
+    /**
+     * One transaction; the inserts go to the database BATCH_SIZE at a time
+     */
+    @Override
+    @Transactional
+    public List<Student> saveAll(List<Student> students) {
+        List<Student> saved = new ArrayList<>(students.size());
+        for (int from = 0; from < students.size(); from += BATCH_SIZE) {
+            List<Student> batch = students.subList(from, Math.min(students.size(), from + BATCH_SIZE));
+            KeyHolder keyHolder = new GeneratedKeyHolder();
+            jdbcTemplate.batchUpdate(
+                    connection -> connection.prepareStatement(INSERT, new String[]{"id"}),
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement statement, int i) throws SQLException {
+                            Student student = batch.get(i);
+                            statement.setString(1, student.getName());
+                            statement.setInt(2, student.getAge());
+                            statement.setShort(3, gradeDictionary.encode(student.getGrade()));
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return batch.size();
+                        }
+                    },
+                    keyHolder);
+
+            List<Map<String, Object>> keys = keyHolder.getKeyList();
+            for (int i = 0; i < batch.size(); i++) {
+                saved.add(copyWithId(batch.get(i), ((Number) keys.get(i).values().iterator().next()).longValue()));
+            }
+        }
+        return saved;
+    }
+
+    // JdbcTemplate joins the caller's transaction
+    @Override
+    public boolean isTransactional() {
+        return true;
+    }
+
+    // ===== READS =====
+
+    @Override
+    public Optional<Student> findById(Long id) {
+        return jdbcTemplate.query(BY_ID, studentMapper, id).stream().findFirst();
+    }
+
+    @Override
+    public List<Student> findAllById(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query(BY_IDS, studentMapper, (Object) idArray(ids));
+    }
+
+    @Override
+    public List<Student> findPage(int page, int size) {
+        return jdbcTemplate.query(PAGE, studentMapper, size, (long) page * size);
+    }
+
+    @Override
+    public List<Student> findAfterId(long afterId, int limit) {
+        return jdbcTemplate.query(AFTER_ID, studentMapper, afterId, limit);
+    }
+
+    @Override
+    public List<Student> findByAgeRange(int minAge, int maxAge, String grade, int limit) {
+        return findByAgeRange(minAge, maxAge, grade, limit, studentMapper);
+    }
+
+    @Override
+    public long count() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM students", Long.class);
+    }
+
+    @Override
+    public Map<String, Long> countByGrade() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        jdbcTemplate.query("SELECT grade_code, COUNT(*) FROM students GROUP BY grade_code",
+                rs -> {
+                    counts.put(gradeDictionary.decode(rs.getShort(1)), rs.getLong(2));
+                });
+        return counts;
+    }
+
+    @Override
+    public Map<Integer, Long> countByAge() {
+        Map<Integer, Long> counts = new LinkedHashMap<>();
+        jdbcTemplate.query("SELECT age, COUNT(*) FROM students GROUP BY age",
+                rs -> {
+                    counts.put(rs.getInt(1), rs.getLong(2));
+                });
+        return counts;
+    }
+
+    @Override
+    public long maxId() {
+        Long max = jdbcTemplate.queryForObject("SELECT MAX(id) FROM students", Long.class);
+        return max == null ? 0 : max;
+    }
+
+    // ===== BULK UPDATES =====
+
+    @Override
+    public long updateGrade(long fromId, long toId, String fromGrade, String toGrade) {
+        short fromCode = gradeDictionary.codeOf(fromGrade);
+        if (fromCode == 0) {
+            return 0;
+        }
+        return jdbcTemplate.update(UPDATE_GRADE, gradeDictionary.encode(toGrade), fromId, toId, fromCode);
+    }
+
+    @Override
+    public long shiftAges(long fromId, long toId, int delta) {
+        return jdbcTemplate.update(SHIFT_AGES, delta, fromId, toId);
+    }
+
+    // ===== READ PATHS: straight to the response =====
+
+    @Override
+    public Optional<StudentResponse> findResponseById(Long id) {
+        return jdbcTemplate.query(BY_ID, responseMapper, id).stream().findFirst();
+    }
+
+    @Override
+    public List<StudentResponse> findResponsesById(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query(BY_IDS, responseMapper, (Object) idArray(ids));
+    }
+
+    @Override
+    public List<StudentResponse> findResponsePage(int page, int size) {
+        return jdbcTemplate.query(PAGE, responseMapper, size, (long) page * size);
+    }
+
+    @Override
+    public List<StudentResponse> findResponsesAfterId(long afterId, int limit) {
+        return jdbcTemplate.query(AFTER_ID, responseMapper, afterId, limit);
+    }
+
+    @Override
+    public List<StudentResponse> findResponsesByAgeRange(int minAge, int maxAge, String grade, int limit) {
+        return findByAgeRange(minAge, maxAge, grade, limit, responseMapper);
+    }
+
+    // ===== HELPERS =====
+
+    private <T> List<T> findByAgeRange(int minAge, int maxAge, String grade, int limit, RowMapper<T> mapper) {
+        if (grade == null) {
+            return jdbcTemplate.query(BY_AGE, mapper, minAge, maxAge, limit);
+        }
+        // A grade nobody has cannot match (and the query must not add it to the dictionary)
+        short gradeCode = gradeDictionary.codeOf(grade);
+        if (gradeCode == 0) {
+            return List.of();
+        }
+        return jdbcTemplate.query(BY_AGE_AND_GRADE, mapper, minAge, maxAge, gradeCode, limit);
+    }
+
+    private static Long[] idArray(Collection<Long> ids) {
+        return ids.stream().filter(Objects::nonNull).toArray(Long[]::new);
+    }
+
+    private static Student copyWithId(Student student, long id) {
+        Student copy = new Student(student.getName(), student.getAge(), student.getGrade());
+        copy.setId(id);
+        return copy;
+    }
+}
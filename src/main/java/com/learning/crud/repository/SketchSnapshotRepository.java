@@ -0,0 +1,16 @@
+package com.learning.crud.repository;
+
+import com.learning.crud.entity.SketchSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * REPOSITORY: Saves and loads analytics sketches
+ *
+ * JpaRepository<SketchSnapshot, String> means:
+ * - SketchSnapshot: The entity we're working with
+ * - String: The type of its ID (the sketch name)
+ */
+@Repository
+public interface SketchSnapshotRepository extends JpaRepository<SketchSnapshot, String> {
+}
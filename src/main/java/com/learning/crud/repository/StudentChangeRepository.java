@@ -0,0 +1,32 @@
+package com.learning.crud.repository;
+
+import com.learning.crud.entity.StudentChange;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * REPOSITORY: Reads the student change feed (student_changes table)
+ *
+ * Writing is done by StudentChangeFeed with a JDBC batch, because the
+ * sequence numbers are assigned by the application (JPA would first run
+ * a SELECT for every row to decide between INSERT and UPDATE).
+ */
+@Repository
+public interface StudentChangeRepository extends JpaRepository<StudentChange, Long> {
+
+    /**
+     * Changes with after < seq <= upTo, oldest first
+     * Generated SQL: SELECT ... WHERE seq > ? AND seq <= ? ORDER BY seq LIMIT ?
+     */
+    List<StudentChange> findBySeqGreaterThanAndSeqLessThanEqualOrderBySeqAsc(Long after, Long upTo, Pageable pageable);
+
+    @Query("SELECT MAX(c.seq) FROM StudentChange c")
+    Long findMaxSeq();
+
+    @Query("SELECT MIN(c.seq) FROM StudentChange c")
+    Long findMinSeq();
+}
@@ -1,9 +1,13 @@
 package com.learning.crud.repository;
 
 import com.learning.crud.entity.Student;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 /**
  * REPOSITORY: Talks to the database
  * 
@@ -34,5 +38,56 @@ public interface StudentRepository extends JpaRepository<Student, Long> {
     // List<Student> findByName(String name);
     // List<Student> findByGrade(String grade);
     // List<Student> findByAgeGreaterThan(Integer age);
-    
+
+    /**
+     * Reads students ordered by id, starting after the given id (one page at a time).
+     * Used to rebuild in-memory indexes and sketches at startup.
+     *
+     * Spring generates: SELECT * FROM students WHERE id > ? ORDER BY id LIMIT ?
+     */
+    List<Student> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    /**
+     * Students in an age range, ordered by id (used by the filter endpoint)
+     *
+     * Spring generates: SELECT * FROM students WHERE age BETWEEN ? AND ? ORDER BY id LIMIT ?
+     */
+    List<Student> findByAgeBetweenOrderByIdAsc(Integer minAge, Integer maxAge, Pageable pageable);
+
+    /**
+     * Same, but only one grade (GradeCodeConverter turns the grade into its code)
+     */
+    List<Student> findByAgeBetweenAndGradeOrderByIdAsc(Integer minAge, Integer maxAge, String grade, Pageable pageable);
+
+    /**
+     * Counts students per grade (used to reconcile the live statistics counters)
+     *
+     * @Query lets us write the query ourselves in JPQL (SQL over entities)
+     */
+    @Query("SELECT s.grade AS grade, COUNT(s) AS total FROM Student s GROUP BY s.grade")
+    List<GradeCount> countGroupByGrade();
+
+    /**
+     * Counts students per age (used to reconcile the live age histogram)
+     */
+    @Query("SELECT s.age AS age, COUNT(s) AS total FROM Student s GROUP BY s.age")
+    List<AgeCount> countGroupByAge();
+
+    /**
+     * PROJECTION: One row of "SELECT grade, COUNT(*) ... GROUP BY grade"
+     */
+    interface GradeCount {
+        String getGrade();
+
+        long getTotal();
+    }
+
+    /**
+     * PROJECTION: One row of "SELECT age, COUNT(*) ... GROUP BY age"
+     */
+    interface AgeCount {
+        Integer getAge();
+
+        long getTotal();
+    }
 }
@@ -0,0 +1,146 @@
+package com.learning.crud.repository;
+
+import com.learning.crud.dto.StudentResponse;
+import com.learning.crud.entity.Student;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * STUDENT STORE: Everything the application needs from "where students are kept"
+ *
+ * StudentService talks to this interface instead of a specific database
+ * technology. Which implementation is used is chosen in application.properties:
+ *
+ *   app.storage.backend=jpa      → JpaStudentStore (one database, Spring Data JPA) [default]
+ *   app.storage.backend=jdbc     → JdbcStudentStore (same database and table, plain JDBC)
+ *   app.storage.backend=memory   → InMemoryStudentStore (a concurrent map, lost on restart)
+ *   app.storage.backend=sharded  → ShardedStudentStore (students spread over several databases)
+ *   app.storage.backend=mmap     → MappedStudentStore (memory-mapped files, no SQL at all)
+ *
+ * This is the "Strategy" pattern: same interface, interchangeable implementations.
+ * Every implementation must behave the same way: see StudentStoreConformanceTest
+ * (src/test), which runs one list of checks against all of them.
+ */
+public interface StudentStore {
+
+    /**
+     * Saves a NEW student and returns it with its generated ID
+     */
+    Student save(Student student);
+
+    /**
+     * Saves several NEW students in ONE transaction (all or nothing)
+     * and returns them with their generated IDs, in the same order
+     */
+    List<Student> saveAll(List<Student> students);
+
+    /**
+     * Do save() and saveAll() take part in the caller's Spring transaction
+     * on the main database?
+     *
+     *   true  → rolled back together with it (jpa, jdbc)
+     *   false → written somewhere else and KEPT even if that transaction
+     *           rolls back (memory, sharded, mmap)
+     *
+     * GroupCommitter only retries a failed batch one by one when this is
+     * true; otherwise the retry would save the batch a second time.
+     */
+    boolean isTransactional();
+
+    Optional<Student> findById(Long id);
+
+    /**
+     * Loads several students by ID (order of the result is not guaranteed)
+     */
+    List<Student> findAllById(Collection<Long> ids);
+
+    /**
+     * One page of students ordered by ID (page 0 = first page)
+     */
+    List<Student> findPage(int page, int size);
+
+    /**
+     * Up to limit students with ID greater than afterId, ordered by ID.
+     * Used to walk through all students in chunks.
+     */
+    List<Student> findAfterId(long afterId, int limit);
+
+    /**
+     * FILTER: Up to limit students with minAge <= age <= maxAge
+     * (and the given grade, null = any grade), ordered by ID
+     */
+    List<Student> findByAgeRange(int minAge, int maxAge, String grade, int limit);
+
+    long count();
+
+    /**
+     * Number of students per grade, e.g. {"A" → 120, "B" → 95}
+     */
+    Map<String, Long> countByGrade();
+
+    /**
+     * Number of students per age, e.g. {15 → 40, 16 → 52}
+     */
+    Map<Integer, Long> countByAge();
+
+    /**
+     * Highest student ID (0 when there are none): where bulk updates stop
+     */
+    long maxId();
+
+    // ===== BULK UPDATES: one set-based UPDATE per ID range =====
+    //
+    // Both ends of the range are included. Each call is its own short
+    // transaction and returns how many students were changed.
+    // StudentBulkUpdater cuts the whole table into such ranges.
+
+    /**
+     * Every student in the range with grade fromGrade gets grade toGrade
+     */
+    long updateGrade(long fromId, long toId, String fromGrade, String toGrade);
+
+    /**
+     * Every student in the range gets age + delta
+     */
+    long shiftAges(long fromId, long toId, int delta);
+
+    // ===== READ PATHS: straight to the response =====
+    //
+    // The same reads as above, but returning what the API sends back
+    // (StudentResponse) instead of Student entities. StudentService uses
+    // these for every request it answers.
+    //
+    // By default they just convert the entities. A store that can build the
+    // response directly from the data (JpaStudentStore: DTO projections,
+    // no managed entities) overrides them.
+
+    default Optional<StudentResponse> findResponseById(Long id) {
+        return findById(id).map(StudentStore::toResponse);
+    }
+
+    /**
+     * Order of the result is not guaranteed (same as findAllById)
+     */
+    default List<StudentResponse> findResponsesById(Collection<Long> ids) {
+        return findAllById(ids).stream().map(StudentStore::toResponse).toList();
+    }
+
+    default List<StudentResponse> findResponsePage(int page, int size) {
+        return findPage(page, size).stream().map(StudentStore::toResponse).toList();
+    }
+
+    default List<StudentResponse> findResponsesAfterId(long afterId, int limit) {
+        return findAfterId(afterId, limit).stream().map(StudentStore::toResponse).toList();
+    }
+
+    default List<StudentResponse> findResponsesByAgeRange(int minAge, int maxAge, String grade, int limit) {
+        return findByAgeRange(minAge, maxAge, grade, limit).stream().map(StudentStore::toResponse).toList();
+    }
+
+    private static StudentResponse toResponse(Student student) {
+        return new StudentResponse(student.getId(), student.getName(), student.getAge(), student.getGrade());
+    }
+}
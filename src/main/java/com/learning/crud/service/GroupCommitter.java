@@ -0,0 +1,269 @@
+package com.learning.crud.service;
+
+import com.learning.crud.changefeed.StudentChangeFeed;
+import com.learning.crud.entity.Student;
+import com.learning.crud.repository.StudentStore;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GROUP COMMIT: Many concurrent creates share ONE transaction
+ *
+ * Every create runs through here. Each write transaction saves the
+ * students AND their change feed entries (see StudentChangeFeed), so with
+ * the jpa and jdbc stores the feed and the data are always committed
+ * together. The memory, sharded and mmap stores keep their students
+ * outside that transaction (StudentStore.isTransactional() = false): if
+ * the feed insert fails, the students stay saved without a feed entry.
+ *
+ * Every commit makes the database flush its log to disk, and that is the
+ * slow part of an INSERT. With hundreds of threads creating students at
+ * the same time, each one pays for its own flush.
+ *
+ * With group commit on (app.group-commit.enabled=true):
+ *
+ * FLOW:
+ * 1. A caller puts its student in a queue and waits
+ * 2. One writer thread takes the first waiting student, then collects more
+ *    for up to max-wait-micros OR until max-batch-size students are waiting
+ * 3. The whole batch is saved with studentStore.saveAll()
+ *    → one transaction, one batched INSERT (+ change feed rows), one commit/flush
+ * 4. Each caller is woken up with its own saved student (and generated ID)
+ *
+ * Durability is unchanged: save() only returns AFTER the commit that
+ * contains the student has finished, exactly like a normal save.
+ *
+ * If a batch fails, its students are retried one by one, so one bad
+ * student cannot make the others in its batch fail. Only on a store whose
+ * saveAll() was rolled back with the batch (StudentStore.isTransactional:
+ * jpa, jdbc); on the others every caller of the batch gets the error.
+ *
+ * No caller is ever left waiting: a student queued while the writer shuts
+ * down is saved by its own caller, and if the writer hits an Error (not
+ * just an exception), every caller of that batch gets the Error.
+ *
+ * Group commit off (default): save() writes the one student (and its
+ * change feed entry) in its own transaction.
+ *
+ * Metric: students.group-commit.batch.size (see /actuator/metrics)
+ */
+@Component
+public class GroupCommitter {
+
+    private static final Logger log = LoggerFactory.getLogger(GroupCommitter.class);
+
+    private final StudentStore studentStore;
+    private final StudentChangeFeed changeFeed;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int maxBatchSize;
+    private final long maxWaitNanos;
+    private final DistributionSummary batchSizes;
+
+    private final BlockingQueue<PendingWrite> queue = new LinkedBlockingQueue<>();
+    private volatile boolean running;
+    private Thread writer;
+
+    public GroupCommitter(StudentStore studentStore,
+                          StudentChangeFeed changeFeed,
+                          PlatformTransactionManager transactionManager,
+                          MeterRegistry meterRegistry,
+                          @Value("${app.group-commit.enabled:false}") boolean enabled,
+                          @Value("${app.group-commit.max-batch-size:256}") int maxBatchSize,
+                          @Value("${app.group-commit.max-wait-micros:300}") long maxWaitMicros) {
+        this.studentStore = studentStore;
+        this.changeFeed = changeFeed;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.maxWaitNanos = TimeUnit.MICROSECONDS.toNanos(Math.max(0, maxWaitMicros));
+        this.batchSizes = DistributionSummary.builder("students.group-commit.batch.size")
+                .description("Students written per group commit transaction")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        writer = new Thread(this::writeLoop, "group-commit-writer");
+        writer.setDaemon(true);
+        writer.start();
+        log.info("Group commit enabled (max {} students or {} µs per batch)",
+                maxBatchSize, TimeUnit.NANOSECONDS.toMicros(maxWaitNanos));
+    }
+
+    /**
+     * Saves a NEW student and returns it with its generated ID,
+     * once the transaction containing it has committed
+     */
+    public Student save(Student student) {
+        if (!running) {
+            return saveInOwnTransaction(student);
+        }
+        PendingWrite pending = new PendingWrite(student);
+        queue.add(pending);
+        // The writer may have stopped between the check above and add(): if
+        // nobody took our student out of the queue yet, save it ourselves
+        if (!running && queue.remove(pending)) {
+            return saveInOwnTransaction(student);
+        }
+        try {
+            return pending.result.join();
+        } catch (CompletionException ex) {
+            // Re-throw the store's own exception (e.g. a DataAccessException), not the wrapper
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (ex.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Stops the writer thread after it has written everything still queued
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        writer.join();
+
+        // Anything queued while the writer was finishing
+        List<PendingWrite> leftover = new ArrayList<>();
+        queue.drainTo(leftover);
+        if (!leftover.isEmpty()) {
+            commit(leftover);
+        }
+    }
+
+    // ===== WRITER THREAD =====
+
+    private void writeLoop() {
+        try {
+            while (running || !queue.isEmpty()) {
+                try {
+                    PendingWrite first = queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    commit(collectBatch(first));
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (Throwable ex) {
+                    // Keep the writer alive; callers of a failed batch were already told by commit()
+                    log.warn("Group commit batch failed: {}", ex.toString());
+                }
+            }
+        } finally {
+            // However the writer ends, new callers save on their own and queued ones are not forgotten
+            running = false;
+            List<PendingWrite> leftover = new ArrayList<>();
+            queue.drainTo(leftover);
+            if (!leftover.isEmpty()) {
+                commit(leftover);
+            }
+        }
+    }
+
+    /**
+     * Collects more waiting students until the batch is full or the wait time is over
+     */
+    private List<PendingWrite> collectBatch(PendingWrite first) throws InterruptedException {
+        List<PendingWrite> batch = new ArrayList<>(maxBatchSize);
+        batch.add(first);
+        long deadline = System.nanoTime() + maxWaitNanos;
+
+        while (batch.size() < maxBatchSize) {
+            queue.drainTo(batch, maxBatchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= maxBatchSize || remaining <= 0) {
+                break;
+            }
+            PendingWrite next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+        }
+        return batch;
+    }
+
+    private void commit(List<PendingWrite> batch) {
+        batchSizes.record(batch.size());
+        try {
+            List<Student> saved = transactionTemplate.execute(status -> {
+                List<Student> students = studentStore.saveAll(batch.stream().map(p -> p.student).toList());
+                changeFeed.recordCreated(students);
+                return students;
+            });
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).result.complete(saved.get(i));
+            }
+        } catch (Error ex) {
+            // Not worth retrying (e.g. OutOfMemoryError), but nobody may be left waiting
+            batch.forEach(pending -> pending.result.completeExceptionally(ex));
+            throw ex;
+        } catch (RuntimeException ex) {
+            if (batch.size() == 1 || !studentStore.isTransactional()) {
+                // A store outside the transaction may have kept the students already:
+                // saving them again would create every one of them twice
+                batch.forEach(pending -> pending.result.completeExceptionally(ex));
+                return;
+            }
+            // Nothing of the batch was committed: give every student its own transaction
+            log.debug("Group commit of {} students failed, retrying one by one: {}", batch.size(), ex.getMessage());
+            for (PendingWrite pending : batch) {
+                try {
+                    pending.result.complete(saveInOwnTransaction(pending.student));
+                } catch (RuntimeException | Error single) {
+                    pending.result.completeExceptionally(single);
+                }
+            }
+        }
+    }
+
+    private Student saveInOwnTransaction(Student student) {
+        return transactionTemplate.execute(status -> {
+            Student saved = studentStore.save(student);
+            changeFeed.recordCreated(List.of(saved));
+            return saved;
+        });
+    }
+
+    /**
+     * One waiting caller: the student to save and where to put the result
+     */
+    private static final class PendingWrite {
+
+        private final Student student;
+        private final CompletableFuture<Student> result = new CompletableFuture<>();
+
+        PendingWrite(Student student) {
+            this.student = student;
+        }
+    }
+}
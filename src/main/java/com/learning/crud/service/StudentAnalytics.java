@@ -0,0 +1,246 @@
+package com.learning.crud.service;
+
+import com.learning.crud.analytics.HyperLogLog;
+import com.learning.crud.analytics.KllSketch;
+import com.learning.crud.datasource.ConsistencyContext;
+import com.learning.crud.dto.SketchExport;
+import com.learning.crud.dto.StudentAnalyticsResponse;
+import com.learning.crud.entity.SketchSnapshot;
+import com.learning.crud.entity.Student;
+import com.learning.crud.repository.SketchSnapshotRepository;
+import com.learning.crud.repository.StudentStore;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * STUDENT ANALYTICS: Approximate numbers for very large datasets
+ *
+ * Two "sketches" are updated on every create:
+ * - HyperLogLog → how many DIFFERENT names exist (16 KB, ±0.81% standard error)
+ * - KLL sketch  → age percentiles: median, p90, p99... (a few KB, ±1.33% rank error)
+ *
+ * Answers come straight from memory, whatever the table size.
+ *
+ * Persistence: every minute (and on shutdown) the sketches are saved to
+ * the analytics_sketches table. On startup they are loaded back, and any
+ * students created after the last save are replayed into them.
+ *
+ * Bulk updates: a sketch cannot take a value back out, so after a job
+ * that changed ages the age sketch is built again from the table
+ * (rebuildAgeQuantiles). Names never change, so HyperLogLog stays.
+ *
+ * Several nodes: each node keeps its own sketches. Sketches from other
+ * nodes can be merged in (see mergedWith) to get numbers for the whole fleet.
+ *
+ * @DependsOn: a snapshot restore (if any) must have filled the tables
+ * before load() reads them.
+ */
+@Component
+@DependsOn("studentSnapshotLoader")
+public class StudentAnalytics {
+
+    private static final Logger log = LoggerFactory.getLogger(StudentAnalytics.class);
+
+    // Row names in analytics_sketches (also written by StudentSnapshotLoader)
+    public static final String DISTINCT_NAMES = "distinct-names";
+    public static final String AGE_QUANTILES = "age-quantiles";
+
+    // 2^14 registers → 16 KB, 0.81% standard error
+    private static final int HLL_PRECISION = 14;
+
+    // k = 200 → about 600 kept values, 1.33% rank error (99% confidence)
+    private static final int KLL_K = 200;
+
+    // The age percentiles we report
+    private static final double[] PERCENTILES = {0.25, 0.5, 0.75, 0.9, 0.99};
+
+    // Students replayed per database round trip at startup
+    private static final int REPLAY_PAGE_SIZE = 10_000;
+
+    private final StudentStore studentStore;
+    private final SketchSnapshotRepository snapshotRepository;
+
+    private volatile HyperLogLog distinctNames = new HyperLogLog(HLL_PRECISION);
+    private volatile KllSketch ageQuantiles = new KllSketch(KLL_K);
+
+    // Highest student ID the sketches have seen (saved with the sketches)
+    private final AtomicLong highestIdSeen = new AtomicLong();
+
+    public StudentAnalytics(StudentStore studentStore,
+                            SketchSnapshotRepository snapshotRepository) {
+        this.studentStore = studentStore;
+        this.snapshotRepository = snapshotRepository;
+    }
+
+    /**
+     * Adds one new student to the sketches (called after createStudent)
+     */
+    public void record(Long id, String name, Integer age) {
+        if (name != null) {
+            distinctNames.add(name);
+        }
+        if (age != null) {
+            ageQuantiles.update(age);
+        }
+        if (id != null) {
+            highestIdSeen.accumulateAndGet(id, Math::max);
+        }
+    }
+
+    /**
+     * Highest student ID the sketches have seen
+     */
+    public long highestIdSeen() {
+        return highestIdSeen.get();
+    }
+
+    /**
+     * Analytics for the students of this node
+     */
+    public StudentAnalyticsResponse analytics() {
+        return toResponse(distinctNames, ageQuantiles);
+    }
+
+    /**
+     * The raw sketches of this node (to be merged on another node)
+     */
+    public SketchExport export() {
+        return new SketchExport(distinctNames.toBytes(), ageQuantiles.toBytes());
+    }
+
+    /**
+     * Analytics for this node COMBINED with sketches exported by other nodes.
+     * Our own sketches are not changed, so calling this twice is safe.
+     */
+    public StudentAnalyticsResponse mergedWith(List<SketchExport> others) {
+        HyperLogLog names = HyperLogLog.fromBytes(distinctNames.toBytes());
+        KllSketch ages = KllSketch.fromBytes(ageQuantiles.toBytes());
+        for (SketchExport other : others) {
+            if (other.getDistinctNames() != null) {
+                names.merge(HyperLogLog.fromBytes(other.getDistinctNames()));
+            }
+            if (other.getAgeQuantiles() != null) {
+                ages.merge(KllSketch.fromBytes(other.getAgeQuantiles()));
+            }
+        }
+        return toResponse(names, ages);
+    }
+
+    /**
+     * LOAD: Restores saved sketches at startup, then replays newer students
+     */
+    @PostConstruct
+    public void load() {
+        // Must see every committed row, so never read from a (possibly lagging) replica
+        Optional<SketchSnapshot> names = ConsistencyContext.onPrimary(() -> snapshotRepository.findById(DISTINCT_NAMES));
+        Optional<SketchSnapshot> ages = ConsistencyContext.onPrimary(() -> snapshotRepository.findById(AGE_QUANTILES));
+
+        long coveredUpToId = 0L;
+        if (names.isPresent() && ages.isPresent()) {
+            distinctNames = HyperLogLog.fromBytes(names.get().getData());
+            ageQuantiles = KllSketch.fromBytes(ages.get().getData());
+            coveredUpToId = Math.min(names.get().getCoveredUpToId(), ages.get().getCoveredUpToId());
+            highestIdSeen.set(coveredUpToId);
+        }
+
+        // Replay students the saved sketches have not seen yet
+        long lastId = coveredUpToId;
+        long replayed = 0L;
+        while (true) {
+            long after = lastId;
+            List<Student> page = ConsistencyContext.onPrimary(() -> studentStore.findAfterId(after, REPLAY_PAGE_SIZE));
+            if (page.isEmpty()) {
+                break;
+            }
+            for (Student student : page) {
+                record(student.getId(), student.getName(), student.getAge());
+            }
+            lastId = page.get(page.size() - 1).getId();
+            replayed += page.size();
+        }
+        log.info("Analytics sketches loaded (covered up to id {}), {} students replayed", coveredUpToId, replayed);
+    }
+
+    /**
+     * REBUILD: A new age sketch from every stored student (called by
+     * StudentBulkUpdater when a job has changed ages)
+     *
+     * Reads the whole table, so it runs in the background job, never in a
+     * request. Until it is done, the old sketch keeps answering.
+     */
+    public void rebuildAgeQuantiles() {
+        KllSketch fresh = new KllSketch(KLL_K);
+        long lastId = replayAges(fresh, 0L);
+        ageQuantiles = fresh;
+        // Students created while the table was read went into the old sketch: add them to the new one.
+        // One created right at the swap may end up in it twice, far below its error bound.
+        replayAges(fresh, lastId);
+        log.info("Age sketch rebuilt from {} students", fresh.count());
+    }
+
+    /**
+     * SAVE: Writes the sketches to the database on a timer and on shutdown
+     *
+     * The covered ID is read BEFORE serializing, so a student created in
+     * between may be replayed once more after a restart. HyperLogLog ignores
+     * repeats; the KLL sketch may count that student twice, which is far
+     * below its error bound.
+     */
+    @Scheduled(fixedDelayString = "${app.analytics.persist-interval-ms:60000}",
+            initialDelayString = "${app.analytics.persist-interval-ms:60000}")
+    @PreDestroy
+    public void persist() {
+        long coveredUpToId = highestIdSeen.get();
+        Instant now = Instant.now();
+        snapshotRepository.saveAll(List.of(
+                new SketchSnapshot(DISTINCT_NAMES, distinctNames.toBytes(), coveredUpToId, now),
+                new SketchSnapshot(AGE_QUANTILES, ageQuantiles.toBytes(), coveredUpToId, now)));
+        log.debug("Analytics sketches saved (covered up to id {})", coveredUpToId);
+    }
+
+    /**
+     * Adds the age of every student with ID greater than afterId; returns the last ID seen
+     */
+    private long replayAges(KllSketch sketch, long afterId) {
+        long lastId = afterId;
+        while (true) {
+            long after = lastId;
+            List<Student> page = ConsistencyContext.onPrimary(() -> studentStore.findAfterId(after, REPLAY_PAGE_SIZE));
+            if (page.isEmpty()) {
+                return lastId;
+            }
+            for (Student student : page) {
+                if (student.getAge() != null) {
+                    sketch.update(student.getAge());
+                }
+            }
+            lastId = page.get(page.size() - 1).getId();
+        }
+    }
+
+    private StudentAnalyticsResponse toResponse(HyperLogLog names, KllSketch ages) {
+        List<StudentAnalyticsResponse.AgePercentile> percentiles = new ArrayList<>();
+        if (ages.count() > 0) {
+            for (double percentile : PERCENTILES) {
+                percentiles.add(new StudentAnalyticsResponse.AgePercentile(percentile, ages.quantile(percentile)));
+            }
+        }
+        return new StudentAnalyticsResponse(
+                names.estimate(),
+                names.relativeStandardError(),
+                ages.count(),
+                percentiles,
+                ages.normalizedRankError());
+    }
+}
@@ -0,0 +1,294 @@
+package com.learning.crud.service;
+
+import com.learning.crud.changefeed.StudentChangeFeed;
+import com.learning.crud.datasource.ConsistencyContext;
+import com.learning.crud.dto.BulkUpdateJobResponse;
+import com.learning.crud.dto.StudentResponse;
+import com.learning.crud.entity.Student;
+import com.learning.crud.readmodel.StudentReadModel;
+import com.learning.crud.repository.StudentStore;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * STUDENT BULK UPDATER: Changes many students at once, one ID range at a time
+ *
+ * "Promote every student in grade B to grade A" could be ONE statement:
+ *   UPDATE students SET grade_code = 1 WHERE grade_code = 2
+ * but on a big table that is one huge transaction: it locks every row it
+ * touches until the very end, writers wait behind it, and if it fails
+ * everything is undone. Instead the table is cut into ID ranges of
+ * app.bulk-update.chunk-size IDs:
+ *
+ *   UPDATE students SET grade_code = 1 WHERE id BETWEEN 1     AND 10000 AND grade_code = 2
+ *   UPDATE students SET grade_code = 1 WHERE id BETWEEN 10001 AND 20000 AND grade_code = 2
+ *   ...
+ *
+ * - each range is still SET-BASED (one statement, no rows loaded into Java)
+ * - each range is its own short transaction (see StudentStore.updateGrade),
+ *   so a writer waits at most for one range, never for the whole job
+ * - the same transaction adds an UPDATED change feed entry for every
+ *   student the range changes, so /changes and SSE readers learn about it
+ * - app.bulk-update.threads ranges run at the same time (a fixed pool shared
+ *   by all jobs), so a job cannot take every database connection
+ *
+ * FLOW (start):
+ * 1. Look up the highest ID on the primary; students created after this
+ *    moment are not part of the job
+ * 2. Queue one task per range and return the job right away (HTTP 202)
+ * FLOW (each range, on a pool thread), in one transaction:
+ * 3. Read the students of the range and work out which ones the UPDATE
+ *    will change, and how (e.g. grade B → A; everyone else stays)
+ * 4. Run the UPDATE for the range
+ * 5. Add an UPDATED change for each changed student (StudentChangeFeed)
+ * then, after the commit:
+ * 6. If it changed anyone, reload that range into the read model
+ *    (the only place outside the database that holds ages and grades)
+ * 7. Count progress; log every 10%
+ * FLOW (after the last range):
+ * 8. Re-count the statistics (StudentStatistics.recordBulkUpdate)
+ * 9. If ages changed, build the age sketch again (StudentAnalytics.rebuildAgeQuantiles)
+ *
+ * If a range fails, the job is FAILED: ranges that have not started are
+ * skipped and listed in failedRanges together with the one that failed.
+ * Ranges already committed stay committed - running the same promotion
+ * again only touches students that still have the old grade.
+ *
+ * Jobs live in memory only; the newest MAX_KEPT_JOBS are kept so their
+ * progress can be asked for (GET /api/students/bulk/{id}).
+ */
+@Component
+public class StudentBulkUpdater {
+
+    private static final Logger log = LoggerFactory.getLogger(StudentBulkUpdater.class);
+
+    private static final int MAX_KEPT_JOBS = 100;
+
+    private final StudentStore studentStore;
+    private final StudentStatistics statistics;
+    private final StudentReadModel readModel;
+    private final StudentAnalytics analytics;
+    private final StudentChangeFeed changeFeed;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    private final ExecutorService workers;
+
+    private final Map<Long, Job> jobs = new ConcurrentHashMap<>();
+    private final AtomicLong lastJobId = new AtomicLong();
+
+    public StudentBulkUpdater(StudentStore studentStore,
+                              StudentStatistics statistics,
+                              StudentReadModel readModel,
+                              StudentAnalytics analytics,
+                              StudentChangeFeed changeFeed,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${app.bulk-update.chunk-size:10000}") int chunkSize,
+                              @Value("${app.bulk-update.threads:2}") int threads) {
+        this.studentStore = studentStore;
+        this.statistics = statistics;
+        this.readModel = readModel;
+        this.analytics = analytics;
+        this.changeFeed = changeFeed;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = Math.max(1, chunkSize);
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(Math.max(1, threads), runnable -> {
+            Thread thread = new Thread(runnable, "bulk-update-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Every student with grade "from" gets grade "to"
+     */
+    public BulkUpdateJobResponse promoteGrade(String from, String to) {
+        return start("promote grade " + from + " to " + to, false,
+                (fromId, toId) -> studentStore.updateGrade(fromId, toId, from, to),
+                before -> from.equals(before.getGrade()) ? updated(before, before.getAge(), to) : null);
+    }
+
+    /**
+     * Every student's age changes by delta
+     */
+    public BulkUpdateJobResponse shiftAges(int delta) {
+        return start("shift ages by " + delta, true,
+                (fromId, toId) -> studentStore.shiftAges(fromId, toId, delta),
+                before -> updated(before, before.getAge() + delta, before.getGrade()));
+    }
+
+    /**
+     * The job with this ID, if it is still kept
+     */
+    public Optional<BulkUpdateJobResponse> find(long jobId) {
+        Job job = jobs.get(jobId);
+        return job == null ? Optional.empty() : Optional.of(job.toResponse());
+    }
+
+    @PreDestroy
+    public void stop() {
+        workers.shutdownNow();
+    }
+
+    // ===== RUNNING A JOB =====
+
+    private BulkUpdateJobResponse start(String operation, boolean changesAges, RangeUpdate update, StudentUpdate change) {
+        long maxId = ConsistencyContext.onPrimary(studentStore::maxId);
+        int ranges = (int) ((maxId + chunkSize - 1) / chunkSize);
+
+        Job job = new Job(lastJobId.incrementAndGet(), operation, changesAges, ranges);
+        jobs.put(job.id, job);
+        jobs.keySet().removeIf(id -> id <= job.id - MAX_KEPT_JOBS);
+        log.info("Bulk update #{} started: {} ({} ranges of {} IDs, up to ID {})",
+                job.id, operation, ranges, chunkSize, maxId);
+
+        if (ranges == 0) {
+            finish(job);
+            return job.toResponse();
+        }
+        for (long fromId = 1; fromId <= maxId; fromId += chunkSize) {
+            long from = fromId;
+            long to = Math.min(maxId, fromId + chunkSize - 1);
+            workers.execute(() -> runRange(job, from, to, update, change));
+        }
+        return job.toResponse();
+    }
+
+    private void runRange(Job job, long fromId, long toId, RangeUpdate update, StudentUpdate change) {
+        try {
+            if (job.error != null) {
+                job.failedRanges.add(fromId + "-" + toId);
+                return;
+            }
+            long updated = transactionTemplate.execute(status -> {
+                // A range holds at most chunkSize IDs, so one read covers it
+                List<Student> changed = new ArrayList<>();
+                for (StudentResponse before : studentStore.findResponsesAfterId(fromId - 1, chunkSize)) {
+                    if (before.getId() > toId) {
+                        break;
+                    }
+                    Student after = change.apply(before);
+                    if (after != null) {
+                        changed.add(after);
+                    }
+                }
+                long count = update.apply(fromId, toId);
+                changeFeed.recordUpdated(changed);
+                return count;
+            });
+            job.studentsUpdated.addAndGet(updated);
+            if (updated > 0) {
+                readModel.refresh(fromId, toId);
+            }
+        } catch (RuntimeException ex) {
+            job.failedRanges.add(fromId + "-" + toId);
+            if (job.error == null) {
+                job.error = ex.getMessage();
+                log.warn("Bulk update #{} failed on IDs {}-{}, skipping the ranges not yet started: {}",
+                        job.id, fromId, toId, ex.getMessage());
+            }
+        } finally {
+            int done = job.rangesDone.incrementAndGet();
+            if (done * 10L / job.rangesTotal > (done - 1) * 10L / job.rangesTotal && done < job.rangesTotal) {
+                log.info("Bulk update #{}: {}% ({} of {} ranges, {} students updated)", job.id,
+                        100L * done / job.rangesTotal, done, job.rangesTotal, job.studentsUpdated.get());
+            }
+            if (done == job.rangesTotal) {
+                finish(job);
+            }
+        }
+    }
+
+    private void finish(Job job) {
+        job.finishedAt = Instant.now();
+        statistics.recordBulkUpdate();
+        if (job.changesAges && job.studentsUpdated.get() > 0) {
+            try {
+                analytics.rebuildAgeQuantiles();
+            } catch (RuntimeException ex) {
+                log.warn("Bulk update #{}: age sketch not rebuilt, percentiles show the old ages: {}",
+                        job.id, ex.getMessage());
+            }
+        }
+        log.info("Bulk update #{} {}: {} students updated in {} ms", job.id, job.error == null ? "done" : "FAILED",
+                job.studentsUpdated.get(), job.finishedAt.toEpochMilli() - job.startedAt.toEpochMilli());
+    }
+
+    /**
+     * One set-based UPDATE for the IDs fromId..toId; returns how many students changed
+     */
+    @FunctionalInterface
+    private interface RangeUpdate {
+        long apply(long fromId, long toId);
+    }
+
+    /**
+     * What the UPDATE does to one student: the student afterwards, or null
+     * if it leaves this one alone (each result becomes an UPDATED change)
+     */
+    @FunctionalInterface
+    private interface StudentUpdate {
+        Student apply(StudentResponse before);
+    }
+
+    private static Student updated(StudentResponse before, int age, String grade) {
+        Student after = new Student(before.getName(), age, grade);
+        after.setId(before.getId());
+        return after;
+    }
+
+    /**
+     * Progress of one job (written by the pool threads, read by status requests)
+     */
+    private static final class Job {
+
+        private final long id;
+        private final String operation;
+        private final boolean changesAges;
+        private final int rangesTotal;
+        private final Instant startedAt = Instant.now();
+        private final AtomicInteger rangesDone = new AtomicInteger();
+        private final AtomicLong studentsUpdated = new AtomicLong();
+        private final List<String> failedRanges = Collections.synchronizedList(new ArrayList<>());
+        private volatile String error;
+        private volatile Instant finishedAt;
+
+        Job(long id, String operation, boolean changesAges, int rangesTotal) {
+            this.id = id;
+            this.operation = operation;
+            this.changesAges = changesAges;
+            this.rangesTotal = rangesTotal;
+        }
+
+        BulkUpdateJobResponse toResponse() {
+            Instant finished = finishedAt;
+            String state = finished == null ? "RUNNING" : error == null ? "DONE" : "FAILED";
+            List<String> failed;
+            synchronized (failedRanges) {
+                failed = List.copyOf(failedRanges);
+            }
+            return new BulkUpdateJobResponse(id, operation, state, rangesTotal, rangesDone.get(),
+                    studentsUpdated.get(), startedAt.toString(), finished == null ? null : finished.toString(),
+                    failed, error);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.learning.crud.service;
+
+import com.learning.crud.datasource.ConsistencyContext;
+import com.learning.crud.dto.StudentResponse;
+import com.learning.crud.repository.StudentStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * STUDENT LOOKUP COALESCER: Many lookups of the same student, one database read
+ *
+ * When a popular student is asked for by hundreds of requests at the same
+ * moment (a "thundering herd"), each of them would read the same row:
+ *
+ *   without:  request 1 → SELECT ... WHERE id = 42
+ *             request 2 → SELECT ... WHERE id = 42     (same row, again)
+ *             request 3 → SELECT ... WHERE id = 42
+ *
+ *   with:     request 1 → SELECT ... WHERE id = 42  ─┐
+ *             request 2 → waits for request 1's read ├→ all get its answer
+ *             request 3 → waits for request 1's read ┘
+ *
+ * This is "single flight": per ID at most one read is running. The first
+ * request (the leader) puts a CompletableFuture under the ID and reads;
+ * the others find that future and wait on it. The leader removes the
+ * future when done, so the NEXT lookup reads again - nothing is cached,
+ * only lookups that overlap in time share a read. They share its result,
+ * "not found" included, or its error.
+ *
+ * READ-YOUR-WRITES: a request with a consistency token (see
+ * ConsistencyContext) only joins a read that must see at least the same
+ * position; otherwise it reads on its own, so it never gets an older
+ * answer than it asked for.
+ *
+ * The waiters share ONE StudentResponse object: callers must not change it.
+ *
+ * Metrics: students.lookups.loads (reads that ran), students.lookups.coalesced
+ * (lookups answered by another request's read), students.lookups.in-flight
+ */
+@Component
+public class StudentLookupCoalescer {
+
+    private final StudentStore studentStore;
+    private final boolean enabled;
+
+    private final Map<Long, Flight> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter loads;
+    private final Counter coalesced;
+
+    public StudentLookupCoalescer(StudentStore studentStore,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${app.coalescing.enabled:true}") boolean enabled) {
+        this.studentStore = studentStore;
+        this.enabled = enabled;
+
+        this.loads = Counter.builder("students.lookups.loads")
+                .description("Student lookups that read from the store")
+                .register(meterRegistry);
+        this.coalesced = Counter.builder("students.lookups.coalesced")
+                .description("Student lookups answered by a read another request already had running")
+                .register(meterRegistry);
+        Gauge.builder("students.lookups.in-flight", inFlight, Map::size)
+                .description("Student IDs being read right now")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Same as studentStore.findResponseById(id), sharing a read already running for this ID
+     */
+    public Optional<StudentResponse> findResponseById(Long id) {
+        if (!enabled || id == null) {
+            loads.increment();
+            return studentStore.findResponseById(id);
+        }
+
+        long position = ConsistencyContext.requiredPosition();
+        Flight mine = new Flight(position);
+        Flight running = inFlight.putIfAbsent(id, mine);
+        if (running != null) {
+            if (running.position >= position) {
+                coalesced.increment();
+                return await(running);
+            }
+            // The running read may not see what this request must see
+            loads.increment();
+            return studentStore.findResponseById(id);
+        }
+
+        loads.increment();
+        try {
+            Optional<StudentResponse> found = studentStore.findResponseById(id);
+            mine.result.complete(found);
+            return found;
+        } catch (RuntimeException | Error ex) {
+            // Waiters must never be left waiting, whatever went wrong
+            mine.result.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(id, mine);
+        }
+    }
+
+    private static Optional<StudentResponse> await(Flight running) {
+        try {
+            return running.result.join();
+        } catch (CompletionException ex) {
+            // The leader's own exception (e.g. a DataAccessException), not a wrapper
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (ex.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * One read in progress, and the consistency position it reads at
+     */
+    private static final class Flight {
+
+        private final long position;
+        private final CompletableFuture<Optional<StudentResponse>> result = new CompletableFuture<>();
+
+        Flight(long position) {
+            this.position = position;
+        }
+    }
+}
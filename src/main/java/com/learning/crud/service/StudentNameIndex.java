@@ -0,0 +1,358 @@
+package com.learning.crud.service;
+
+import com.learning.crud.datasource.ConsistencyContext;
+import com.learning.crud.entity.Student;
+import com.learning.crud.repository.StudentStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * NAME SEARCH INDEX: Finds students by name without asking the database
+ *
+ * A SQL query like "WHERE name LIKE '%jo%'" has to look at every row.
+ * Instead we keep all names in memory, in a TRIE (prefix tree):
+ *
+ *            (root)
+ *           /      \
+ *          j        m
+ *          |        |
+ *          o        a
+ *         / \       |
+ *        h   e      r ...
+ *
+ * - Prefix search ("jo"): walk down j → o, then collect everything below
+ * - Fuzzy search ("jhon"): walk the trie while computing edit distance,
+ *   and skip branches that are already too far away
+ *
+ * Each full name AND each word of the name is indexed, so "doe" finds "John Doe".
+ *
+ * The trie is "incrementally maintained":
+ * - StudentService calls add() after every create
+ * - At startup rebuild() loads every name from the database
+ *   (unless StudentSnapshotLoader already added them all while restoring)
+ *
+ * Thread safety: readers never lock. Writers lock one node at a time and
+ * publish new (immutable) arrays, so a reader always sees a consistent node.
+ */
+@Component
+public class StudentNameIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(StudentNameIndex.class);
+
+    // How many (id, name) rows we read from the database per round trip during rebuild
+    private static final int REBUILD_PAGE_SIZE = 10_000;
+
+    private final StudentStore studentStore;
+
+    // The live trie used by searches
+    private volatile Node root = new Node();
+
+    // While a rebuild runs, new students are added here as well, so they are not lost on swap
+    private volatile Node rebuilding;
+
+    // Set by StudentSnapshotLoader: every name is already in the trie
+    private volatile boolean restored;
+
+    public StudentNameIndex(StudentStore studentStore) {
+        this.studentStore = studentStore;
+    }
+
+    /**
+     * Adds one student name to the index (called after createStudent)
+     */
+    public void add(Long id, String name) {
+        Node pending = rebuilding;
+        addTo(root, id, name);
+        if (pending != null) {
+            addTo(pending, id, name);
+        }
+    }
+
+    /**
+     * Tells the index that add() has been called for every student,
+     * so the startup rebuild can be skipped
+     */
+    public void markRestored() {
+        restored = true;
+    }
+
+    /**
+     * PREFIX SEARCH: Returns IDs of students whose name (or a word of it) starts with prefix
+     *
+     * Example: "jo" → John Doe, Joanna Smith, Mary Jones
+     */
+    public List<Long> searchPrefix(String prefix, int limit) {
+        String word = normalize(prefix);
+        if (word.isEmpty()) {
+            return List.of();
+        }
+
+        // Walk down the trie, one character at a time
+        Node node = root;
+        for (int i = 0; i < word.length() && node != null; i++) {
+            node = node.child(word.charAt(i));
+        }
+
+        Set<Long> result = new LinkedHashSet<>();
+        if (node != null) {
+            collect(node, result, limit);
+        }
+        return new ArrayList<>(result);
+    }
+
+    /**
+     * FUZZY SEARCH: Returns IDs of students whose name (or a word of it) is
+     * within a small edit distance of term. Closest matches come first.
+     *
+     * Edit distance = how many single-letter inserts, deletes, changes or
+     * swaps of neighbours turn one word into another:
+     * "jon" → "john" is 1 (one insert), "jhon" → "john" is 1 (one swap).
+     *
+     * Short words allow 1 edit, longer words allow 2.
+     */
+    public List<Long> searchFuzzy(String term, int limit) {
+        String word = normalize(term);
+        if (word.isEmpty()) {
+            return List.of();
+        }
+        int maxDistance = word.length() <= 4 ? 1 : 2;
+
+        // First row of the classic Levenshtein table: "" → word costs i inserts
+        int[] firstRow = new int[word.length() + 1];
+        for (int i = 0; i < firstRow.length; i++) {
+            firstRow[i] = i;
+        }
+
+        // One bucket per distance (0, 1, 2) so exact matches are returned first
+        List<List<Long>> buckets = new ArrayList<>();
+        for (int d = 0; d <= maxDistance; d++) {
+            buckets.add(new ArrayList<>());
+        }
+
+        Edges edges = root.edges;
+        for (int i = 0; i < edges.keys.length; i++) {
+            fuzzy(edges.children[i], edges.keys[i], word, firstRow, null, '\0', maxDistance, buckets, limit);
+        }
+
+        Set<Long> result = new LinkedHashSet<>();
+        for (List<Long> bucket : buckets) {
+            for (Long id : bucket) {
+                if (result.size() >= limit) {
+                    return new ArrayList<>(result);
+                }
+                result.add(id);
+            }
+        }
+        return new ArrayList<>(result);
+    }
+
+    /**
+     * Rebuilds the whole index from the database when the application starts
+     *
+     * Names are read page by page (keyset pagination on id) and each page
+     * is inserted by several threads in parallel.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (restored) {
+            restored = false;
+            log.info("Student name index restored from snapshot, no rebuild needed");
+            return;
+        }
+        long start = System.nanoTime();
+        Node fresh = new Node();
+        rebuilding = fresh;
+
+        long lastId = 0L;
+        long count = 0L;
+        while (true) {
+            // Must see every committed row, so never read from a (possibly lagging) replica
+            long after = lastId;
+            List<Student> page = ConsistencyContext.onPrimary(() -> studentStore.findAfterId(after, REBUILD_PAGE_SIZE));
+            if (page.isEmpty()) {
+                break;
+            }
+            page.parallelStream().forEach(row -> addTo(fresh, row.getId(), row.getName()));
+            lastId = page.get(page.size() - 1).getId();
+            count += page.size();
+        }
+
+        root = fresh;
+        rebuilding = null;
+        log.info("Student name index rebuilt: {} names in {} ms", count, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // ===== TRIE HELPERS =====
+
+    private static void addTo(Node root, Long id, String name) {
+        String normalized = normalize(name);
+        if (id == null || normalized.isEmpty()) {
+            return;
+        }
+        insert(root, normalized, id);
+
+        // Also index every word, so searching by last name works
+        for (String token : normalized.split(" ")) {
+            if (!token.isEmpty() && !token.equals(normalized)) {
+                insert(root, token, id);
+            }
+        }
+    }
+
+    private static void insert(Node root, String word, long id) {
+        Node node = root;
+        for (int i = 0; i < word.length(); i++) {
+            node = node.childOrCreate(word.charAt(i));
+        }
+        node.addId(id);
+    }
+
+    private static void collect(Node node, Set<Long> result, int limit) {
+        Ids ids = node.ids;
+        for (int i = 0; i < ids.size && result.size() < limit; i++) {
+            result.add(ids.values[i]);
+        }
+        Edges edges = node.edges;
+        for (int i = 0; i < edges.children.length && result.size() < limit; i++) {
+            collect(edges.children[i], result, limit);
+        }
+    }
+
+    /**
+     * Computes the next row of the edit-distance table for character c.
+     * Swapping two neighbouring letters ("jhon" → "john") counts as one edit.
+     *
+     * previousRow belongs to the parent node, parentChar to the parent edge;
+     * grandparentRow is only needed for the swap rule (null near the root).
+     * If no cell of this row (or of the parent row, for a later swap) is
+     * within maxDistance, nothing below this node can match, so we stop.
+     */
+    private static void fuzzy(Node node, char c, String word, int[] previousRow, int[] grandparentRow,
+                              char parentChar, int maxDistance, List<List<Long>> buckets, int limit) {
+        int columns = word.length() + 1;
+        int[] row = new int[columns];
+        row[0] = previousRow[0] + 1;
+        int rowMin = row[0];
+
+        for (int i = 1; i < columns; i++) {
+            int insert = row[i - 1] + 1;
+            int delete = previousRow[i] + 1;
+            int replace = previousRow[i - 1] + (word.charAt(i - 1) == c ? 0 : 1);
+            row[i] = Math.min(Math.min(insert, delete), replace);
+            if (grandparentRow != null && i > 1
+                    && word.charAt(i - 1) == parentChar && word.charAt(i - 2) == c) {
+                row[i] = Math.min(row[i], grandparentRow[i - 2] + 1);
+            }
+            rowMin = Math.min(rowMin, row[i]);
+        }
+
+        int distance = row[columns - 1];
+        if (distance <= maxDistance) {
+            List<Long> bucket = buckets.get(distance);
+            Ids ids = node.ids;
+            for (int i = 0; i < ids.size && bucket.size() < limit; i++) {
+                bucket.add(ids.values[i]);
+            }
+        }
+
+        int previousMin = Arrays.stream(previousRow).min().orElse(0);
+        if (rowMin <= maxDistance || previousMin + 1 <= maxDistance) {
+            Edges edges = node.edges;
+            for (int i = 0; i < edges.keys.length; i++) {
+                fuzzy(edges.children[i], edges.keys[i], word, row, previousRow, c, maxDistance, buckets, limit);
+            }
+        }
+    }
+
+    /**
+     * Lower-case and collapse whitespace, so "  John   DOE " and "john doe" are the same key
+     */
+    private static String normalize(String name) {
+        if (name == null) {
+            return "";
+        }
+        return name.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    // ===== TRIE NODE =====
+
+    /**
+     * Child edges: sorted characters and the matching child nodes.
+     * Immutable, so a reader never sees keys and children out of step.
+     */
+    private record Edges(char[] keys, Node[] children) {
+    }
+
+    /**
+     * Student IDs stored at a node. The array may be larger than size;
+     * only the first size entries are valid.
+     */
+    private record Ids(long[] values, int size) {
+    }
+
+    private static final class Node {
+
+        private static final Edges NO_EDGES = new Edges(new char[0], new Node[0]);
+        private static final Ids NO_IDS = new Ids(new long[0], 0);
+
+        private volatile Edges edges = NO_EDGES;
+        private volatile Ids ids = NO_IDS;
+
+        Node child(char c) {
+            Edges current = edges;
+            int i = Arrays.binarySearch(current.keys, c);
+            return i >= 0 ? current.children[i] : null;
+        }
+
+        Node childOrCreate(char c) {
+            Node existing = child(c);
+            if (existing != null) {
+                return existing;
+            }
+            synchronized (this) {
+                Edges current = edges;
+                int i = Arrays.binarySearch(current.keys, c);
+                if (i >= 0) {
+                    return current.children[i];
+                }
+
+                // Copy-on-write: insert c at its sorted position
+                int at = -i - 1;
+                int length = current.keys.length;
+                char[] keys = new char[length + 1];
+                Node[] children = new Node[length + 1];
+                System.arraycopy(current.keys, 0, keys, 0, at);
+                System.arraycopy(current.children, 0, children, 0, at);
+                System.arraycopy(current.keys, at, keys, at + 1, length - at);
+                System.arraycopy(current.children, at, children, at + 1, length - at);
+
+                Node created = new Node();
+                keys[at] = c;
+                children[at] = created;
+                edges = new Edges(keys, children);
+                return created;
+            }
+        }
+
+        synchronized void addId(long id) {
+            Ids current = ids;
+            long[] values = current.values;
+            if (current.size == values.length) {
+                values = Arrays.copyOf(values, Math.max(1, values.length * 2));
+            }
+            // Slots beyond size are invisible to readers until the new Ids is published
+            values[current.size] = id;
+            ids = new Ids(values, current.size + 1);
+        }
+    }
+}
@@ -1,11 +1,34 @@
 package com.learning.crud.service;
 
+import com.learning.crud.changefeed.StudentChangeFeed;
+import com.learning.crud.dictionary.GradeDictionary;
+import com.learning.crud.dto.BulkUpdateJobResponse;
+import com.learning.crud.dto.ExportJobResponse;
+import com.learning.crud.dto.SketchExport;
+import com.learning.crud.dto.StudentAnalyticsResponse;
+import com.learning.crud.dto.StudentChangeResponse;
+import com.learning.crud.dto.StudentChangesResponse;
 import com.learning.crud.dto.StudentRequest;
 import com.learning.crud.dto.StudentResponse;
+import com.learning.crud.dto.StudentStatsResponse;
 import com.learning.crud.entity.Student;
+import com.learning.crud.exception.BulkUpdateNotFoundException;
+import com.learning.crud.exception.ExportNotFoundException;
+import com.learning.crud.export.StudentExporter;
+import com.learning.crud.idempotency.IdempotencyStore;
+import com.learning.crud.limiter.ConcurrencyLimited;
 import com.learning.crud.exception.StudentNotFoundException;
-import com.learning.crud.repository.StudentRepository;
+import com.learning.crud.readmodel.StudentReadModel;
+import com.learning.crud.repository.StudentStore;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * SERVICE LAYER: Contains business logic
@@ -25,15 +48,89 @@ import org.springframework.stereotype.Service;
 @Service
 public class StudentService {
 
-    // Dependency Injection: Spring automatically provides StudentRepository
-    private final StudentRepository studentRepository;
+    // Dependency Injection: Spring automatically provides the configured StudentStore
+    // (JPA by default, see app.storage.backend)
+    private final StudentStore studentStore;
+
+    // Optionally bundles concurrent creates into one transaction (app.group-commit.enabled)
+    private final GroupCommitter groupCommitter;
+
+    // In-memory trie over student names (for fast type-ahead search)
+    private final StudentNameIndex nameIndex;
+
+    // Live per-grade and per-age counters (for the stats endpoint)
+    private final StudentStatistics statistics;
+
+    // Approximate distinct-name and age-percentile sketches
+    private final StudentAnalytics analytics;
+
+    // Ordered list of all changes (for caches and search indexes elsewhere)
+    private final StudentChangeFeed changeFeed;
+
+    // Small number (code) per distinct grade; the table stores the code
+    private final GradeDictionary gradeDictionary;
+
+    // Optional in-memory copy of all students as primitive arrays (app.read-model.enabled)
+    private final StudentReadModel readModel;
+
+    // Runs bulk updates range by range in the background
+    private final StudentBulkUpdater bulkUpdater;
+
+    // Runs exports in the background and keeps their files
+    private final StudentExporter exporter;
+
+    // Remembers the answers of creates sent with an Idempotency-Key
+    private final IdempotencyStore idempotencyStore;
+
+    // Lets concurrent lookups of the same student share one database read
+    private final StudentLookupCoalescer lookupCoalescer;
+
+    // This service through its Spring proxy, so an internal call still passes
+    // the concurrency limiter (a plain this.method() call skips every aspect)
+    private final StudentService self;
+
+    // Search results are capped so one request cannot ask for the whole table
+    private static final int MAX_SEARCH_RESULTS = 100;
+
+    // Same idea for one page of the student list
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    // ...and for one batch of the change feed
+    private static final int MAX_CHANGES_BATCH = 1000;
+
+    // A bulk age shift beyond this is a typo, not a year rollover
+    private static final int MAX_AGE_SHIFT = 100;
 
     /**
      * Constructor Injection (recommended way)
-     * Spring sees this constructor and automatically injects StudentRepository
+     * Spring sees this constructor and automatically injects StudentStore
      */
-    public StudentService(StudentRepository studentRepository) {
-        this.studentRepository = studentRepository;
+    public StudentService(StudentStore studentStore,
+                          GroupCommitter groupCommitter,
+                          StudentNameIndex nameIndex,
+                          StudentStatistics statistics,
+                          StudentAnalytics analytics,
+                          StudentChangeFeed changeFeed,
+                          GradeDictionary gradeDictionary,
+                          StudentReadModel readModel,
+                          StudentBulkUpdater bulkUpdater,
+                          StudentExporter exporter,
+                          IdempotencyStore idempotencyStore,
+                          StudentLookupCoalescer lookupCoalescer,
+                          @Lazy StudentService self) {
+        this.studentStore = studentStore;
+        this.groupCommitter = groupCommitter;
+        this.nameIndex = nameIndex;
+        this.statistics = statistics;
+        this.analytics = analytics;
+        this.changeFeed = changeFeed;
+        this.gradeDictionary = gradeDictionary;
+        this.readModel = readModel;
+        this.bulkUpdater = bulkUpdater;
+        this.exporter = exporter;
+        this.idempotencyStore = idempotencyStore;
+        this.lookupCoalescer = lookupCoalescer;
+        this.self = self;
     }
 
     /**
@@ -46,37 +143,295 @@ public class StudentService {
      * 4. Convert saved entity → StudentResponse
      * 5. Return response
      */
+    @ConcurrencyLimited
     public StudentResponse createStudent(StudentRequest request) {
         // Step 1: Create new Student entity from request
         Student student = new Student();
         student.setName(request.getName());
         student.setAge(request.getAge());
-        student.setGrade(request.getGrade());
+        // intern(): a new grade gets its code NOW (outside the student's transaction),
+        // and every student with this grade shares one String
+        student.setGrade(gradeDictionary.intern(request.getGrade()));
 
-        // Step 2: Save to database (repository.save calls JPA)
-        // JPA generates SQL: INSERT INTO students (name, age, grade) VALUES (?, ?, ?)
-        Student savedStudent = studentRepository.save(student);
+        // Step 2: Save to database (studentStore.save → JPA by default)
+        // JPA generates SQL: INSERT INTO students (name, age, grade_code) VALUES (?, ?, ?)
+        // The same transaction also adds a CREATED entry to the change feed (outbox)
+        // With group commit on, the insert may share one transaction with other callers
+        Student savedStudent = groupCommitter.save(student);
 
-        // Step 3: Convert entity to response DTO
+        // Step 3: Update live statistics and sketches, and make the new name searchable right away
+        statistics.recordCreate(savedStudent.getGrade(), savedStudent.getAge());
+        analytics.record(savedStudent.getId(), savedStudent.getName(), savedStudent.getAge());
+        nameIndex.add(savedStudent.getId(), savedStudent.getName());
+        readModel.add(savedStudent);
+
+        // Step 4: Convert entity to response DTO
         return convertToResponse(savedStudent);
     }
 
+    /**
+     * CREATE, AT MOST ONCE: Like createStudent(request), but safe to resend
+     *
+     * idempotencyKey = null → a normal create.
+     * Otherwise the first request with this key creates the student, and
+     * every later one with the same key gets the SAME answer (same ID)
+     * without creating anything (see IdempotencyStore). Called by REST,
+     * SOAP and GraphQL with the Idempotency-Key header of the request.
+     *
+     * Not @ConcurrencyLimited itself: a repeat may wait up to
+     * app.idempotency.wait-ms for the first request, and that wait must
+     * neither hold a limiter slot nor count as request latency. Only the
+     * create that really runs goes through the limiter (via self).
+     */
+    public StudentResponse createStudent(StudentRequest request, String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return self.createStudent(request);
+        }
+        // What makes two creates "the same request"
+        String fingerprint = request.getName() + '\u0000' + request.getAge() + '\u0000' + request.getGrade();
+        return idempotencyStore.execute(idempotencyKey, fingerprint, () -> self.createStudent(request));
+    }
+
     /**
      * READ: Get student by ID from database
      * 
      * Flow:
-     * 1. Call repository.findById()
-     * 2. If found: convert to DTO and return
-     * 3. If not found: throw exception
+     * 1. If the in-memory read model is on and has the student: return it
+     * 2. Otherwise read it from the store; lookups of the same ID that
+     *    arrive while that read runs wait for it instead of reading again
+     *    (see StudentLookupCoalescer)
+     * 3. If found: return it
+     * 4. If not found: throw exception
+     *
+     * No @Transactional here: a transaction would take a database connection
+     * even when the read model answers. The store's read is itself a
+     * read-only transaction, so it may still be served by a read replica
+     * (when replicas are configured).
+     *
+     * findResponseById() builds the StudentResponse straight from the row
+     * (a DTO projection with JPA): no Student entity, nothing for Hibernate to track.
      */
+    @ConcurrencyLimited
     public StudentResponse getStudentById(Long id) {
-        // findById() returns Optional<Student>
+        if (readModel.ready()) {
+            StudentResponse cached = readModel.find(id);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        // findResponseById() returns Optional<StudentResponse>
         // Optional is like a box that may or may not contain a value
-        Student student = studentRepository.findById(id)
+        return lookupCoalescer.findResponseById(id)
                 .orElseThrow(() -> new StudentNotFoundException("Student not found with id: " + id));
+    }
+
+    /**
+     * LIST: One page of students, ordered by ID
+     *
+     * page = 0 is the first page; size is capped at 1000.
+     * Read-only (no flush, no dirty checking), so it may be served by a read replica.
+     */
+    @ConcurrencyLimited
+    @Transactional(readOnly = true)
+    public List<StudentResponse> listStudents(int page, int size) {
+        int cappedSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        return studentStore.findResponsePage(Math.max(0, page), cappedSize);
+    }
+
+    /**
+     * EXPORT: The next students after afterId, ordered by ID
+     *
+     * Called again and again (with the last ID returned) to walk through
+     * ALL students in small chunks; size is capped at 1000.
+     * Each chunk is its own short read, so a long export never holds
+     * one transaction (or one database connection) for its whole duration.
+     */
+    @ConcurrencyLimited
+    @Transactional(readOnly = true)
+    public List<StudentResponse> listStudentsAfter(long afterId, int size) {
+        int cappedSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        return studentStore.findResponsesAfterId(afterId, cappedSize);
+    }
+
+    /**
+     * EXPORT STREAM: Same as listStudentsAfter, for the batches of a
+     * streaming export (gRPC ExportStudents)
+     *
+     * Not @ConcurrencyLimited: the stream was already accepted, and a 503
+     * halfway through would break it. How fast it reads is decided by the
+     * client (flow control), not by the number of requests.
+     */
+    @Transactional(readOnly = true)
+    public List<StudentResponse> exportStudentsAfter(long afterId, int size) {
+        int cappedSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        return studentStore.findResponsesAfterId(afterId, cappedSize);
+    }
+
+    /**
+     * SEARCH: Find students by name (type-ahead)
+     *
+     * Flow:
+     * 1. Ask the in-memory name index for matching IDs (no SQL LIKE scan)
+     * 2. Load those students by primary key
+     * 3. Return them in the order the index ranked them
+     *
+     * fuzzy = false → prefix match ("jo" finds "John")
+     * fuzzy = true  → typo-tolerant match ("jhon" finds "John")
+     */
+    @ConcurrencyLimited
+    @Transactional(readOnly = true)
+    public List<StudentResponse> searchStudentsByName(String query, boolean fuzzy, int limit) {
+        int cappedLimit = Math.max(1, Math.min(limit, MAX_SEARCH_RESULTS));
+        List<Long> ids = fuzzy
+                ? nameIndex.searchFuzzy(query, cappedLimit)
+                : nameIndex.searchPrefix(query, cappedLimit);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        // findResponsesById does not keep the order we asked for, so re-order by index rank
+        Map<Long, StudentResponse> byId = studentStore.findResponsesById(ids).stream()
+                .collect(Collectors.toMap(StudentResponse::getId, Function.identity()));
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    /**
+     * FILTER: Students with minAge <= age <= maxAge (and one grade, if given), ordered by ID
+     *
+     * Served by a scan of the in-memory read model when it is on,
+     * otherwise by a query. limit is capped at 1000.
+     * Not @Transactional for the same reason as getStudentById.
+     */
+    @ConcurrencyLimited
+    public List<StudentResponse> filterStudents(int minAge, int maxAge, String grade, int limit) {
+        int cappedLimit = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        if (readModel.ready()) {
+            return readModel.filter(minAge, maxAge, grade, cappedLimit);
+        }
+        return studentStore.findResponsesByAgeRange(minAge, maxAge, grade, cappedLimit);
+    }
+
+    /**
+     * STATS: Counts per grade and age histogram
+     *
+     * Served from live in-memory counters (no GROUP BY query),
+     * so the cost does not grow with the number of students.
+     */
+    @ConcurrencyLimited
+    public StudentStatsResponse getStatistics() {
+        return statistics.snapshot();
+    }
+
+    /**
+     * ANALYTICS: Approximate distinct names and age percentiles
+     *
+     * Served from sketches (HyperLogLog and KLL); every number
+     * in the response comes with its error bound.
+     */
+    @ConcurrencyLimited
+    public StudentAnalyticsResponse getAnalytics() {
+        return analytics.analytics();
+    }
+
+    /**
+     * ANALYTICS: The raw sketches of this node, for merging on another node
+     */
+    @ConcurrencyLimited
+    public SketchExport exportAnalyticsSketches() {
+        return analytics.export();
+    }
+
+    /**
+     * ANALYTICS: This node's analytics combined with sketches from other nodes
+     */
+    @ConcurrencyLimited
+    public StudentAnalyticsResponse getMergedAnalytics(List<SketchExport> otherNodes) {
+        return analytics.mergedWith(otherNodes);
+    }
+
+    /**
+     * CHANGE FEED: Changes after seq "since", oldest first
+     *
+     * Returns at most limit changes (capped at 1000). To continue, call
+     * again with since = lastSeq of the response.
+     * Throws ChangeFeedGoneException if those changes were already deleted.
+     */
+    @ConcurrencyLimited
+    public StudentChangesResponse getChangesSince(long since, int limit) {
+        int cappedLimit = Math.max(1, Math.min(limit, MAX_CHANGES_BATCH));
+        List<StudentChangeResponse> changes = changeFeed.changesAfter(since, cappedLimit);
+        long lastSeq = changes.isEmpty() ? since : changes.get(changes.size() - 1).getSeq();
+        boolean hasMore = changes.size() == cappedLimit && lastSeq < changeFeed.committedPosition();
+        return new StudentChangesResponse(changes, lastSeq, hasMore);
+    }
 
-        // Convert entity to response DTO
-        return convertToResponse(student);
+    /**
+     * BULK UPDATE: Every student with grade "from" gets grade "to"
+     *
+     * Starts a background job and returns it right away (see StudentBulkUpdater):
+     * the table is updated one ID range at a time, each range its own short transaction.
+     */
+    public BulkUpdateJobResponse promoteGrade(String from, String to) {
+        if (from == null || from.isBlank() || to == null || to.isBlank()) {
+            throw new IllegalArgumentException("Both the old and the new grade are required");
+        }
+        if (from.equals(to)) {
+            throw new IllegalArgumentException("The new grade must differ from the old one: " + from);
+        }
+        // intern(): the new grade gets its code NOW, not inside one of the range transactions
+        return bulkUpdater.promoteGrade(from, gradeDictionary.intern(to));
+    }
+
+    /**
+     * BULK UPDATE: Every student's age changes by delta (e.g. +1 at year rollover)
+     */
+    public BulkUpdateJobResponse shiftAges(int delta) {
+        if (delta == 0 || Math.abs(delta) > MAX_AGE_SHIFT) {
+            throw new IllegalArgumentException("Age shift must be between -" + MAX_AGE_SHIFT
+                    + " and " + MAX_AGE_SHIFT + " and not 0: " + delta);
+        }
+        return bulkUpdater.shiftAges(delta);
+    }
+
+    /**
+     * BULK UPDATE: Progress of a job started by promoteGrade() or shiftAges()
+     */
+    public BulkUpdateJobResponse getBulkUpdate(long jobId) {
+        return bulkUpdater.find(jobId)
+                .orElseThrow(() -> new BulkUpdateNotFoundException("Bulk update not found with id: " + jobId));
+    }
+
+    /**
+     * EXPORT JOB: Queue an export of the students that match the filter
+     *
+     * Returns right away; the file is written in the background (see StudentExporter).
+     * format: ndjson, cbor, smile or protobuf
+     */
+    public ExportJobResponse submitExport(int minAge, int maxAge, String grade, String format) {
+        if (minAge > maxAge) {
+            throw new IllegalArgumentException("minAge must not be above maxAge: " + minAge + " > " + maxAge);
+        }
+        String wantedGrade = grade == null || grade.isBlank() ? null : grade;
+        return exporter.submit(new StudentExporter.Filter(minAge, maxAge, wantedGrade), StudentExporter.Format.of(format));
+    }
+
+    /**
+     * EXPORT JOB: State and progress of an export
+     */
+    public ExportJobResponse getExport(long exportId) {
+        return exporter.find(exportId)
+                .orElseThrow(() -> new ExportNotFoundException("Export not found with id: " + exportId));
+    }
+
+    /**
+     * EXPORT JOB: The file of a finished export
+     */
+    public StudentExporter.ExportFile getExportFile(long exportId) {
+        return exporter.file(exportId);
     }
 
     /**
@@ -0,0 +1,194 @@
+package com.learning.crud.service;
+
+import com.learning.crud.datasource.ConsistencyContext;
+import com.learning.crud.dto.StudentStatsResponse;
+import com.learning.crud.repository.StudentStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * STUDENT STATISTICS: Live counters instead of GROUP BY queries
+ *
+ * Dashboards ask "how many students per grade?" and "how old are they?"
+ * very often. Running GROUP BY over the whole table every time would
+ * slow down normal traffic, so we keep the answers in memory:
+ *
+ * - One counter per grade        ("A" → 120, "B" → 95, ...)
+ * - One counter per age          (15 → 40, 16 → 52, ...)  = age histogram
+ * - One counter for the total
+ *
+ * Every write in StudentService updates these counters, so reading them
+ * does not depend on how many students exist.
+ *
+ * Counters are LongAdder: "striped" counters that spread updates from many
+ * threads over several cells, so threads do not fight over one number.
+ *
+ * Safety net: reconcile() runs on a timer and replaces the counters with
+ * real numbers from the database, fixing any drift - also while students
+ * are being written (see reconcile()).
+ */
+@Component
+public class StudentStatistics {
+
+    private static final Logger log = LoggerFactory.getLogger(StudentStatistics.class);
+
+    private final StudentStore studentStore;
+
+    // Swapped as a whole when reconcile() loads fresh numbers from the database
+    private volatile Counters counters = new Counters();
+
+    // Writes count under the READ lock (many at once), reconcile() reads and swaps
+    // under the WRITE lock: it never sees half of a write, and no write can count
+    // into the old counters while they are replaced
+    private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+
+    public StudentStatistics(StudentStore studentStore) {
+        this.studentStore = studentStore;
+    }
+
+    /**
+     * Call after a student was saved (committed): counts it
+     */
+    public void recordCreate(String grade, Integer age) {
+        swapLock.readLock().lock();
+        try {
+            counters.add(grade, age, 1);
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Call when a bulk update (StudentBulkUpdater) has finished: a change to
+     * thousands of students is not counted one by one, the counters are
+     * simply re-counted.
+     */
+    public void recordBulkUpdate() {
+        reconcile();
+    }
+
+    /**
+     * Returns the current numbers. Cost depends only on how many different
+     * grades and ages exist (a few dozen), not on how many students exist.
+     */
+    public StudentStatsResponse snapshot() {
+        Counters current = counters;
+
+        List<StudentStatsResponse.GradeCount> grades = new TreeMap<>(current.grades).entrySet().stream()
+                .map(e -> new StudentStatsResponse.GradeCount(e.getKey(), e.getValue().sum()))
+                .filter(g -> g.getCount() > 0)
+                .toList();
+
+        List<StudentStatsResponse.AgeCount> ages = new TreeMap<>(current.ages).entrySet().stream()
+                .map(e -> new StudentStatsResponse.AgeCount(e.getKey(), e.getValue().sum()))
+                .filter(a -> a.getCount() > 0)
+                .toList();
+
+        return new StudentStatsResponse(current.total.sum(), grades, ages);
+    }
+
+    /**
+     * RECONCILE: Re-count from the database and replace the live counters
+     *
+     * Runs once right after startup (initialDelay = 0) and then on a timer.
+     * Students keep being written while we count, and skipping whenever
+     * that happens would mean never reconciling under steady traffic.
+     * Instead, the writes counted WHILE the database was counting are
+     * carried over:
+     *
+     * FLOW:
+     * 1. Under swapLock: note the live grade counters (the baseline)
+     * 2. Count per grade in the database
+     * 3. Same for the ages: note the live age counters, count per age
+     * 4. Under swapLock: fresh = database numbers + (live now - baseline), swap
+     *
+     * A write is counted live after it committed. So a write counted after
+     * the baseline committed after it too, and the database count did not
+     * see it - unless it committed in the moment between the baseline and
+     * the query: then it is counted once too many until the next reconcile.
+     * Writes counted before the baseline are in the database count only.
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${app.stats.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        Map<String, Long> gradesBefore = new HashMap<>();
+        long totalBefore = underSwapLock(live -> {
+            live.grades.forEach((grade, count) -> gradesBefore.put(grade, count.sum()));
+            return live.total.sum();
+        });
+        // Compare against the primary: a lagging replica would look like drift
+        Map<String, Long> grades = ConsistencyContext.onPrimary(studentStore::countByGrade);
+
+        Map<Integer, Long> agesBefore = new HashMap<>();
+        underSwapLock(live -> {
+            live.ages.forEach((age, count) -> agesBefore.put(age, count.sum()));
+            return null;
+        });
+        Map<Integer, Long> ages = ConsistencyContext.onPrimary(studentStore::countByAge);
+
+        Counters fresh = new Counters();
+        grades.forEach((grade, total) -> {
+            fresh.grade(grade).add(total);
+            fresh.total.add(total);
+        });
+        ages.forEach((age, total) -> fresh.age(age).add(total));
+
+        long drift = underSwapLock(live -> {
+            // The writes counted live since the baseline
+            live.grades.forEach((grade, count) -> fresh.grade(grade).add(count.sum() - gradesBefore.getOrDefault(grade, 0L)));
+            live.ages.forEach((age, count) -> fresh.age(age).add(count.sum() - agesBefore.getOrDefault(age, 0L)));
+            fresh.total.add(live.total.sum() - totalBefore);
+
+            counters = fresh;
+            return fresh.total.sum() - live.total.sum();
+        });
+        if (drift != 0) {
+            log.warn("Statistics reconciled with database, total drift was {}", drift);
+        }
+    }
+
+    private <T> T underSwapLock(Function<Counters, T> work) {
+        swapLock.writeLock().lock();
+        try {
+            return work.apply(counters);
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * All counters together, so reconcile() can replace them in one step
+     */
+    private static final class Counters {
+
+        private final LongAdder total = new LongAdder();
+        private final Map<String, LongAdder> grades = new ConcurrentHashMap<>();
+        private final Map<Integer, LongAdder> ages = new ConcurrentHashMap<>();
+
+        void add(String grade, Integer age, long delta) {
+            total.add(delta);
+            grade(grade).add(delta);
+            age(age).add(delta);
+        }
+
+        LongAdder grade(String grade) {
+            return grades.computeIfAbsent(Objects.requireNonNullElse(grade, ""), g -> new LongAdder());
+        }
+
+        LongAdder age(Integer age) {
+            return ages.computeIfAbsent(Objects.requireNonNullElse(age, 0), a -> new LongAdder());
+        }
+    }
+}
@@ -0,0 +1,427 @@
+package com.learning.crud.sharding;
+
+import com.learning.crud.dictionary.GradeDictionary;
+import com.learning.crud.entity.Student;
+import com.learning.crud.repository.StudentStore;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * SHARDED STUDENT STORE: Spreads students over several independent databases
+ *
+ * One database can only take so many writes and hold so much data.
+ * "Sharding" splits the table: with 4 shards, each database holds 1/4 of
+ * the students and handles 1/4 of the work.
+ *
+ * WHICH SHARD HOLDS A STUDENT?
+ * Every shard hands out its own IDs, in steps of N (the number of shards):
+ *
+ *   shard 0: 1, 5,  9, 13 ...
+ *   shard 1: 2, 6, 10, 14 ...
+ *   shard 2: 3, 7, 11, 15 ...
+ *   shard 3: 4, 8, 12, 16 ...
+ *
+ * So the ID itself says where the student lives: shard = (id - 1) % N.
+ * No central ID counter is needed, and IDs never collide.
+ * (Because of this, the number of shards cannot change once data exists.)
+ *
+ * New students go to the shards in turn (round robin). A saveAll() batch
+ * goes to ONE shard as a whole, so it stays a single transaction.
+ *
+ * NO CHANGE FEED GUARANTEE: that shard transaction commits on its own.
+ * The change feed lives in the main database, so its entry is written in
+ * a different transaction (isTransactional() = false); if that one fails,
+ * the students stay on the shard without a feed entry.
+ *
+ * SCATTER-GATHER: Questions about many students (list, counts, lookup of
+ * several IDs) are sent to all shards AT THE SAME TIME, then the answers
+ * are combined.
+ *
+ * Uses plain JDBC (JdbcTemplate) instead of JPA: one JPA setup per shard
+ * would be heavy, and the queries are simple.
+ *
+ * Grades are stored as codes (grade_code) like in the main database.
+ * The grade dictionary itself lives in the main database and is shared
+ * by all shards (see GradeDictionary).
+ */
+public class ShardedStudentStore implements StudentStore, AutoCloseable {
+
+    private static final String COLUMNS = "id, name, age, grade_code";
+
+    private final RowMapper<Student> studentRowMapper = (rs, rowNum) -> {
+        Student student = new Student(rs.getString("name"), rs.getInt("age"), decodeGrade(rs.getShort("grade_code")));
+        student.setId(rs.getLong("id"));
+        return student;
+    };
+
+    private final GradeDictionary gradeDictionary;
+    private final List<DataSource> dataSources;
+    private final List<Shard> shards;
+    private final ExecutorService executor;
+    private final AtomicInteger nextShard = new AtomicInteger();
+
+    public ShardedStudentStore(List<DataSource> dataSources, GradeDictionary gradeDictionary) {
+        if (dataSources.isEmpty()) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+        this.gradeDictionary = gradeDictionary;
+        this.dataSources = List.copyOf(dataSources);
+        int shardCount = dataSources.size();
+        List<Shard> created = new ArrayList<>();
+        for (int i = 0; i < shardCount; i++) {
+            Shard shard = new Shard(i, new NamedParameterJdbcTemplate(dataSources.get(i)),
+                    new TransactionTemplate(new DataSourceTransactionManager(dataSources.get(i))));
+            shard.jdbc().getJdbcTemplate().execute(
+                    "CREATE TABLE IF NOT EXISTS students ("
+                            + " id BIGINT GENERATED BY DEFAULT AS IDENTITY (START WITH " + (i + 1)
+                            + " INCREMENT BY " + shardCount + ") PRIMARY KEY,"
+                            + " name VARCHAR(255) NOT NULL,"
+                            + " age INTEGER NOT NULL,"
+                            + " grade_code SMALLINT NOT NULL)");
+            shard.jdbc().getJdbcTemplate().execute(
+                    "CREATE INDEX IF NOT EXISTS idx_students_grade_code ON students (grade_code)");
+            created.add(shard);
+        }
+        this.shards = List.copyOf(created);
+
+        // One thread per shard, so a scatter-gather query hits all shards in parallel
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(shardCount, runnable -> {
+            Thread thread = new Thread(runnable, "shard-query-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public int shardCount() {
+        return shards.size();
+    }
+
+    @Override
+    public Student save(Student student) {
+        Shard shard = shards.get(Math.floorMod(nextShard.getAndIncrement(), shards.size()));
+
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        shard.jdbc().getJdbcTemplate().update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    "INSERT INTO students (name, age, grade_code) VALUES (?, ?, ?)", new String[]{"id"});
+            statement.setString(1, student.getName());
+            statement.setInt(2, student.getAge());
+            statement.setShort(3, gradeDictionary.encode(student.getGrade()));
+            return statement;
+        }, keyHolder);
+
+        Student saved = new Student(student.getName(), student.getAge(), student.getGrade());
+        saved.setId(keyHolder.getKey().longValue());
+        return saved;
+    }
+
+    @Override
+    public List<Student> saveAll(List<Student> students) {
+        Shard shard = shards.get(Math.floorMod(nextShard.getAndIncrement(), shards.size()));
+
+        return shard.transactions().execute(status -> {
+            KeyHolder keyHolder = new GeneratedKeyHolder();
+            shard.jdbc().getJdbcTemplate().batchUpdate(
+                    connection -> connection.prepareStatement(
+                            "INSERT INTO students (name, age, grade_code) VALUES (?, ?, ?)", new String[]{"id"}),
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement statement, int i) throws SQLException {
+                            Student student = students.get(i);
+                            statement.setString(1, student.getName());
+                            statement.setInt(2, student.getAge());
+                            statement.setShort(3, gradeDictionary.encode(student.getGrade()));
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return students.size();
+                        }
+                    },
+                    keyHolder);
+
+            List<Map<String, Object>> keys = keyHolder.getKeyList();
+            List<Student> saved = new ArrayList<>(students.size());
+            for (int i = 0; i < students.size(); i++) {
+                Student student = students.get(i);
+                Student copy = new Student(student.getName(), student.getAge(), student.getGrade());
+                copy.setId(((Number) keys.get(i).values().iterator().next()).longValue());
+                saved.add(copy);
+            }
+            return saved;
+        });
+    }
+
+    // Each shard commits on its own, outside the main database's transaction
+    @Override
+    public boolean isTransactional() {
+        return false;
+    }
+
+    @Override
+    public Optional<Student> findById(Long id) {
+        if (id == null || id < 1) {
+            return Optional.empty();
+        }
+        List<Student> found = shardFor(id).jdbc().getJdbcTemplate().query(
+                "SELECT " + COLUMNS + " FROM students WHERE id = ?", studentRowMapper, id);
+        return found.stream().findFirst();
+    }
+
+    @Override
+    public List<Student> findAllById(Collection<Long> ids) {
+        // Group the IDs by shard, then ask only the shards that own some of them
+        Map<Integer, List<Long>> idsByShard = new HashMap<>();
+        for (Long id : ids) {
+            if (id != null && id >= 1) {
+                idsByShard.computeIfAbsent(shardFor(id).index(), i -> new ArrayList<>()).add(id);
+            }
+        }
+        List<List<Student>> perShard = scatter(shard -> {
+            List<Long> shardIds = idsByShard.get(shard.index());
+            if (shardIds == null) {
+                return List.of();
+            }
+            return shard.jdbc().query("SELECT " + COLUMNS + " FROM students WHERE id IN (:ids)",
+                    Map.of("ids", shardIds), studentRowMapper);
+        });
+        return perShard.stream().flatMap(List::stream).toList();
+    }
+
+    /**
+     * Page N of the global ID order, as KEYSET pagination: find the last ID
+     * before the page (idBefore), then read the page with findAfterId.
+     * Each shard returns at most "size" students, however deep the page.
+     */
+    @Override
+    public List<Student> findPage(int page, int size) {
+        long afterId = idBefore((long) page * size);
+        return afterId < 0 ? List.of() : findAfterId(afterId, size);
+    }
+
+    @Override
+    public List<Student> findAfterId(long afterId, int limit) {
+        List<List<Student>> perShard = scatter(shard -> shard.jdbc().getJdbcTemplate().query(
+                "SELECT " + COLUMNS + " FROM students WHERE id > ? ORDER BY id LIMIT ?",
+                studentRowMapper, afterId, limit));
+        return mergeById(perShard).stream().limit(limit).toList();
+    }
+
+    @Override
+    public List<Student> findByAgeRange(int minAge, int maxAge, String grade, int limit) {
+        short gradeCode = grade == null ? 0 : gradeDictionary.codeOf(grade);
+        if (grade != null && gradeCode == 0) {
+            return List.of();
+        }
+        List<List<Student>> perShard = grade == null
+                ? scatter(shard -> shard.jdbc().getJdbcTemplate().query(
+                        "SELECT " + COLUMNS + " FROM students WHERE age BETWEEN ? AND ? ORDER BY id LIMIT ?",
+                        studentRowMapper, minAge, maxAge, limit))
+                : scatter(shard -> shard.jdbc().getJdbcTemplate().query(
+                        "SELECT " + COLUMNS + " FROM students WHERE age BETWEEN ? AND ? AND grade_code = ? ORDER BY id LIMIT ?",
+                        studentRowMapper, minAge, maxAge, gradeCode, limit));
+        return mergeById(perShard).stream().limit(limit).toList();
+    }
+
+    @Override
+    public long count() {
+        return scatter(shard -> shard.jdbc().getJdbcTemplate().queryForObject("SELECT COUNT(*) FROM students", Long.class))
+                .stream()
+                .mapToLong(Long::longValue)
+                .sum();
+    }
+
+    @Override
+    public Map<String, Long> countByGrade() {
+        Map<String, Long> totals = new HashMap<>();
+        scatter(shard -> shard.jdbc().getJdbcTemplate().query(
+                "SELECT grade_code, COUNT(*) AS total FROM students GROUP BY grade_code",
+                (rs, rowNum) -> Map.entry(decodeGrade(rs.getShort("grade_code")), rs.getLong("total"))))
+                .forEach(rows -> rows.forEach(row -> totals.merge(row.getKey(), row.getValue(), Long::sum)));
+        return totals;
+    }
+
+    @Override
+    public Map<Integer, Long> countByAge() {
+        Map<Integer, Long> totals = new HashMap<>();
+        scatter(shard -> shard.jdbc().getJdbcTemplate().query(
+                "SELECT age, COUNT(*) AS total FROM students GROUP BY age",
+                (rs, rowNum) -> Map.entry(rs.getInt("age"), rs.getLong("total"))))
+                .forEach(rows -> rows.forEach(row -> totals.merge(row.getKey(), row.getValue(), Long::sum)));
+        return totals;
+    }
+
+    @Override
+    public long maxId() {
+        return scatter(shard -> shard.jdbc().getJdbcTemplate().queryForObject("SELECT MAX(id) FROM students", Long.class))
+                .stream()
+                .filter(Objects::nonNull)
+                .mapToLong(Long::longValue)
+                .max()
+                .orElse(0);
+    }
+
+    /**
+     * An ID range covers students on every shard: all shards run the UPDATE
+     * at the same time, each as its own (auto-commit) statement
+     */
+    @Override
+    public long updateGrade(long fromId, long toId, String fromGrade, String toGrade) {
+        short fromCode = gradeDictionary.codeOf(fromGrade);
+        if (fromCode == 0) {
+            return 0;
+        }
+        short toCode = gradeDictionary.encode(toGrade);
+        return scatter(shard -> shard.jdbc().getJdbcTemplate().update(
+                "UPDATE students SET grade_code = ? WHERE id BETWEEN ? AND ? AND grade_code = ?",
+                toCode, fromId, toId, fromCode))
+                .stream()
+                .mapToLong(Integer::longValue)
+                .sum();
+    }
+
+    @Override
+    public long shiftAges(long fromId, long toId, int delta) {
+        return scatter(shard -> shard.jdbc().getJdbcTemplate().update(
+                "UPDATE students SET age = age + ? WHERE id BETWEEN ? AND ?", delta, fromId, toId))
+                .stream()
+                .mapToLong(Integer::longValue)
+                .sum();
+    }
+
+    /**
+     * Stops the query threads and closes the shard connection pools
+     * (Spring calls close() on shutdown)
+     */
+    @Override
+    public void close() throws Exception {
+        executor.shutdown();
+        for (DataSource dataSource : dataSources) {
+            if (dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    // ===== HELPERS =====
+
+    private String decodeGrade(short code) {
+        return gradeDictionary.decode(code);
+    }
+
+    private Shard shardFor(long id) {
+        return shards.get((int) Math.floorMod(id - 1, (long) shards.size()));
+    }
+
+    /**
+     * SCATTER-GATHER: Runs the query on every shard in parallel, waits for all answers
+     */
+    private <T> List<T> scatter(Function<Shard, T> query) {
+        List<CompletableFuture<T>> futures = shards.stream()
+                .map(shard -> CompletableFuture.supplyAsync(() -> query.apply(shard), executor))
+                .toList();
+        try {
+            return futures.stream().map(CompletableFuture::join).toList();
+        } catch (CompletionException ex) {
+            // Re-throw the shard's own exception (e.g. a DataAccessException), not the wrapper
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * The ID with exactly "skip" students at or before it in global ID order
+     * (0 for skip = 0, -1 if there are not that many students), found
+     * without loading the students in between:
+     *
+     * 1. Every shard names its step-th ID after the current position, with
+     *    step = remaining / shards ("SELECT id ... LIMIT 1 OFFSET step - 1")
+     * 2. Every shard counts its IDs up to each of those candidates, in one
+     *    query. The furthest candidate with at most "remaining" IDs up to it
+     *    in total is where we move. (The smallest candidate always
+     *    qualifies: its shard has exactly "step" IDs up to it, every other
+     *    shard fewer.)
+     * 3. Repeat until nothing remains. Every round removes at least
+     *    1/shards of what remains, nearly all of it when the shards hold
+     *    about the same number of students.
+     *
+     * Only IDs and counts travel from the shards, never whole pages.
+     */
+    private long idBefore(long skip) {
+        long after = 0;
+        long remaining = skip;
+        while (remaining > 0) {
+            long from = after;
+            long step = Math.max(1, remaining / shards.size());
+            List<Long> candidates = scatter(shard -> shard.jdbc().getJdbcTemplate().queryForList(
+                    "SELECT id FROM students WHERE id > ? ORDER BY id LIMIT 1 OFFSET ?", Long.class, from, step - 1))
+                    .stream()
+                    .flatMap(List::stream)
+                    .sorted()
+                    .toList();
+            if (candidates.isEmpty()) {
+                // Every shard has fewer than step IDs left: fewer than remaining in total
+                return -1;
+            }
+
+            String counts = String.join(", ", Collections.nCopies(candidates.size(), "COUNT(CASE WHEN id <= ? THEN 1 END)"));
+            List<Object> arguments = new ArrayList<>(candidates);
+            arguments.add(from);
+            arguments.add(candidates.get(candidates.size() - 1));
+            long[] totals = new long[candidates.size()];
+            scatter(shard -> shard.jdbc().getJdbcTemplate().queryForList(
+                    "SELECT " + counts + " FROM students WHERE id > ? AND id <= ?", arguments.toArray()).get(0))
+                    .forEach(row -> {
+                        int i = 0;
+                        for (Object count : row.values()) {
+                            totals[i++] += ((Number) count).longValue();
+                        }
+                    });
+
+            int furthest = 0;
+            while (furthest + 1 < totals.length && totals[furthest + 1] <= remaining) {
+                furthest++;
+            }
+            after = candidates.get(furthest);
+            remaining -= totals[furthest];
+        }
+        return after;
+    }
+
+    private static List<Student> mergeById(List<List<Student>> perShard) {
+        List<Student> merged = new ArrayList<>();
+        perShard.forEach(merged::addAll);
+        merged.sort(Comparator.comparing(Student::getId));
+        return merged;
+    }
+
+    private record Shard(int index, NamedParameterJdbcTemplate jdbc, TransactionTemplate transactions) {
+    }
+}
@@ -0,0 +1,400 @@
+package com.learning.crud.snapshot;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/**
+ * SNAPSHOT FILE: A compact, checksummed binary copy of the students table
+ *
+ * Layout (fixed-size numbers are big-endian, as DataOutputStream writes them):
+ *
+ *   "STUDSNAP" version
+ *   HEADER    block: created at, analytics sketches
+ *   CHUNK     row count (> 0), block: up to CHUNK_ROWS students   ← repeated
+ *   ...
+ *   0         (no more chunks)
+ *   TRAILER   block: total rows, highest id, grade table
+ *
+ * A "block" is: length, CRC32C checksum, bytes. Every block is checked on
+ * its own, so a chunk can be checked and decoded without the others -
+ * that is what lets the loader work on several chunks in parallel.
+ *
+ * Inside a chunk every student is a few variable-length numbers
+ * ("varints": 7 bits per byte, numbers below 128 take one byte):
+ *
+ *   id - previous id | name length | name (UTF-8) | age | grade code
+ *
+ * so ("Student 1234", 15, "A") takes about 16 bytes.
+ *
+ * The grade table is in the TRAILER because it is read from the database
+ * after the rows: grades are only ever added, so by then it covers every
+ * code the rows use.
+ *
+ * Writing goes to "name.tmp", which is forced to disk and then renamed.
+ * A crash while writing leaves the previous snapshot untouched.
+ */
+public final class StudentSnapshotFile {
+
+    // Students per chunk (also the unit of work of the parallel loader)
+    public static final int CHUNK_ROWS = 10_000;
+
+    private static final byte[] MAGIC = "STUDSNAP".getBytes(StandardCharsets.US_ASCII);
+    private static final int VERSION = 1;
+
+    // No block of a valid file comes close; protects against a damaged length
+    private static final int MAX_BLOCK_BYTES = 64 * 1024 * 1024;
+
+    private StudentSnapshotFile() {
+    }
+
+    /**
+     * Called for every student of a chunk
+     */
+    @FunctionalInterface
+    public interface RowHandler {
+        void row(long id, String name, int age, short gradeCode);
+    }
+
+    /**
+     * Called for every chunk, in file order
+     */
+    @FunctionalInterface
+    public interface ChunkHandler {
+        void chunk(Chunk chunk) throws IOException;
+    }
+
+    /**
+     * Everything outside the chunks (returned by verify)
+     */
+    public record Contents(long createdAtMillis,
+                           byte[] distinctNames,
+                           byte[] ageQuantiles,
+                           long sketchesCoveredUpToId,
+                           long rows,
+                           long highestId,
+                           Map<Short, String> grades) {
+    }
+
+    // ===== WRITING =====
+
+    /**
+     * Starts a new snapshot; nothing replaces the file at path until finish()
+     *
+     * @param distinctNames         HyperLogLog bytes (may be empty)
+     * @param ageQuantiles          KLL sketch bytes (may be empty)
+     * @param sketchesCoveredUpToId highest student ID the sketches have seen
+     */
+    public static Writer create(Path path, byte[] distinctNames, byte[] ageQuantiles,
+                                long sketchesCoveredUpToId) throws IOException {
+        return new Writer(path, distinctNames, ageQuantiles, sketchesCoveredUpToId);
+    }
+
+    public static final class Writer implements Closeable {
+
+        private final Path path;
+        private final Path temporary;
+        private final FileOutputStream file;
+        private final DataOutputStream out;
+
+        private final Payload chunk = new Payload();
+        private int chunkRows;
+        private long chunkPreviousId;
+        private long highestId;
+        private long rows;
+        private boolean finished;
+
+        private Writer(Path path, byte[] distinctNames, byte[] ageQuantiles, long sketchesCoveredUpToId)
+                throws IOException {
+            this.path = path;
+            this.temporary = path.resolveSibling(path.getFileName() + ".tmp");
+            this.file = new FileOutputStream(temporary.toFile());
+            this.out = new DataOutputStream(new BufferedOutputStream(file, 1 << 20));
+
+            out.write(MAGIC);
+            out.writeInt(VERSION);
+            ByteArrayOutputStream header = new ByteArrayOutputStream();
+            DataOutputStream fields = new DataOutputStream(header);
+            fields.writeLong(System.currentTimeMillis());
+            fields.writeLong(sketchesCoveredUpToId);
+            fields.writeInt(distinctNames.length);
+            fields.write(distinctNames);
+            fields.writeInt(ageQuantiles.length);
+            fields.write(ageQuantiles);
+            writeBlock(out, header.toByteArray(), header.size());
+        }
+
+        /**
+         * Adds one student; IDs must go up
+         */
+        public void add(long id, String name, int age, short gradeCode) throws IOException {
+            if (id <= highestId) {
+                throw new IllegalArgumentException("IDs must go up: " + id + " after " + highestId);
+            }
+            byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+            chunk.writeVarLong(id - chunkPreviousId);
+            chunk.writeVarLong(nameBytes.length);
+            chunk.write(nameBytes);
+            chunk.writeVarLong(zigZag(age));
+            chunk.writeVarLong(gradeCode);
+            chunkPreviousId = id;
+            highestId = id;
+            rows++;
+            if (++chunkRows == CHUNK_ROWS) {
+                flushChunk();
+            }
+        }
+
+        /**
+         * Writes the trailer, forces the file to disk and puts it in place
+         *
+         * @param grades every grade code the rows use, with its text
+         */
+        public void finish(Map<Short, String> grades) throws IOException {
+            flushChunk();
+            out.writeInt(0);
+            ByteArrayOutputStream trailer = new ByteArrayOutputStream();
+            DataOutputStream fields = new DataOutputStream(trailer);
+            fields.writeLong(rows);
+            fields.writeLong(highestId);
+            fields.writeInt(grades.size());
+            for (Map.Entry<Short, String> grade : grades.entrySet()) {
+                fields.writeShort(grade.getKey());
+                fields.writeUTF(grade.getValue());
+            }
+            writeBlock(out, trailer.toByteArray(), trailer.size());
+            out.flush();
+            file.getChannel().force(true);
+            out.close();
+            Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            finished = true;
+        }
+
+        public long rows() {
+            return rows;
+        }
+
+        /**
+         * Without finish() the half-written file is deleted
+         */
+        @Override
+        public void close() throws IOException {
+            if (!finished) {
+                out.close();
+                Files.deleteIfExists(temporary);
+            }
+        }
+
+        private void flushChunk() throws IOException {
+            if (chunkRows == 0) {
+                return;
+            }
+            out.writeInt(chunkRows);
+            writeBlock(out, chunk.bytes, chunk.size);
+            chunk.size = 0;
+            chunkRows = 0;
+            // Each chunk starts again from 0, so it can be decoded on its own
+            chunkPreviousId = 0;
+        }
+    }
+
+    // ===== READING =====
+
+    /**
+     * CHECK: Reads the whole file and checks every checksum
+     *
+     * @throws IOException if the file is incomplete or damaged
+     */
+    public static Contents verify(Path path) throws IOException {
+        try (DataInputStream in = open(path)) {
+            Contents header = readHeader(in);
+            long rows = 0;
+            int chunkRows;
+            while ((chunkRows = in.readInt()) != 0) {
+                readBlock(in);
+                rows += chunkRows;
+            }
+            Contents contents = readTrailer(in, header);
+            if (contents.rows() != rows) {
+                throw new IOException("Snapshot trailer says " + contents.rows() + " rows, chunks hold " + rows);
+            }
+            return contents;
+        } catch (EOFException ex) {
+            throw new IOException("Snapshot is incomplete: " + path, ex);
+        }
+    }
+
+    /**
+     * Hands every chunk (checked, not yet decoded) to handler, in file order
+     */
+    public static void readChunks(Path path, ChunkHandler handler) throws IOException {
+        try (DataInputStream in = open(path)) {
+            readHeader(in);
+            int chunkRows;
+            while ((chunkRows = in.readInt()) != 0) {
+                handler.chunk(new Chunk(chunkRows, readBlock(in)));
+            }
+        }
+    }
+
+    /**
+     * One chunk of rows; forEach() decodes it (any thread)
+     */
+    public static final class Chunk {
+
+        private final int rows;
+        private final byte[] payload;
+
+        private Chunk(int rows, byte[] payload) {
+            this.rows = rows;
+            this.payload = payload;
+        }
+
+        public int rows() {
+            return rows;
+        }
+
+        public void forEach(RowHandler handler) {
+            int[] position = {0};
+            long id = 0;
+            for (int i = 0; i < rows; i++) {
+                id += readVarLong(payload, position);
+                int nameLength = (int) readVarLong(payload, position);
+                String name = new String(payload, position[0], nameLength, StandardCharsets.UTF_8);
+                position[0] += nameLength;
+                int age = unZigZag(readVarLong(payload, position));
+                short gradeCode = (short) readVarLong(payload, position);
+                handler.row(id, name, age, gradeCode);
+            }
+        }
+    }
+
+    // ===== HELPERS =====
+
+    private static DataInputStream open(Path path) throws IOException {
+        InputStream file = Files.newInputStream(path);
+        DataInputStream in = new DataInputStream(new BufferedInputStream(file, 1 << 20));
+        byte[] magic = new byte[MAGIC.length];
+        in.readFully(magic);
+        int version = in.readInt();
+        if (!Arrays.equals(magic, MAGIC) || version != VERSION) {
+            in.close();
+            throw new IOException("Not a student snapshot (version " + VERSION + "): " + path);
+        }
+        return in;
+    }
+
+    private static Contents readHeader(DataInputStream in) throws IOException {
+        DataInputStream fields = new DataInputStream(new ByteArrayInputStream(readBlock(in)));
+        long createdAt = fields.readLong();
+        long coveredUpToId = fields.readLong();
+        byte[] distinctNames = fields.readNBytes(fields.readInt());
+        byte[] ageQuantiles = fields.readNBytes(fields.readInt());
+        return new Contents(createdAt, distinctNames, ageQuantiles, coveredUpToId, 0, 0, Map.of());
+    }
+
+    private static Contents readTrailer(DataInputStream in, Contents header) throws IOException {
+        DataInputStream fields = new DataInputStream(new ByteArrayInputStream(readBlock(in)));
+        long rows = fields.readLong();
+        long highestId = fields.readLong();
+        int gradeCount = fields.readInt();
+        Map<Short, String> grades = new LinkedHashMap<>();
+        for (int i = 0; i < gradeCount; i++) {
+            grades.put(fields.readShort(), fields.readUTF());
+        }
+        return new Contents(header.createdAtMillis(), header.distinctNames(), header.ageQuantiles(),
+                header.sketchesCoveredUpToId(), rows, highestId, grades);
+    }
+
+    private static void writeBlock(DataOutputStream out, byte[] bytes, int length) throws IOException {
+        CRC32C crc = new CRC32C();
+        crc.update(bytes, 0, length);
+        out.writeInt(length);
+        out.writeInt((int) crc.getValue());
+        out.write(bytes, 0, length);
+    }
+
+    private static byte[] readBlock(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        int expected = in.readInt();
+        if (length < 0 || length > MAX_BLOCK_BYTES) {
+            throw new IOException("Snapshot block has an impossible length: " + length);
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        CRC32C crc = new CRC32C();
+        crc.update(bytes);
+        if ((int) crc.getValue() != expected) {
+            throw new IOException("Snapshot block checksum mismatch");
+        }
+        return bytes;
+    }
+
+    private static long readVarLong(byte[] bytes, int[] position) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = bytes[position[0]++];
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+
+    // Small negative numbers become small positive ones: 0, -1, 1, -2 → 0, 1, 2, 3
+    private static long zigZag(int value) {
+        return ((value << 1) ^ (value >> 31)) & 0xFFFFFFFFL;
+    }
+
+    private static int unZigZag(long value) {
+        int n = (int) value;
+        return (n >>> 1) ^ -(n & 1);
+    }
+
+    /**
+     * A growable byte array with a varint writer (one chunk being built)
+     */
+    private static final class Payload {
+
+        private byte[] bytes = new byte[64 * 1024];
+        private int size;
+
+        void writeVarLong(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        void write(byte[] data) {
+            ensure(data.length);
+            System.arraycopy(data, 0, bytes, size, data.length);
+            size += data.length;
+        }
+
+        private void ensure(int extra) {
+            if (size + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+            }
+        }
+    }
+}
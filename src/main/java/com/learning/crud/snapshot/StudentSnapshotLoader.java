@@ -0,0 +1,241 @@
+package com.learning.crud.snapshot;
+
+import com.learning.crud.datasource.ConsistencyContext;
+import com.learning.crud.dictionary.GradeDictionary;
+import com.learning.crud.entity.SketchSnapshot;
+import com.learning.crud.entity.Student;
+import com.learning.crud.readmodel.StudentReadModel;
+import com.learning.crud.repository.SketchSnapshotRepository;
+import com.learning.crud.repository.StudentStore;
+import com.learning.crud.service.StudentAnalytics;
+import com.learning.crud.service.StudentNameIndex;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * SNAPSHOT LOADER: Fills an empty database from the last snapshot at startup
+ *
+ * Runs while Spring creates the beans (@PostConstruct), so the web server,
+ * the scheduled jobs and the "ready" event all come AFTER it: no request
+ * can see a half-loaded database, and the node reports ready only when
+ * every student is back.
+ *
+ * FLOW:
+ * 1. Skip unless app.snapshot.enabled=true, the backend is jpa or jdbc and the
+ *    students table is EMPTY (a "prod" database file already has its data)
+ * 2. verify(): read the whole file once and check every checksum.
+ *    A damaged or incomplete snapshot is renamed to students.snap.damaged
+ *    and ignored (we start empty) - better than loading half of it.
+ * 3. Map the snapshot's grade codes to this database's codes
+ * 4. PARALLEL BULK LOAD: chunks are read one after another and handed to
+ *    app.snapshot.load-threads workers. Each worker decodes its chunk and
+ *    - inserts it with ONE JDBC batch, keeping the student IDs
+ *    - adds the names to StudentNameIndex and the students to StudentReadModel
+ *    At most 2 chunks per worker are waiting, so memory stays small.
+ * 5. Move the IDENTITY counter past the highest restored ID
+ * 6. Put the analytics sketches in analytics_sketches, where
+ *    StudentAnalytics.load() finds them (it replays nothing then)
+ * 7. Tell the name index and the read model to skip their startup load
+ *
+ * If an insert fails the students table is emptied again and startup
+ * fails, so the next start can try again.
+ *
+ * The change feed is not restored: it starts again with the next new student.
+ */
+@Component
+public class StudentSnapshotLoader {
+
+    private static final Logger log = LoggerFactory.getLogger(StudentSnapshotLoader.class);
+
+    private final StudentStore studentStore;
+    private final JdbcTemplate jdbcTemplate;
+    private final GradeDictionary gradeDictionary;
+    private final StudentNameIndex nameIndex;
+    private final StudentReadModel readModel;
+    private final SketchSnapshotRepository sketchRepository;
+    private final boolean enabled;
+    private final String backend;
+    private final Path file;
+    private final int loadThreads;
+
+    public StudentSnapshotLoader(StudentStore studentStore,
+                                 JdbcTemplate jdbcTemplate,
+                                 GradeDictionary gradeDictionary,
+                                 StudentNameIndex nameIndex,
+                                 StudentReadModel readModel,
+                                 SketchSnapshotRepository sketchRepository,
+                                 @Value("${app.snapshot.enabled:false}") boolean enabled,
+                                 @Value("${app.storage.backend:jpa}") String backend,
+                                 @Value("${app.snapshot.dir:./data/snapshot}") Path dir,
+                                 @Value("${app.snapshot.load-threads:0}") int loadThreads) {
+        this.studentStore = studentStore;
+        this.jdbcTemplate = jdbcTemplate;
+        this.gradeDictionary = gradeDictionary;
+        this.nameIndex = nameIndex;
+        this.readModel = readModel;
+        this.sketchRepository = sketchRepository;
+        this.enabled = enabled;
+        this.backend = backend;
+        this.file = dir.resolve(StudentSnapshotter.FILE_NAME);
+        // 0 = one per CPU core
+        this.loadThreads = loadThreads > 0 ? loadThreads : Runtime.getRuntime().availableProcessors();
+    }
+
+    @PostConstruct
+    public void restore() throws IOException, InterruptedException {
+        if (!enabled) {
+            return;
+        }
+        if (!"jpa".equals(backend) && !"jdbc".equals(backend)) {
+            log.info("Snapshots are only used with app.storage.backend=jpa or jdbc (not {})", backend);
+            return;
+        }
+        if (!Files.exists(file)) {
+            log.info("No snapshot at {}, starting with the database as it is", file);
+            return;
+        }
+        long existing = ConsistencyContext.onPrimary(studentStore::count);
+        if (existing > 0) {
+            log.info("Database already has {} students, snapshot {} not loaded", existing, file);
+            return;
+        }
+
+        long start = System.nanoTime();
+        StudentSnapshotFile.Contents contents;
+        try {
+            contents = StudentSnapshotFile.verify(file);
+        } catch (IOException ex) {
+            // Moved aside, so the next snapshot does not overwrite what may still be rescued
+            Path damaged = file.resolveSibling(file.getFileName() + ".damaged");
+            Files.move(file, damaged, StandardCopyOption.REPLACE_EXISTING);
+            log.warn("Snapshot {} is damaged, starting without it (kept as {}): {}", file, damaged, ex.getMessage());
+            return;
+        }
+        long verifiedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // Snapshot code → grade text and → code in THIS database
+        short highestCode = contents.grades().keySet().stream().max(Short::compare).orElse((short) 0);
+        String[] grades = new String[highestCode + 1];
+        short[] codes = new short[highestCode + 1];
+        for (Map.Entry<Short, String> grade : contents.grades().entrySet()) {
+            grades[grade.getKey()] = gradeDictionary.intern(grade.getValue());
+            codes[grade.getKey()] = gradeDictionary.encode(grade.getValue());
+        }
+
+        try {
+            load(grades, codes);
+        } catch (RuntimeException | IOException | InterruptedException ex) {
+            jdbcTemplate.execute("TRUNCATE TABLE students RESTART IDENTITY");
+            throw new IllegalStateException("Snapshot restore failed, students table emptied again", ex);
+        }
+        jdbcTemplate.execute("ALTER TABLE students ALTER COLUMN id RESTART WITH " + (contents.highestId() + 1));
+
+        if (contents.distinctNames().length > 0 && contents.ageQuantiles().length > 0) {
+            Instant now = Instant.now();
+            sketchRepository.saveAll(List.of(
+                    new SketchSnapshot(StudentAnalytics.DISTINCT_NAMES, contents.distinctNames(),
+                            contents.sketchesCoveredUpToId(), now),
+                    new SketchSnapshot(StudentAnalytics.AGE_QUANTILES, contents.ageQuantiles(),
+                            contents.sketchesCoveredUpToId(), now)));
+        }
+        nameIndex.markRestored();
+        readModel.markRestored();
+
+        long millis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        log.info("Snapshot restored: {} students in {} ms (checked in {} ms, {} students/s, {} threads), taken {}",
+                contents.rows(), millis, verifiedMillis, contents.rows() * 1000 / millis, loadThreads,
+                Instant.ofEpochMilli(contents.createdAtMillis()));
+    }
+
+    // ===== PARALLEL BULK LOAD =====
+
+    private void load(String[] grades, short[] codes) throws IOException, InterruptedException {
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(loadThreads, runnable -> {
+            Thread thread = new Thread(runnable, "snapshot-load-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        Semaphore waiting = new Semaphore(loadThreads * 2);
+        List<Future<?>> loaded = new ArrayList<>();
+        try {
+            StudentSnapshotFile.readChunks(file, chunk -> {
+                try {
+                    waiting.acquire();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while loading the snapshot", ex);
+                }
+                loaded.add(workers.submit(() -> {
+                    try {
+                        loadChunk(chunk, grades, codes);
+                    } finally {
+                        waiting.release();
+                    }
+                }));
+            });
+            for (Future<?> chunk : loaded) {
+                chunk.get();
+            }
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException(ex.getCause());
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    private void loadChunk(StudentSnapshotFile.Chunk chunk, String[] grades, short[] codes) {
+        List<Student> students = new ArrayList<>(chunk.rows());
+        short[] rowCodes = new short[chunk.rows()];
+        chunk.forEach((id, name, age, gradeCode) -> {
+            Student student = new Student(name, age, grades[gradeCode]);
+            student.setId(id);
+            rowCodes[students.size()] = codes[gradeCode];
+            students.add(student);
+        });
+
+        jdbcTemplate.batchUpdate("INSERT INTO students (id, name, age, grade_code) VALUES (?, ?, ?, ?)",
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement statement, int i) throws SQLException {
+                        Student student = students.get(i);
+                        statement.setLong(1, student.getId());
+                        statement.setString(2, student.getName());
+                        statement.setInt(3, student.getAge());
+                        statement.setShort(4, rowCodes[i]);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return students.size();
+                    }
+                });
+
+        for (Student student : students) {
+            nameIndex.add(student.getId(), student.getName());
+            readModel.add(student);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.learning.crud.snapshot;
+
+import com.learning.crud.datasource.ConsistencyContext;
+import com.learning.crud.dto.SketchExport;
+import com.learning.crud.service.StudentAnalytics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SNAPSHOTTER: Writes a binary snapshot of all students in the background
+ *
+ * Optional (app.snapshot.enabled=true, jpa or jdbc backend only). Every
+ * app.snapshot.interval-ms, and once more on shutdown, the students table
+ * is written to app.snapshot.dir/students.snap (format: StudentSnapshotFile).
+ * StudentSnapshotLoader reads it back at the next start - useful above all
+ * with the in-memory database of the default profile, which is empty after
+ * every restart.
+ *
+ * FLOW:
+ * 1. Remember which student IDs the analytics sketches have seen, then copy them
+ * 2. Read the students page by page (keyset pagination on id, plain JDBC,
+ *    grade CODES as they are stored) and append them to the file
+ * 3. Read the grade table (AFTER the rows, so it knows every code they use)
+ * 4. Force the file to disk and rename it over the previous snapshot
+ *
+ * The snapshot runs on its own thread, NOT on the shared @Scheduled thread,
+ * so replica sync and the other timers keep running while millions of
+ * students are written. Requests are not blocked either: the snapshot is
+ * "fuzzy" - students created while it runs may or may not be in it (they
+ * will be in the next one), but every student that is in it is complete.
+ */
+@Component
+public class StudentSnapshotter {
+
+    private static final Logger log = LoggerFactory.getLogger(StudentSnapshotter.class);
+
+    static final String FILE_NAME = "students.snap";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final StudentAnalytics analytics;
+    private final boolean enabled;
+    private final Path dir;
+    private final long intervalMillis;
+
+    private ScheduledExecutorService timer;
+
+    public StudentSnapshotter(JdbcTemplate jdbcTemplate,
+                              StudentAnalytics analytics,
+                              @Value("${app.snapshot.enabled:false}") boolean enabled,
+                              @Value("${app.storage.backend:jpa}") String backend,
+                              @Value("${app.snapshot.dir:./data/snapshot}") Path dir,
+                              @Value("${app.snapshot.interval-ms:600000}") long intervalMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.analytics = analytics;
+        // Both keep students in the main students table; the others keep their
+        // data themselves (shards, mapped files) or not at all (memory)
+        this.enabled = enabled && ("jpa".equals(backend) || "jdbc".equals(backend));
+        this.dir = dir;
+        this.intervalMillis = intervalMillis;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "student-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        timer.scheduleWithFixedDelay(() -> {
+            try {
+                write();
+            } catch (RuntimeException ex) {
+                log.warn("Snapshot failed, keeping the previous one: {}", ex.getMessage());
+            }
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Last snapshot on shutdown (after the timer has stopped)
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (!enabled) {
+            return;
+        }
+        timer.shutdown();
+        timer.awaitTermination(1, TimeUnit.MINUTES);
+        try {
+            write();
+        } catch (RuntimeException ex) {
+            log.warn("Snapshot on shutdown failed, keeping the previous one: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Writes one snapshot; returns the number of students in it
+     */
+    public synchronized long write() {
+        long start = System.nanoTime();
+        Path file = dir.resolve(FILE_NAME);
+        long coveredUpToId = analytics.highestIdSeen();
+        SketchExport sketches = analytics.export();
+
+        try {
+            Files.createDirectories(dir);
+            try (StudentSnapshotFile.Writer writer = StudentSnapshotFile.create(
+                    file, sketches.getDistinctNames(), sketches.getAgeQuantiles(), coveredUpToId)) {
+                long lastId = 0L;
+                while (true) {
+                    long after = lastId;
+                    long[] pageLastId = {-1L};
+                    // Must see every committed row, so never read from a (possibly lagging) replica
+                    ConsistencyContext.onPrimary(() -> {
+                        jdbcTemplate.query(
+                                "SELECT id, name, age, grade_code FROM students WHERE id > ? ORDER BY id LIMIT ?",
+                                row -> {
+                                    try {
+                                        writer.add(row.getLong(1), row.getString(2), row.getInt(3), row.getShort(4));
+                                    } catch (IOException ex) {
+                                        throw new UncheckedIOException(ex);
+                                    }
+                                    pageLastId[0] = row.getLong(1);
+                                },
+                                after, StudentSnapshotFile.CHUNK_ROWS);
+                        return null;
+                    });
+                    if (pageLastId[0] < 0) {
+                        break;
+                    }
+                    lastId = pageLastId[0];
+                }
+
+                Map<Short, String> grades = new LinkedHashMap<>();
+                ConsistencyContext.onPrimary(() -> {
+                    jdbcTemplate.query("SELECT code, grade FROM grades ORDER BY code",
+                            row -> {
+                                grades.put(row.getShort(1), row.getString(2));
+                            });
+                    return null;
+                });
+                writer.finish(grades);
+
+                log.info("Snapshot written: {} students, {} KB in {} ms", writer.rows(), Files.size(file) / 1024,
+                        (System.nanoTime() - start) / 1_000_000);
+                return writer.rows();
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not write snapshot " + file, ex);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.learning.crud.soap;
 
+import com.learning.crud.controller.StudentController;
 import com.learning.crud.dto.StudentRequest;
 import com.learning.crud.dto.StudentResponse;
 import com.learning.crud.service.StudentService;
@@ -8,6 +9,9 @@ import org.springframework.ws.server.endpoint.annotation.Endpoint;
 import org.springframework.ws.server.endpoint.annotation.PayloadRoot;
 import org.springframework.ws.server.endpoint.annotation.RequestPayload;
 import org.springframework.ws.server.endpoint.annotation.ResponsePayload;
+import org.springframework.ws.transport.context.TransportContext;
+import org.springframework.ws.transport.context.TransportContextHolder;
+import org.springframework.ws.transport.http.HttpServletConnection;
 
 /**
  * SOAP ENDPOINT: Handles SOAP requests
@@ -58,6 +62,9 @@ public class StudentSoapEndpoint {
      * 6. Builds CreateStudentResponse from service response
      * 7. Spring converts CreateStudentResponse → XML
      * 8. Returns XML to client
+     *
+     * With an "Idempotency-Key" HTTP header on the POST, a resent request
+     * returns the first answer instead of creating the student again.
      */
     @PayloadRoot(namespace = NAMESPACE_URI, localPart = "createStudentRequest")
     @ResponsePayload
@@ -69,7 +76,7 @@ public class StudentSoapEndpoint {
         studentRequest.setGrade(request.getGrade());
 
         // Call service layer
-        StudentResponse studentResponse = studentService.createStudent(studentRequest);
+        StudentResponse studentResponse = studentService.createStudent(studentRequest, idempotencyKey());
 
         // Convert DTO → SOAP response
         CreateStudentResponse response = new CreateStudentResponse();
@@ -115,4 +122,15 @@ public class StudentSoapEndpoint {
 
         return response;
     }
+
+    /**
+     * The Idempotency-Key header of the HTTP request carrying this SOAP message (null if none)
+     */
+    private static String idempotencyKey() {
+        TransportContext context = TransportContextHolder.getTransportContext();
+        if (context != null && context.getConnection() instanceof HttpServletConnection connection) {
+            return connection.getHttpServletRequest().getHeader(StudentController.IDEMPOTENCY_KEY);
+        }
+        return null;
+    }
 }
@@ -0,0 +1,32 @@
+package com.learning.crud.tracing;
+
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One finished trace (never changed after it was created)
+ *
+ * @param selfNanosByLayer time spent IN each layer, without the layers below it
+ * @param spans            spans in the order they ENDED (sort by startNanos for a timeline)
+ * @param droppedSpans     spans not kept because the trace hit its span limit
+ */
+public record CompletedTrace(String name,
+                             Instant startedAt,
+                             long durationNanos,
+                             Map<String, Long> selfNanosByLayer,
+                             List<Span> spans,
+                             int droppedSpans) {
+
+    public CompletedTrace {
+        selfNanosByLayer = Map.copyOf(selfNanosByLayer);
+        spans = spans.stream().sorted(Comparator.comparingLong(Span::startNanos)).toList();
+    }
+
+    /**
+     * One timed piece of work; startNanos is counted from the start of the trace
+     */
+    public record Span(String layer, String name, int depth, long startNanos, long durationNanos) {
+    }
+}
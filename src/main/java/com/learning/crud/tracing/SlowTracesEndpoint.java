@@ -0,0 +1,60 @@
+package com.learning.crud.tracing;
+
+import com.learning.crud.dto.TraceResponse;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ADMIN ENDPOINT: The slowest recent requests, with a per-layer breakdown
+ *
+ *   GET /actuator/slowtraces          → the 10 slowest traces in the ring buffer
+ *   GET /actuator/slowtraces?limit=50 → the 50 slowest
+ *
+ * Must be listed in management.endpoints.web.exposure.include.
+ */
+@Component
+@Endpoint(id = "slowtraces")
+public class SlowTracesEndpoint {
+
+    private static final int DEFAULT_LIMIT = 10;
+
+    private final TraceRecorder recorder;
+
+    public SlowTracesEndpoint(TraceRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    @ReadOperation
+    public Map<String, Object> slowest(@Nullable Integer limit) {
+        List<TraceResponse> traces = recorder.slowest(limit == null ? DEFAULT_LIMIT : limit).stream()
+                .map(SlowTracesEndpoint::convertToResponse)
+                .toList();
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("recordedTraces", recorder.recordedCount());
+        response.put("traces", traces);
+        return response;
+    }
+
+    private static TraceResponse convertToResponse(CompletedTrace trace) {
+        Map<String, Double> layerMillis = new LinkedHashMap<>();
+        for (String layer : List.of(Tracing.HTTP, Tracing.CONTROLLER, Tracing.SERVICE, Tracing.REPOSITORY, Tracing.JDBC)) {
+            layerMillis.put(layer, millis(trace.selfNanosByLayer().getOrDefault(layer, 0L)));
+        }
+        List<TraceResponse.Span> spans = trace.spans().stream()
+                .map(span -> new TraceResponse.Span(span.layer(), span.name(), span.depth(),
+                        millis(span.startNanos()), millis(span.durationNanos())))
+                .toList();
+        return new TraceResponse(trace.name(), trace.startedAt(), millis(trace.durationNanos()),
+                layerMillis, spans, trace.droppedSpans());
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
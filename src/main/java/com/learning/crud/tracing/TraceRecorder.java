@@ -0,0 +1,72 @@
+package com.learning.crud.tracing;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * TRACE RECORDER: Keeps the most recent traces in a ring buffer
+ *
+ * A ring buffer is a fixed-size array used in a circle: trace number n
+ * goes to slot n % size, overwriting the trace that was there before.
+ * So memory never grows, and we always have the last "size" traces.
+ *
+ * LOCK-FREE: Every request thread claims its own slot number with one
+ * atomic increment and writes its (finished, unchangeable) trace there.
+ * No thread ever waits for another one.
+ */
+@Component
+public class TraceRecorder {
+
+    private final AtomicReferenceArray<CompletedTrace> buffer;
+    private final int mask;
+    private final AtomicLong nextSlot = new AtomicLong();
+    private final int maxSpansPerTrace;
+
+    public TraceRecorder(@Value("${app.tracing.buffer-size:2048}") int bufferSize,
+                         @Value("${app.tracing.max-spans-per-trace:200}") int maxSpansPerTrace) {
+        // Round up to a power of two, so "n % size" becomes the cheaper "n & (size - 1)"
+        int size = Integer.highestOneBit(Math.max(2, bufferSize) - 1) << 1;
+        this.buffer = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+        this.maxSpansPerTrace = Math.max(1, maxSpansPerTrace);
+    }
+
+    public int maxSpansPerTrace() {
+        return maxSpansPerTrace;
+    }
+
+    public void record(CompletedTrace trace) {
+        int slot = (int) (nextSlot.getAndIncrement() & mask);
+        buffer.set(slot, trace);
+    }
+
+    /**
+     * The slowest traces still in the buffer, slowest first
+     */
+    public List<CompletedTrace> slowest(int limit) {
+        List<CompletedTrace> traces = new ArrayList<>(buffer.length());
+        for (int i = 0; i < buffer.length(); i++) {
+            CompletedTrace trace = buffer.get(i);
+            if (trace != null) {
+                traces.add(trace);
+            }
+        }
+        return traces.stream()
+                .sorted(Comparator.comparingLong(CompletedTrace::durationNanos).reversed())
+                .limit(Math.max(1, limit))
+                .toList();
+    }
+
+    /**
+     * How many traces were recorded since startup (also those already overwritten)
+     */
+    public long recordedCount() {
+        return nextSlot.get();
+    }
+}
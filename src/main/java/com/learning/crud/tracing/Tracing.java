@@ -0,0 +1,184 @@
+package com.learning.crud.tracing;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * TRACING: Records where the time of ONE request goes
+ *
+ * A "trace" is one request. It is made of "spans": timed pieces of work,
+ * nested inside each other, each belonging to a LAYER:
+ *
+ *   http        GET /api/students/7                        2.10 ms
+ *   controller    StudentController.getStudentById          1.30 ms
+ *   service         StudentService.getStudentById           1.10 ms
+ *   repository        JpaStudentStore.findById              0.90 ms
+ *   repository          CrudRepository.findById             0.85 ms
+ *   jdbc                  select ... where s1_0.id=?        0.20 ms
+ *
+ * For every layer we also add up its SELF time (its own time minus the
+ * time of the spans inside it). In the example:
+ *   http self time       = 0.80 ms → JSON/XML binding and Spring itself
+ *   repository self time = 0.70 ms → Hibernate
+ *   jdbc                 = 0.20 ms → the database round trip
+ *
+ * The current trace lives in a ThreadLocal (one per request thread), like
+ * ConsistencyContext. Work done on other threads (group commit writer,
+ * shard queries) is not part of the trace.
+ *
+ * All methods do nothing when no trace is active (startup, timers...).
+ */
+public final class Tracing {
+
+    public static final String HTTP = "http";
+    public static final String CONTROLLER = "controller";
+    public static final String SERVICE = "service";
+    public static final String REPOSITORY = "repository";
+    public static final String JDBC = "jdbc";
+
+    private static final ThreadLocal<ActiveTrace> CURRENT = new ThreadLocal<>();
+
+    private Tracing() {
+    }
+
+    /**
+     * Starts a trace for the current thread (the root span is in the "http" layer)
+     */
+    public static void start(String name, int maxSpans) {
+        CURRENT.set(new ActiveTrace(name, maxSpans));
+    }
+
+    /**
+     * Ends the trace of the current thread, or returns null if there is none
+     */
+    public static CompletedTrace finish() {
+        ActiveTrace trace = CURRENT.get();
+        if (trace == null) {
+            return null;
+        }
+        CURRENT.remove();
+        return trace.finish();
+    }
+
+    /**
+     * Opens a span; returns false (and does nothing) when no trace is active
+     */
+    public static boolean openSpan(String layer, String name) {
+        ActiveTrace trace = CURRENT.get();
+        if (trace == null) {
+            return false;
+        }
+        trace.open(layer, name);
+        return true;
+    }
+
+    /**
+     * Closes the span opened last
+     */
+    public static void closeSpan() {
+        ActiveTrace trace = CURRENT.get();
+        if (trace != null) {
+            trace.close();
+        }
+    }
+
+    /**
+     * Adds a span that has already finished (used for JDBC statements)
+     */
+    public static void recordSpan(String layer, String name, long durationNanos) {
+        ActiveTrace trace = CURRENT.get();
+        if (trace != null) {
+            trace.recordFinished(layer, name, durationNanos);
+        }
+    }
+
+    /**
+     * The trace of one request while it is running. Only its own thread
+     * touches it, so it needs no locks.
+     */
+    private static final class ActiveTrace {
+
+        private final Instant startedAt = Instant.now();
+        private final long startNanos = System.nanoTime();
+        private final int maxSpans;
+
+        private final Deque<OpenSpan> open = new ArrayDeque<>();
+        private final List<CompletedTrace.Span> spans = new ArrayList<>();
+        private final Map<String, Long> selfNanosByLayer = new LinkedHashMap<>();
+        private int droppedSpans;
+
+        ActiveTrace(String name, int maxSpans) {
+            this.maxSpans = maxSpans;
+            selfNanosByLayer.put(HTTP, 0L);
+            selfNanosByLayer.put(CONTROLLER, 0L);
+            selfNanosByLayer.put(SERVICE, 0L);
+            selfNanosByLayer.put(REPOSITORY, 0L);
+            selfNanosByLayer.put(JDBC, 0L);
+            open(HTTP, name);
+        }
+
+        void open(String layer, String name) {
+            open.push(new OpenSpan(layer, name, System.nanoTime(), open.size()));
+        }
+
+        void close() {
+            // Never close the root span here; finish() does that
+            if (open.size() > 1) {
+                end(open.pop(), System.nanoTime());
+            }
+        }
+
+        void recordFinished(String layer, String name, long durationNanos) {
+            long now = System.nanoTime();
+            OpenSpan span = new OpenSpan(layer, name, now - durationNanos, open.size());
+            end(span, now);
+        }
+
+        CompletedTrace finish() {
+            long now = System.nanoTime();
+            OpenSpan root = null;
+            while (!open.isEmpty()) {
+                root = open.pop();
+                end(root, now);
+            }
+            return new CompletedTrace(root.name, startedAt, now - startNanos, selfNanosByLayer, spans, droppedSpans);
+        }
+
+        private void end(OpenSpan span, long endNanos) {
+            long duration = endNanos - span.startNanos;
+            OpenSpan parent = open.peek();
+            if (parent != null) {
+                parent.childNanos += duration;
+            }
+            selfNanosByLayer.merge(span.layer, duration - span.childNanos, Long::sum);
+
+            if (spans.size() < maxSpans) {
+                spans.add(new CompletedTrace.Span(span.layer, span.name, span.depth,
+                        span.startNanos - startNanos, duration));
+            } else {
+                droppedSpans++;
+            }
+        }
+    }
+
+    private static final class OpenSpan {
+
+        private final String layer;
+        private final String name;
+        private final long startNanos;
+        private final int depth;
+        private long childNanos;
+
+        OpenSpan(String layer, String name, long startNanos, int depth) {
+            this.layer = layer;
+            this.name = name;
+            this.startNanos = startNanos;
+            this.depth = depth;
+        }
+    }
+}
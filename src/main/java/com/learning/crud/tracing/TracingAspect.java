@@ -0,0 +1,67 @@
+package com.learning.crud.tracing;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * ASPECT: Opens a span around every call into the traced classes
+ *
+ * An "aspect" adds behaviour around methods without changing them:
+ * Spring wraps the beans in a proxy, and @Around code runs before and
+ * after each matching method ("pointcut").
+ *
+ * Layers:
+ * - controller → StudentController, StudentSoapEndpoint, StudentGraphQLController
+ * - service    → StudentService
+ * - repository → StudentStore implementations and StudentRepository
+ *
+ * Turned off with app.tracing.enabled=false.
+ */
+@Aspect
+@Component
+@ConditionalOnProperty(name = "app.tracing.enabled", havingValue = "true", matchIfMissing = true)
+public class TracingAspect {
+
+    // "ClassName.methodName" per method, built once instead of on every call
+    private final Map<Method, String> spanNames = new ConcurrentHashMap<>();
+
+    @Around("within(com.learning.crud.controller.StudentController)"
+            + " || within(com.learning.crud.soap.StudentSoapEndpoint)"
+            + " || within(com.learning.crud.graphql.StudentGraphQLController)")
+    public Object traceController(ProceedingJoinPoint joinPoint) throws Throwable {
+        return trace(Tracing.CONTROLLER, joinPoint);
+    }
+
+    @Around("within(com.learning.crud.service.StudentService)")
+    public Object traceService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return trace(Tracing.SERVICE, joinPoint);
+    }
+
+    @Around("within(com.learning.crud.repository.StudentStore+)"
+            + " || target(com.learning.crud.repository.StudentRepository)")
+    public Object traceRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return trace(Tracing.REPOSITORY, joinPoint);
+    }
+
+    private Object trace(String layer, ProceedingJoinPoint joinPoint) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        String name = spanNames.computeIfAbsent(method,
+                m -> m.getDeclaringClass().getSimpleName() + "." + m.getName());
+        if (!Tracing.openSpan(layer, name)) {
+            return joinPoint.proceed();
+        }
+        try {
+            return joinPoint.proceed();
+        } finally {
+            Tracing.closeSpan();
+        }
+    }
+}
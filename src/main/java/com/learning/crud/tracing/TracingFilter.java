@@ -0,0 +1,54 @@
+package com.learning.crud.tracing;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * FILTER: Starts a trace for every HTTP request (REST, SOAP and GraphQL)
+ *
+ * Runs first (HIGHEST_PRECEDENCE), so the root span covers everything:
+ * reading and binding the JSON/XML body, the controller, writing the response.
+ *
+ * /actuator requests are not traced (looking at traces should not fill the buffer).
+ *
+ * Turned off with app.tracing.enabled=false.
+ */
+@Component
+@ConditionalOnProperty(name = "app.tracing.enabled", havingValue = "true", matchIfMissing = true)
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class TracingFilter extends OncePerRequestFilter {
+
+    private final TraceRecorder recorder;
+
+    public TracingFilter(TraceRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith("/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        Tracing.start(request.getMethod() + " " + request.getRequestURI(), recorder.maxSpansPerTrace());
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            CompletedTrace trace = Tracing.finish();
+            if (trace != null) {
+                recorder.record(trace);
+            }
+        }
+    }
+}
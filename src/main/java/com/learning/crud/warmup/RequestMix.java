@@ -0,0 +1,154 @@
+package com.learning.crud.warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * REQUEST MIX: Which operations to replay, how often, and the hottest student IDs
+ *
+ * Comes from one of two places:
+ * - synthetic → app.warmup.synthetic-mix, e.g. "rest-get:40,soap-get:15,graphql-get:15"
+ * - recorded  → the file RequestMixRecorder writes while the node serves real traffic:
+ *
+ *     # operation count
+ *     op rest-get 81234
+ *     op soap-get 2012
+ *     # most read student IDs, most read first
+ *     id 17
+ *     id 4
+ *
+ * pick() chooses an operation at random, in proportion to its weight.
+ */
+public class RequestMix {
+
+    private final Map<WarmupOperation, Long> weights;
+    private final List<Long> hotIds;
+    private final WarmupOperation[] operations;
+    private final long[] cumulative;
+
+    public RequestMix(Map<WarmupOperation, Long> weights, List<Long> hotIds) {
+        this.weights = Collections.unmodifiableMap(new EnumMap<>(weights));
+        this.hotIds = List.copyOf(hotIds);
+
+        // Running totals: operation i is picked when the random number falls in [cumulative[i-1], cumulative[i])
+        this.operations = new WarmupOperation[this.weights.size()];
+        this.cumulative = new long[this.weights.size()];
+        long total = 0;
+        int i = 0;
+        for (Map.Entry<WarmupOperation, Long> entry : this.weights.entrySet()) {
+            total += entry.getValue();
+            operations[i] = entry.getKey();
+            cumulative[i] = total;
+            i++;
+        }
+    }
+
+    /**
+     * SYNTHETIC: "key:weight,key:weight" (unknown keys are an error)
+     */
+    public static RequestMix parse(String spec) {
+        Map<WarmupOperation, Long> weights = new EnumMap<>(WarmupOperation.class);
+        for (String part : spec.split(",")) {
+            if (part.isBlank()) {
+                continue;
+            }
+            String[] keyAndWeight = part.trim().split(":");
+            WarmupOperation operation = WarmupOperation.byKey(keyAndWeight[0].trim());
+            if (operation == null || keyAndWeight.length != 2) {
+                throw new IllegalArgumentException("Unknown warm-up operation in '" + part.trim()
+                        + "', expected key:weight with key one of rest-get, rest-list, rest-search, rest-filter,"
+                        + " rest-stats, soap-get, graphql-get, graphql-stats");
+            }
+            long weight = Long.parseLong(keyAndWeight[1].trim());
+            if (weight > 0) {
+                weights.put(operation, weight);
+            }
+        }
+        return new RequestMix(weights, List.of());
+    }
+
+    /**
+     * RECORDED: reads a file written by write()
+     */
+    public static RequestMix read(Path file) throws IOException {
+        Map<WarmupOperation, Long> weights = new EnumMap<>(WarmupOperation.class);
+        List<Long> hotIds = new ArrayList<>();
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            String[] fields = line.trim().split("\\s+");
+            if (fields.length == 3 && fields[0].equals("op")) {
+                WarmupOperation operation = WarmupOperation.byKey(fields[1]);
+                long count = Long.parseLong(fields[2]);
+                if (operation != null && count > 0) {
+                    weights.put(operation, count);
+                }
+            } else if (fields.length == 2 && fields[0].equals("id")) {
+                hotIds.add(Long.parseLong(fields[1]));
+            }
+        }
+        return new RequestMix(weights, hotIds);
+    }
+
+    /**
+     * Writes the mix to a temporary file first, then renames it, so a reader never sees half a file
+     */
+    public void write(Path file) throws IOException {
+        StringBuilder text = new StringBuilder("# operation count\n");
+        weights.forEach((operation, count) -> text.append("op ").append(operation.key()).append(' ').append(count).append('\n'));
+        text.append("# most read student IDs, most read first\n");
+        hotIds.forEach(id -> text.append("id ").append(id).append('\n'));
+
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.writeString(temporary, text, StandardCharsets.UTF_8);
+        Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    public boolean isEmpty() {
+        return operations.length == 0;
+    }
+
+    public Map<WarmupOperation, Long> weights() {
+        return weights;
+    }
+
+    public List<Long> hotIds() {
+        return hotIds;
+    }
+
+    /**
+     * The same weights with other hot IDs
+     */
+    public RequestMix withHotIds(List<Long> ids) {
+        return new RequestMix(weights, ids);
+    }
+
+    /**
+     * A random operation, in proportion to the weights
+     */
+    public WarmupOperation pick(Random random) {
+        long ticket = (long) (random.nextDouble() * cumulative[cumulative.length - 1]);
+        for (int i = 0; i < cumulative.length; i++) {
+            if (ticket < cumulative[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        weights.forEach((operation, weight) -> text.append(text.length() == 0 ? "" : ",")
+                .append(operation.key()).append(':').append(weight));
+        return text + " (" + hotIds.size() + " hot IDs)";
+    }
+}
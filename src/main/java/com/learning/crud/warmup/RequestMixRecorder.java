@@ -0,0 +1,173 @@
+package com.learning.crud.warmup;
+
+import com.learning.crud.soap.GetStudentByIdRequest;
+import jakarta.annotation.PreDestroy;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ASPECT: Records the real request mix, for the next node's warm-up
+ *
+ * Runs around the same controller methods as TracingAspect (REST, SOAP
+ * and GraphQL) and counts:
+ * - how often each replayable operation (WarmupOperation) is called
+ * - how often each student ID is read → the "hot" IDs
+ *
+ * Every app.warmup.record-interval-ms (and on shutdown) the counts are
+ * written to app.warmup.dir/request-mix.txt. A node started with
+ * app.warmup.source=recorded replays that mix.
+ *
+ * Hot IDs are counted APPROXIMATELY, in bounded memory: when more than
+ * 8 × app.warmup.hot-ids different IDs have been seen, only the 4 × hot-ids
+ * most read ones are kept. A really hot ID is read again and again, so it
+ * survives; IDs read once or twice are forgotten.
+ *
+ * Calls made by WarmupRunner itself are not counted (pause/resume).
+ *
+ * Turned on with app.warmup.record=true.
+ */
+@Aspect
+@Component
+@ConditionalOnProperty(name = "app.warmup.record", havingValue = "true")
+public class RequestMixRecorder {
+
+    private static final Logger log = LoggerFactory.getLogger(RequestMixRecorder.class);
+
+    static final String FILE_NAME = "request-mix.txt";
+
+    private final Path file;
+    private final int hotIdCount;
+
+    private final Map<WarmupOperation, LongAdder> operationCounts = new EnumMap<>(WarmupOperation.class);
+    private final Map<Long, LongAdder> idCounts = new ConcurrentHashMap<>();
+    private final AtomicBoolean pruning = new AtomicBoolean();
+
+    // WarmupOperation per controller method, looked up once (empty → not replayable)
+    private final Map<Method, Optional<WarmupOperation>> operations = new ConcurrentHashMap<>();
+
+    private volatile boolean paused;
+
+    public RequestMixRecorder(@Value("${app.warmup.dir:./data/warmup}") Path dir,
+                              @Value("${app.warmup.hot-ids:1000}") int hotIdCount) {
+        this.file = dir.resolve(FILE_NAME);
+        this.hotIdCount = hotIdCount;
+        for (WarmupOperation operation : WarmupOperation.values()) {
+            operationCounts.put(operation, new LongAdder());
+        }
+    }
+
+    @Around("within(com.learning.crud.controller.StudentController)"
+            + " || within(com.learning.crud.soap.StudentSoapEndpoint)"
+            + " || within(com.learning.crud.graphql.StudentGraphQLController)")
+    public Object record(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (!paused) {
+            Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+            WarmupOperation operation = operations.computeIfAbsent(method, m -> Optional.ofNullable(
+                    WarmupOperation.byHandler(m.getDeclaringClass().getSimpleName() + "." + m.getName())))
+                    .orElse(null);
+            if (operation != null) {
+                operationCounts.get(operation).increment();
+                if (operation.readsById()) {
+                    countId(joinPoint.getArgs()[0]);
+                }
+            }
+        }
+        return joinPoint.proceed();
+    }
+
+    /**
+     * Stop / start counting (while WarmupRunner sends its own requests)
+     */
+    public void pause() {
+        paused = true;
+    }
+
+    public void resume() {
+        paused = false;
+    }
+
+    /**
+     * The mix recorded so far, hot IDs first
+     */
+    public RequestMix snapshot() {
+        Map<WarmupOperation, Long> counts = new EnumMap<>(WarmupOperation.class);
+        operationCounts.forEach((operation, count) -> counts.put(operation, count.sum()));
+        return new RequestMix(counts, mostRead(hotIdCount));
+    }
+
+    /**
+     * SAVE: Writes the recorded mix on a timer and on shutdown
+     */
+    @Scheduled(fixedDelayString = "${app.warmup.record-interval-ms:60000}",
+            initialDelayString = "${app.warmup.record-interval-ms:60000}")
+    @PreDestroy
+    public void persist() {
+        RequestMix mix = snapshot();
+        if (mix.weights().values().stream().allMatch(count -> count == 0)) {
+            // Nothing recorded yet: keep the previous file
+            return;
+        }
+        try {
+            mix.write(file);
+            log.debug("Request mix saved to {}: {}", file, mix);
+        } catch (IOException ex) {
+            log.warn("Could not save request mix to {}: {}", file, ex.getMessage());
+        }
+    }
+
+    // ===== HOT IDS =====
+
+    private void countId(Object argument) {
+        Long id = null;
+        if (argument instanceof Long value) {
+            id = value;
+        } else if (argument instanceof GetStudentByIdRequest request) {
+            id = request.getId();
+        }
+        if (id == null) {
+            return;
+        }
+        idCounts.computeIfAbsent(id, key -> new LongAdder()).increment();
+        if (idCounts.size() > 8 * hotIdCount && pruning.compareAndSet(false, true)) {
+            try {
+                List<Long> keep = mostRead(4 * hotIdCount);
+                idCounts.keySet().retainAll(new HashSet<>(keep));
+            } finally {
+                pruning.set(false);
+            }
+        }
+    }
+
+    private List<Long> mostRead(int limit) {
+        List<Map.Entry<Long, Long>> entries = new ArrayList<>();
+        idCounts.forEach((id, count) -> entries.add(Map.entry(id, count.sum())));
+        entries.sort(Map.Entry.<Long, Long>comparingByValue(Comparator.reverseOrder()));
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < Math.min(limit, entries.size()); i++) {
+            ids.add(entries.get(i).getKey());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,69 @@
+package com.learning.crud.warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * WARM-UP OPERATIONS: The read requests a warm-up can replay
+ *
+ * Each one has:
+ * - key     → used in app.warmup.synthetic-mix and in the recorded file ("rest-get")
+ * - handler → the controller method that serves it ("StudentController.getStudentById"),
+ *             so RequestMixRecorder can tell which operation a call was
+ *
+ * Only READ operations are listed: a warm-up must never create students.
+ */
+public enum WarmupOperation {
+
+    REST_GET("rest-get", "StudentController.getStudentById"),
+    REST_LIST("rest-list", "StudentController.listStudents"),
+    REST_SEARCH("rest-search", "StudentController.searchStudents"),
+    REST_FILTER("rest-filter", "StudentController.filterStudents"),
+    REST_STATS("rest-stats", "StudentController.getStatistics"),
+    SOAP_GET("soap-get", "StudentSoapEndpoint.getStudentById"),
+    GRAPHQL_GET("graphql-get", "StudentGraphQLController.studentById"),
+    GRAPHQL_STATS("graphql-stats", "StudentGraphQLController.studentStats");
+
+    private static final Map<String, WarmupOperation> BY_KEY = new HashMap<>();
+    private static final Map<String, WarmupOperation> BY_HANDLER = new HashMap<>();
+
+    static {
+        for (WarmupOperation operation : values()) {
+            BY_KEY.put(operation.key, operation);
+            BY_HANDLER.put(operation.handler, operation);
+        }
+    }
+
+    private final String key;
+    private final String handler;
+
+    WarmupOperation(String key, String handler) {
+        this.key = key;
+        this.handler = handler;
+    }
+
+    public String key() {
+        return key;
+    }
+
+    /**
+     * True for the operations that read one student by ID
+     */
+    public boolean readsById() {
+        return this == REST_GET || this == SOAP_GET || this == GRAPHQL_GET;
+    }
+
+    /**
+     * The operation with this key, or null
+     */
+    public static WarmupOperation byKey(String key) {
+        return BY_KEY.get(key);
+    }
+
+    /**
+     * The operation served by "ClassName.methodName", or null (writes and everything else)
+     */
+    public static WarmupOperation byHandler(String handler) {
+        return BY_HANDLER.get(handler);
+    }
+}
@@ -0,0 +1,312 @@
+package com.learning.crud.warmup;
+
+import com.learning.crud.datasource.ConsistencyContext;
+import com.learning.crud.dto.StudentResponse;
+import com.learning.crud.entity.Student;
+import com.learning.crud.exception.StudentNotFoundException;
+import com.learning.crud.repository.StudentStore;
+import com.learning.crud.service.StudentService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * WARM-UP: Makes a fresh node fast BEFORE it reports ready
+ *
+ * A freshly started JVM runs our code in the slow interpreter until the
+ * JIT compiler has seen it often enough; Jackson, JAXB and GraphQL build
+ * their internal caches on first use; the database cache is empty. So the
+ * first requests of a new node are many times slower than later ones.
+ *
+ * Spring Boot sets the readiness state to ACCEPTING_TRAFFIC only after
+ * every ApplicationReadyEvent listener has returned. This listener runs
+ * the warm-up inside the event, so /actuator/health/readiness keeps
+ * answering 503 (and a load balancer keeps the node out) until it is done.
+ *
+ * FLOW:
+ * 1. Choose the request mix: the recorded one (app.warmup.source=recorded,
+ *    written by RequestMixRecorder) or app.warmup.synthetic-mix
+ * 2. PRELOAD: read the hot student IDs (recorded, or the first
+ *    app.warmup.hot-ids IDs) once through StudentService
+ * 3. REPLAY in rounds of app.warmup.round-requests real HTTP requests to
+ *    our own port - REST, SOAP and GraphQL, picked by the mix weights -
+ *    and measure the p90 latency of each round
+ * 4. SETTLED: stop when app.warmup.settled-rounds rounds in a row were not
+ *    faster than the best round so far by more than app.warmup.settle-tolerance
+ *    (or after app.warmup.max-duration-ms, with a warning)
+ *
+ * Only READ requests are replayed: a warm-up never creates students.
+ * With an empty database the read-by-ID operations are left out (they could only fail).
+ */
+@Component
+public class WarmupRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(WarmupRunner.class);
+
+    private static final String SOAP_GET = """
+            <soapenv:Envelope xmlns:soapenv="http://schemas.xmlsoap.org/soap/envelope/" \
+            xmlns:soap="http://learning.com/crud/soap"><soapenv:Header/><soapenv:Body>\
+            <soap:getStudentByIdRequest><soap:id>%d</soap:id></soap:getStudentByIdRequest>\
+            </soapenv:Body></soapenv:Envelope>""";
+    private static final String GRAPHQL_GET =
+            "{\"query\":\"query($id: ID!) { studentById(id: $id) { id name age grade } }\",\"variables\":{\"id\":\"%d\"}}";
+    private static final String GRAPHQL_STATS =
+            "{\"query\":\"{ studentStats { totalStudents grades { grade count } ages { age count } } }\"}";
+
+    private final StudentService studentService;
+    private final StudentStore studentStore;
+    private final ObjectProvider<RequestMixRecorder> recorder;
+    private final boolean enabled;
+    private final String source;
+    private final String syntheticMix;
+    private final Path recordedFile;
+    private final int hotIdCount;
+    private final int roundRequests;
+    private final double settleTolerance;
+    private final int settledRounds;
+    private final long maxDurationMillis;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    public WarmupRunner(StudentService studentService,
+                        StudentStore studentStore,
+                        ObjectProvider<RequestMixRecorder> recorder,
+                        @Value("${app.warmup.enabled:false}") boolean enabled,
+                        @Value("${app.warmup.source:synthetic}") String source,
+                        @Value("${app.warmup.synthetic-mix:rest-get:40,soap-get:15,graphql-get:15,rest-list:10,rest-search:10,rest-filter:5,rest-stats:3,graphql-stats:2}")
+                        String syntheticMix,
+                        @Value("${app.warmup.dir:./data/warmup}") Path dir,
+                        @Value("${app.warmup.hot-ids:1000}") int hotIdCount,
+                        @Value("${app.warmup.round-requests:500}") int roundRequests,
+                        @Value("${app.warmup.settle-tolerance:0.1}") double settleTolerance,
+                        @Value("${app.warmup.settled-rounds:3}") int settledRounds,
+                        @Value("${app.warmup.max-duration-ms:120000}") long maxDurationMillis) {
+        this.studentService = studentService;
+        this.studentStore = studentStore;
+        this.recorder = recorder;
+        this.enabled = enabled;
+        this.source = source;
+        this.syntheticMix = syntheticMix;
+        this.recordedFile = dir.resolve(RequestMixRecorder.FILE_NAME);
+        this.hotIdCount = hotIdCount;
+        this.roundRequests = roundRequests;
+        this.settleTolerance = settleTolerance;
+        this.settledRounds = settledRounds;
+        this.maxDurationMillis = maxDurationMillis;
+    }
+
+    /**
+     * Runs inside the ready event: the web server is already listening,
+     * but the node does not accept traffic yet
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp(ApplicationReadyEvent event) {
+        if (!enabled) {
+            return;
+        }
+        if (!(event.getApplicationContext() instanceof WebServerApplicationContext web)) {
+            log.info("Warm-up skipped: no web server");
+            return;
+        }
+        String baseUrl = "http://127.0.0.1:" + web.getWebServer().getPort();
+
+        recorder.ifAvailable(RequestMixRecorder::pause);
+        try {
+            long start = System.nanoTime();
+            RequestMix mix = chooseMix();
+            List<String> searchTerms = new ArrayList<>();
+            int preloaded = preload(mix.hotIds(), searchTerms);
+            log.info("Warm-up: mix {}, {} of {} hot IDs preloaded; readiness stays REFUSING_TRAFFIC until done",
+                    mix, preloaded, mix.hotIds().size());
+            if (mix.isEmpty()) {
+                return;
+            }
+            replay(baseUrl, mix, searchTerms, start);
+        } finally {
+            recorder.ifAvailable(RequestMixRecorder::resume);
+        }
+    }
+
+    // ===== 1. MIX =====
+
+    private RequestMix chooseMix() {
+        RequestMix mix = null;
+        if ("recorded".equals(source)) {
+            if (Files.exists(recordedFile)) {
+                try {
+                    mix = RequestMix.read(recordedFile);
+                } catch (IOException | RuntimeException ex) {
+                    log.warn("Recorded request mix {} unreadable, using the synthetic mix: {}",
+                            recordedFile, ex.getMessage());
+                }
+            } else {
+                log.info("No recorded request mix at {} yet, using the synthetic mix", recordedFile);
+            }
+        }
+        if (mix == null || mix.isEmpty()) {
+            mix = RequestMix.parse(syntheticMix);
+        }
+        if (mix.hotIds().isEmpty()) {
+            // Nothing recorded: the first IDs stand in for the hot ones
+            List<Student> first = ConsistencyContext.onPrimary(() -> studentStore.findAfterId(0L, hotIdCount));
+            mix = mix.withHotIds(first.stream().map(Student::getId).toList());
+        }
+        if (mix.hotIds().isEmpty()) {
+            // Empty database: reading by ID would only produce "not found" errors
+            Map<WarmupOperation, Long> weights = new EnumMap<>(mix.weights());
+            weights.keySet().removeIf(WarmupOperation::readsById);
+            mix = new RequestMix(weights, List.of());
+        }
+        return mix;
+    }
+
+    // ===== 2. PRELOAD =====
+
+    private int preload(List<Long> hotIds, List<String> searchTerms) {
+        Set<String> terms = new LinkedHashSet<>();
+        int found = 0;
+        for (Long id : hotIds) {
+            try {
+                StudentResponse student = studentService.getStudentById(id);
+                found++;
+                for (String word : student.getName().toLowerCase(Locale.ROOT).split("\\s+")) {
+                    if (word.length() >= 2 && terms.size() < 100) {
+                        terms.add(word.substring(0, Math.min(3, word.length())));
+                    }
+                }
+            } catch (StudentNotFoundException ex) {
+                // Deleted or not (yet) in this database: nothing to preload
+            }
+        }
+        searchTerms.addAll(terms.isEmpty() ? List.of("a") : terms);
+        return found;
+    }
+
+    // ===== 3 + 4. REPLAY UNTIL SETTLED =====
+
+    private void replay(String baseUrl, RequestMix mix, List<String> searchTerms, long start) {
+        Random random = new Random(42);
+        long deadline = start + maxDurationMillis * 1_000_000;
+        double bestP90 = Double.MAX_VALUE;
+        double firstP90 = -1;
+        double lastP90 = -1;
+        int calm = 0;
+        int rounds = 0;
+        long requests = 0;
+        long errors = 0;
+
+        while (calm < settledRounds && System.nanoTime() < deadline) {
+            long[] latencies = new long[roundRequests];
+            for (int i = 0; i < roundRequests; i++) {
+                HttpRequest request = request(baseUrl, mix.pick(random), mix.hotIds(), searchTerms, random);
+                long sent = System.nanoTime();
+                try {
+                    HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                    if (response.statusCode() >= 400) {
+                        errors++;
+                    }
+                } catch (IOException ex) {
+                    errors++;
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    log.warn("Warm-up interrupted after {} rounds", rounds);
+                    return;
+                }
+                latencies[i] = System.nanoTime() - sent;
+            }
+            requests += roundRequests;
+            rounds++;
+
+            Arrays.sort(latencies);
+            lastP90 = latencies[(int) (latencies.length * 0.9)] / 1e6;
+            if (firstP90 < 0) {
+                firstP90 = lastP90;
+            }
+            // "Calm" round = no real improvement over the best round so far
+            if (lastP90 >= bestP90 * (1 - settleTolerance)) {
+                calm++;
+            } else {
+                calm = 0;
+            }
+            bestP90 = Math.min(bestP90, lastP90);
+            log.debug("Warm-up round {}: p50 {} ms, p90 {} ms", rounds,
+                    String.format(Locale.ROOT, "%.2f", latencies[latencies.length / 2] / 1e6),
+                    String.format(Locale.ROOT, "%.2f", lastP90));
+        }
+
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        String p90 = String.format(Locale.ROOT, "p90 %.2f ms to %.2f ms", firstP90, lastP90);
+        if (calm >= settledRounds) {
+            log.info("Warm-up finished in {} ms: {} rounds, {} requests ({} errors), {}, latency settled",
+                    millis, rounds, requests, errors, p90);
+        } else {
+            log.warn("Warm-up stopped after app.warmup.max-duration-ms ({} ms): {} rounds, {} requests ({} errors),"
+                    + " {}, latency still dropping", millis, rounds, requests, errors, p90);
+        }
+    }
+
+    private HttpRequest request(String baseUrl, WarmupOperation operation, List<Long> hotIds,
+                                List<String> searchTerms, Random random) {
+        int age = 6 + random.nextInt(13);
+        return switch (operation) {
+            case REST_GET -> get(baseUrl + "/api/students/" + randomId(hotIds, random));
+            case REST_LIST -> get(baseUrl + "/api/students?page=" + random.nextInt(5) + "&size=20");
+            case REST_SEARCH -> get(baseUrl + "/api/students/search?name="
+                    + URLEncoder.encode(searchTerms.get(random.nextInt(searchTerms.size())), StandardCharsets.UTF_8)
+                    + "&fuzzy=" + random.nextBoolean());
+            case REST_FILTER -> get(baseUrl + "/api/students/filter?minAge=" + age + "&maxAge=" + (age + 2));
+            case REST_STATS -> get(baseUrl + "/api/students/stats");
+            case SOAP_GET -> post(baseUrl + "/ws", "text/xml", SOAP_GET.formatted(randomId(hotIds, random)));
+            case GRAPHQL_GET -> post(baseUrl + "/graphql", "application/json", GRAPHQL_GET.formatted(randomId(hotIds, random)));
+            case GRAPHQL_STATS -> post(baseUrl + "/graphql", "application/json", GRAPHQL_STATS);
+        };
+    }
+
+    private static long randomId(List<Long> hotIds, Random random) {
+        return hotIds.get(random.nextInt(hotIds.size()));
+    }
+
+    private static HttpRequest get(String url) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .header("Accept", "application/json")
+                .timeout(Duration.ofSeconds(10))
+                .GET()
+                .build();
+    }
+
+    private static HttpRequest post(String url, String contentType, String body) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", contentType)
+                .timeout(Duration.ofSeconds(10))
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+}
@@ -0,0 +1,66 @@
+-- ============================================
+-- DATABASE SCHEMA (used by the "prod" profile)
+-- ============================================
+-- In the default profile Hibernate creates these tables itself
+-- (ddl-auto=create-drop). In "prod" the data lives in a file and must
+-- survive restarts, so we create the tables only if they are missing
+-- and let Hibernate just VALIDATE that the entities still match.
+--
+-- Keep this file in sync with the @Entity classes!
+
+-- Grade entity (entity/Grade.java) - the grade dictionary
+CREATE TABLE IF NOT EXISTS grades (
+    code  SMALLINT     PRIMARY KEY,
+    grade VARCHAR(255) NOT NULL UNIQUE
+);
+
+-- Student entity (entity/Student.java)
+CREATE TABLE IF NOT EXISTS students (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name       VARCHAR(255) NOT NULL,
+    age        INTEGER      NOT NULL,
+    grade_code SMALLINT     NOT NULL
+);
+
+-- MIGRATION: older databases store the grade text in students.grade.
+-- Each step only runs while that old column still exists
+-- (EXECUTE IMMEDIATE of 'SET @GRADE_MIGRATION = 0' does nothing).
+EXECUTE IMMEDIATE CASE WHEN EXISTS (SELECT 1 FROM INFORMATION_SCHEMA.COLUMNS
+        WHERE TABLE_NAME = 'STUDENTS' AND COLUMN_NAME = 'GRADE')
+    THEN 'INSERT INTO grades (code, grade) SELECT CAST(ROW_NUMBER() OVER (ORDER BY g.grade) + COALESCE((SELECT MAX(code) FROM grades), 0) AS SMALLINT), g.grade FROM (SELECT DISTINCT grade FROM students WHERE grade NOT IN (SELECT grade FROM grades)) g'
+    ELSE 'SET @GRADE_MIGRATION = 0' END;
+EXECUTE IMMEDIATE CASE WHEN EXISTS (SELECT 1 FROM INFORMATION_SCHEMA.COLUMNS
+        WHERE TABLE_NAME = 'STUDENTS' AND COLUMN_NAME = 'GRADE')
+    THEN 'ALTER TABLE students ADD COLUMN IF NOT EXISTS grade_code SMALLINT'
+    ELSE 'SET @GRADE_MIGRATION = 0' END;
+EXECUTE IMMEDIATE CASE WHEN EXISTS (SELECT 1 FROM INFORMATION_SCHEMA.COLUMNS
+        WHERE TABLE_NAME = 'STUDENTS' AND COLUMN_NAME = 'GRADE')
+    THEN 'UPDATE students s SET grade_code = (SELECT g.code FROM grades g WHERE g.grade = s.grade)'
+    ELSE 'SET @GRADE_MIGRATION = 0' END;
+EXECUTE IMMEDIATE CASE WHEN EXISTS (SELECT 1 FROM INFORMATION_SCHEMA.COLUMNS
+        WHERE TABLE_NAME = 'STUDENTS' AND COLUMN_NAME = 'GRADE')
+    THEN 'ALTER TABLE students ALTER COLUMN grade_code SET NOT NULL'
+    ELSE 'SET @GRADE_MIGRATION = 0' END;
+ALTER TABLE students DROP COLUMN IF EXISTS grade;
+
+CREATE INDEX IF NOT EXISTS idx_students_grade_code ON students (grade_code);
+
+-- SketchSnapshot entity (entity/SketchSnapshot.java)
+CREATE TABLE IF NOT EXISTS analytics_sketches (
+    name             VARCHAR(64) PRIMARY KEY,
+    data             BLOB        NOT NULL,
+    covered_up_to_id BIGINT      NOT NULL,
+    updated_at       TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
+
+-- StudentChange entity (entity/StudentChange.java) - the change feed
+-- (keeps the grade TEXT: consumers should not need the grade dictionary)
+CREATE TABLE IF NOT EXISTS student_changes (
+    seq         BIGINT       PRIMARY KEY,
+    change_type VARCHAR(16)  NOT NULL,
+    student_id  BIGINT       NOT NULL,
+    name        VARCHAR(255) NOT NULL,
+    age         INTEGER      NOT NULL,
+    grade       VARCHAR(255) NOT NULL,
+    changed_at  TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
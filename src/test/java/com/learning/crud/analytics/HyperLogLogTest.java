@@ -0,0 +1,101 @@
+package com.learning.crud.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * HYPERLOGLOG: Distinct counts within the promised error, and merging
+ *
+ * The hash has no randomness, so every run gets the same estimates: the
+ * bounds below (3 standard errors) are not flaky.
+ */
+class HyperLogLogTest {
+
+    private static final int PRECISION = 14;
+
+    @Test
+    void estimateIsWithinThreeStandardErrors() {
+        // 40 000 and 50 000 are around 2.5 * m, where the classic estimator is biased
+        for (int distinct : new int[]{1_000, 40_000, 50_000, 1_000_000}) {
+            HyperLogLog sketch = sketchOf(0, distinct);
+
+            double error = Math.abs(sketch.estimate() - distinct) / (double) distinct;
+            assertTrue(error <= 3 * sketch.relativeStandardError(),
+                    distinct + " distinct values estimated as " + sketch.estimate());
+        }
+    }
+
+    @Test
+    void smallCountsAreNearlyExact() {
+        assertEquals(0, new HyperLogLog(PRECISION).estimate());
+        assertEquals(10, sketchOf(0, 10).estimate());
+    }
+
+    @Test
+    void duplicatesAreCountedOnce() {
+        HyperLogLog once = sketchOf(0, 5_000);
+        HyperLogLog fiveTimes = new HyperLogLog(PRECISION);
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 5_000; i++) {
+                fiveTimes.add("student-" + i);
+            }
+        }
+
+        assertEquals(once.estimate(), fiveTimes.estimate());
+    }
+
+    @Test
+    void mergeEqualsOneSketchThatSawEverything() {
+        // Overlapping halves, as two nodes that both saw some of the same names
+        HyperLogLog first = sketchOf(0, 60_000);
+        HyperLogLog second = sketchOf(40_000, 100_000);
+        HyperLogLog everything = sketchOf(0, 100_000);
+
+        first.merge(second);
+
+        assertArrayEquals(everything.toBytes(), first.toBytes());
+        assertEquals(everything.estimate(), first.estimate());
+    }
+
+    @Test
+    void mergeRejectsAnotherPrecision() {
+        assertThrows(IllegalArgumentException.class, () -> new HyperLogLog(14).merge(new HyperLogLog(12)));
+    }
+
+    @Test
+    void bytesRoundTrip() {
+        HyperLogLog sketch = sketchOf(0, 20_000);
+
+        HyperLogLog copy = HyperLogLog.fromBytes(sketch.toBytes());
+
+        assertEquals(sketch.estimate(), copy.estimate());
+        assertArrayEquals(sketch.toBytes(), copy.toBytes());
+        assertEquals(2 + (1 << PRECISION), sketch.toBytes().length, "16 KB, however many values");
+    }
+
+    @Test
+    void corruptBytesAreRejected() {
+        byte[] bytes = sketchOf(0, 100).toBytes();
+        byte[] cut = Arrays.copyOf(bytes, bytes.length - 1);
+        byte[] wrongVersion = bytes.clone();
+        wrongVersion[0] = 99;
+
+        assertThrows(IllegalArgumentException.class, () -> HyperLogLog.fromBytes(cut));
+        assertThrows(IllegalArgumentException.class, () -> HyperLogLog.fromBytes(wrongVersion));
+        assertThrows(IllegalArgumentException.class, () -> new HyperLogLog(3));
+    }
+
+    private static HyperLogLog sketchOf(int from, int to) {
+        HyperLogLog sketch = new HyperLogLog(PRECISION);
+        for (int i = from; i < to; i++) {
+            sketch.add("student-" + i);
+        }
+        return sketch;
+    }
+}
@@ -0,0 +1,120 @@
+package com.learning.crud.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * KLL SKETCH: Percentiles within the promised rank error, and merging
+ *
+ * The values are 1..N, so a value IS its rank: quantile(q) should return
+ * about q * N. Compaction picks its offset at random, so the bound is twice
+ * the 99% rank error (normalizedRankError) to keep the test from flaking.
+ */
+class KllSketchTest {
+
+    private static final int K = 200;
+    private static final int N = 100_000;
+    private static final double[] QUANTILES = {0.01, 0.1, 0.25, 0.5, 0.75, 0.9, 0.99};
+
+    @Test
+    void quantilesAreWithinTheRankError() {
+        KllSketch sketch = new KllSketch(K);
+        for (int value : shuffled(1, N)) {
+            sketch.update(value);
+        }
+
+        assertEquals(N, sketch.count());
+        assertQuantiles(sketch, N);
+    }
+
+    @Test
+    void smallSketchesAreExact() {
+        KllSketch sketch = new KllSketch(K);
+        for (int value : shuffled(1, 100)) {
+            sketch.update(value);
+        }
+
+        assertEquals(1, sketch.quantile(0));
+        assertEquals(50, sketch.quantile(0.5));
+        assertEquals(100, sketch.quantile(1));
+    }
+
+    @Test
+    void sketchStaysSmall() {
+        KllSketch sketch = new KllSketch(K);
+        for (int value : shuffled(1, 1_000_000)) {
+            sketch.update(value);
+        }
+
+        // Around 3 * k values kept (4 bytes each), however many were added
+        assertTrue(sketch.toBytes().length < 4 * 4 * K, "bytes: " + sketch.toBytes().length);
+    }
+
+    @Test
+    void mergeKeepsTheRankError() {
+        // Each node saw a different half of the values
+        List<Integer> values = shuffled(1, N);
+        KllSketch first = new KllSketch(K);
+        KllSketch second = new KllSketch(K);
+        for (int i = 0; i < values.size(); i++) {
+            (values.get(i) <= N / 2 ? first : second).update(values.get(i));
+        }
+
+        first.merge(second);
+
+        assertEquals(N, first.count());
+        assertEquals(N / 2, second.count(), "the merged-in sketch is not changed");
+        assertQuantiles(first, N);
+    }
+
+    @Test
+    void bytesRoundTrip() {
+        KllSketch sketch = new KllSketch(K);
+        for (int value : shuffled(1, 20_000)) {
+            sketch.update(value);
+        }
+
+        KllSketch copy = KllSketch.fromBytes(sketch.toBytes());
+
+        assertEquals(sketch.count(), copy.count());
+        for (double q : QUANTILES) {
+            assertEquals(sketch.quantile(q), copy.quantile(q), "quantile " + q);
+        }
+    }
+
+    @Test
+    void invalidUseIsRejected() {
+        KllSketch empty = new KllSketch(K);
+
+        assertThrows(IllegalStateException.class, () -> empty.quantile(0.5));
+        empty.update(1);
+        assertThrows(IllegalArgumentException.class, () -> empty.quantile(1.5));
+        assertThrows(IllegalArgumentException.class, () -> new KllSketch(4));
+    }
+
+    private static void assertQuantiles(KllSketch sketch, int n) {
+        double allowed = 2 * sketch.normalizedRankError() * n;
+        for (double q : QUANTILES) {
+            int value = sketch.quantile(q);
+            assertTrue(Math.abs(value - q * n) <= allowed,
+                    "quantile " + q + " returned rank " + value + ", expected " + q * n + " ± " + allowed);
+        }
+    }
+
+    private static List<Integer> shuffled(int from, int to) {
+        List<Integer> values = new ArrayList<>(to - from + 1);
+        for (int value = from; value <= to; value++) {
+            values.add(value);
+        }
+        Collections.shuffle(values, new Random(42));
+        return values;
+    }
+}
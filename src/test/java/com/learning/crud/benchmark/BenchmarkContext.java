@@ -0,0 +1,55 @@
+package com.learning.crud.benchmark;
+
+import com.learning.crud.CrudApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * BENCHMARK HELPER: Starts the application on a fresh store for the benchmarks
+ *
+ * The benchmarks that measure a whole backend (StudentStoreBenchmark,
+ * BulkUpdateBenchmark, CoalescingBenchmark) start the real application
+ * without a web server, once per backend.
+ */
+final class BenchmarkContext {
+
+    private BenchmarkContext() {
+    }
+
+    /**
+     * The application with the given storage backend on a fresh, empty store:
+     * own in-memory H2 databases, own mmap directory, no web server, no gRPC
+     * (command-line arguments, because application.properties overrides builder defaults)
+     */
+    static ConfigurableApplicationContext start(String backend, Path mmapDir) {
+        String shards = String.join(",", Stream.of(0, 1, 2, 3)
+                .map(i -> "jdbc:h2:mem:" + backend + "-shard" + i + ";DB_CLOSE_DELAY=-1").toList());
+        return new SpringApplicationBuilder(CrudApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--app.storage.backend=" + backend,
+                        "--spring.datasource.url=jdbc:h2:mem:" + backend,
+                        "--app.sharding.urls=" + shards,
+                        "--app.mmap.dir=" + mmapDir,
+                        "--app.grpc.enabled=false",
+                        "--app.sql-monitor.enabled=false",
+                        "--spring.main.banner-mode=off",
+                        "--logging.level.root=WARN",
+                        "--logging.level.org.springframework=WARN",
+                        "--logging.level.com.learning.crud=WARN");
+    }
+
+    static void deleteRecursively(Path dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+}
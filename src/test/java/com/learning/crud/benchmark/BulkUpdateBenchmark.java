@@ -0,0 +1,156 @@
+package com.learning.crud.benchmark;
+
+import com.learning.crud.changefeed.StudentChangeFeed;
+import com.learning.crud.dto.BulkUpdateJobResponse;
+import com.learning.crud.dto.StudentRequest;
+import com.learning.crud.entity.Student;
+import com.learning.crud.readmodel.StudentReadModel;
+import com.learning.crud.repository.StudentStore;
+import com.learning.crud.service.StudentAnalytics;
+import com.learning.crud.service.StudentBulkUpdater;
+import com.learning.crud.service.StudentService;
+import com.learning.crud.service.StudentStatistics;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+
+/**
+ * BENCHMARK: One big UPDATE versus StudentBulkUpdater's ID ranges
+ *
+ * Not part of the web application (src/test, not in the jar) - run it on its own:
+ *
+ *   mvn test-compile
+ *   java -cp "target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout)" \
+ *        com.learning.crud.benchmark.BulkUpdateBenchmark [students] [threads] [backend]
+ *
+ * Fills a fresh store (default: jpa, 500000 students, grades A-F), then
+ * promotes grade B to grade G (and back) in three ways while one thread
+ * keeps creating students through StudentService:
+ *
+ *   single UPDATE      store.updateGrade(1, maxId, ...) = one transaction
+ *   ranges, 1 thread   StudentBulkUpdater with 1 thread (ranges of 10000 IDs)
+ *   ranges, N threads  StudentBulkUpdater with [threads] threads (default 4)
+ *
+ * (The ranges also read their students and write one change feed entry
+ * per changed student; the single UPDATE does neither.)
+ *
+ * For each it prints the time the update took, how many students it
+ * changed, and the latency of the concurrent creates (p50 / p99 / max).
+ * It also checks that every B student was promoted.
+ */
+public class BulkUpdateBenchmark {
+
+    private static final String[] GRADES = {"A", "B", "C", "D", "E", "F"};
+
+    public static void main(String[] args) throws Exception {
+        int students = args.length > 0 ? Integer.parseInt(args[0]) : 500_000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        String backend = args.length > 2 ? args[2] : "jpa";
+
+        Path mmapDir = Files.createTempDirectory("bulk-update-benchmark");
+        try (ConfigurableApplicationContext context = BenchmarkContext.start(backend, mmapDir)) {
+            StudentStore store = context.getBean(StudentStore.class);
+            StudentService service = context.getBean(StudentService.class);
+            StudentStatistics statistics = context.getBean(StudentStatistics.class);
+            StudentReadModel readModel = context.getBean(StudentReadModel.class);
+            StudentAnalytics analytics = context.getBean(StudentAnalytics.class);
+            StudentChangeFeed changeFeed = context.getBean(StudentChangeFeed.class);
+            PlatformTransactionManager transactionManager = context.getBean(PlatformTransactionManager.class);
+            StudentBulkUpdater oneThread = new StudentBulkUpdater(store, statistics, readModel, analytics,
+                    changeFeed, transactionManager, 10_000, 1);
+            StudentBulkUpdater manyThreads = new StudentBulkUpdater(store, statistics, readModel, analytics,
+                    changeFeed, transactionManager, 10_000, threads);
+
+            for (int from = 0; from < students; from += 1000) {
+                List<Student> batch = new ArrayList<>();
+                for (int i = from; i < Math.min(students, from + 1000); i++) {
+                    batch.add(new Student("Student " + i, 10 + i % 10, GRADES[i % GRADES.length]));
+                }
+                store.saveAll(batch);
+            }
+            long maxId = store.maxId();
+            long gradeB = store.countByGrade().getOrDefault("B", 0L);
+            System.out.printf("backend=%s students=%d (grade B: %d)%n", backend, students, gradeB);
+            System.out.printf("%-18s %10s %10s %12s %12s %12s%n",
+                    "method", "ms", "updated", "create p50", "create p99", "create max");
+
+            // Warm up both paths (JIT) on a small range
+            store.updateGrade(1, 1000, "B", "G");
+            store.updateGrade(1, 1000, "G", "B");
+
+            measure("single UPDATE", service, store, gradeB, () -> store.updateGrade(1, maxId, "B", "G"));
+            measure("ranges, 1 thread", service, store, gradeB, () -> runJob(oneThread, "B", "G"));
+            measure("ranges, " + threads + " threads", service, store, gradeB, () -> runJob(manyThreads, "B", "G"));
+        } finally {
+            BenchmarkContext.deleteRecursively(mmapDir);
+        }
+        System.exit(0);
+    }
+
+    /**
+     * Runs the promotion with a concurrent writer, checks it, then undoes it
+     */
+    private static void measure(String label, StudentService service, StudentStore store, long gradeB,
+                                LongSupplier promotion) throws InterruptedException {
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<Long> latencies = new ArrayList<>();
+        Thread writer = new Thread(() -> {
+            StudentRequest request = new StudentRequest();
+            request.setName("Writer");
+            request.setAge(12);
+            request.setGrade("A");
+            while (running.get()) {
+                long start = System.nanoTime();
+                service.createStudent(request);
+                latencies.add(System.nanoTime() - start);
+            }
+        });
+        writer.start();
+        Thread.sleep(200);
+
+        long start = System.nanoTime();
+        long updated = promotion.getAsLong();
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        running.set(false);
+        writer.join();
+
+        if (updated != gradeB || store.countByGrade().getOrDefault("B", 0L) != 0) {
+            System.out.println(label + ": promoted " + updated + " of " + gradeB + " grade B students");
+            System.exit(1);
+        }
+        store.updateGrade(1, store.maxId(), "G", "B");
+
+        long[] sorted = latencies.stream().mapToLong(Long::longValue).toArray();
+        Arrays.sort(sorted);
+        System.out.printf(Locale.ROOT, "%-18s %10d %10d %10.2fms %10.2fms %10.2fms%n", label, millis, updated,
+                percentile(sorted, 0.50), percentile(sorted, 0.99), sorted[sorted.length - 1] / 1e6);
+    }
+
+    private static long runJob(StudentBulkUpdater bulkUpdater, String from, String to) {
+        long jobId = bulkUpdater.promoteGrade(from, to).getId();
+        while (true) {
+            BulkUpdateJobResponse job = bulkUpdater.find(jobId).orElseThrow();
+            if (!"RUNNING".equals(job.getState())) {
+                return job.getStudentsUpdated();
+            }
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(ex);
+            }
+        }
+    }
+
+    private static double percentile(long[] sorted, double fraction) {
+        return sorted[Math.min(sorted.length - 1, (int) (sorted.length * fraction))] / 1e6;
+    }
+}
@@ -0,0 +1,107 @@
+package com.learning.crud.benchmark;
+
+import com.learning.crud.entity.Student;
+import com.learning.crud.repository.StudentStore;
+import com.learning.crud.service.StudentLookupCoalescer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * BENCHMARK: A thundering herd of lookups, with and without coalescing
+ *
+ * Not part of the web application (src/test, not in the jar) - run it on its own:
+ *
+ *   mvn test-compile
+ *   java -cp "target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout)" \
+ *        com.learning.crud.benchmark.CoalescingBenchmark [threads] [lookups] [hotIds] [backend]
+ *
+ * Fills a fresh store (default: jpa) with 10000 students, then [threads]
+ * threads (default 64) all look up random IDs out of only [hotIds] hot
+ * students (default 4) - the "popular record" case - through
+ * StudentLookupCoalescer, once switched off and once on.
+ *
+ * Prints lookups per second, how many store reads actually ran per lookup,
+ * and the lookup latency (p50 / p99).
+ */
+public class CoalescingBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int lookups = args.length > 1 ? Integer.parseInt(args[1]) : 200_000;
+        int hotIds = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+        String backend = args.length > 3 ? args[3] : "jpa";
+
+        Path mmapDir = Files.createTempDirectory("coalescing-benchmark");
+        try (ConfigurableApplicationContext context = BenchmarkContext.start(backend, mmapDir)) {
+            StudentStore store = context.getBean(StudentStore.class);
+            List<Student> students = new ArrayList<>();
+            for (int i = 0; i < 10_000; i++) {
+                students.add(new Student("Student " + i, 10 + i % 10, "A"));
+            }
+            store.saveAll(students);
+
+            System.out.printf("backend=%s threads=%d lookups=%d hotIds=%d%n", backend, threads, lookups, hotIds);
+            System.out.printf("%-12s %14s %14s %12s %12s%n", "coalescing", "lookups/sec", "reads/lookup", "p50", "p99");
+            for (int round = 0; round < 2; round++) {
+                // First round warms up the JIT; only the second is printed
+                run(store, false, threads, lookups, hotIds, round == 1);
+                run(store, true, threads, lookups, hotIds, round == 1);
+            }
+        } finally {
+            BenchmarkContext.deleteRecursively(mmapDir);
+        }
+        System.exit(0);
+    }
+
+    private static void run(StudentStore store, boolean enabled, int threads, int lookups, int hotIds, boolean print)
+            throws InterruptedException {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        StudentLookupCoalescer coalescer = new StudentLookupCoalescer(store, registry, enabled);
+        AtomicLong next = new AtomicLong();
+        long[] latencies = new long[lookups];
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException ex) {
+                    return;
+                }
+                long i;
+                while ((i = next.getAndIncrement()) < lookups) {
+                    long id = 1 + ThreadLocalRandom.current().nextInt(hotIds);
+                    long begin = System.nanoTime();
+                    coalescer.findResponseById(id).orElseThrow();
+                    latencies[(int) i] = System.nanoTime() - begin;
+                }
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        long began = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        double seconds = (System.nanoTime() - began) / 1e9;
+        if (!print) {
+            return;
+        }
+        double reads = registry.get("students.lookups.loads").counter().count();
+        Arrays.sort(latencies);
+        System.out.printf(Locale.ROOT, "%-12s %14.0f %14.3f %10.2fms %10.2fms%n", enabled ? "on" : "off",
+                lookups / seconds, reads / lookups,
+                latencies[lookups / 2] / 1e6, latencies[(int) (lookups * 0.99)] / 1e6);
+    }
+}
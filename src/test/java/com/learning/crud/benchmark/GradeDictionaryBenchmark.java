@@ -0,0 +1,173 @@
+package com.learning.crud.benchmark;
+
+import com.learning.crud.entity.Student;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * BENCHMARK: How much smaller is a student with a grade CODE instead of grade TEXT?
+ *
+ * Not part of the web application (src/test, not in the jar) - run it on its own:
+ *
+ *   mvn test-compile
+ *   java -cp "target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout)" \
+ *        com.learning.crud.benchmark.GradeDictionaryBenchmark [students]
+ *
+ * Compares the old layout (grade VARCHAR + index on it) with the new one
+ * (grade_code SMALLINT + index on it, see GradeDictionary):
+ * 1. ROW SIZE: students table bytes on disk / number of students
+ * 2. INDEX SIZE: bytes the grade index adds on disk
+ *    (both measured as growth of a fresh H2 file database, after SHUTDOWN COMPACT)
+ * 3. CACHE HEAP: heap used by loaded Student objects when every row
+ *    brings its own grade String (like reading a VARCHAR column) vs when
+ *    they all share the dictionary's String
+ *
+ * The grades are a dozen realistic values ("Grade 1" .. "Grade 12").
+ */
+public class GradeDictionaryBenchmark {
+
+    private static final String[] GRADES = new String[12];
+
+    static {
+        for (int i = 0; i < GRADES.length; i++) {
+            GRADES[i] = "Grade " + (i + 1);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int students = args.length > 0 ? Integer.parseInt(args[0]) : 500_000;
+        System.out.printf("students=%d distinct grades=%d%n", students, GRADES.length);
+
+        Path dir = Files.createTempDirectory("grade-dictionary-benchmark");
+        try {
+            DiskUsage text = measureDisk(dir.resolve("text"), students,
+                    "grade VARCHAR(255) NOT NULL", "grade", false);
+            DiskUsage coded = measureDisk(dir.resolve("coded"), students,
+                    "grade_code SMALLINT NOT NULL", "grade_code", true);
+
+            System.out.printf("%-18s %14s %14s%n", "", "text grade", "grade code");
+            System.out.printf("%-18s %14.1f %14.1f%n", "row bytes",
+                    text.tableBytes / (double) students, coded.tableBytes / (double) students);
+            System.out.printf("%-18s %14d %14d%n", "table bytes", text.tableBytes, coded.tableBytes);
+            System.out.printf("%-18s %14d %14d%n", "grade index bytes", text.indexBytes, coded.indexBytes);
+        } finally {
+            deleteRecursively(dir);
+        }
+
+        long ownStrings = measureHeap(students, false);
+        long shared = measureHeap(students, true);
+        System.out.printf("%-18s %14.1f %14.1f%n", "heap bytes/student",
+                ownStrings / (double) students, shared / (double) students);
+    }
+
+    // ===== DISK =====
+
+    private record DiskUsage(long tableBytes, long indexBytes) {
+    }
+
+    /**
+     * Size of the database file, compacted:
+     * empty table → with all students (= table) → with the grade index (= index)
+     */
+    private static DiskUsage measureDisk(Path file, int students, String gradeColumn,
+                                         String indexedColumn, boolean coded) throws SQLException, IOException {
+        String url = "jdbc:h2:" + file.toAbsolutePath();
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE students (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,"
+                    + " name VARCHAR(255) NOT NULL, age INTEGER NOT NULL, " + gradeColumn + ")");
+            statement.execute("SHUTDOWN COMPACT");
+        }
+        long empty = fileSize(file);
+
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             PreparedStatement insert = connection.prepareStatement(
+                     "INSERT INTO students (name, age, " + indexedColumn + ") VALUES (?, ?, ?)")) {
+            connection.setAutoCommit(false);
+            for (int i = 0; i < students; i++) {
+                insert.setString(1, "Student " + i);
+                insert.setInt(2, 10 + i % 10);
+                int grade = i % GRADES.length;
+                if (coded) {
+                    insert.setShort(3, (short) (grade + 1));
+                } else {
+                    insert.setString(3, GRADES[grade]);
+                }
+                insert.addBatch();
+                if (i % 1_000 == 999) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+            connection.commit();
+            connection.setAutoCommit(true);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SHUTDOWN COMPACT");
+            }
+        }
+        long table = fileSize(file);
+
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE INDEX idx_grade ON students (" + indexedColumn + ")");
+            statement.execute("SHUTDOWN COMPACT");
+        }
+        long withIndex = fileSize(file);
+        return new DiskUsage(table - empty, withIndex - table);
+    }
+
+    private static long fileSize(Path file) throws IOException {
+        return Files.size(Path.of(file.toAbsolutePath() + ".mv.db"));
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    // ===== HEAP =====
+
+    /**
+     * Heap used by the loaded students, in bytes
+     *
+     * @param sharedGrades true = all students point at the same few Strings
+     */
+    private static long measureHeap(int students, boolean sharedGrades) {
+        long before = usedHeapAfterGc();
+        List<Student> loaded = new ArrayList<>(students);
+        for (int i = 0; i < students; i++) {
+            String grade = GRADES[i % GRADES.length];
+            // A JDBC driver creates a new String (and its own byte array) for every VARCHAR value it reads
+            Student student = new Student("Student " + i, 10 + i % 10, sharedGrades ? grade : new String(grade.toCharArray()));
+            student.setId((long) i);
+            loaded.add(student);
+        }
+        long after = usedHeapAfterGc();
+        if (loaded.size() != students) {
+            throw new IllegalStateException();
+        }
+        return after - before;
+    }
+
+    private static long usedHeapAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
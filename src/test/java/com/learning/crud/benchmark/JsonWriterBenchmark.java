@@ -0,0 +1,67 @@
+package com.learning.crud.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.learning.crud.converter.StudentJsonWriter;
+import com.learning.crud.dto.StudentResponse;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * BENCHMARK: StudentJsonWriter vs Jackson - same bytes, how much faster?
+ *
+ * Not part of the web application (src/test, not in the jar) - run it on its own:
+ *
+ *   mvn test-compile
+ *   java -cp "target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout)" \
+ *        com.learning.crud.benchmark.JsonWriterBenchmark [iterations]
+ *
+ * Prints the average nanoseconds to write one student and a list of 100.
+ * That both write the same bytes is checked by StudentJsonWriterTest
+ * (src/test, runs with mvn test).
+ *
+ * Jackson is set up the way Spring MVC sets it up (Jackson2ObjectMapperBuilder).
+ */
+public class JsonWriterBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        ObjectMapper jackson = Jackson2ObjectMapperBuilder.json().build();
+
+        StudentResponse single = new StudentResponse(12345L, "Alexandra Johnson", 16, "A");
+        List<StudentResponse> list = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            list.add(new StudentResponse(100_000L + i, "Student Number " + i, 10 + i % 10, "ABCDEF".substring(i % 6, i % 6 + 1)));
+        }
+
+        System.out.printf("iterations=%d%n", iterations);
+        System.out.printf("%-10s %14s %14s%n", "payload", "jackson ns", "fast ns");
+        System.out.printf("%-10s %14.0f %14.0f%n", "1 student",
+                Timing.nanosPerCall(iterations, () -> jackson.writeValueAsBytes(single).length),
+                Timing.nanosPerCall(iterations, () -> fastLength(single)));
+        int listIterations = Math.max(1, iterations / 100);
+        System.out.printf("%-10s %14.0f %14.0f%n", "100 list",
+                Timing.nanosPerCall(listIterations, () -> jackson.writeValueAsBytes(list).length),
+                Timing.nanosPerCall(listIterations, () -> fastLength(list)));
+    }
+
+    // Like the HTTP converter: write into the pooled buffer, no copy
+    private static int fastLength(StudentResponse student) {
+        StudentJsonWriter writer = StudentJsonWriter.acquire();
+        try {
+            return writer.write(student).length();
+        } finally {
+            writer.release();
+        }
+    }
+
+    private static int fastLength(List<StudentResponse> students) {
+        StudentJsonWriter writer = StudentJsonWriter.acquire();
+        try {
+            return writer.write(students).length();
+        } finally {
+            writer.release();
+        }
+    }
+}
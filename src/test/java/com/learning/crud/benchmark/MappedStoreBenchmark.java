@@ -0,0 +1,218 @@
+package com.learning.crud.benchmark;
+
+import com.learning.crud.CrudApplication;
+import com.learning.crud.entity.Student;
+import com.learning.crud.mmap.MappedStudentStore;
+import com.learning.crud.repository.StudentStore;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * BENCHMARK: Memory-mapped store vs the H2/JPA store
+ *
+ * Not part of the web application (src/test, not in the jar) - run it on its own:
+ *
+ *   mvn test-compile
+ *   java -cp "target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout)" \
+ *        com.learning.crud.benchmark.MappedStoreBenchmark [students] [reads] [threads]
+ *
+ * 1. RECOVERY CHECK: writes students, then damages the files the way a
+ *    crash in the middle of an append would (half-written record, torn
+ *    name), reopens the store and checks that exactly the complete
+ *    students are back. Exits with status 1 if not.
+ * 2. SPEED for: JPA (the real JpaStudentStore from a Spring context with
+ *    the in-memory H2 of the default profile), mmap with app.mmap.sync=true
+ *    (every save forced to disk) and mmap with sync=false. Prints
+ *    operations per second for single saves, saves in batches of 1000,
+ *    random findById from several threads, and reading everything with findAfterId.
+ */
+public class MappedStoreBenchmark {
+
+    private static final String[] GRADES = {"A", "B", "C", "D", "E", "F"};
+
+    public static void main(String[] args) throws Exception {
+        int students = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int reads = args.length > 1 ? Integer.parseInt(args[1]) : 500_000;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : 8;
+
+        Path dir = Files.createTempDirectory("mmap-benchmark");
+        try {
+            checkRecovery(dir.resolve("recovery"));
+            System.out.println("recovery check: OK");
+
+            System.out.printf("students=%d reads=%d threads=%d%n", students, reads, threads);
+            System.out.printf("%-12s %14s %14s %14s %14s%n", "store", "saves/sec", "batched/sec", "reads/sec", "scan/sec");
+            try (ConfigurableApplicationContext context = startJpaContext()) {
+                run("jpa", context.getBean(StudentStore.class), students, reads, threads);
+            }
+            try (MappedStudentStore store = new MappedStudentStore(dir.resolve("sync"), 64, true)) {
+                run("mmap sync", store, students, reads, threads);
+            }
+            try (MappedStudentStore store = new MappedStudentStore(dir.resolve("nosync"), 64, false)) {
+                run("mmap nosync", store, students, reads, threads);
+            }
+        } finally {
+            deleteRecursively(dir);
+        }
+        System.exit(0);
+    }
+
+    // ===== RECOVERY CHECK =====
+
+    private static void checkRecovery(Path dir) throws IOException {
+        try (MappedStudentStore store = new MappedStudentStore(dir, 1, true)) {
+            for (int i = 1; i <= 100; i++) {
+                store.save(student(i));
+            }
+        }
+        // Crash 1: record 101 half written (id and a few bytes, checksum missing)
+        try (RandomAccessFile records = new RandomAccessFile(dir.resolve("students.dat").toFile(), "rw")) {
+            records.seek(100L * 32);
+            records.writeLong(101);
+            records.writeLong(12345);
+        }
+        expect(dir, 100, "half-written record");
+
+        // Crash 2: record 100 complete, but its name bytes never reached the disk
+        long namePosition;
+        try (RandomAccessFile records = new RandomAccessFile(dir.resolve("students.dat").toFile(), "r")) {
+            records.seek(99L * 32 + 8);
+            namePosition = records.readLong();
+        }
+        try (RandomAccessFile names = new RandomAccessFile(dir.resolve("names.dat").toFile(), "rw")) {
+            names.seek(namePosition);
+            names.write(0);
+        }
+        expect(dir, 99, "torn name");
+
+        // After recovery the store keeps working and the wiped ID is handed out again
+        try (MappedStudentStore store = new MappedStudentStore(dir, 1, true)) {
+            if (store.save(student(100)).getId() != 100) {
+                fail("next save after recovery did not get id 100");
+            }
+        }
+        expect(dir, 100, "save after recovery");
+    }
+
+    private static void expect(Path dir, int expected, String scenario) throws IOException {
+        try (MappedStudentStore store = new MappedStudentStore(dir, 1, true)) {
+            if (store.count() != expected) {
+                fail(scenario + ": expected " + expected + " students, found " + store.count());
+            }
+            for (int i = 1; i <= expected; i++) {
+                Student found = store.findById((long) i).orElse(null);
+                Student wanted = student(i);
+                if (found == null || !found.getName().equals(wanted.getName())
+                        || found.getAge() != wanted.getAge().intValue() || !found.getGrade().equals(wanted.getGrade())) {
+                    fail(scenario + ": student " + i + " differs");
+                }
+            }
+        }
+    }
+
+    private static void fail(String message) {
+        System.out.println("RECOVERY CHECK FAILED: " + message);
+        System.exit(1);
+    }
+
+    // ===== SPEED =====
+
+    private static void run(String label, StudentStore store, int students, int reads, int threads)
+            throws InterruptedException {
+        double saves = perSecond(students, () -> {
+            for (int i = 0; i < students; i++) {
+                store.save(student(i));
+            }
+        });
+        double batched = perSecond(students, () -> {
+            for (int from = 0; from < students; from += 1000) {
+                List<Student> batch = new ArrayList<>();
+                for (int i = from; i < Math.min(students, from + 1000); i++) {
+                    batch.add(student(i));
+                }
+                store.saveAll(batch);
+            }
+        });
+        long total = store.count();
+        double readRate = parallel(threads, reads, () ->
+                store.findById(1 + ThreadLocalRandom.current().nextLong(total)).orElseThrow());
+        double scan = perSecond(total, () -> {
+            long after = 0;
+            List<Student> page;
+            do {
+                page = store.findAfterId(after, 1000);
+                if (!page.isEmpty()) {
+                    after = page.get(page.size() - 1).getId();
+                }
+            } while (page.size() == 1000);
+        });
+        System.out.printf("%-12s %14.0f %14.0f %14.0f %14.0f%n", label, saves, batched, readRate, scan);
+    }
+
+    private static double perSecond(long operations, Runnable work) {
+        long start = System.nanoTime();
+        work.run();
+        return operations / ((System.nanoTime() - start) / 1e9);
+    }
+
+    private static double parallel(int threads, int operations, Runnable operation) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        AtomicLong next = new AtomicLong();
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            executor.execute(() -> {
+                while (next.getAndIncrement() < operations) {
+                    operation.run();
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.HOURS);
+        return operations / ((System.nanoTime() - start) / 1e9);
+    }
+
+    // ===== HELPERS =====
+
+    /**
+     * The application without web server, gRPC and request logging, storing in the in-memory H2
+     * (command-line arguments, because application.properties overrides builder defaults)
+     */
+    private static ConfigurableApplicationContext startJpaContext() {
+        return new SpringApplicationBuilder(CrudApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--app.storage.backend=jpa",
+                        "--app.grpc.enabled=false",
+                        "--app.sql-monitor.sample-rate=0",
+                        "--spring.main.banner-mode=off",
+                        "--logging.level.root=WARN",
+                        "--logging.level.org.springframework=WARN",
+                        "--logging.level.com.learning.crud=WARN");
+    }
+
+    private static Student student(int i) {
+        return new Student("Student Nümber " + i, 10 + i % 10, GRADES[i % GRADES.length]);
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+}
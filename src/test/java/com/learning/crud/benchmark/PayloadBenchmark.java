@@ -0,0 +1,136 @@
+package com.learning.crud.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.learning.crud.converter.StudentProtoMapper;
+import com.learning.crud.dto.StudentResponse;
+import com.learning.crud.proto.StudentProto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * BENCHMARK: How big and how fast are JSON, CBOR, Smile and Protobuf?
+ *
+ * Not part of the web application (src/test, not in the jar) - run it on its own:
+ *
+ *   mvn test-compile
+ *   java -cp "target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout)" \
+ *        com.learning.crud.benchmark.PayloadBenchmark [iterations]
+ *
+ * For one StudentResponse and for a list of 100 (like GET /api/students?size=100)
+ * it prints, per format:
+ * - bytes:     payload size
+ * - encode ns: time to turn the object(s) into bytes
+ * - decode ns: time to turn the bytes back into object(s)
+ *
+ * Each measurement runs a warm-up first, so the JIT compiler has done its work.
+ */
+public class PayloadBenchmark {
+
+    private static final TypeReference<List<StudentResponse>> STUDENT_LIST = new TypeReference<>() {
+    };
+
+    public static void main(String[] args) throws Exception {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+
+        StudentResponse single = new StudentResponse(12345L, "Alexandra Johnson", 16, "A");
+        List<StudentResponse> list = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            list.add(new StudentResponse(100_000L + i, "Student Number " + i, 10 + i % 10, "ABCDEF".substring(i % 6, i % 6 + 1)));
+        }
+
+        List<Format> formats = List.of(
+                new JacksonFormat("JSON", new ObjectMapper()),
+                new JacksonFormat("CBOR", new ObjectMapper(new CBORFactory())),
+                new JacksonFormat("Smile", new ObjectMapper(new SmileFactory())),
+                new ProtobufFormat());
+
+        System.out.printf("iterations=%d%n", iterations);
+        System.out.printf("%-10s %-8s %10s %12s %12s%n", "payload", "format", "bytes", "encode ns", "decode ns");
+        for (Format format : formats) {
+            report("1 student", format, format.encode(single), () -> format.encode(single),
+                    bytes -> format.decodeOne(bytes), iterations);
+        }
+        for (Format format : formats) {
+            report("100 list", format, format.encode(list), () -> format.encode(list),
+                    bytes -> format.decodeList(bytes), Math.max(1, iterations / 100));
+        }
+    }
+
+    private static void report(String payload, Format format, byte[] encoded,
+                               Encoder encoder, Decoder decoder, int iterations) throws Exception {
+        double encodeNanos = Timing.nanosPerCall(iterations, () -> encoder.encode().length);
+        double decodeNanos = Timing.nanosPerCall(iterations, () -> decoder.decode(encoded) == null ? 0 : 1);
+        System.out.printf("%-10s %-8s %10d %12.0f %12.0f%n", payload, format.name(), encoded.length, encodeNanos, decodeNanos);
+    }
+
+    // ===== FORMATS =====
+
+    private interface Format {
+        String name();
+
+        byte[] encode(StudentResponse student) throws Exception;
+
+        byte[] encode(List<StudentResponse> students) throws Exception;
+
+        Object decodeOne(byte[] bytes) throws Exception;
+
+        Object decodeList(byte[] bytes) throws Exception;
+    }
+
+    private record JacksonFormat(String name, ObjectMapper mapper) implements Format {
+
+        public byte[] encode(StudentResponse student) throws Exception {
+            return mapper.writeValueAsBytes(student);
+        }
+
+        public byte[] encode(List<StudentResponse> students) throws Exception {
+            return mapper.writeValueAsBytes(students);
+        }
+
+        public Object decodeOne(byte[] bytes) throws Exception {
+            return mapper.readValue(bytes, StudentResponse.class);
+        }
+
+        public Object decodeList(byte[] bytes) throws Exception {
+            return mapper.readValue(bytes, STUDENT_LIST);
+        }
+    }
+
+    // Protobuf includes the DTO ↔ message mapping, like the HTTP converter does
+    private record ProtobufFormat() implements Format {
+
+        public String name() {
+            return "Protobuf";
+        }
+
+        public byte[] encode(StudentResponse student) {
+            return StudentProtoMapper.toProto(student).toByteArray();
+        }
+
+        public byte[] encode(List<StudentResponse> students) {
+            return StudentProtoMapper.toProto(students).toByteArray();
+        }
+
+        public Object decodeOne(byte[] bytes) throws Exception {
+            return StudentProtoMapper.fromProto(StudentProto.StudentResponse.parseFrom(bytes));
+        }
+
+        public Object decodeList(byte[] bytes) throws Exception {
+            return StudentProtoMapper.fromProto(StudentProto.StudentList.parseFrom(bytes));
+        }
+    }
+
+    @FunctionalInterface
+    private interface Encoder {
+        byte[] encode() throws Exception;
+    }
+
+    @FunctionalInterface
+    private interface Decoder {
+        Object decode(byte[] bytes) throws Exception;
+    }
+}
@@ -0,0 +1,127 @@
+package com.learning.crud.benchmark;
+
+import com.learning.crud.dto.StudentResponse;
+import com.learning.crud.readmodel.StudentColumns;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * BENCHMARK: Read model arrays (StudentColumns) vs a cache of StudentResponse objects
+ *
+ * Not part of the web application (src/test, not in the jar) - run it on its own:
+ *
+ *   mvn test-compile
+ *   java -cp "target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout)" \
+ *        com.learning.crud.benchmark.ReadModelBenchmark [students]
+ *
+ * The "object cache" is what one would write first: a HashMap<Long, StudentResponse>.
+ * For both it prints:
+ * 1. HEAP: bytes per student (used heap after GC, before vs after filling)
+ * 2. LOOKUP: nanoseconds per get by random ID (result object built each time for the arrays)
+ * 3. COUNT: milliseconds to count students aged 14..16 with grade "B"
+ * 4. FILTER: milliseconds to collect the first 1000 students aged 17 with grade "F"
+ */
+public class ReadModelBenchmark {
+
+    private static final String[] GRADES = {"A", "B", "C", "D", "E", "F"};
+
+    public static void main(String[] args) {
+        int students = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        System.out.printf("students=%d%n", students);
+
+        // ===== HEAP =====
+        long before = usedHeapAfterGc();
+        StudentColumns columns = new StudentColumns();
+        for (int i = 1; i <= students; i++) {
+            columns.put(i, name(i), age(i), gradeCode(i));
+        }
+        long columnsBytes = usedHeapAfterGc() - before;
+
+        before = usedHeapAfterGc();
+        Map<Long, StudentResponse> cache = new HashMap<>();
+        for (int i = 1; i <= students; i++) {
+            cache.put((long) i, new StudentResponse((long) i, name(i), age(i), GRADES[gradeCode(i) - 1]));
+        }
+        long cacheBytes = usedHeapAfterGc() - before;
+
+        System.out.printf("%-22s %14s %14s%n", "", "arrays", "object cache");
+        System.out.printf("%-22s %14.1f %14.1f%n", "heap bytes/student",
+                columnsBytes / (double) students, cacheBytes / (double) students);
+
+        // ===== SPEED (each measured a few times, the last run is printed) =====
+        StudentColumns.RowReader<StudentResponse> toResponse =
+                (id, name, age, grade) -> new StudentResponse(id, name, age, GRADES[grade - 1]);
+        int lookups = 2_000_000;
+        double columnsLookup = 0;
+        double cacheLookup = 0;
+        double columnsCount = 0;
+        double cacheCount = 0;
+        double columnsFilter = 0;
+        double cacheFilter = 0;
+        for (int round = 0; round < 5; round++) {
+            columnsLookup = Timing.nanosPer(lookups, () -> {
+                long sum = 0;
+                for (int i = 0; i < lookups; i++) {
+                    sum += columns.get(randomId(students), toResponse).getAge();
+                }
+                return sum;
+            });
+            cacheLookup = Timing.nanosPer(lookups, () -> {
+                long sum = 0;
+                for (int i = 0; i < lookups; i++) {
+                    sum += cache.get(randomId(students)).getAge();
+                }
+                return sum;
+            });
+            columnsCount = Timing.millis(() -> columns.count(14, 16, 2));
+            cacheCount = Timing.millis(() -> cache.values().stream()
+                    .filter(s -> s.getAge() >= 14 && s.getAge() <= 16 && "B".equals(s.getGrade()))
+                    .count());
+            columnsFilter = Timing.millis(() -> columns.filter(17, 17, 6, 1000, toResponse).size());
+            cacheFilter = Timing.millis(() -> cache.values().stream()
+                    .filter(s -> s.getAge() == 17 && "F".equals(s.getGrade()))
+                    .sorted((a, b) -> Long.compare(a.getId(), b.getId()))
+                    .limit(1000)
+                    .count());
+        }
+        System.out.printf("%-22s %14.1f %14.1f%n", "lookup ns", columnsLookup, cacheLookup);
+        System.out.printf("%-22s %14.2f %14.2f%n", "count ms", columnsCount, cacheCount);
+        System.out.printf("%-22s %14.2f %14.2f%n", "filter 1000 ms", columnsFilter, cacheFilter);
+
+        // Keep both alive until here, so neither is collected while measuring
+        if (columns.size() != cache.size()) {
+            throw new IllegalStateException("sizes differ");
+        }
+        List<StudentResponse> check = columns.filter(0, Integer.MAX_VALUE, 0, 1, toResponse);
+        if (!check.get(0).getName().equals(cache.get(1L).getName())) {
+            throw new IllegalStateException("arrays and cache disagree");
+        }
+    }
+
+    private static String name(int i) {
+        return "Student Number " + i;
+    }
+
+    private static int age(int i) {
+        return 10 + i % 10;
+    }
+
+    private static int gradeCode(int i) {
+        return 1 + (i / 10) % GRADES.length;
+    }
+
+    private static long randomId(int students) {
+        return 1 + ThreadLocalRandom.current().nextInt(students);
+    }
+
+    private static long usedHeapAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
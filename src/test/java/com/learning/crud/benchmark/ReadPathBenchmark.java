@@ -0,0 +1,170 @@
+package com.learning.crud.benchmark;
+
+import com.learning.crud.CrudApplication;
+import com.learning.crud.dto.StudentResponse;
+import com.learning.crud.entity.Student;
+import com.learning.crud.repository.StudentStore;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.function.IntFunction;
+
+/**
+ * BENCHMARK: Entity reads vs DTO projections, per request
+ *
+ * Not part of the web application (src/test, not in the jar) - run it on its own:
+ *
+ *   mvn test-compile
+ *   java -cp "target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout)" \
+ *        com.learning.crud.benchmark.ReadPathBenchmark [students] [requests]
+ *
+ * Starts the application (JPA store, in-memory H2), inserts students, then
+ * runs the four database read paths of StudentService three ways:
+ *
+ *   entity rw    → Student entities in a read-WRITE transaction, converted to StudentResponse
+ *                  (managed entities, a copy of every row for dirty checking, flush at commit)
+ *   entity ro    → the same in a read-only transaction (no flush, no dirty-checking copies)
+ *   projection   → StudentStore.findResponse... (read-only, StudentResponse built from the row)
+ *
+ * and prints, per request: bytes allocated by the calling thread, mean and
+ * p99 latency. Before measuring, it checks that all three return the same students.
+ */
+public class ReadPathBenchmark {
+
+    private static final String[] GRADES = {"A", "B", "C", "D", "E", "F"};
+
+    public static void main(String[] args) {
+        int students = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int requests = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+
+        try (ConfigurableApplicationContext context = startContext()) {
+            StudentStore store = context.getBean(StudentStore.class);
+            TransactionTemplate readWrite = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+
+            for (int from = 0; from < students; from += 10_000) {
+                List<Student> batch = new ArrayList<>();
+                for (int i = from; i < Math.min(students, from + 10_000); i++) {
+                    batch.add(new Student("Student " + i, 10 + i % 10, GRADES[i % GRADES.length]));
+                }
+                store.saveAll(batch);
+            }
+            System.out.printf("students=%d requests=%d (per path)%n", students, requests);
+            System.out.printf(Locale.ROOT, "%-12s %-12s %14s %12s %12s%n",
+                    "read", "path", "bytes/request", "mean µs", "p99 µs");
+
+            Random random = new Random(7);
+            long[] ids = random.longs(requests, 1, students + 1).toArray();
+
+            compare("by id", requests,
+                    i -> readWrite.execute(status -> store.findById(ids[i]).map(ReadPathBenchmark::toResponse).orElseThrow()),
+                    i -> store.findById(ids[i]).map(ReadPathBenchmark::toResponse).orElseThrow(),
+                    i -> store.findResponseById(ids[i]).orElseThrow());
+
+            compare("50 by id", requests / 10,
+                    i -> readWrite.execute(status -> convert(store.findAllById(idsFrom(ids, i)))),
+                    i -> convert(store.findAllById(idsFrom(ids, i))),
+                    i -> store.findResponsesById(idsFrom(ids, i)));
+
+            compare("100 after id", requests / 10,
+                    i -> readWrite.execute(status -> convert(store.findAfterId(ids[i] / 2, 100))),
+                    i -> convert(store.findAfterId(ids[i] / 2, 100)),
+                    i -> store.findResponsesAfterId(ids[i] / 2, 100));
+
+            compare("100 by age", requests / 10,
+                    i -> readWrite.execute(status -> convert(store.findByAgeRange(12, 14, null, 100))),
+                    i -> convert(store.findByAgeRange(12, 14, null, 100)),
+                    i -> store.findResponsesByAgeRange(12, 14, null, 100));
+        }
+        System.exit(0);
+    }
+
+    private static void compare(String read, int requests, IntFunction<Object> entityReadWrite,
+                                IntFunction<Object> entityReadOnly, IntFunction<Object> projection) {
+        // Same answer from all three (compared as id/name/age/grade text)
+        for (int i = 0; i < 20; i++) {
+            String expected = describe(entityReadWrite.apply(i));
+            if (!expected.equals(describe(entityReadOnly.apply(i))) || !expected.equals(describe(projection.apply(i)))) {
+                System.out.println("MISMATCH for " + read + " request " + i);
+                System.exit(1);
+            }
+        }
+        measure(read, "entity rw", requests, entityReadWrite);
+        measure(read, "entity ro", requests, entityReadOnly);
+        measure(read, "projection", requests, projection);
+    }
+
+    private static void measure(String read, String path, int requests, IntFunction<Object> request) {
+        // Warm-up (JIT, statement caches), not measured
+        for (int i = 0; i < requests; i++) {
+            request.apply(i);
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long[] latencies = new long[requests];
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < requests; i++) {
+            long start = System.nanoTime();
+            request.apply(i);
+            latencies[i] = System.nanoTime() - start;
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+
+        Arrays.sort(latencies);
+        double mean = Arrays.stream(latencies).average().orElse(0) / 1000;
+        double p99 = latencies[(int) (requests * 0.99)] / 1000.0;
+        System.out.printf(Locale.ROOT, "%-12s %-12s %14d %12.1f %12.1f%n",
+                read, path, allocated / requests, mean, p99);
+    }
+
+    // ===== HELPERS =====
+
+    private static List<Long> idsFrom(long[] ids, int i) {
+        List<Long> chosen = new ArrayList<>(50);
+        for (int j = 0; j < 50; j++) {
+            chosen.add(ids[(i * 50 + j) % ids.length]);
+        }
+        return chosen;
+    }
+
+    private static List<StudentResponse> convert(List<Student> students) {
+        return students.stream().map(ReadPathBenchmark::toResponse).toList();
+    }
+
+    private static StudentResponse toResponse(Student student) {
+        return new StudentResponse(student.getId(), student.getName(), student.getAge(), student.getGrade());
+    }
+
+    private static String describe(Object result) {
+        List<?> students = result instanceof List<?> list ? list : List.of(result);
+        return students.stream()
+                .map(StudentResponse.class::cast)
+                .sorted((a, b) -> Long.compare(a.getId(), b.getId()))
+                .map(s -> s.getId() + "/" + s.getName() + "/" + s.getAge() + "/" + s.getGrade())
+                .toList()
+                .toString();
+    }
+
+    /**
+     * The application without web server, gRPC and request logging, storing in the in-memory H2
+     * (command-line arguments, because application.properties overrides builder defaults)
+     */
+    private static ConfigurableApplicationContext startContext() {
+        return new SpringApplicationBuilder(CrudApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--app.storage.backend=jpa",
+                        "--app.grpc.enabled=false",
+                        "--app.sql-monitor.sample-rate=0",
+                        "--spring.main.banner-mode=off",
+                        "--logging.level.root=WARN",
+                        "--logging.level.org.springframework=WARN",
+                        "--logging.level.com.learning.crud=WARN");
+    }
+}
@@ -0,0 +1,111 @@
+package com.learning.crud.benchmark;
+
+import com.learning.crud.dictionary.GradeDictionary;
+import com.learning.crud.entity.Student;
+import com.learning.crud.sharding.ShardedStudentStore;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * BENCHMARK: How do create and read throughput change with the number of shards?
+ *
+ * Not part of the web application (src/test, not in the jar) - run it on its own:
+ *
+ *   mvn test-compile
+ *   java -cp "target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout)" \
+ *        com.learning.crud.benchmark.ShardingBenchmark [threads] [creates] [reads]
+ *
+ * For 1, 2, 4 and 8 shards (fresh in-memory H2 databases each time) it:
+ * 1. Creates students from several threads at once
+ * 2. Reads random students by ID from several threads at once
+ * and prints operations per second for both.
+ */
+public class ShardingBenchmark {
+
+    private static final int[] SHARD_COUNTS = {1, 2, 4, 8};
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int creates = args.length > 1 ? Integer.parseInt(args[1]) : 50_000;
+        int reads = args.length > 2 ? Integer.parseInt(args[2]) : 200_000;
+
+        System.out.printf("threads=%d creates=%d reads=%d%n", threads, creates, reads);
+        System.out.printf("%-8s %15s %15s%n", "shards", "creates/sec", "reads/sec");
+
+        for (int shardCount : SHARD_COUNTS) {
+            try (ShardedStudentStore store = new ShardedStudentStore(createShards(shardCount, threads), createGradeDictionary())) {
+                List<Long> ids = new ArrayList<>(creates);
+                double createRate = run(threads, creates, i -> {
+                    Student saved = store.save(new Student("Student " + i, 10 + i % 10, "ABCDEF".substring(i % 6, i % 6 + 1)));
+                    synchronized (ids) {
+                        ids.add(saved.getId());
+                    }
+                });
+                double readRate = run(threads, reads, i -> {
+                    Long id = ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+                    store.findById(id).orElseThrow();
+                });
+                System.out.printf("%-8d %15.0f %15.0f%n", shardCount, createRate, readRate);
+            }
+        }
+    }
+
+    private static List<DataSource> createShards(int shardCount, int poolSize) {
+        long run = System.nanoTime();
+        List<DataSource> dataSources = new ArrayList<>();
+        for (int i = 0; i < shardCount; i++) {
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setJdbcUrl("jdbc:h2:mem:bench" + run + "_" + i + ";DB_CLOSE_DELAY=-1");
+            dataSource.setUsername("sa");
+            dataSource.setMaximumPoolSize(poolSize);
+            dataSources.add(dataSource);
+        }
+        return dataSources;
+    }
+
+    /**
+     * The grade dictionary normally lives in the main database; here it gets its own one
+     */
+    private static GradeDictionary createGradeDictionary() {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:grades" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+        dataSource.setUsername("sa");
+        new JdbcTemplate(dataSource).execute(
+                "CREATE TABLE grades (code SMALLINT PRIMARY KEY, grade VARCHAR(255) NOT NULL UNIQUE)");
+        return new GradeDictionary(dataSource);
+    }
+
+    /**
+     * Runs operation(0 .. count-1) spread over the given number of threads, returns operations per second
+     */
+    private static double run(int threads, int count, Operation operation) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        AtomicLong next = new AtomicLong();
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            executor.execute(() -> {
+                long i;
+                while ((i = next.getAndIncrement()) < count) {
+                    operation.run((int) i);
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.MINUTES);
+        return count / ((System.nanoTime() - start) / 1_000_000_000.0);
+    }
+
+    @FunctionalInterface
+    private interface Operation {
+        void run(int i);
+    }
+}
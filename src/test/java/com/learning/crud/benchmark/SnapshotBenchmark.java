@@ -0,0 +1,146 @@
+package com.learning.crud.benchmark;
+
+import com.learning.crud.CrudApplication;
+import com.learning.crud.analytics.HyperLogLog;
+import com.learning.crud.analytics.KllSketch;
+import com.learning.crud.entity.Student;
+import com.learning.crud.repository.StudentStore;
+import com.learning.crud.service.StudentNameIndex;
+import com.learning.crud.snapshot.StudentSnapshotFile;
+import com.learning.crud.snapshot.StudentSnapshotter;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * BENCHMARK: Time-to-ready when starting from a snapshot
+ *
+ * Not part of the web application (src/test, not in the jar) - run it on
+ * its own (10 million students need a few GB of heap for the in-memory H2
+ * and the name index):
+ *
+ *   mvn test-compile
+ *   java -Xmx4g -cp "target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout)" \
+ *        com.learning.crud.benchmark.SnapshotBenchmark [students] [load threads]
+ *
+ * 1. WRITE: generates a snapshot of N students (names from 200 first × 500
+ *    last names, ages 6..18, grades A..F) plus matching analytics sketches
+ * 2. START: starts the whole application (web server on a random port,
+ *    in-memory H2) with app.snapshot.enabled=true and measures the time
+ *    until it is ready - restore, name index and analytics included
+ * 3. CHECK: student count, a few random students, a name search
+ * 4. SNAPSHOT: writes a new snapshot from the loaded database and times it
+ */
+public class SnapshotBenchmark {
+
+    private static final String[] GRADES = {"A", "B", "C", "D", "E", "F"};
+
+    public static void main(String[] args) throws Exception {
+        int students = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 0;
+        Path dir = Files.createTempDirectory("snapshot-benchmark");
+        Path file = dir.resolve("students.snap");
+        System.out.printf("students=%d load-threads=%s cpus=%d max heap=%d MB%n", students,
+                threads == 0 ? "cpus" : threads, Runtime.getRuntime().availableProcessors(),
+                Runtime.getRuntime().maxMemory() / (1024 * 1024));
+
+        // ===== WRITE =====
+        long start = System.nanoTime();
+        HyperLogLog names = new HyperLogLog(14);
+        KllSketch ages = new KllSketch(200);
+        for (int i = 1; i <= students; i++) {
+            names.add(name(i));
+            ages.update(age(i));
+        }
+        try (StudentSnapshotFile.Writer writer = StudentSnapshotFile.create(file, names.toBytes(), ages.toBytes(), students)) {
+            for (int i = 1; i <= students; i++) {
+                writer.add(i, name(i), age(i), (short) (1 + i % GRADES.length));
+            }
+            Map<Short, String> grades = new LinkedHashMap<>();
+            for (int code = 1; code <= GRADES.length; code++) {
+                grades.put((short) code, GRADES[code - 1]);
+            }
+            writer.finish(grades);
+        }
+        long size = Files.size(file);
+        System.out.printf("%-26s %10.0f ms  (%d MB, %.1f bytes/student)%n", "generate snapshot",
+                (System.nanoTime() - start) / 1e6, size / (1024 * 1024), size / (double) students);
+
+        // ===== START =====
+        start = System.nanoTime();
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(CrudApplication.class)
+                .run("--server.port=0",
+                        "--app.grpc.enabled=false",
+                        "--app.snapshot.enabled=true",
+                        "--app.snapshot.dir=" + dir,
+                        "--app.snapshot.load-threads=" + threads,
+                        // No timed snapshot while measuring (one is written on close)
+                        "--app.snapshot.interval-ms=86400000",
+                        "--app.sql-monitor.sample-rate=0",
+                        "--spring.main.banner-mode=off",
+                        "--logging.level.root=WARN",
+                        "--logging.level.org.springframework=WARN",
+                        "--logging.level.com.learning.crud=WARN",
+                        "--logging.level.com.learning.crud.snapshot=INFO")) {
+            System.out.printf("%-26s %10.0f ms%n", "time to ready", (System.nanoTime() - start) / 1e6);
+
+            // ===== CHECK =====
+            StudentStore store = context.getBean(StudentStore.class);
+            if (store.count() != students) {
+                throw new IllegalStateException("expected " + students + " students, found " + store.count());
+            }
+            for (int n = 0; n < 1000; n++) {
+                int i = 1 + ThreadLocalRandom.current().nextInt(students);
+                Student student = store.findById((long) i).orElseThrow();
+                if (!student.getName().equals(name(i)) || student.getAge() != age(i)
+                        || !student.getGrade().equals(GRADES[i % GRADES.length])) {
+                    throw new IllegalStateException("student " + i + " differs");
+                }
+            }
+            if (context.getBean(StudentNameIndex.class).searchPrefix(name(students), 10).isEmpty()) {
+                throw new IllegalStateException("name index misses " + name(students));
+            }
+            Student next = store.save(new Student("After Restore", 12, "A"));
+            if (next.getId() != students + 1L) {
+                throw new IllegalStateException("next ID is " + next.getId());
+            }
+            System.out.println("check: OK");
+
+            // ===== SNAPSHOT =====
+            start = System.nanoTime();
+            long written = context.getBean(StudentSnapshotter.class).write();
+            System.out.printf("%-26s %10.0f ms  (%d students)%n", "write snapshot from db",
+                    (System.nanoTime() - start) / 1e6, written);
+        } finally {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(dir.resolve("students.snap.tmp"));
+            Files.deleteIfExists(dir);
+        }
+        System.exit(0);
+    }
+
+    private static final String[] FIRST = new String[200];
+    private static final String[] LAST = new String[500];
+
+    static {
+        for (int i = 0; i < FIRST.length; i++) {
+            FIRST[i] = "First" + Integer.toString(i, 36);
+        }
+        for (int i = 0; i < LAST.length; i++) {
+            LAST[i] = "Last" + Integer.toString(i * 7919, 36);
+        }
+    }
+
+    private static String name(int i) {
+        return FIRST[i % FIRST.length] + " " + LAST[(i / FIRST.length) % LAST.length];
+    }
+
+    private static int age(int i) {
+        return 6 + i % 13;
+    }
+}
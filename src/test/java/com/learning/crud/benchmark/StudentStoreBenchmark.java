@@ -0,0 +1,143 @@
+package com.learning.crud.benchmark;
+
+import com.learning.crud.entity.Student;
+import com.learning.crud.repository.StudentStore;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * BENCHMARK: The StudentStore backends side by side
+ *
+ * Not part of the web application (src/test, not in the jar) - run it on its own:
+ *
+ *   mvn test-compile
+ *   java -cp "target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout)" \
+ *        com.learning.crud.benchmark.StudentStoreBenchmark [students] [reads] [threads] [backend ...]
+ *
+ * For each backend (default: jpa, jdbc, memory) it starts the application
+ * on a fresh store and measures with the calls StudentService makes
+ * (that every backend behaves correctly is checked by StudentStoreConformanceTest,
+ * part of mvn test):
+ *
+ *   saves/sec     save() one student at a time
+ *   batched/sec   saveAll() in batches of 1000 (students per second)
+ *   gets/sec      findResponseById() of random IDs, from several threads
+ *   B/get         bytes allocated per findResponseById() (one thread)
+ *   pages/sec     findResponsesAfterId() pages of 100 from random places
+ *   filters/sec   findResponsesByAgeRange() of 100 students
+ */
+public class StudentStoreBenchmark {
+
+    private static final String[] GRADES = {"A", "B", "C", "D", "E", "F"};
+
+    public static void main(String[] args) throws Exception {
+        int students = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int reads = args.length > 1 ? Integer.parseInt(args[1]) : 200_000;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+        List<String> backends = args.length > 3
+                ? List.of(args).subList(3, args.length)
+                : List.of("jpa", "jdbc", "memory");
+
+        System.out.printf("students=%d reads=%d threads=%d%n", students, reads, threads);
+        System.out.printf("%-8s %12s %12s %12s %8s %12s %12s%n",
+                "store", "saves/sec", "batched/sec", "gets/sec", "B/get", "pages/sec", "filters/sec");
+        for (String backend : backends) {
+            Path mmapDir = Files.createTempDirectory("store-benchmark");
+            try (ConfigurableApplicationContext context = BenchmarkContext.start(backend, mmapDir)) {
+                run(backend, context.getBean(StudentStore.class), students, reads, threads);
+            } finally {
+                BenchmarkContext.deleteRecursively(mmapDir);
+            }
+        }
+        System.exit(0);
+    }
+
+    private static void run(String label, StudentStore store, int students, int reads, int threads)
+            throws InterruptedException {
+        int singles = Math.max(1, students / 10);
+        double saves = perSecond(singles, () -> {
+            for (int i = 0; i < singles; i++) {
+                store.save(student(i));
+            }
+        });
+        double batched = perSecond(students, () -> {
+            for (int from = 0; from < students; from += 1000) {
+                List<Student> batch = new ArrayList<>();
+                for (int i = from; i < Math.min(students, from + 1000); i++) {
+                    batch.add(student(i));
+                }
+                store.saveAll(batch);
+            }
+        });
+        long total = store.count();
+
+        // Warm up the read path (JIT) before any read is measured
+        for (int i = 0; i < 20_000; i++) {
+            store.findResponseById(1 + ThreadLocalRandom.current().nextLong(total));
+        }
+        double gets = parallel(threads, reads, () ->
+                store.findResponseById(1 + ThreadLocalRandom.current().nextLong(total)).orElseThrow());
+        long bytesPerGet = bytesPerCall(10_000, () ->
+                store.findResponseById(1 + ThreadLocalRandom.current().nextLong(total)).orElseThrow());
+        int pageReads = Math.max(1, reads / 20);
+        double pages = perSecond(pageReads, () -> {
+            for (int i = 0; i < pageReads; i++) {
+                store.findResponsesAfterId(ThreadLocalRandom.current().nextLong(total), 100);
+            }
+        });
+        double filters = perSecond(pageReads, () -> {
+            for (int i = 0; i < pageReads; i++) {
+                int age = 10 + ThreadLocalRandom.current().nextInt(8);
+                store.findResponsesByAgeRange(age, age + 2, null, 100);
+            }
+        });
+        System.out.printf(Locale.ROOT, "%-8s %12.0f %12.0f %12.0f %8d %12.0f %12.0f%n",
+                label, saves, batched, gets, bytesPerGet, pages, filters);
+    }
+
+    private static double perSecond(long operations, Runnable work) {
+        long start = System.nanoTime();
+        work.run();
+        return operations / ((System.nanoTime() - start) / 1e9);
+    }
+
+    private static double parallel(int threads, int operations, Runnable operation) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        AtomicLong next = new AtomicLong();
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            executor.execute(() -> {
+                while (next.getAndIncrement() < operations) {
+                    operation.run();
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.HOURS);
+        return operations / ((System.nanoTime() - start) / 1e9);
+    }
+
+    private static long bytesPerCall(int calls, Runnable operation) {
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long before = threadBean.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < calls; i++) {
+            operation.run();
+        }
+        return (threadBean.getCurrentThreadAllocatedBytes() - before) / calls;
+    }
+
+    private static Student student(int i) {
+        return new Student("Student Nümber " + i, 10 + i % 10, GRADES[i % GRADES.length]);
+    }
+}
@@ -0,0 +1,70 @@
+package com.learning.crud.benchmark;
+
+import java.util.function.LongSupplier;
+
+/**
+ * BENCHMARK HELPER: Timing loops shared by the single-threaded benchmarks
+ *
+ * A result that nobody uses lets the JIT throw away the work that produced
+ * it, and the benchmark then measures an empty loop. Every result measured
+ * here goes into consume(), which writes it to a volatile field: the JIT
+ * has to assume somebody reads it, so the work must really happen.
+ */
+final class Timing {
+
+    // Written by consume(); never read, it only has to exist
+    private static volatile long blackhole;
+
+    private Timing() {
+    }
+
+    /**
+     * Average nanoseconds per task.run(), after the same number of warm-up calls
+     */
+    static double nanosPerCall(int iterations, Task task) throws Exception {
+        long sum = 0;
+        for (int i = 0; i < iterations; i++) {
+            sum += task.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            sum += task.run();
+        }
+        double nanos = (System.nanoTime() - start) / (double) iterations;
+        consume(sum);
+        return nanos;
+    }
+
+    /**
+     * Runs work once (it loops by itself) and returns nanoseconds per operation
+     */
+    static double nanosPer(int operations, LongSupplier work) {
+        long start = System.nanoTime();
+        long result = work.getAsLong();
+        long elapsed = System.nanoTime() - start;
+        consume(result);
+        return elapsed / (double) operations;
+    }
+
+    /**
+     * Runs work once and returns how many milliseconds it took
+     */
+    static double millis(LongSupplier work) {
+        return nanosPer(1, work) / 1_000_000.0;
+    }
+
+    /**
+     * Marks a result as used, so the JIT cannot skip computing it
+     */
+    static void consume(long value) {
+        blackhole = value;
+    }
+
+    /**
+     * One measured call; returns something derived from its result (e.g. a length)
+     */
+    @FunctionalInterface
+    interface Task {
+        long run() throws Exception;
+    }
+}
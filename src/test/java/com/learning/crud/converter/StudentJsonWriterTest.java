@@ -0,0 +1,146 @@
+package com.learning.crud.converter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.learning.crud.dto.StudentResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+/**
+ * STUDENT JSON WRITER: Byte for byte the same as Jackson
+ *
+ * Jackson is set up the way Spring MVC sets it up (Jackson2ObjectMapperBuilder),
+ * so a client cannot tell which of the two wrote a response.
+ */
+class StudentJsonWriterTest {
+
+    // Hard cases for the string escaping
+    private static final String[] SPECIAL = {
+            "\"", "\\", "/", "\n", "\r", "\t", "\b", "\f", "\u0000", "\u001f", "\u007f",
+            "é", "ß", "߿", "ࠀ", "中文", "￿", "😀", "\ud83d", "\ude00", "<script>", " "
+    };
+
+    private final ObjectMapper jackson = Jackson2ObjectMapperBuilder.json().build();
+
+    @Test
+    void plainStudent() throws Exception {
+        assertSameAsJackson(new StudentResponse(12345L, "Alexandra Johnson", 16, "A"));
+    }
+
+    @Test
+    void nullFields() throws Exception {
+        assertSameAsJackson(new StudentResponse(null, null, null, null));
+        assertSameAsJackson(new StudentResponse(1L, null, 15, "B"));
+        assertSameAsJackson(new StudentResponse(null, "No ID", null, "C"));
+    }
+
+    @Test
+    void nonAsciiNames() throws Exception {
+        assertSameAsJackson(new StudentResponse(1L, "Zoë Müller-Groß", 15, "A"));
+        assertSameAsJackson(new StudentResponse(2L, "王小明", 16, "B"));
+        assertSameAsJackson(new StudentResponse(3L, "Emoji 😀 Smith", 17, "Ä"));
+        // A lone surrogate is not valid UTF-16: both must write the same replacement
+        assertSameAsJackson(new StudentResponse(4L, "broken \ud83d pair", 18, "\ude00"));
+    }
+
+    @Test
+    void escapedNames() throws Exception {
+        assertSameAsJackson(new StudentResponse(1L, "Quote \" and backslash \\", 15, "A"));
+        assertSameAsJackson(new StudentResponse(2L, "Lines\nand\ttabs\r\b\f", 16, "B"));
+        assertSameAsJackson(new StudentResponse(3L, "Control \u0000 \u001f \u007f", 17, "C"));
+        assertSameAsJackson(new StudentResponse(4L, "</script><script>alert(1)</script>", 18, "D"));
+    }
+
+    @Test
+    void extremeNumbers() throws Exception {
+        assertSameAsJackson(new StudentResponse(Long.MIN_VALUE, "Min", Integer.MIN_VALUE, "A"));
+        assertSameAsJackson(new StudentResponse(Long.MAX_VALUE, "Max", Integer.MAX_VALUE, "A"));
+        assertSameAsJackson(new StudentResponse(0L, "Zero", 0, "A"));
+        assertSameAsJackson(new StudentResponse(-7L, "Negative", -1, "A"));
+    }
+
+    @Test
+    void lists() throws Exception {
+        assertSameAsJackson(List.of());
+        assertSameAsJackson(List.of(new StudentResponse(1L, "Only one", 15, "A")));
+        List<StudentResponse> several = new ArrayList<>();
+        several.add(new StudentResponse(1L, "First", 15, "A"));
+        several.add(null);
+        several.add(new StudentResponse(3L, "Quote \" 中文", null, null));
+        several.add(new StudentResponse(4L, "Last", 18, "F"));
+        assertSameAsJackson(several);
+    }
+
+    @Test
+    void randomStudents() throws Exception {
+        Random random = new Random(42);
+        List<StudentResponse> batch = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            StudentResponse student = new StudentResponse(
+                    random.nextInt(20) == 0 ? null : randomLong(random),
+                    random.nextInt(20) == 0 ? null : randomText(random),
+                    random.nextInt(20) == 0 ? null : random.nextInt(),
+                    random.nextInt(20) == 0 ? null : randomText(random));
+            assertSameAsJackson(student);
+            batch.add(student);
+            if (batch.size() == 50) {
+                assertSameAsJackson(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void assertSameAsJackson(StudentResponse student) throws Exception {
+        StudentJsonWriter writer = StudentJsonWriter.acquire();
+        try {
+            assertSameBytes(jackson.writeValueAsBytes(student), writer.write(student).toByteArray());
+        } finally {
+            writer.release();
+        }
+    }
+
+    private void assertSameAsJackson(List<StudentResponse> students) throws Exception {
+        StudentJsonWriter writer = StudentJsonWriter.acquire();
+        try {
+            assertSameBytes(jackson.writeValueAsBytes(students), writer.write(students).toByteArray());
+        } finally {
+            writer.release();
+        }
+    }
+
+    private static void assertSameBytes(byte[] expected, byte[] actual) {
+        assertArrayEquals(expected, actual, () -> "jackson: " + new String(expected, StandardCharsets.UTF_8)
+                + "\nwriter:  " + new String(actual, StandardCharsets.UTF_8));
+    }
+
+    private static long randomLong(Random random) {
+        return switch (random.nextInt(6)) {
+            case 0 -> Long.MIN_VALUE;
+            case 1 -> Long.MAX_VALUE;
+            case 2 -> 0;
+            case 3 -> -random.nextInt(1000);
+            default -> random.nextLong();
+        };
+    }
+
+    private static String randomText(Random random) {
+        StringBuilder text = new StringBuilder();
+        int parts = random.nextInt(8);
+        for (int i = 0; i < parts; i++) {
+            if (random.nextBoolean()) {
+                text.append(SPECIAL[random.nextInt(SPECIAL.length)]);
+            } else if (random.nextInt(10) == 0) {
+                text.append((char) random.nextInt(Character.MAX_VALUE + 1));
+            } else {
+                text.append((char) ('a' + random.nextInt(26)));
+            }
+        }
+        return text.toString();
+    }
+}
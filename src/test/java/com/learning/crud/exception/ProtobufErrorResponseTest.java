@@ -0,0 +1,73 @@
+package com.learning.crud.exception;
+
+import com.learning.crud.controller.StudentController;
+import com.learning.crud.converter.StudentProtobufHttpMessageConverter;
+import com.learning.crud.proto.StudentProto;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * ERROR RESPONSES FOR PROTOBUF CLIENTS
+ *
+ * A client that only accepts application/x-protobuf must still get the
+ * right status code and a readable error (as JSON, since protobuf cannot
+ * express the error map), not an empty HTTP 500.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:protobuf-errors",
+        "app.grpc.enabled=false"
+})
+@AutoConfigureMockMvc
+class ProtobufErrorResponseTest {
+
+    private static final MediaType PROTOBUF = StudentProtobufHttpMessageConverter.PROTOBUF;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void unknownStudentIsNotFound() throws Exception {
+        mockMvc.perform(get("/api/students/999999").accept(PROTOBUF))
+                .andExpect(status().isNotFound())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.status").value(404))
+                .andExpect(jsonPath("$.message").value("Student not found with id: 999999"));
+    }
+
+    @Test
+    void invalidRequestIsBadRequest() throws Exception {
+        byte[] body = StudentProto.StudentRequest.newBuilder()
+                .setName("Proto Client")
+                .setAge(15)
+                .setGrade("A")
+                .build()
+                .toByteArray();
+
+        // An Idempotency-Key longer than 255 characters is rejected
+        mockMvc.perform(post("/api/students")
+                        .contentType(PROTOBUF)
+                        .accept(PROTOBUF)
+                        .header(StudentController.IDEMPOTENCY_KEY, "k".repeat(300))
+                        .content(body))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.status").value(400));
+    }
+
+    @Test
+    void formatsThatCanExpressTheErrorStillGetIt() throws Exception {
+        mockMvc.perform(get("/api/students/999999").accept(MediaType.valueOf("application/cbor")))
+                .andExpect(status().isNotFound())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.valueOf("application/cbor")));
+    }
+}
@@ -0,0 +1,216 @@
+package com.learning.crud.idempotency;
+
+import com.learning.crud.dto.StudentResponse;
+import com.learning.crud.exception.IdempotencyKeyConflictException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * IDEMPOTENCY STORE: One create per key - replayed, waited for, conflicting, forgotten
+ */
+class IdempotencyStoreTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger creates = new AtomicInteger();
+
+    @Test
+    void repeatGetsTheRememberedAnswerWithoutCreatingAgain() {
+        IdempotencyStore store = store(100, 86_400, 5_000);
+
+        StudentResponse first = store.execute("k1", "Ann|15|A", this::create);
+        StudentResponse repeat = store.execute("k1", "Ann|15|A", this::create);
+
+        assertSame(first, repeat);
+        assertEquals(1, creates.get());
+        assertEquals(1.0, meterRegistry.counter("students.idempotency.replays").count());
+    }
+
+    @Test
+    void otherKeysCreateAgain() {
+        IdempotencyStore store = store(100, 86_400, 5_000);
+
+        store.execute("k1", "Ann|15|A", this::create);
+        store.execute("k2", "Ann|15|A", this::create);
+
+        assertEquals(2, creates.get());
+    }
+
+    @Test
+    void sameKeyForAnotherRequestIsAConflict() {
+        IdempotencyStore store = store(100, 86_400, 5_000);
+        store.execute("k1", "Ann|15|A", this::create);
+
+        assertThrows(IdempotencyKeyConflictException.class, () -> store.execute("k1", "Bob|16|B", this::create));
+        assertEquals(1, creates.get());
+    }
+
+    @Test
+    void repeatWhileTheFirstRunsWaitsForItsAnswer() throws Exception {
+        IdempotencyStore store = store(100, 86_400, 5_000);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<StudentResponse> first = CompletableFuture.supplyAsync(() -> store.execute("k1", "Ann|15|A", () -> {
+            started.countDown();
+            await(release);
+            return create();
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<StudentResponse> repeat = CompletableFuture.supplyAsync(() -> store.execute("k1", "Ann|15|A", this::create));
+
+        waitUntil(() -> meterRegistry.counter("students.idempotency.waits").count() == 1.0);
+        assertFalse(repeat.isDone(), "the repeat must wait for the first request");
+        release.countDown();
+
+        assertSame(first.get(5, TimeUnit.SECONDS), repeat.get(5, TimeUnit.SECONDS));
+        assertEquals(1, creates.get());
+    }
+
+    @Test
+    void repeatThatWaitsTooLongIsTurnedAway() throws Exception {
+        IdempotencyStore store = store(100, 86_400, 50);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<StudentResponse> first = CompletableFuture.supplyAsync(() -> store.execute("k1", "Ann|15|A", () -> {
+            started.countDown();
+            await(release);
+            return create();
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        assertThrows(IdempotencyKeyConflictException.class, () -> store.execute("k1", "Ann|15|A", this::create));
+
+        release.countDown();
+        first.get(5, TimeUnit.SECONDS);
+        assertEquals(1, creates.get());
+    }
+
+    @Test
+    void failedCreateIsForgottenSoARetryRunsAgain() {
+        IdempotencyStore store = store(100, 86_400, 5_000);
+
+        assertThrows(IllegalStateException.class, () -> store.execute("k1", "Ann|15|A", () -> {
+            throw new IllegalStateException("database down");
+        }));
+        store.execute("k1", "Ann|15|A", this::create);
+        store.execute("k1", "Ann|15|A", this::create);
+
+        assertEquals(1, creates.get());
+    }
+
+    @Test
+    void createThrowingAnErrorIsForgottenToo() {
+        IdempotencyStore store = store(100, 86_400, 5_000);
+
+        assertThrows(StackOverflowError.class, () -> store.execute("k1", "Ann|15|A", () -> {
+            throw new StackOverflowError();
+        }));
+        // Not left waiting on a future nobody completes: the retry runs
+        store.execute("k1", "Ann|15|A", this::create);
+
+        assertEquals(1, creates.get());
+    }
+
+    @Test
+    void repeatWaitingForAFailedCreateGetsTheSameError() throws Exception {
+        IdempotencyStore store = store(100, 86_400, 5_000);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        IllegalStateException failure = new IllegalStateException("database down");
+
+        CompletableFuture<StudentResponse> first = CompletableFuture.supplyAsync(() -> store.execute("k1", "Ann|15|A", () -> {
+            started.countDown();
+            await(release);
+            throw failure;
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Throwable> repeat = CompletableFuture.supplyAsync(() -> {
+            try {
+                store.execute("k1", "Ann|15|A", this::create);
+                return null;
+            } catch (RuntimeException ex) {
+                return ex;
+            }
+        });
+        waitUntil(() -> meterRegistry.counter("students.idempotency.waits").count() == 1.0);
+        release.countDown();
+
+        assertSame(failure, repeat.get(5, TimeUnit.SECONDS));
+        assertThrows(Exception.class, () -> first.get(5, TimeUnit.SECONDS));
+        assertEquals(0, creates.get());
+    }
+
+    @Test
+    void oldestFinishedKeysAreDroppedAboveMaxKeys() {
+        IdempotencyStore store = store(2, 86_400, 5_000);
+
+        store.execute("k1", "Ann|15|A", this::create);
+        store.execute("k2", "Ann|15|A", this::create);
+        store.execute("k3", "Ann|15|A", this::create);
+        store.execute("k3", "Ann|15|A", this::create);
+        assertEquals(3, creates.get(), "k3 is still remembered");
+
+        // k1 was the oldest: dropped, so it creates again
+        store.execute("k1", "Ann|15|A", this::create);
+        assertEquals(4, creates.get());
+        assertTrue(meterRegistry.get("students.idempotency.keys").gauge().value() <= 3);
+    }
+
+    @Test
+    void expiredKeysCreateAgain() throws InterruptedException {
+        IdempotencyStore store = store(100, 1, 5_000);
+        store.execute("k1", "Ann|15|A", this::create);
+
+        Thread.sleep(1_100);
+        store.execute("k1", "Bob|16|B", this::create);
+
+        assertEquals(2, creates.get(), "an expired key is free again, even for another request");
+    }
+
+    @Test
+    void blankAndOverlongKeysAreRejected() {
+        IdempotencyStore store = store(100, 86_400, 5_000);
+
+        assertThrows(IllegalArgumentException.class, () -> store.execute(" ", "Ann|15|A", this::create));
+        assertThrows(IllegalArgumentException.class,
+                () -> store.execute("k".repeat(IdempotencyStore.MAX_KEY_LENGTH + 1), "Ann|15|A", this::create));
+        assertEquals(0, creates.get());
+    }
+
+    private IdempotencyStore store(int maxKeys, long ttlSeconds, long waitMillis) {
+        return new IdempotencyStore(meterRegistry, maxKeys, ttlSeconds, waitMillis);
+    }
+
+    private StudentResponse create() {
+        long id = creates.incrementAndGet();
+        return new StudentResponse(id, "Student " + id, 15, "A");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not reached within 5 seconds");
+            Thread.sleep(1);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.learning.crud.mmap;
+
+import com.learning.crud.entity.Student;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * MEMORY-MAPPED STORE: Bulk updates survive a restart, and a crash in the middle of one
+ *
+ * (What every store must do is checked by StudentStoreConformanceTest;
+ * this is only about the files.)
+ */
+class MappedStudentStoreTest {
+
+    private static final int RECORD_SIZE = 32;
+    private static final int AGE = 20;
+
+    @Test
+    void bulkUpdatesAreStillThereAfterReopening(@TempDir Path dir) throws IOException {
+        try (MappedStudentStore store = open(dir)) {
+            store.saveAll(students());
+            assertEquals(2, store.updateGrade(1, 3, "B", "A"));
+            assertEquals(3, store.shiftAges(1, 3, 1));
+        }
+        try (MappedStudentStore store = open(dir)) {
+            assertEquals(3, store.count(), "no record may fail its checksum after the update");
+            assertStudent(store, 1, "Ann", 16, "A");
+            assertStudent(store, 2, "Bob", 17, "A");
+            assertStudent(store, 3, "Cid", 18, "C");
+        }
+    }
+
+    @Test
+    void unfinishedBulkUpdateIsWrittenAgainOnStartup(@TempDir Path dir) throws IOException {
+        try (MappedStudentStore store = open(dir)) {
+            store.saveAll(students());
+            store.shiftAges(2, 2, 10);
+        }
+        // The crash: the journal holds the new record of student 2, but
+        // students.dat got only part of it (the old age, the new checksum)
+        Path records = dir.resolve("students.dat");
+        byte[] newRecord = new byte[RECORD_SIZE];
+        try (RandomAccessFile file = new RandomAccessFile(records.toFile(), "rw")) {
+            file.seek(RECORD_SIZE);
+            file.readFully(newRecord);
+            file.seek(RECORD_SIZE + AGE);
+            file.writeInt(16);
+        }
+        try (MappedUpdateJournal journal = new MappedUpdateJournal(dir.resolve("updates.log"), RECORD_SIZE)) {
+            journal.write(List.of(newRecord), true);
+        }
+
+        try (MappedStudentStore store = open(dir)) {
+            assertEquals(3, store.count(), "students after the half-written record must not be wiped");
+            assertStudent(store, 2, "Bob", 26, "B");
+            assertStudent(store, 3, "Cid", 17, "C");
+        }
+        assertEquals(0, Files.size(dir.resolve("updates.log")), "journal must be empty after the redo");
+    }
+
+    private static MappedStudentStore open(Path dir) throws IOException {
+        return new MappedStudentStore(dir, 1, true);
+    }
+
+    private static List<Student> students() {
+        return List.of(new Student("Ann", 15, "B"), new Student("Bob", 16, "B"), new Student("Cid", 17, "C"));
+    }
+
+    private static void assertStudent(MappedStudentStore store, long id, String name, int age, String grade) {
+        Student student = store.findById(id).orElseThrow();
+        assertEquals(name, student.getName(), "name of student " + id);
+        assertEquals(age, student.getAge(), "age of student " + id);
+        assertEquals(grade, student.getGrade(), "grade of student " + id);
+    }
+}
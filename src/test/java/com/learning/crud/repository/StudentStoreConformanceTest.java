@@ -0,0 +1,262 @@
+package com.learning.crud.repository;
+
+import com.learning.crud.CrudApplication;
+import com.learning.crud.dto.StudentResponse;
+import com.learning.crud.entity.Student;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * CONFORMANCE TEST: One list of checks that EVERY StudentStore must pass
+ *
+ * Runs with mvn test, once per backend (jpa, jdbc, memory, sharded, mmap).
+ * Each run starts the application without a web server on a fresh, empty
+ * store and checks what StudentStore promises: generated IDs, saveAll
+ * order, lookups of unknown IDs, page and findAfterId order, inclusive
+ * age ranges, grade filters, counts, the findResponse... reads giving the
+ * same students as the entity reads, bulk updates of an ID range, and
+ * concurrent saves.
+ *
+ * A new backend only has to be added to the list below.
+ */
+class StudentStoreConformanceTest {
+
+    private static final String[] GRADES = {"A", "B", "C"};
+
+    // Every started application gets its own in-memory databases
+    private static final AtomicLong RUN = new AtomicLong();
+
+    @ParameterizedTest(name = "{0}")
+    @ValueSource(strings = {"jpa", "jdbc", "memory", "sharded", "mmap"})
+    void storeKeepsItsPromises(String backend, @TempDir Path mmapDir) throws InterruptedException {
+        try (ConfigurableApplicationContext context = startContext(backend, mmapDir)) {
+            check(context.getBean(StudentStore.class));
+        }
+    }
+
+    /**
+     * Runs every check against an EMPTY store
+     */
+    private static void check(StudentStore store) throws InterruptedException {
+        // ----- empty store -----
+        assertEquals(0, store.count(), "a new store must be empty");
+        assertTrue(store.findById(1L).isEmpty(), "findById on an empty store must be empty");
+        assertTrue(store.findPage(0, 10).isEmpty(), "findPage on an empty store must be empty");
+        assertTrue(store.findResponseById(1L).isEmpty(), "findResponseById on an empty store must be empty");
+
+        // ----- save -----
+        Student first = store.save(new Student("Ada Lovelace", 15, "A"));
+        assertNotNull(first.getId(), "save must return a generated ID");
+        assertTrue(first.getId() > 0, "save must return a positive ID");
+        assertSame(first, "Ada Lovelace", 15, "A", "save result");
+        assertSame(store.findById(first.getId()).orElseThrow(() -> new AssertionError("saved student not found")),
+                "Ada Lovelace", 15, "A", "findById after save");
+
+        // ----- saveAll: same order, new distinct IDs -----
+        List<Student> batch = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            batch.add(new Student("Student Ünï " + i, 10 + i % 9, GRADES[i % GRADES.length]));
+        }
+        List<Student> saved = store.saveAll(batch);
+        assertEquals(batch.size(), saved.size(), "saveAll must return one student per input");
+        Set<Long> ids = new HashSet<>();
+        ids.add(first.getId());
+        for (int i = 0; i < saved.size(); i++) {
+            assertSame(saved.get(i), batch.get(i).getName(), batch.get(i).getAge(), batch.get(i).getGrade(),
+                    "saveAll result " + i);
+            assertTrue(ids.add(saved.get(i).getId()), "saveAll returned a duplicate ID " + saved.get(i).getId());
+        }
+        assertTrue(store.saveAll(List.of()).isEmpty(), "saveAll of nothing must return nothing");
+        assertEquals(26, store.count(), "count() after 26 saves");
+
+        List<Student> all = new ArrayList<>(saved);
+        all.add(first);
+        all.sort(Comparator.comparing(Student::getId));
+        long unknownId = all.get(all.size() - 1).getId() + 1_000_000;
+
+        // ----- lookups -----
+        assertTrue(store.findById(unknownId).isEmpty(), "findById of an unknown ID must be empty");
+        List<Long> wanted = List.of(saved.get(3).getId(), unknownId, saved.get(7).getId(), first.getId());
+        assertEquals(Stream.of(first.getId(), saved.get(3).getId(), saved.get(7).getId()).sorted().toList(),
+                store.findAllById(wanted).stream().map(Student::getId).sorted().toList(),
+                "findAllById (unknown IDs are left out)");
+        assertTrue(store.findAllById(List.of()).isEmpty(), "findAllById of no IDs must be empty");
+
+        // ----- ID order: pages and findAfterId -----
+        List<Long> allIds = all.stream().map(Student::getId).toList();
+        assertEquals(allIds.subList(0, 10), ids(store.findPage(0, 10)), "findPage(0, 10)");
+        assertEquals(allIds.subList(20, 26), ids(store.findPage(2, 10)), "findPage(2, 10) (last, partial page)");
+        assertTrue(store.findPage(3, 10).isEmpty(), "findPage past the end must be empty");
+        assertEquals(allIds.subList(5, 10), ids(store.findAfterId(allIds.get(4), 5)), "findAfterId");
+        assertEquals(allIds, ids(store.findAfterId(0, 1000)), "findAfterId(0) must return everyone in ID order");
+        assertTrue(store.findAfterId(allIds.get(25), 10).isEmpty(), "findAfterId of the last ID must be empty");
+
+        // ----- filters: inclusive bounds, grade, limit, order -----
+        assertEquals(allIds.stream().filter(id -> between(byId(all, id), 12, 14, null)).toList(),
+                ids(store.findByAgeRange(12, 14, null, 1000)), "findByAgeRange(12..14)");
+        assertEquals(allIds.stream().filter(id -> between(byId(all, id), 10, 18, "B")).toList(),
+                ids(store.findByAgeRange(10, 18, "B", 1000)), "findByAgeRange grade B");
+        assertEquals(allIds.subList(0, 3), ids(store.findByAgeRange(0, 100, null, 3)), "findByAgeRange limit");
+        assertTrue(store.findByAgeRange(0, 100, "no such grade", 10).isEmpty(), "an unknown grade must match nobody");
+
+        // ----- counts -----
+        Map<String, Long> byGrade = new HashMap<>();
+        Map<Integer, Long> byAge = new HashMap<>();
+        all.forEach(s -> {
+            byGrade.merge(s.getGrade(), 1L, Long::sum);
+            byAge.merge(s.getAge(), 1L, Long::sum);
+        });
+        assertEquals(byGrade, new HashMap<>(store.countByGrade()), "countByGrade");
+        assertEquals(byAge, new HashMap<>(store.countByAge()), "countByAge");
+
+        // ----- the response reads give the same students -----
+        assertSameResponses(store.findResponseById(first.getId()).stream().toList(),
+                store.findById(first.getId()).stream().toList(), "findResponseById");
+        assertTrue(store.findResponseById(unknownId).isEmpty(), "findResponseById of an unknown ID must be empty");
+        assertSameResponses(store.findResponsesById(wanted), store.findAllById(wanted), "findResponsesById");
+        assertSameResponses(store.findResponsePage(1, 10), store.findPage(1, 10), "findResponsePage");
+        assertSameResponses(store.findResponsesAfterId(allIds.get(2), 7), store.findAfterId(allIds.get(2), 7),
+                "findResponsesAfterId");
+        assertSameResponses(store.findResponsesByAgeRange(11, 15, "C", 1000), store.findByAgeRange(11, 15, "C", 1000),
+                "findResponsesByAgeRange");
+
+        // ----- bulk updates: only the ID range (both ends included), only matching students -----
+        assertEquals(allIds.get(25), store.maxId(), "maxId()");
+        checkBulkUpdates(store, all, allIds);
+
+        // ----- concurrent saves: no lost or duplicate IDs -----
+        int threads = 4;
+        int perThread = 100;
+        ConcurrentLinkedQueue<Long> concurrentIds = new ConcurrentLinkedQueue<>();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            executor.execute(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    if (i % 10 == 0) {
+                        store.saveAll(List.of(new Student("Batch " + thread, 12, "A"), new Student("Batch " + thread, 13, "B")))
+                                .forEach(s -> concurrentIds.add(s.getId()));
+                    } else {
+                        concurrentIds.add(store.save(new Student("Thread " + thread, 12, "A")).getId());
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.MINUTES), "concurrent saves did not finish");
+        int expectedNew = threads * (perThread + perThread / 10);
+        assertEquals(expectedNew, concurrentIds.size(), "IDs returned by concurrent saves");
+        assertEquals(expectedNew, new HashSet<>(concurrentIds).size(), "distinct IDs returned by concurrent saves");
+        assertTrue(Collections.disjoint(ids, concurrentIds), "concurrent saves reused an existing ID");
+        assertEquals(26 + expectedNew, store.count(), "count() after concurrent saves");
+        assertEquals(expectedNew, store.findAllById(concurrentIds).size(), "concurrently saved students found");
+    }
+
+    /**
+     * updateGrade() and shiftAges() on part of the students
+     */
+    private static void checkBulkUpdates(StudentStore store, List<Student> all, List<Long> allIds) {
+        long fromId = allIds.get(2);
+        long toId = allIds.get(14);
+        long expectedPromoted = all.stream()
+                .filter(s -> s.getId() >= fromId && s.getId() <= toId && "B".equals(s.getGrade()))
+                .count();
+        long promoted = store.updateGrade(fromId, toId, "B", "D");
+        assertEquals(expectedPromoted, promoted, "students changed by updateGrade");
+        assertEquals(0, store.updateGrade(fromId, toId, "no such grade", "E"), "updateGrade of an unknown grade must change nobody");
+        assertEquals(5, store.shiftAges(allIds.get(5), allIds.get(9), 2), "shiftAges must change every student in the range");
+
+        for (Student before : all) {
+            long id = before.getId();
+            boolean promotedHere = id >= fromId && id <= toId && "B".equals(before.getGrade());
+            boolean shifted = id >= allIds.get(5) && id <= allIds.get(9);
+            assertSame(store.findById(id).orElseThrow(() -> new AssertionError("student " + id + " lost")),
+                    before.getName(), before.getAge() + (shifted ? 2 : 0), promotedHere ? "D" : before.getGrade(),
+                    "after bulk updates, student " + id);
+        }
+
+        // Back to the way it was, so the remaining checks see the original students
+        store.updateGrade(fromId, toId, "D", "B");
+        store.shiftAges(allIds.get(5), allIds.get(9), -2);
+    }
+
+    // ===== HELPERS =====
+
+    private static void assertSame(Student student, String name, int age, String grade, String what) {
+        assertEquals(name + "/" + age + "/" + grade,
+                student.getName() + "/" + student.getAge() + "/" + student.getGrade(), what);
+    }
+
+    private static void assertSameResponses(List<StudentResponse> responses, List<Student> students, String what) {
+        List<String> expected = students.stream()
+                .sorted(Comparator.comparing(Student::getId))
+                .map(s -> s.getId() + "/" + s.getName() + "/" + s.getAge() + "/" + s.getGrade())
+                .toList();
+        List<String> actual = responses.stream()
+                .sorted(Comparator.comparing(StudentResponse::getId))
+                .map(s -> s.getId() + "/" + s.getName() + "/" + s.getAge() + "/" + s.getGrade())
+                .toList();
+        assertEquals(expected, actual, what);
+    }
+
+    private static List<Long> ids(List<Student> students) {
+        return students.stream().map(Student::getId).toList();
+    }
+
+    private static Student byId(List<Student> students, long id) {
+        return students.stream().filter(s -> s.getId() == id).findFirst().orElseThrow();
+    }
+
+    private static boolean between(Student student, int minAge, int maxAge, String grade) {
+        return student.getAge() >= minAge && student.getAge() <= maxAge
+                && (grade == null || Objects.equals(grade, student.getGrade()));
+    }
+
+    /**
+     * The application with the given storage backend on a fresh, empty store:
+     * own in-memory H2 databases, own mmap directory, no web server, no gRPC
+     * (command-line arguments, because application.properties overrides builder defaults)
+     */
+    private static ConfigurableApplicationContext startContext(String backend, Path mmapDir) {
+        String database = backend + "-test" + RUN.incrementAndGet();
+        String shards = String.join(",", Stream.of(0, 1, 2, 3)
+                .map(i -> "jdbc:h2:mem:" + database + "-shard" + i + ";DB_CLOSE_DELAY=-1").toList());
+        return new SpringApplicationBuilder(CrudApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--app.storage.backend=" + backend,
+                        "--spring.datasource.url=jdbc:h2:mem:" + database,
+                        "--app.sharding.urls=" + shards,
+                        "--app.mmap.dir=" + mmapDir,
+                        "--app.grpc.enabled=false",
+                        "--app.sql-monitor.enabled=false",
+                        "--spring.main.banner-mode=off",
+                        "--logging.level.root=WARN",
+                        "--logging.level.org.springframework=WARN",
+                        "--logging.level.com.learning.crud=WARN");
+    }
+}
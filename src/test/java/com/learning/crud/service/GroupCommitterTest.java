@@ -0,0 +1,124 @@
+package com.learning.crud.service;
+
+import com.learning.crud.changefeed.StudentChangeFeed;
+import com.learning.crud.dictionary.GradeDictionary;
+import com.learning.crud.entity.Student;
+import com.learning.crud.repository.InMemoryStudentStore;
+import com.learning.crud.repository.JdbcStudentStore;
+import com.learning.crud.repository.StudentStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * GROUP COMMIT: A failed batch never saves a student twice
+ *
+ * The change feed insert of the first batch fails. On a store inside the
+ * transaction (jdbc) the batch is rolled back and retried one by one; on
+ * a store outside it (memory) the students are already kept, so the
+ * batch's callers get the error instead of a second copy of each student.
+ */
+class GroupCommitterTest {
+
+    private static final int STUDENTS = 40;
+
+    // Every test gets its own in-memory database
+    private static final AtomicLong RUN = new AtomicLong();
+
+    @Test
+    void storeInsideTheTransactionRetriesTheFailedBatchOneByOne() throws InterruptedException {
+        DataSource dataSource = database();
+        StudentStore store = new JdbcStudentStore(new JdbcTemplate(dataSource), new GradeDictionary(dataSource));
+
+        int failedCallers = saveConcurrently(store, dataSource);
+
+        assertEquals(0, failedCallers, "every student of the failed batch is saved by the retry");
+        assertEquals(STUDENTS, store.count(), "students saved");
+    }
+
+    @Test
+    void storeOutsideTheTransactionFailsTheBatchInsteadOfSavingItTwice() throws InterruptedException {
+        StudentStore store = new InMemoryStudentStore();
+
+        int failedCallers = saveConcurrently(store, database());
+
+        assertTrue(failedCallers > 1, "the callers of the failed batch get the error (got " + failedCallers + ")");
+        assertEquals(STUDENTS, store.count(), "students saved: each exactly once");
+    }
+
+    /**
+     * Saves STUDENTS students from as many threads at once; returns how many callers got an error
+     */
+    private static int saveConcurrently(StudentStore store, DataSource dataSource) throws InterruptedException {
+        // Collects for up to 200 ms, so the first batch holds many students
+        GroupCommitter committer = new GroupCommitter(store, new FailingOnceFeed(),
+                new DataSourceTransactionManager(dataSource), new SimpleMeterRegistry(), true, 256, 200_000);
+        committer.start();
+
+        CountDownLatch go = new CountDownLatch(1);
+        AtomicInteger failedCallers = new AtomicInteger();
+        List<Thread> callers = new ArrayList<>();
+        for (int i = 0; i < STUDENTS; i++) {
+            Student student = new Student("Student " + i, 10 + i % 10, "A");
+            Thread caller = new Thread(() -> {
+                try {
+                    go.await();
+                    committer.save(student);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                } catch (RuntimeException ex) {
+                    failedCallers.incrementAndGet();
+                }
+            });
+            caller.start();
+            callers.add(caller);
+        }
+        go.countDown();
+        for (Thread caller : callers) {
+            caller.join();
+        }
+        committer.stop();
+        return failedCallers.get();
+    }
+
+    private static DataSource database() {
+        DataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:group-commit-" + RUN.incrementAndGet() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        new ResourceDatabasePopulator(new ClassPathResource("db/schema-h2.sql")).execute(dataSource);
+        return dataSource;
+    }
+
+    /**
+     * A change feed whose first insert fails (the first batch); it records nothing
+     */
+    private static final class FailingOnceFeed extends StudentChangeFeed {
+
+        private final AtomicBoolean failed = new AtomicBoolean();
+
+        FailingOnceFeed() {
+            super(null, null, 1);
+        }
+
+        @Override
+        public void recordCreated(List<Student> students) {
+            if (failed.compareAndSet(false, true)) {
+                throw new IllegalStateException("Change feed insert failed");
+            }
+        }
+    }
+}
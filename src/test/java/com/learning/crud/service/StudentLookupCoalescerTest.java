@@ -0,0 +1,201 @@
+package com.learning.crud.service;
+
+import com.learning.crud.datasource.ConsistencyContext;
+import com.learning.crud.dto.StudentResponse;
+import com.learning.crud.entity.Student;
+import com.learning.crud.repository.InMemoryStudentStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * STUDENT LOOKUP COALESCER: Overlapping lookups of one student share a read - and its result or error
+ */
+class StudentLookupCoalescerTest {
+
+    private static final int FOLLOWERS = 8;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SlowStore store = new SlowStore();
+    private final ExecutorService callers = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void stopCallers() {
+        store.release.countDown();
+        callers.shutdownNow();
+    }
+
+    @Test
+    void overlappingLookupsShareOneRead() throws Exception {
+        long id = store.save(new Student("Ann", 15, "A")).getId();
+        StudentLookupCoalescer coalescer = coalescer(true);
+
+        List<CompletableFuture<Optional<StudentResponse>>> lookups = lookUpTogether(coalescer, id);
+        store.release.countDown();
+
+        StudentResponse leaders = lookups.get(0).get(5, TimeUnit.SECONDS).orElseThrow();
+        for (CompletableFuture<Optional<StudentResponse>> lookup : lookups) {
+            assertSame(leaders, lookup.get(5, TimeUnit.SECONDS).orElseThrow(), "every lookup gets the leader's answer");
+        }
+        assertEquals("Ann", leaders.getName());
+        assertEquals(1, store.reads.get());
+        assertEquals(FOLLOWERS, meterRegistry.counter("students.lookups.coalesced").count());
+    }
+
+    @Test
+    void notFoundIsSharedToo() throws Exception {
+        StudentLookupCoalescer coalescer = coalescer(true);
+
+        List<CompletableFuture<Optional<StudentResponse>>> lookups = lookUpTogether(coalescer, 404L);
+        store.release.countDown();
+
+        for (CompletableFuture<Optional<StudentResponse>> lookup : lookups) {
+            assertTrue(lookup.get(5, TimeUnit.SECONDS).isEmpty());
+        }
+        assertEquals(1, store.reads.get());
+    }
+
+    @Test
+    void waitersGetTheLeadersOwnError() throws Exception {
+        IllegalStateException failure = new IllegalStateException("database down");
+        store.failure = failure;
+        StudentLookupCoalescer coalescer = coalescer(true);
+
+        List<CompletableFuture<Optional<StudentResponse>>> lookups = lookUpTogether(coalescer, 1L);
+        store.release.countDown();
+
+        for (CompletableFuture<Optional<StudentResponse>> lookup : lookups) {
+            Exception thrown = assertThrows(Exception.class, () -> lookup.get(5, TimeUnit.SECONDS));
+            assertSame(failure, thrown.getCause(), "not wrapped in a CompletionException");
+        }
+        assertEquals(1, store.reads.get());
+    }
+
+    @Test
+    void laterLookupsReadAgain() {
+        long id = store.save(new Student("Ann", 15, "A")).getId();
+        store.release.countDown();
+        StudentLookupCoalescer coalescer = coalescer(true);
+
+        coalescer.findResponseById(id);
+        store.failure = new IllegalStateException("database down");
+        assertThrows(IllegalStateException.class, () -> coalescer.findResponseById(id));
+        store.failure = null;
+        coalescer.findResponseById(id);
+
+        // Nothing is cached, not even the error
+        assertEquals(3, store.reads.get());
+    }
+
+    @Test
+    void lookupThatMustSeeMoreReadsOnItsOwn() throws Exception {
+        long id = store.save(new Student("Ann", 15, "A")).getId();
+        StudentLookupCoalescer coalescer = coalescer(true);
+        CompletableFuture<Optional<StudentResponse>> leader =
+                CompletableFuture.supplyAsync(() -> coalescer.findResponseById(id), callers);
+        assertTrue(store.started.await(5, TimeUnit.SECONDS));
+
+        // A consistency token newer than the running read: joining it could miss the caller's own write
+        CompletableFuture<Optional<StudentResponse>> newer = CompletableFuture.supplyAsync(() -> {
+            ConsistencyContext.require(id);
+            try {
+                return coalescer.findResponseById(id);
+            } finally {
+                ConsistencyContext.clear();
+            }
+        }, callers);
+        waitUntil(() -> store.reads.get() == 2);
+        store.release.countDown();
+
+        assertTrue(leader.get(5, TimeUnit.SECONDS).isPresent());
+        assertTrue(newer.get(5, TimeUnit.SECONDS).isPresent());
+        assertEquals(0, meterRegistry.counter("students.lookups.coalesced").count());
+    }
+
+    @Test
+    void disabledCoalescerReadsEveryTime() throws Exception {
+        long id = store.save(new Student("Ann", 15, "A")).getId();
+        StudentLookupCoalescer coalescer = coalescer(false);
+
+        List<CompletableFuture<Optional<StudentResponse>>> lookups = new ArrayList<>();
+        for (int i = 0; i <= FOLLOWERS; i++) {
+            lookups.add(CompletableFuture.supplyAsync(() -> coalescer.findResponseById(id), callers));
+        }
+        waitUntil(() -> store.reads.get() == FOLLOWERS + 1);
+        store.release.countDown();
+
+        for (CompletableFuture<Optional<StudentResponse>> lookup : lookups) {
+            assertTrue(lookup.get(5, TimeUnit.SECONDS).isPresent());
+        }
+    }
+
+    private StudentLookupCoalescer coalescer(boolean enabled) {
+        return new StudentLookupCoalescer(store, meterRegistry, enabled);
+    }
+
+    /**
+     * One leader that is stuck in the store, then FOLLOWERS lookups of the same ID
+     * that are all waiting for it; the caller releases the store
+     */
+    private List<CompletableFuture<Optional<StudentResponse>>> lookUpTogether(StudentLookupCoalescer coalescer, long id)
+            throws InterruptedException {
+        List<CompletableFuture<Optional<StudentResponse>>> lookups = new ArrayList<>();
+        lookups.add(CompletableFuture.supplyAsync(() -> coalescer.findResponseById(id), callers));
+        assertTrue(store.started.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < FOLLOWERS; i++) {
+            lookups.add(CompletableFuture.supplyAsync(() -> coalescer.findResponseById(id), callers));
+        }
+        waitUntil(() -> meterRegistry.counter("students.lookups.coalesced").count() == FOLLOWERS);
+        return lookups;
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not reached within 5 seconds");
+            Thread.sleep(1);
+        }
+    }
+
+    /**
+     * Every read waits for release (and then fails, if failure is set)
+     */
+    private static final class SlowStore extends InMemoryStudentStore {
+
+        private final AtomicInteger reads = new AtomicInteger();
+        private final CountDownLatch started = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private volatile RuntimeException failure;
+
+        @Override
+        public Optional<StudentResponse> findResponseById(Long id) {
+            reads.incrementAndGet();
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            return super.findResponseById(id);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.learning.crud.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * NAME SEARCH INDEX: Prefix and fuzzy search on the trie
+ *
+ * Searches never read the database (only rebuild() does), so the index
+ * is built without a store.
+ */
+class StudentNameIndexTest {
+
+    private final StudentNameIndex index = new StudentNameIndex(null);
+
+    @Test
+    void prefixFindsFullNamesAndEveryWord() {
+        addSchool();
+
+        assertEquals(Set.of(1L, 2L, 3L, 5L), Set.copyOf(index.searchPrefix("jo", 10)));
+        assertEquals(List.of(1L), index.searchPrefix("doe", 10));
+        assertEquals(List.of(1L), index.searchPrefix("john d", 10));
+        assertEquals(List.of(), index.searchPrefix("x", 10));
+    }
+
+    @Test
+    void searchIgnoresCaseAndExtraSpaces() {
+        addSchool();
+
+        assertEquals(List.of(1L), index.searchPrefix("  JOHN   Doe ", 10));
+        assertEquals(List.of(4L), index.searchFuzzy(" PETRE ", 10));
+    }
+
+    @Test
+    void prefixReturnsEachStudentOnceAndStopsAtTheLimit() {
+        addSchool();
+
+        // John Doe is under "john doe" AND "john": still one result
+        assertEquals(List.of(1L), index.searchPrefix("john", 10));
+        assertEquals(2, index.searchPrefix("jo", 2).size());
+    }
+
+    @Test
+    void fuzzyToleratesATypo() {
+        addSchool();
+
+        assertTrue(index.searchFuzzy("jhon", 10).contains(1L), "swapped letters");
+        assertTrue(index.searchFuzzy("jon", 10).contains(1L), "missing letter");
+        assertTrue(index.searchFuzzy("smyth", 10).contains(2L), "wrong letter");
+        assertTrue(index.searchFuzzy("jnathn", 10).contains(5L), "two edits in a long word");
+    }
+
+    @Test
+    void fuzzyRejectsWordsTooFarAway() {
+        addSchool();
+
+        // Short words allow one edit, "jxxn" is two away from "john"
+        assertFalse(index.searchFuzzy("jxxn", 10).contains(1L));
+        assertFalse(index.searchFuzzy("jon", 10).contains(3L), "\"jones\" is two inserts away");
+    }
+
+    @Test
+    void fuzzyPutsCloserMatchesFirst() {
+        index.add(1L, "John Smith");
+        index.add(2L, "Jon Snow");
+
+        assertEquals(List.of(2L, 1L), index.searchFuzzy("jon", 10));
+        assertEquals(List.of(2L), index.searchFuzzy("jon", 1));
+    }
+
+    @Test
+    void emptyTermsAndNamesFindNothing() {
+        index.add(1L, "   ");
+        index.add(2L, null);
+        index.add(null, "No Id");
+
+        assertEquals(List.of(), index.searchPrefix("", 10));
+        assertEquals(List.of(), index.searchPrefix(null, 10));
+        assertEquals(List.of(), index.searchFuzzy("  ", 10));
+        assertEquals(List.of(), index.searchPrefix("no", 10));
+    }
+
+    @Test
+    void namesAddedFromManyThreadsAreAllFound() throws InterruptedException {
+        int threads = 8;
+        int perThread = 1_000;
+        List<Thread> writers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int first = t * perThread;
+            Thread writer = new Thread(() -> {
+                for (long id = first; id < first + perThread; id++) {
+                    // Shared prefixes, so the threads add children to the same nodes
+                    index.add(id, "Student " + id);
+                }
+            });
+            writer.start();
+            writers.add(writer);
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+
+        Set<Long> found = new HashSet<>(index.searchPrefix("student", threads * perThread));
+        assertEquals(threads * perThread, found.size());
+        assertEquals(List.of(4321L), index.searchPrefix("4321", 10));
+    }
+
+    private void addSchool() {
+        index.add(1L, "John Doe");
+        index.add(2L, "Joanna Smith");
+        index.add(3L, "Mary Jones");
+        index.add(4L, "Peter Pan");
+        index.add(5L, "Jonathan Price");
+    }
+}
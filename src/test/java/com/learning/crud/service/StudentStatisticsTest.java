@@ -0,0 +1,125 @@
+package com.learning.crud.service;
+
+import com.learning.crud.dto.StudentStatsResponse;
+import com.learning.crud.entity.Student;
+import com.learning.crud.repository.InMemoryStudentStore;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * STUDENT STATISTICS: Live counters, and reconcile() fixing them while students are written
+ */
+class StudentStatisticsTest {
+
+    @Test
+    void countsEveryRecordedStudent() {
+        StudentStatistics statistics = new StudentStatistics(new InMemoryStudentStore());
+
+        statistics.recordCreate("A", 15);
+        statistics.recordCreate("A", 16);
+        statistics.recordCreate("B", 15);
+
+        StudentStatsResponse stats = statistics.snapshot();
+        assertEquals(3, stats.getTotalStudents());
+        assertEquals(Map.of("A", 2L, "B", 1L), grades(stats));
+        assertEquals(Map.of(15, 2L, 16, 1L), ages(stats));
+    }
+
+    @Test
+    void reconcileReplacesDriftedCountersWithTheDatabaseNumbers() {
+        InMemoryStudentStore store = new InMemoryStudentStore();
+        StudentStatistics statistics = new StudentStatistics(store);
+        // Saved but never counted, and counted but never saved
+        store.save(new Student("Ann", 15, "A"));
+        store.save(new Student("Bob", 16, "B"));
+        statistics.recordCreate("C", 17);
+
+        statistics.reconcile();
+
+        StudentStatsResponse stats = statistics.snapshot();
+        assertEquals(2, stats.getTotalStudents());
+        assertEquals(Map.of("A", 1L, "B", 1L), grades(stats));
+        assertEquals(Map.of(15, 1L, 16, 1L), ages(stats));
+    }
+
+    @Test
+    void reconcileKeepsTheWritesMadeWhileTheDatabaseCounts() {
+        WritingWhileCountingStore store = new WritingWhileCountingStore();
+        StudentStatistics statistics = new StudentStatistics(store);
+        store.statistics = statistics;
+        // Drift the reconcile has to fix even though writes keep coming
+        store.save(new Student("Ann", 15, "A"));
+
+        statistics.reconcile();
+
+        // Ann (drift) + one student saved after each of the two count queries
+        StudentStatsResponse stats = statistics.snapshot();
+        assertEquals(3, store.count());
+        assertEquals(3, stats.getTotalStudents());
+        assertEquals(Map.of("A", 1L, "W", 2L), grades(stats));
+        assertEquals(Map.of(15, 1L, 20, 2L), ages(stats));
+    }
+
+    @Test
+    void bulkUpdateRecountsTheChangedStudents() {
+        InMemoryStudentStore store = new InMemoryStudentStore();
+        StudentStatistics statistics = new StudentStatistics(store);
+        for (Student student : store.saveAll(List.of(
+                new Student("Ann", 15, "B"), new Student("Bob", 16, "B"), new Student("Cid", 17, "C")))) {
+            statistics.recordCreate(student.getGrade(), student.getAge());
+        }
+
+        store.updateGrade(1, 3, "B", "A");
+        store.shiftAges(1, 3, 1);
+        statistics.recordBulkUpdate();
+
+        StudentStatsResponse stats = statistics.snapshot();
+        assertEquals(3, stats.getTotalStudents());
+        assertEquals(Map.of("A", 2L, "C", 1L), grades(stats));
+        assertEquals(Map.of(16, 1L, 17, 1L, 18, 1L), ages(stats));
+    }
+
+    private static Map<String, Long> grades(StudentStatsResponse stats) {
+        return stats.getGrades().stream().collect(Collectors.toMap(
+                StudentStatsResponse.GradeCount::getGrade, StudentStatsResponse.GradeCount::getCount, Long::sum, TreeMap::new));
+    }
+
+    private static Map<Integer, Long> ages(StudentStatsResponse stats) {
+        return stats.getAges().stream().collect(Collectors.toMap(
+                StudentStatsResponse.AgeCount::getAge, StudentStatsResponse.AgeCount::getCount, Long::sum, TreeMap::new));
+    }
+
+    /**
+     * Right after each count query, another caller saves and counts a student:
+     * a write the count did not see (it committed after the query)
+     */
+    private static final class WritingWhileCountingStore extends InMemoryStudentStore {
+
+        private StudentStatistics statistics;
+
+        @Override
+        public Map<String, Long> countByGrade() {
+            Map<String, Long> counts = super.countByGrade();
+            writeAnotherStudent();
+            return counts;
+        }
+
+        @Override
+        public Map<Integer, Long> countByAge() {
+            Map<Integer, Long> counts = super.countByAge();
+            writeAnotherStudent();
+            return counts;
+        }
+
+        private void writeAnotherStudent() {
+            Student saved = save(new Student("Writer", 20, "W"));
+            statistics.recordCreate(saved.getGrade(), saved.getAge());
+        }
+    }
+}